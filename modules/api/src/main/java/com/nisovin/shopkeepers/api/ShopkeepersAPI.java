@@ -12,6 +12,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.ShopTypesRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.offers.BookOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.OfferIndex;
 import com.nisovin.shopkeepers.api.shopkeeper.offers.PriceOffer;
 import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
 import com.nisovin.shopkeepers.api.shopobjects.DefaultShopObjectTypes;
@@ -148,6 +149,18 @@ public final class ShopkeepersAPI {
 		return getPlugin().getShopkeeperRegistry();
 	}
 
+	// OFFER INDEX
+
+	/**
+	 * Gets the {@link OfferIndex}.
+	 * 
+	 * @return the offer index
+	 * @see ShopkeepersPlugin#getOfferIndex()
+	 */
+	public static OfferIndex getOfferIndex() {
+		return getPlugin().getOfferIndex();
+	}
+
 	// STORAGE
 
 	/**
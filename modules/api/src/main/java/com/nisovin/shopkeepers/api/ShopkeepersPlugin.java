@@ -11,6 +11,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.ShopTypesRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.offers.BookOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.OfferIndex;
 import com.nisovin.shopkeepers.api.shopkeeper.offers.PriceOffer;
 import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
 import com.nisovin.shopkeepers.api.shopobjects.DefaultShopObjectTypes;
@@ -77,6 +78,11 @@ public interface ShopkeepersPlugin extends Plugin {
 	 */
 	public static final String LIST_ADMIN_PERMISSION = "shopkeeper.list.admin";
 
+	/**
+	 * The <code>shopkeeper.search</code> permission.
+	 */
+	public static final String SEARCH_PERMISSION = "shopkeeper.search";
+
 	/**
 	 * The <code>shopkeeper.remove.own</code> permission.
 	 */
@@ -155,6 +161,10 @@ public interface ShopkeepersPlugin extends Plugin {
 	 * The <code>shopkeeper.setforhire</code> permission.
 	 */
 	public static final String SET_FOR_HIRE_PERMISSION = "shopkeeper.setforhire";
+	/**
+	 * The <code>shopkeeper.linkcontainers</code> permission.
+	 */
+	public static final String LINK_CONTAINERS_PERMISSION = "shopkeeper.linkcontainers";
 	/**
 	 * The <code>shopkeeper.hire</code> permission.
 	 */
@@ -277,6 +287,15 @@ public interface ShopkeepersPlugin extends Plugin {
 	 */
 	public ShopkeeperRegistry getShopkeeperRegistry();
 
+	// OFFER INDEX
+
+	/**
+	 * Gets the {@link OfferIndex}.
+	 * 
+	 * @return the offer index
+	 */
+	public OfferIndex getOfferIndex();
+
 	// STORAGE
 
 	/**
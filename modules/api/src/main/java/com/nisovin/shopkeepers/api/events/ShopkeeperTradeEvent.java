@@ -19,6 +19,11 @@ import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
  * successive trades (possibly even using different trading recipes). Canceling a trade will also
  * cancel all successive trades.
  * <p>
+ * Trades can also be applied without any trading UI via
+ * {@link Shopkeeper#trade(Player, TradingRecipe, int)}. These trades are {@link #isSimulated()
+ * simulated}: Their {@link #getClickEvent() click event} is a cancelled placeholder event that has
+ * not been called.
+ * <p>
  * All other preconditions regarding the trade have already been checked before this event gets
  * called. So if this event does not get cancelled you can assume that the trade is going to get
  * applied.
@@ -35,6 +40,7 @@ public class ShopkeeperTradeEvent extends ShopkeeperEvent implements Cancellable
 	private final UnmodifiableItemStack offeredItem1;
 	private final @Nullable UnmodifiableItemStack offeredItem2;
 	private final boolean swappedItemOrder;
+	private final boolean simulated;
 	private boolean cancelled = false;
 
 	/**
@@ -68,6 +74,54 @@ public class ShopkeeperTradeEvent extends ShopkeeperEvent implements Cancellable
 			UnmodifiableItemStack offeredItem1,
 			@Nullable UnmodifiableItemStack offeredItem2,
 			boolean swappedItemOrder
+	) {
+		this(
+				shopkeeper,
+				player,
+				clickEvent,
+				tradingRecipe,
+				offeredItem1,
+				offeredItem2,
+				swappedItemOrder,
+				false
+		);
+	}
+
+	/**
+	 * Creates a new {@link ShopkeeperTradeEvent}.
+	 * <p>
+	 * The offered items are expected to be immutable and their stack sizes match the trading recipe
+	 * items.
+	 * 
+	 * @param shopkeeper
+	 *            the involved shopkeeper, not <code>null</code>
+	 * @param player
+	 *            the trading player, not <code>null</code>
+	 * @param clickEvent
+	 *            the click event that triggered the trade, or a cancelled placeholder event if the
+	 *            trade is simulated, not <code>null</code>
+	 * @param tradingRecipe
+	 *            the trading recipe, not <code>null</code>
+	 * @param offeredItem1
+	 *            the offered item that matches the first required item of the trading recipe, not
+	 *            <code>null</code> or empty
+	 * @param offeredItem2
+	 *            the offered item that matches the second required item of the trading recipe, can
+	 *            be <code>null</code>
+	 * @param swappedItemOrder
+	 *            <code>true</code> if the player provided the offered items in reverse order
+	 * @param simulated
+	 *            <code>true</code> if the trade is not triggered via a trading UI
+	 */
+	public ShopkeeperTradeEvent(
+			Shopkeeper shopkeeper,
+			Player player,
+			InventoryClickEvent clickEvent,
+			TradingRecipe tradingRecipe,
+			UnmodifiableItemStack offeredItem1,
+			@Nullable UnmodifiableItemStack offeredItem2,
+			boolean swappedItemOrder,
+			boolean simulated
 	) {
 		super(shopkeeper);
 		Preconditions.checkNotNull(player, "player is null");
@@ -80,6 +134,7 @@ public class ShopkeeperTradeEvent extends ShopkeeperEvent implements Cancellable
 		this.offeredItem1 = offeredItem1;
 		this.offeredItem2 = offeredItem2; // Can be null
 		this.swappedItemOrder = swappedItemOrder;
+		this.simulated = simulated;
 	}
 
 	/**
@@ -97,6 +152,9 @@ public class ShopkeeperTradeEvent extends ShopkeeperEvent implements Cancellable
 	 * Note that a single inventory click event can trigger multiple consecutive trades.
 	 * <p>
 	 * Do not modify the click event or any of the involved items! It needs to remain cancelled.
+	 * <p>
+	 * If the trade is {@link #isSimulated() simulated}, this is a cancelled placeholder event for a
+	 * click outside the player's currently open inventory view. It has not been called.
 	 * 
 	 * @return the inventory click event, not <code>null</code>
 	 */
@@ -104,6 +162,16 @@ public class ShopkeeperTradeEvent extends ShopkeeperEvent implements Cancellable
 		return clickEvent;
 	}
 
+	/**
+	 * Checks whether this trade is not triggered via a trading UI, but applied via
+	 * {@link Shopkeeper#trade(Player, TradingRecipe, int)}.
+	 * 
+	 * @return <code>true</code> if the trade is simulated
+	 */
+	public boolean isSimulated() {
+		return simulated;
+	}
+
 	/**
 	 * Gets the trading recipe used by this trade.
 	 * 
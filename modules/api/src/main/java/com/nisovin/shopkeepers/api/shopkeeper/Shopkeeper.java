@@ -9,6 +9,7 @@ import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.nisovin.shopkeepers.api.events.ShopkeeperTradeEvent;
 import com.nisovin.shopkeepers.api.shopobjects.ShopObject;
 import com.nisovin.shopkeepers.api.storage.ShopkeeperStorage;
 import com.nisovin.shopkeepers.api.ui.UIRegistry;
@@ -377,6 +378,35 @@ public interface Shopkeeper {
 	 */
 	public List<? extends @NonNull TradingRecipe> getTradingRecipes(@Nullable Player player);
 
+	/**
+	 * Applies the given trading recipe up to the specified number of times for the given player,
+	 * without opening a trading UI.
+	 * <p>
+	 * The required items are taken from the player's inventory, and the result items are added to
+	 * it. Each trade is processed like a trade that is triggered by the player via the trading UI:
+	 * The shopkeeper checks whether the trade can take place (e.g. whether a player shop has enough
+	 * stock), a {@link ShopkeeperTradeEvent} is called for each trade, and the trades are logged
+	 * like any other trades. However, these trades are {@link ShopkeeperTradeEvent#isSimulated()
+	 * simulated}: Their {@link ShopkeeperTradeEvent#getClickEvent() click event} is a cancelled
+	 * placeholder event.
+	 * <p>
+	 * The given trading recipe has to match the items of one of the shopkeeper's current
+	 * {@link #getTradingRecipes(Player) trading recipes} for the player. Whether the recipe is
+	 * marked as {@link TradingRecipe#isOutOfStock() out of stock} is ignored.
+	 * <p>
+	 * This does not check whether the player has the permission to trade with this shopkeeper. The
+	 * trading stops at the first trade that cannot be applied.
+	 * 
+	 * @param player
+	 *            the trading player, not <code>null</code>
+	 * @param tradingRecipe
+	 *            the trading recipe, not <code>null</code>
+	 * @param tradeCount
+	 *            the number of trades to apply, has to be positive
+	 * @return the result, not <code>null</code>
+	 */
+	public TradeResult trade(Player player, TradingRecipe tradingRecipe, int tradeCount);
+
 	// SHOPKEEPER UIs
 
 	/**
@@ -0,0 +1,69 @@
+package com.nisovin.shopkeepers.api.shopkeeper;
+
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.events.ShopkeeperTradeEvent;
+
+/**
+ * The result of trades that have been applied via
+ * {@link Shopkeeper#trade(Player, TradingRecipe, int)}.
+ * <p>
+ * Instances of this are immutable.
+ */
+public interface TradeResult {
+
+	/**
+	 * The reasons for why the trading stopped before all of the requested trades were applied.
+	 */
+	public enum AbortReason {
+		/**
+		 * The shopkeeper does not offer the requested trading recipe to the trading player, or
+		 * does not support trading at all.
+		 */
+		UNKNOWN_TRADING_RECIPE,
+		/**
+		 * The inventory of the trading player does not contain the items required by the trading
+		 * recipe.
+		 */
+		MISSING_ITEMS,
+		/**
+		 * The inventory of the trading player does not have enough space for the result item.
+		 */
+		INSUFFICIENT_SPACE,
+		/**
+		 * The trade was cancelled by the shopkeeper (e.g. because its container is out of stock or
+		 * full), or a plugin cancelled the corresponding {@link ShopkeeperTradeEvent}.
+		 */
+		CANCELLED;
+	}
+
+	/**
+	 * Gets the number of trades that were requested.
+	 * 
+	 * @return the number of requested trades
+	 */
+	public int getRequestedTrades();
+
+	/**
+	 * Gets the number of trades that were successfully applied.
+	 * 
+	 * @return the number of completed trades, between <code>0</code> and
+	 *         {@link #getRequestedTrades()}
+	 */
+	public int getCompletedTrades();
+
+	/**
+	 * Checks whether all of the requested trades were applied.
+	 * 
+	 * @return <code>true</code> if all requested trades were applied
+	 */
+	public boolean isComplete();
+
+	/**
+	 * Gets the reason for why the trading stopped before all of the requested trades were applied.
+	 * 
+	 * @return the abort reason, or <code>null</code> if the trading {@link #isComplete() completed}
+	 */
+	public @Nullable AbortReason getAbortReason();
+}
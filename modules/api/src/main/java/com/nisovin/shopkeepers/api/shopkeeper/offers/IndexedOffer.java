@@ -0,0 +1,75 @@
+package com.nisovin.shopkeepers.api.shopkeeper.offers;
+
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+
+/**
+ * An offer of a shopkeeper that has been found via the {@link OfferIndex}.
+ * <p>
+ * An indexed offer describes the trading of a certain item by a shopkeeper, either from the shop
+ * to the trading player ({@link #isSelling() selling}), or from the trading player to the shop
+ * (buying). Offers that trade several items, such as the trade offers of admin shops, are indexed
+ * once for each of the involved items.
+ * <p>
+ * Instances of this are immutable snapshots: They reflect the shopkeeper's offers at the time they
+ * were indexed, and the {@link #getStock() stock} at the time of the query that returned them. They
+ * are not updated when the shopkeeper's offers or stock change afterwards.
+ */
+public interface IndexedOffer {
+
+	/**
+	 * Indicates that the shopkeeper can trade this offer an unlimited number of times, for example
+	 * because it is an admin shopkeeper.
+	 */
+	public static final int UNLIMITED_STOCK = -1;
+	/**
+	 * Indicates that the stock of this offer is currently unknown, for example because the
+	 * container of the player shopkeeper is located in a chunk that is not loaded.
+	 */
+	public static final int UNKNOWN_STOCK = -2;
+
+	/**
+	 * Gets the shopkeeper that provides this offer.
+	 * 
+	 * @return the shopkeeper, not <code>null</code>
+	 */
+	public Shopkeeper getShopkeeper();
+
+	/**
+	 * Gets the item that is traded by this offer.
+	 * <p>
+	 * The amount of the returned item matches the amount of the item that is traded by a single
+	 * trade.
+	 * 
+	 * @return an unmodifiable view on the item, not <code>null</code> or empty
+	 */
+	public UnmodifiableItemStack getItem();
+
+	/**
+	 * Checks whether the shopkeeper sells the {@link #getItem() item} to players, or buys it from
+	 * players.
+	 * 
+	 * @return <code>true</code> if the shopkeeper sells the item, <code>false</code> if it buys the
+	 *         item
+	 */
+	public boolean isSelling();
+
+	/**
+	 * Gets the price of this offer.
+	 * <p>
+	 * The price is the total value of the currency items that are traded in exchange for the
+	 * {@link #getItem() item} by a single trade.
+	 * 
+	 * @return the price, or <code>-1</code> if the item is traded in exchange for items that are
+	 *         not currency items
+	 */
+	public int getPrice();
+
+	/**
+	 * Gets the number of times this offer could be traded at the time of the query that returned
+	 * this offer, based on the last known contents of the shop's container.
+	 * 
+	 * @return the number of possible trades, {@link #UNLIMITED_STOCK}, or {@link #UNKNOWN_STOCK}
+	 */
+	public int getStock();
+}
@@ -0,0 +1,61 @@
+package com.nisovin.shopkeepers.api.shopkeeper.offers;
+
+import java.util.List;
+
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+
+/**
+ * An index of the offers of all loaded shopkeepers by the items they trade.
+ * <p>
+ * This allows to quickly find the shopkeepers that sell or buy a certain item, without having to
+ * iterate the offers of all shopkeepers. Items are matched based on their type and item data, but
+ * regardless of their amount.
+ * <p>
+ * The index is updated when shopkeepers are added, removed, or their offers change. The
+ * {@link IndexedOffer#getStock() stock} of player shop offers is based on the last known contents
+ * of their containers, which is refreshed periodically and when the container contents are known
+ * to have changed.
+ */
+public interface OfferIndex {
+
+	/**
+	 * Gets the offers that sell the given item to players.
+	 * 
+	 * @param item
+	 *            the item, not <code>null</code> or empty
+	 * @return the offers, not <code>null</code>, can be empty
+	 */
+	public List<? extends @NonNull IndexedOffer> getSellingOffers(ItemStack item);
+
+	/**
+	 * Gets the offers that sell the given item to players.
+	 * 
+	 * @param item
+	 *            the item, not <code>null</code> or empty
+	 * @return the offers, not <code>null</code>, can be empty
+	 * @see #getSellingOffers(ItemStack)
+	 */
+	public List<? extends @NonNull IndexedOffer> getSellingOffers(UnmodifiableItemStack item);
+
+	/**
+	 * Gets the offers that buy the given item from players.
+	 * 
+	 * @param item
+	 *            the item, not <code>null</code> or empty
+	 * @return the offers, not <code>null</code>, can be empty
+	 */
+	public List<? extends @NonNull IndexedOffer> getBuyingOffers(ItemStack item);
+
+	/**
+	 * Gets the offers that buy the given item from players.
+	 * 
+	 * @param item
+	 *            the item, not <code>null</code> or empty
+	 * @return the offers, not <code>null</code>, can be empty
+	 * @see #getBuyingOffers(ItemStack)
+	 */
+	public List<? extends @NonNull IndexedOffer> getBuyingOffers(UnmodifiableItemStack item);
+}
@@ -0,0 +1,115 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.World;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+import com.nisovin.shopkeepers.shopkeeper.activation.ShopkeeperChunkActivator;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.bukkit.MutableChunkCoords;
+
+/**
+ * Benchmarks the chunk lookups and the chunk de-/activations of the
+ * {@link ShopkeeperChunkActivator}.
+ * <p>
+ * The registry is populated with {@link StubShopkeepers stub shopkeepers}. The world is a mock
+ * whose chunks are all loaded. The chunk lookups cover the chunks around the shopkeepers as well,
+ * since the activator also handles the load and unload events of chunks without shopkeepers.
+ * <p>
+ * The {@link #chunkLookupBaseline() baseline} looks up the same chunks in a map keyed by
+ * {@link ChunkCoords}, via a shared mutable key, as the activator did previously. There is no such
+ * baseline for the de-/activations: Compare their results with a run of the previous revision
+ * instead. Their results include the overhead of the mocked world's chunk load checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkActivatorBenchmarks extends AbstractBukkitTest {
+
+	private static final String WORLD_NAME = "world";
+	private static final int LOOKUP_CHUNK_RADIUS = 2 * StubShopkeepers.CHUNK_RADIUS;
+
+	@Param({ "10000" })
+	public int shopkeepersCount;
+
+	private World world;
+	private ShopkeeperChunkActivator chunkActivator;
+	private final MutableChunkCoords lookupChunkCoords = new MutableChunkCoords();
+	// The previous chunk data map, with the chunk activation states as values:
+	private final Map<@NonNull ChunkCoords, @NonNull Boolean> chunkCoordsMap = new HashMap<>();
+
+	@Setup
+	public void setup() throws ShopkeeperCreateException {
+		SKShopkeeperRegistry shopkeeperRegistry = StubShopkeepers.createRegistry(
+				WORLD_NAME,
+				shopkeepersCount
+		);
+		chunkActivator = shopkeeperRegistry.getChunkActivator();
+		shopkeeperRegistry.getShopkeepersByChunks(WORLD_NAME).keySet().forEach(chunkCoords -> {
+			chunkCoordsMap.put(chunkCoords, false);
+		});
+
+		// Load the world after the shopkeepers have been added, so that the chunks start inactive:
+		world = Mockito.mock(World.class);
+		Mockito.doReturn(WORLD_NAME).when(world).getName();
+		Mockito.doReturn(true).when(world).isChunkLoaded(Mockito.anyInt(), Mockito.anyInt());
+		addWorld(world);
+	}
+
+	@TearDown
+	public void tearDown() {
+		removeWorld(world);
+	}
+
+	@Benchmark
+	public int chunkLookup() {
+		int count = 0;
+		for (int chunkX = -LOOKUP_CHUNK_RADIUS; chunkX <= LOOKUP_CHUNK_RADIUS; chunkX++) {
+			for (int chunkZ = -LOOKUP_CHUNK_RADIUS; chunkZ <= LOOKUP_CHUNK_RADIUS; chunkZ++) {
+				lookupChunkCoords.set(WORLD_NAME, chunkX, chunkZ);
+				if (!chunkActivator.isChunkActive(lookupChunkCoords)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int chunkLookupBaseline() {
+		int count = 0;
+		for (int chunkX = -LOOKUP_CHUNK_RADIUS; chunkX <= LOOKUP_CHUNK_RADIUS; chunkX++) {
+			for (int chunkZ = -LOOKUP_CHUNK_RADIUS; chunkZ <= LOOKUP_CHUNK_RADIUS; chunkZ++) {
+				lookupChunkCoords.set(WORLD_NAME, chunkX, chunkZ);
+				Boolean active = chunkCoordsMap.get(lookupChunkCoords);
+				if (active == null || !active) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public void activateAndDeactivateChunks() {
+		// Activates and deactivates all chunks with shopkeepers, as on world load and unload:
+		chunkActivator.activateShopkeepersInAllWorlds();
+		chunkActivator.deactivateShopkeepersInAllWorlds();
+	}
+}
@@ -0,0 +1,85 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.inventory.InventoryUtils;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+
+/**
+ * Benchmarks the inventory operations that are used during trades with player shops, on the
+ * contents of a full double chest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InventoryBenchmarks extends AbstractBukkitTest {
+
+	private static final int DOUBLE_CHEST_SIZE = 54;
+
+	private UnmodifiableItemStack tradedItem;
+	private UnmodifiableItemStack otherItem;
+	// The traded item is located in the last slots of the chest, so that the other items need to
+	// be compared first.
+	private @Nullable ItemStack[] contents;
+
+	@Setup
+	public void setup() {
+		ItemStack item = TestItemStacks.createItemStackComplete();
+		item.setAmount(1);
+		tradedItem = UnmodifiableItemStack.ofNonNull(item);
+		otherItem = UnmodifiableItemStack.ofNonNull(TestItemStacks.createItemStackDisplayName());
+
+		contents = new @Nullable ItemStack[DOUBLE_CHEST_SIZE];
+		for (int slot = 0; slot < DOUBLE_CHEST_SIZE; slot++) {
+			if (slot < DOUBLE_CHEST_SIZE - 4) {
+				contents[slot] = ItemUtils.copyWithAmount(otherItem, otherItem.getMaxStackSize());
+			} else {
+				contents[slot] = ItemUtils.copyWithAmount(tradedItem, 32);
+			}
+		}
+	}
+
+	// The add and remove benchmarks modify the contents. Copying the contents is included in the
+	// measured time, but small compared to the item comparisons.
+	private @Nullable ItemStack[] copyContents() {
+		@Nullable ItemStack[] copy = new @Nullable ItemStack[contents.length];
+		for (int slot = 0; slot < contents.length; slot++) {
+			ItemStack item = contents[slot];
+			copy[slot] = (item != null) ? item.clone() : null;
+		}
+		return copy;
+	}
+
+	@Benchmark
+	public boolean containsAtLeast() {
+		return InventoryUtils.containsAtLeast(contents, tradedItem, 100);
+	}
+
+	@Benchmark
+	public int addItems() {
+		// Fills the partial stacks of the traded item.
+		return InventoryUtils.addItems(this.copyContents(), tradedItem, 100);
+	}
+
+	@Benchmark
+	public int removeItems() {
+		return InventoryUtils.removeItems(
+				this.copyContents(),
+				ItemUtils.similarItems(tradedItem),
+				100
+		);
+	}
+}
@@ -0,0 +1,70 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.inventory.ItemData;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+
+/**
+ * Benchmarks the item comparisons that are used to match the items of trades and inventories.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemMatchingBenchmarks extends AbstractBukkitTest {
+
+	private ItemStack item;
+	// Equal to, but a different instance than the item:
+	private ItemStack equalItem;
+	private UnmodifiableItemStack unmodifiableItem;
+	private ItemStack otherItem;
+	private ItemData itemData;
+
+	@Setup
+	public void setup() {
+		item = TestItemStacks.createItemStackComplete();
+		equalItem = TestItemStacks.createItemStackComplete();
+		unmodifiableItem = UnmodifiableItemStack.ofNonNull(
+				TestItemStacks.createItemStackComplete()
+		);
+		otherItem = TestItemStacks.createItemStackDisplayName();
+		itemData = new ItemData(TestItemStacks.createItemStackComplete());
+	}
+
+	@Benchmark
+	public boolean isSimilarEqual() {
+		return ItemUtils.isSimilar(item, equalItem);
+	}
+
+	@Benchmark
+	public boolean isSimilarUnmodifiable() {
+		return ItemUtils.isSimilar(unmodifiableItem, equalItem);
+	}
+
+	@Benchmark
+	public boolean isSimilarDifferent() {
+		return ItemUtils.isSimilar(item, otherItem);
+	}
+
+	@Benchmark
+	public boolean itemDataMatchesEqual() {
+		return itemData.matches(equalItem);
+	}
+
+	@Benchmark
+	public boolean itemDataMatchesDifferent() {
+		return itemData.matches(otherItem);
+	}
+}
@@ -0,0 +1,81 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.bukkit.MutableChunkCoords;
+
+/**
+ * Benchmarks the chunk and name queries of the {@link SKShopkeeperRegistry}.
+ * <p>
+ * The registry is populated with {@link StubShopkeepers stub shopkeepers}. No worlds are loaded,
+ * so the shopkeepers are not activated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegistryQueryBenchmarks extends AbstractBukkitTest {
+
+	private static final String WORLD_NAME = "world";
+	// The chunks around a player with the default view distance:
+	private static final int QUERY_CHUNK_RADIUS = 10;
+
+	@Param({ "10000" })
+	public int shopkeepersCount;
+
+	private SKShopkeeperRegistry shopkeeperRegistry;
+	private final MutableChunkCoords queryChunkCoords = new MutableChunkCoords();
+
+	@Setup
+	public void setup() throws ShopkeeperCreateException {
+		shopkeeperRegistry = StubShopkeepers.createRegistry(WORLD_NAME, shopkeepersCount);
+	}
+
+	@Benchmark
+	public int chunkQuery() {
+		int count = 0;
+		for (int chunkX = -QUERY_CHUNK_RADIUS; chunkX <= QUERY_CHUNK_RADIUS; chunkX++) {
+			for (int chunkZ = -QUERY_CHUNK_RADIUS; chunkZ <= QUERY_CHUNK_RADIUS; chunkZ++) {
+				queryChunkCoords.set(WORLD_NAME, chunkX, chunkZ);
+				count += shopkeeperRegistry.getShopkeepersInChunk(queryChunkCoords).size();
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int chunkActiveQuery() {
+		// Looks up the chunk data of the chunk activator:
+		int count = 0;
+		for (int chunkX = -QUERY_CHUNK_RADIUS; chunkX <= QUERY_CHUNK_RADIUS; chunkX++) {
+			for (int chunkZ = -QUERY_CHUNK_RADIUS; chunkZ <= QUERY_CHUNK_RADIUS; chunkZ++) {
+				queryChunkCoords.set(WORLD_NAME, chunkX, chunkZ);
+				if (!shopkeeperRegistry.isChunkActive(queryChunkCoords)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public long nameQuery() {
+		return shopkeeperRegistry.getShopkeepersByName("Shop 5000").count();
+	}
+
+	@Benchmark
+	public long namePrefixQuery() {
+		return shopkeeperRegistry.getShopkeepersByNamePrefix("Shop 50").count();
+	}
+}
@@ -0,0 +1,63 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.json.JsonUtils;
+import com.nisovin.shopkeepers.util.yaml.YamlUtils;
+
+/**
+ * Benchmarks the Yaml and Json serialization of item stacks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmarks extends AbstractBukkitTest {
+
+	private ItemStack item;
+	private String yaml;
+	private String json;
+
+	@Setup
+	public void setup() {
+		item = TestItemStacks.createItemStackComplete();
+		yaml = YamlUtils.toYaml(item);
+		json = JsonUtils.toJson(item);
+	}
+
+	@Benchmark
+	public String toYaml() {
+		return YamlUtils.toYaml(item);
+	}
+
+	@Benchmark
+	public String toCompactYaml() {
+		return YamlUtils.toCompactYaml(item);
+	}
+
+	@Benchmark
+	public @Nullable ItemStack fromYaml() {
+		return YamlUtils.fromYaml(yaml);
+	}
+
+	@Benchmark
+	public String toJson() {
+		return JsonUtils.toJson(item);
+	}
+
+	@Benchmark
+	public @Nullable ItemStack fromJson() {
+		return JsonUtils.fromJson(json);
+	}
+}
@@ -0,0 +1,150 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.registry.ShopObjectRegistry;
+import com.nisovin.shopkeepers.shopobjects.entity.AbstractEntityShopObject;
+import com.nisovin.shopkeepers.shopobjects.entity.EntityShopObjectIds;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+
+/**
+ * Benchmarks the shopkeeper lookups of the {@link ShopObjectRegistry} for the entities that are
+ * involved in entity events, as done by the entity event handlers that protect shopkeeper
+ * entities.
+ * <p>
+ * The registry contains spawned villager shopkeepers. The looked up entities resemble those of a
+ * mob farm: Most entities are of other types, and only some of the villagers are shopkeepers. The
+ * {@link #entityLookupBaseline() baseline} looks up the entities via their object ids, as the
+ * handlers did previously.
+ * <p>
+ * The entities are proxies that only provide their type and unique id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShopObjectLookupBenchmarks extends AbstractBukkitTest {
+
+	private static final EntityType SHOPKEEPER_ENTITY_TYPE = EntityType.VILLAGER;
+	private static final EntityType[] MOB_FARM_ENTITY_TYPES = {
+			EntityType.ZOMBIE,
+			EntityType.SKELETON,
+			EntityType.CREEPER,
+			EntityType.SPIDER,
+			EntityType.IRON_GOLEM,
+			EntityType.COW,
+			EntityType.CHICKEN,
+			EntityType.ITEM_FRAME,
+			EntityType.DROPPED_ITEM
+	};
+	private static final int LOOKUPS_COUNT = 1000;
+
+	@Param({ "10000" })
+	public int shopkeepersCount;
+
+	private ShopObjectRegistry shopObjectRegistry;
+	private Entity[] lookupEntities;
+
+	private static Entity createEntity(EntityType entityType, UUID uniqueId) {
+		return Unsafe.castNonNull(Proxy.newProxyInstance(
+				Entity.class.getClassLoader(),
+				new Class<?>[] { Entity.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getType":
+						return entityType;
+					case "getUniqueId":
+						return uniqueId;
+					default:
+						throw new UnsupportedOperationException(String.valueOf(method));
+					}
+				}
+		));
+	}
+
+	@Setup
+	public void setup() throws ShopkeeperCreateException {
+		shopObjectRegistry = StubShopkeepers.createRegistry("world", 0).getShopObjectRegistry();
+
+		Random random = new Random(42L);
+		Entity[] shopEntities = new Entity[shopkeepersCount];
+		for (int i = 0; i < shopkeepersCount; i++) {
+			Entity entity = createEntity(
+					SHOPKEEPER_ENTITY_TYPE,
+					new UUID(random.nextLong(), random.nextLong())
+			);
+			shopEntities[i] = entity;
+
+			AbstractEntityShopObject shopObject = Mockito.mock(AbstractEntityShopObject.class);
+			Mockito.doReturn(entity).when(shopObject).getEntity();
+			Mockito.doReturn(EntityShopObjectIds.getObjectId(entity)).when(shopObject).getId();
+			Mockito.doCallRealMethod().when(shopObject).getLastId();
+			Mockito.doCallRealMethod().when(shopObject).setLastId(Mockito.any());
+
+			AbstractShopkeeper shopkeeper = Mockito.mock(AbstractShopkeeper.class);
+			Mockito.doReturn(i + 1).when(shopkeeper).getId();
+			Mockito.doReturn(shopObject).when(shopkeeper).getShopObject();
+			shopObjectRegistry.updateShopObjectRegistration(shopkeeper);
+		}
+
+		lookupEntities = new Entity[LOOKUPS_COUNT];
+		for (int i = 0; i < LOOKUPS_COUNT; i++) {
+			Entity entity;
+			if (i % 20 == 0) {
+				entity = shopEntities[random.nextInt(shopkeepersCount)];
+			} else if (i % 20 == 1) {
+				// Villagers that are no shopkeepers:
+				entity = createEntity(
+						SHOPKEEPER_ENTITY_TYPE,
+						new UUID(random.nextLong(), random.nextLong())
+				);
+			} else {
+				entity = createEntity(
+						MOB_FARM_ENTITY_TYPES[random.nextInt(MOB_FARM_ENTITY_TYPES.length)],
+						new UUID(random.nextLong(), random.nextLong())
+				);
+			}
+			lookupEntities[i] = entity;
+		}
+	}
+
+	@Benchmark
+	public int entityLookup() {
+		int count = 0;
+		for (Entity entity : lookupEntities) {
+			if (shopObjectRegistry.getShopkeeperByEntity(entity) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int entityLookupBaseline() {
+		int count = 0;
+		for (Entity entity : lookupEntities) {
+			Object objectId = EntityShopObjectIds.getObjectId(entity);
+			if (shopObjectRegistry.getShopkeeperByObjectId(objectId) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,87 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
+import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKTradeOffer;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.data.persistence.InvalidDataFormatException;
+import com.nisovin.shopkeepers.util.data.persistence.bukkit.BukkitConfigDataStore;
+import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
+
+/**
+ * Benchmarks saving and loading the data of a shopkeeper with a typical number of trade offers to
+ * and from the Yaml save format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShopkeeperDataBenchmarks extends AbstractBukkitTest {
+
+	private static final int OFFERS_COUNT = 20;
+
+	private ShopkeeperData shopkeeperData;
+	private String savedData;
+
+	@Setup
+	public void setup() {
+		shopkeeperData = ShopkeeperData.ofNonNull(DataContainer.create());
+		shopkeeperData.set("uniqueId", UUID.randomUUID().toString());
+		shopkeeperData.set("id", 1);
+		shopkeeperData.set("type", "admin");
+		shopkeeperData.set("name", "&aShop");
+		DataContainer objectData = shopkeeperData.createContainer("object");
+		objectData.set("type", "villager");
+		objectData.set("world", "world");
+		objectData.set("x", 100);
+		objectData.set("y", 64);
+		objectData.set("z", -100);
+
+		List<@NonNull TradeOffer> offers = new ArrayList<>(OFFERS_COUNT);
+		for (int i = 0; i < OFFERS_COUNT; i++) {
+			ItemStack resultItem = (i % 2 == 0)
+					? TestItemStacks.createItemStackComplete()
+					: TestItemStacks.createItemStackDisplayName();
+			ItemStack item1 = TestItemStacks.createItemStackBasicWithSize();
+			offers.add(new SKTradeOffer(resultItem, item1, null));
+		}
+		SKTradeOffer.saveOffers(shopkeeperData.getDataValue("offers"), offers);
+
+		savedData = this.save();
+	}
+
+	@Benchmark
+	public String save() {
+		BukkitConfigDataStore dataStore = BukkitConfigDataStore.ofNewYamlConfig();
+		dataStore.set("1", shopkeeperData.serialize());
+		return dataStore.saveToString();
+	}
+
+	@Benchmark
+	public List<? extends @NonNull TradeOffer> load()
+			throws InvalidDataFormatException, InvalidDataException {
+		BukkitConfigDataStore dataStore = BukkitConfigDataStore.ofNewYamlConfig();
+		dataStore.loadFromString(savedData);
+		ShopkeeperData loadedData = ShopkeeperData.ofNonNull(
+				Unsafe.assertNonNull(dataStore.getContainer("1"))
+		);
+		return SKTradeOffer.loadOffers(loadedData.getDataValue("offers"));
+	}
+}
@@ -0,0 +1,85 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.Random;
+import java.util.UUID;
+
+import org.mockito.Mockito;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopCreationData;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+import com.nisovin.shopkeepers.debug.watchdog.SlowOperationWatchdog;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopType;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+import com.nisovin.shopkeepers.shopobjects.AbstractShopObjectType;
+import com.nisovin.shopkeepers.storage.SKShopkeeperStorage;
+
+/**
+ * Sets up a {@link SKShopkeeperRegistry} for benchmarks.
+ * <p>
+ * The registry and the shopkeepers usually require a running plugin. The registry is therefore
+ * set up with a stubbed plugin and populated with stub shopkeepers that only provide the state
+ * that is relevant for the registry and the chunk activator (ids, location, and name). The stubs
+ * are never marked as valid or active, so they are not ticked or spawned.
+ */
+final class StubShopkeepers {
+
+	// The shopkeepers are randomly distributed across the chunks in this radius:
+	static final int CHUNK_RADIUS = 100;
+
+	static SKShopkeeperRegistry createRegistry(String worldName, int shopkeepersCount)
+			throws ShopkeeperCreateException {
+		SKShopkeepersPlugin plugin = Mockito.mock(SKShopkeepersPlugin.class);
+		SKShopkeeperStorage shopkeeperStorage = Mockito.mock(SKShopkeeperStorage.class);
+		Mockito.doReturn(shopkeeperStorage).when(plugin).getShopkeeperStorage();
+		// Not enabled, so operations are not monitored:
+		SlowOperationWatchdog slowOperationWatchdog = new SlowOperationWatchdog(plugin);
+		Mockito.doReturn(slowOperationWatchdog).when(plugin).getSlowOperationWatchdog();
+		SKShopkeeperRegistry shopkeeperRegistry = new SKShopkeeperRegistry(plugin);
+
+		AbstractShopType<?> shopType = Mockito.mock(AbstractShopType.class);
+		Mockito.doReturn(true).when(shopType).isEnabled();
+		AbstractShopObjectType<?> shopObjectType = Mockito.mock(AbstractShopObjectType.class);
+		Mockito.doReturn(true).when(shopObjectType).isEnabled();
+		ShopCreationData creationData = Mockito.mock(ShopCreationData.class);
+		Mockito.doReturn(shopType).when(creationData).getShopType();
+
+		Random random = new Random(42L);
+		for (int i = 0; i < shopkeepersCount; i++) {
+			int chunkX = random.nextInt(2 * CHUNK_RADIUS) - CHUNK_RADIUS;
+			int chunkZ = random.nextInt(2 * CHUNK_RADIUS) - CHUNK_RADIUS;
+			ChunkCoords chunkCoords = new ChunkCoords(worldName, chunkX, chunkZ);
+			// Some shopkeepers have no name:
+			String name = (i % 4 == 0) ? "" : "&aShop " + i;
+
+			AbstractShopObject shopObject = Mockito.mock(AbstractShopObject.class);
+			Mockito.doReturn(shopObjectType).when(shopObject).getType();
+
+			AbstractShopkeeper shopkeeper = Mockito.mock(AbstractShopkeeper.class);
+			Mockito.doReturn(i + 1).when(shopkeeper).getId();
+			Mockito.doReturn(new UUID(random.nextLong(), random.nextLong()))
+					.when(shopkeeper).getUniqueId();
+			Mockito.doReturn(worldName).when(shopkeeper).getWorldName();
+			Mockito.doReturn(chunkCoords).when(shopkeeper).getChunkCoords();
+			// The stub does not store the chunk coordinates that are assigned by the registry:
+			Mockito.doReturn(chunkCoords).when(shopkeeper).getLastChunkCoords();
+			Mockito.doReturn(name).when(shopkeeper).getName();
+			Mockito.doReturn(shopType).when(shopkeeper).getType();
+			Mockito.doReturn(shopObject).when(shopkeeper).getShopObject();
+			// The stubs are never marked as valid, so the registry skips their activation.
+
+			Mockito.doReturn(shopkeeper).when(shopType).createShopkeeper(
+					Mockito.anyInt(),
+					Mockito.any()
+			);
+			shopkeeperRegistry.createShopkeeper(creationData);
+		}
+		return shopkeeperRegistry;
+	}
+
+	private StubShopkeepers() {
+	}
+}
@@ -0,0 +1,59 @@
+package com.nisovin.shopkeepers.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.text.Text;
+
+/**
+ * Benchmarks the parsing of message texts and the formatting of texts with placeholders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextBenchmarks extends AbstractBukkitTest {
+
+	// Similar to the messages of the shopkeeper list command:
+	private static final String MESSAGE = "&e  {shopIndex}) &8[&7{shopUUID}&8] "
+			+ "&7{shopSessionId}{shopId}&8: &6{shopName}&r &7at &a({location})";
+
+	private Text text;
+	private final Map<@NonNull String, @NonNull Object> arguments = new HashMap<>();
+
+	@Setup
+	public void setup() {
+		text = Text.parse(MESSAGE);
+		arguments.put("shopIndex", 1);
+		arguments.put("shopUUID", "6f9a5e3c-7f24-4e0e-8d55-8c0e7b6b0e2a");
+		arguments.put("shopSessionId", 42);
+		arguments.put("shopId", 42);
+		arguments.put("shopName", "&aMy Shop");
+		arguments.put("location", "world,100,64,-100");
+	}
+
+	@Benchmark
+	public Text parse() {
+		return Text.parse(MESSAGE);
+	}
+
+	@Benchmark
+	public String formatPlaceholders() {
+		return text.setPlaceholderArguments(arguments).toPlainText();
+	}
+
+	@Benchmark
+	public String parseAndFormatPlaceholders() {
+		return Text.parse(MESSAGE).setPlaceholderArguments(arguments).toPlainText();
+	}
+}
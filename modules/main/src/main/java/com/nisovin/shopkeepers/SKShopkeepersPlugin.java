@@ -34,12 +34,14 @@ import com.nisovin.shopkeepers.container.protection.RemoveShopOnContainerBreak;
 import com.nisovin.shopkeepers.debug.Debug;
 import com.nisovin.shopkeepers.debug.events.EventDebugger;
 import com.nisovin.shopkeepers.debug.trades.TradingCountListener;
+import com.nisovin.shopkeepers.debug.watchdog.SlowOperationWatchdog;
 import com.nisovin.shopkeepers.dependencies.worldguard.WorldGuardDependency;
 import com.nisovin.shopkeepers.input.chat.ChatInput;
 import com.nisovin.shopkeepers.input.interaction.InteractionInput;
 import com.nisovin.shopkeepers.internals.SKApiInternals;
 import com.nisovin.shopkeepers.itemconversion.ItemConversions;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.metrics.InternalMetrics;
 import com.nisovin.shopkeepers.metrics.PluginMetrics;
 import com.nisovin.shopkeepers.moving.ShopkeeperMoving;
 import com.nisovin.shopkeepers.naming.ShopkeeperNaming;
@@ -50,6 +52,8 @@ import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.SKDefaultShopTypes;
 import com.nisovin.shopkeepers.shopkeeper.SKShopTypesRegistry;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferItemInterner;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKOfferIndex;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.shopobjects.SKDefaultShopObjectTypes;
 import com.nisovin.shopkeepers.shopobjects.SKShopObjectTypesRegistry;
@@ -62,6 +66,7 @@ import com.nisovin.shopkeepers.tradelog.TradeLoggers;
 import com.nisovin.shopkeepers.tradenotifications.TradeNotifications;
 import com.nisovin.shopkeepers.ui.SKDefaultUITypes;
 import com.nisovin.shopkeepers.ui.SKUIRegistry;
+import com.nisovin.shopkeepers.user.UserDirectory;
 import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
 import com.nisovin.shopkeepers.util.java.ClassUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -128,8 +133,10 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 			Unsafe.initialized(this)
 	);
 	private final EventDebugger eventDebugger = new EventDebugger(Unsafe.initialized(this));
+	private final SlowOperationWatchdog slowOperationWatchdog = new SlowOperationWatchdog(Unsafe.initialized(this));
 
 	private final PlayerShops playerShops = new PlayerShops(Unsafe.initialized(this));
+	private final UserDirectory userDirectory = new UserDirectory(Unsafe.initialized(this));
 
 	private final ProtectedContainers protectedContainers = new ProtectedContainers(
 			Unsafe.initialized(this)
@@ -158,6 +165,7 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 	);
 
 	private final PluginMetrics pluginMetrics = new PluginMetrics(Unsafe.initialized(this));
+	private final InternalMetrics internalMetrics = new InternalMetrics(Unsafe.initialized(this));
 
 	private boolean outdatedServer = false;
 	private boolean incompatibleServer = false;
@@ -344,6 +352,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		// we register default shop types, etc., during onLoad).
 		Bukkit.getPluginManager().callEvent(new ShopkeepersStartupEvent());
 
+		// Slow operation watchdog (before any shopkeepers are loaded or activated):
+		slowOperationWatchdog.onEnable();
+
 		// Inform UI registry (registers UI event handlers):
 		uiRegistry.onEnable();
 
@@ -391,6 +402,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		shopkeeperNaming.onEnable();
 		shopkeeperMoving.onEnable();
 
+		// User directory:
+		userDirectory.onEnable();
+
 		// Enable shopkeeper storage:
 		shopkeeperStorage.onEnable();
 
@@ -431,6 +445,7 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 
 		// Plugin metrics:
 		pluginMetrics.onEnable();
+		internalMetrics.onEnable();
 
 		// Event debugger:
 		eventDebugger.onEnable();
@@ -471,6 +486,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		// Shutdown shopkeeper storage (saves shopkeepers):
 		shopkeeperStorage.onDisable();
 
+		// The shopkeepers have been unloaded, so their offer items are no longer needed:
+		OfferItemInterner.clear();
+
 		shopTypesRegistry.clearAllSelections();
 		shopObjectTypesRegistry.clearAllSelections();
 
@@ -495,6 +513,9 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		// Player shops:
 		playerShops.onDisable();
 
+		// User directory:
+		userDirectory.onDisable();
+
 		// Trade loggers:
 		tradeLoggers.onDisable();
 
@@ -508,10 +529,14 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 
 		// Plugin metrics:
 		pluginMetrics.onDisable();
+		internalMetrics.onDisable();
 
 		// Event debugger:
 		eventDebugger.onDisable();
 
+		// Slow operation watchdog:
+		slowOperationWatchdog.onDisable();
+
 		HandlerList.unregisterAll(this);
 		Bukkit.getScheduler().cancelTasks(this);
 
@@ -530,6 +555,8 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 	// PLAYER JOINING AND QUITTING
 
 	void onPlayerJoin(Player player) {
+		userDirectory.onPlayerJoin(player);
+		playerShops.onPlayerJoin(player);
 	}
 
 	void onPlayerQuit(Player player) {
@@ -540,6 +567,8 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 
 		shopkeeperCreation.onPlayerQuit(player);
 		commands.onPlayerQuit(player);
+
+		playerShops.onPlayerQuit(player);
 	}
 
 	@Override
@@ -554,6 +583,13 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		return shopkeeperRegistry;
 	}
 
+	// OFFER INDEX
+
+	@Override
+	public SKOfferIndex getOfferIndex() {
+		return shopkeeperRegistry.getOfferIndex();
+	}
+
 	// SHOPKEEPER STORAGE
 
 	@Override
@@ -695,6 +731,24 @@ public class SKShopkeepersPlugin extends JavaPlugin implements InternalShopkeepe
 		return playerShops;
 	}
 
+	// USER DIRECTORY
+
+	public UserDirectory getUserDirectory() {
+		return userDirectory;
+	}
+
+	// SLOW OPERATION WATCHDOG
+
+	public SlowOperationWatchdog getSlowOperationWatchdog() {
+		return slowOperationWatchdog;
+	}
+
+	// TRADE LOGGERS
+
+	public TradeLoggers getTradeLoggers() {
+		return tradeLoggers;
+	}
+
 	// TRADE NOTIFICATIONS
 
 	public TradeNotifications getTradeNotifications() {
@@ -30,12 +30,16 @@ import com.nisovin.shopkeepers.commands.lib.arguments.LiteralArgument;
 import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.shopkeeper.activation.ShopkeeperChunkActivator;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferItemInterner;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferItemInterner.OfferItemStatistics;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.shopkeeper.spawning.ShopkeeperSpawner;
+import com.nisovin.shopkeepers.shopobjects.ShopObjectCheckStatistics;
 import com.nisovin.shopkeepers.shopobjects.living.LivingEntityAI;
 import com.nisovin.shopkeepers.text.Text;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.taskqueue.TaskQueueStatistics;
+import com.nisovin.shopkeepers.util.timer.LatencyHistogram;
 import com.nisovin.shopkeepers.util.timer.Timings;
 
 class CommandCheck extends Command {
@@ -94,6 +98,18 @@ class CommandCheck extends Command {
 				+ plugin.getShopkeeperStorage().getUnsavedDirtyShopkeepersCount()
 				+ " | " + plugin.getShopkeeperStorage().getUnsavedDeletedShopkeepersCount()
 				+ " | " + plugin.getShopkeeperStorage().isDirty());
+		sender.sendMessage("  Deferred loading (unloaded worlds): "
+				+ plugin.getShopkeeperStorage().getDeferredShopkeepersCount());
+
+		OfferItemStatistics offerItemStatistics = OfferItemInterner.getStatistics(
+				shopkeeperRegistry.getAllShopkeepers()
+		);
+		sender.sendMessage("  Offer items (total | unique | interned): "
+				+ offerItemStatistics.getTotalItems()
+				+ " | " + offerItemStatistics.getUniqueItems()
+				+ " | " + OfferItemInterner.getInternedItemsCount());
+		double savedKiB = offerItemStatistics.getEstimatedSavedBytes() / 1024.0D;
+		sender.sendMessage("    Estimated memory savings: " + TextUtils.format(savedKiB) + " KiB");
 		sender.sendMessage("  Chunks with shopkeepers: " + totalChunksWithShopkeepers);
 		sender.sendMessage("    With active AI: " + livingEntityAI.getActiveAIChunksCount());
 		sender.sendMessage("    With active gravity: " + livingEntityAI.getActiveGravityChunksCount());
@@ -113,6 +129,21 @@ class CommandCheck extends Command {
 				+ TextUtils.format(avgChunkActivationTimings) + " ms"
 				+ " | " + TextUtils.format(maxChunkActivationTimings) + " ms"
 				+ " | " + chunkActivationTimings.getCounter());
+		this.sendTimingPercentiles(sender, "    ", chunkActivationTimings);
+
+		Timings chunkSpawnTimings = shopkeeperSpawner.getChunkSpawnTimings();
+		sender.sendMessage("  Chunk spawn timings (avg | max | cnt): "
+				+ TextUtils.format(chunkSpawnTimings.getAverageTimeMillis()) + " ms"
+				+ " | " + TextUtils.format(chunkSpawnTimings.getMaxTimeMillis()) + " ms"
+				+ " | " + chunkSpawnTimings.getCounter());
+		this.sendTimingPercentiles(sender, "    ", chunkSpawnTimings);
+
+		Timings spawnTimings = shopkeeperSpawner.getSpawnTimings();
+		sender.sendMessage("  Shopkeeper spawn timings (avg | max | cnt): "
+				+ TextUtils.format(spawnTimings.getAverageTimeMillis()) + " ms"
+				+ " | " + TextUtils.format(spawnTimings.getMaxTimeMillis()) + " ms"
+				+ " | " + spawnTimings.getCounter());
+		this.sendTimingPercentiles(sender, "    ", spawnTimings);
 
 		double avgTotalAITimings = livingEntityAI.getTotalTimings().getAverageTimeMillis();
 		double maxTotalAITiming = livingEntityAI.getTotalTimings().getMaxTimeMillis();
@@ -120,6 +151,7 @@ class CommandCheck extends Command {
 				+ " ticks) (avg | max): "
 				+ TextUtils.format(avgTotalAITimings) + " ms"
 				+ " | " + TextUtils.format(maxTotalAITiming) + " ms");
+		this.sendTimingPercentiles(sender, "    ", livingEntityAI.getTotalTimings());
 
 		// Note: These are per activation, which happens only every 20 ticks (not per tick).
 		double avgAIActivationTimings = livingEntityAI.getActivationTimings().getAverageTimeMillis();
@@ -128,6 +160,7 @@ class CommandCheck extends Command {
 				+ LivingEntityAI.AI_ACTIVATION_TICK_RATE + " ticks) (avg | max): "
 				+ TextUtils.format(avgAIActivationTimings) + " ms"
 				+ " | " + TextUtils.format(maxAIActivationTiming) + " ms");
+		this.sendTimingPercentiles(sender, "      ", livingEntityAI.getActivationTimings());
 
 		double avgGravityTimings = livingEntityAI.getGravityTimings().getAverageTimeMillis();
 		double maxGravityTiming = livingEntityAI.getGravityTimings().getMaxTimeMillis();
@@ -135,6 +168,7 @@ class CommandCheck extends Command {
 				+ " ticks) (avg | max): "
 				+ TextUtils.format(avgGravityTimings) + " ms"
 				+ " | " + TextUtils.format(maxGravityTiming) + " ms");
+		this.sendTimingPercentiles(sender, "      ", livingEntityAI.getGravityTimings());
 
 		double avgAITimings = livingEntityAI.getAITimings().getAverageTimeMillis();
 		double maxAITiming = livingEntityAI.getAITimings().getMaxTimeMillis();
@@ -142,6 +176,10 @@ class CommandCheck extends Command {
 				+ " ticks) (avg | max): "
 				+ TextUtils.format(avgAITimings) + " ms"
 				+ " | " + TextUtils.format(maxAITiming) + " ms");
+		this.sendTimingPercentiles(sender, "      ", livingEntityAI.getAITimings());
+
+		this.sendCheckStatistics(sender, "Sign", plugin.getSignShops().getCheckStatistics());
+		this.sendCheckStatistics(sender, "Mob", plugin.getLivingShops().getCheckStatistics());
 
 		for (World world : Bukkit.getWorlds()) {
 			String worldName = world.getName();
@@ -237,4 +275,36 @@ class CommandCheck extends Command {
 			sender.sendMessage("More information is printed when the command is run from console.");
 		}
 	}
+
+	// The percentiles of all timings since the start, and of the timings of the last minute.
+	private void sendTimingPercentiles(CommandSender sender, String indent, Timings timings) {
+		sender.sendMessage(indent + "Since start (p50 | p90 | p99 | p99.9): "
+				+ this.formatPercentiles(timings.getHistogram()));
+		LatencyHistogram recentHistogram = timings.getRecentHistogram();
+		sender.sendMessage(indent + "Last minute (p50 | p90 | p99 | p99.9 | max | cnt): "
+				+ this.formatPercentiles(recentHistogram)
+				+ " | " + TextUtils.format(recentHistogram.getMaxMillis()) + " ms"
+				+ " | " + recentHistogram.getCount());
+	}
+
+	private String formatPercentiles(LatencyHistogram histogram) {
+		return TextUtils.format(histogram.getPercentileMillis(50.0D))
+				+ " | " + TextUtils.format(histogram.getPercentileMillis(90.0D))
+				+ " | " + TextUtils.format(histogram.getPercentileMillis(99.0D))
+				+ " | " + TextUtils.format(histogram.getPercentileMillis(99.9D)) + " ms";
+	}
+
+	private void sendCheckStatistics(
+			CommandSender sender,
+			String shopObjectName,
+			ShopObjectCheckStatistics checkStatistics
+	) {
+		sender.sendMessage("  " + shopObjectName + " checks (event | poll): "
+				+ checkStatistics.getEventTriggeredChecks()
+				+ " | " + checkStatistics.getPollTriggeredChecks()
+				+ "    (Event-driven: " + Settings.eventDrivenShopObjectChecks + ")");
+		sender.sendMessage("    Repairs (event | poll): "
+				+ checkStatistics.getEventTriggeredRepairs()
+				+ " | " + checkStatistics.getPollTriggeredRepairs());
+	}
 }
@@ -0,0 +1,115 @@
+package com.nisovin.shopkeepers.commands.shopkeepers;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.commands.arguments.ShopkeeperArgument;
+import com.nisovin.shopkeepers.commands.arguments.ShopkeeperFilter;
+import com.nisovin.shopkeepers.commands.arguments.TargetShopkeeperFallback;
+import com.nisovin.shopkeepers.commands.lib.CommandException;
+import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.commands.PlayerCommand;
+import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
+import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.container.ShopContainers;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.shopcreation.ContainerSelection;
+import com.nisovin.shopkeepers.shopcreation.ShopkeeperCreation;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.bukkit.BlockLocation;
+import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+
+class CommandLinkContainer extends PlayerCommand {
+
+	private static final String ARGUMENT_SHOPKEEPER = "shopkeeper";
+
+	CommandLinkContainer() {
+		super("linkContainer");
+
+		// Set permission:
+		this.setPermission(ShopkeepersPlugin.LINK_CONTAINERS_PERMISSION);
+
+		// Set description:
+		this.setDescription(Messages.commandDescriptionLinkContainer);
+
+		// Arguments:
+		this.addArgument(new TargetShopkeeperFallback(
+				new ShopkeeperArgument(ARGUMENT_SHOPKEEPER, ShopkeeperFilter.PLAYER),
+				TargetShopkeeperFilter.PLAYER
+		));
+	}
+
+	@Override
+	protected void execute(CommandInput input, CommandContextView context) throws CommandException {
+		assert (input.getSender() instanceof Player);
+		Player player = (Player) input.getSender();
+
+		AbstractPlayerShopkeeper shopkeeper = context.get(ARGUMENT_SHOPKEEPER);
+
+		// Check that the shop is owned by the executing player:
+		if (!shopkeeper.isOwner(player)
+				&& !PermissionUtils.hasPermission(player, ShopkeepersPlugin.BYPASS_PERMISSION)) {
+			TextUtils.sendMessage(player, Messages.notOwner);
+			return;
+		}
+
+		// Check the linked containers limit:
+		if (shopkeeper.getLinkedContainers().size() >= Settings.maxLinkedContainers) {
+			TextUtils.sendMessage(player, Messages.tooManyLinkedContainers,
+					"maxLinkedContainers", Settings.maxLinkedContainers
+			);
+			return;
+		}
+
+		// The container is selected by right-clicking it with the shop creation item:
+		SKShopkeepersPlugin plugin = SKShopkeepersPlugin.getInstance();
+		ShopkeeperCreation shopkeeperCreation = plugin.getShopkeeperCreation();
+		ContainerSelection containerSelection = shopkeeperCreation.getContainerSelection();
+		Block containerBlock = containerSelection.getSelectedContainer(player);
+		if (containerBlock == null) {
+			TextUtils.sendMessage(player, Messages.noContainerSelected);
+			return;
+		}
+		if (!ShopContainers.isSupportedContainer(containerBlock.getType())) {
+			containerSelection.selectContainer(player, null);
+			TextUtils.sendMessage(player, Messages.invalidContainer);
+			return;
+		}
+
+		// Checks if the container is already used by some shopkeeper (including this one), and if
+		// the player can access it:
+		if (!containerSelection.validateContainer(player, containerBlock)) {
+			return;
+		}
+
+		// Check if the container is too far away from the shopkeeper:
+		Location shopkeeperLocation = shopkeeper.getLocation();
+		BlockLocation containerLocation = BlockLocation.of(containerBlock);
+		int maxContainerDistance = Settings.maxContainerDistance;
+		if (shopkeeperLocation == null
+				|| containerLocation.getBlockCenterDistanceSquared(shopkeeperLocation)
+						> maxContainerDistance * maxContainerDistance) {
+			TextUtils.sendMessage(player, Messages.containerTooFarAway);
+			return;
+		}
+
+		// Link the container:
+		shopkeeper.linkContainer(containerLocation);
+
+		// Reset the selected container:
+		containerSelection.selectContainer(player, null);
+
+		// Success:
+		TextUtils.sendMessage(player, Messages.containerLinked,
+				"containersCount", shopkeeper.getLinkedContainers().size() + 1
+		);
+
+		// Save:
+		plugin.getShopkeeperStorage().save();
+	}
+}
@@ -2,6 +2,7 @@ package com.nisovin.shopkeepers.commands.shopkeepers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -10,7 +11,9 @@ import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
@@ -32,6 +35,7 @@ import com.nisovin.shopkeepers.commands.lib.util.PlayerArgumentUtils;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.OwnedPlayerShopsResult;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.user.UserDirectory;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 
@@ -182,6 +186,47 @@ class CommandList extends Command {
 		}
 		assert shops != null;
 
+		if (targetPlayerUUID != null && targetPlayerName == null) {
+			// The name of the target player is not yet known. We resolve it in the background and
+			// then send the shops list:
+			UUID finalTargetPlayerUUID = targetPlayerUUID;
+			List<? extends @NonNull Shopkeeper> finalShops = shops;
+			int finalPage = page;
+			UserDirectory userDirectory = SKShopkeepersPlugin.getInstance().getUserDirectory();
+			userDirectory.resolveNames(Collections.singleton(finalTargetPlayerUUID), names -> {
+				this.sendShopsList(
+						sender,
+						finalShops,
+						finalPage,
+						false,
+						false,
+						finalTargetPlayerUUID,
+						names.get(finalTargetPlayerUUID)
+				);
+			});
+			return;
+		}
+
+		this.sendShopsList(
+				sender,
+				shops,
+				page,
+				listAllShops,
+				listAdminShops,
+				targetPlayerUUID,
+				targetPlayerName
+		);
+	}
+
+	private void sendShopsList(
+			CommandSender sender,
+			List<? extends @NonNull Shopkeeper> shops,
+			int page,
+			boolean listAllShops,
+			boolean listAdminShops,
+			@Nullable UUID targetPlayerUUID,
+			@Nullable String targetPlayerName
+	) {
 		int shopsCount = shops.size();
 		int maxPage = Math.max(1, (int) Math.ceil((double) shopsCount / ENTRIES_PER_PAGE));
 		page = Math.max(1, Math.min(page, maxPage));
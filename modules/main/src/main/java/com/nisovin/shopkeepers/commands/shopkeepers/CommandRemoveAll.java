@@ -10,7 +10,9 @@ import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.events.PlayerDeleteShopkeeperEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
@@ -33,6 +35,7 @@ import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.OwnedPlayerShopsResult;
 import com.nisovin.shopkeepers.event.ShopkeeperEventHelper;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.shopkeeper.registry.BulkShopkeeperDeletion;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.java.ObjectUtils;
@@ -47,12 +50,12 @@ class CommandRemoveAll extends Command {
 	private static final String ARGUMENT_ALL_ADMIN_SHOPS = "all-admin";
 	private static final String ARGUMENT_ALL_ADMIN_SHOPS_DISPLAY_NAME = "admin";
 
-	private final ShopkeepersPlugin plugin;
+	private final SKShopkeepersPlugin plugin;
 	private final ShopkeeperRegistry shopkeeperRegistry;
 	private final Confirmations confirmations;
 
 	CommandRemoveAll(
-			ShopkeepersPlugin plugin,
+			SKShopkeepersPlugin plugin,
 			ShopkeeperRegistry shopkeeperRegistry,
 			Confirmations confirmations
 	) {
@@ -210,66 +213,40 @@ class CommandRemoveAll extends Command {
 			// Note: New shops might have been created in the meantime, but the command only affects
 			// the already determined affected shops.
 			// Remove shops:
-			int invalidShops = 0;
-			int cancelledDeletions = 0;
-			int actualShopCount = 0;
-			for (Shopkeeper shopkeeper : affectedShops) {
-				// Skip the shopkeeper if it no longer exists:
-				if (!shopkeeper.isValid()) {
-					invalidShops += 1;
-					continue;
-				}
+			// The shops are removed across several ticks, and the storage is saved once at the end.
+			new BulkShopkeeperDeletion(plugin, affectedShops, senderPlayer) {
+				@Override
+				protected boolean beforeDeletion(Shopkeeper shopkeeper) {
+					if (senderPlayer == null) return true;
 
-				if (senderPlayer != null) {
 					// Call event:
 					PlayerDeleteShopkeeperEvent deleteEvent = ShopkeeperEventHelper.callPlayerDeleteShopkeeperEvent(
 							shopkeeper,
 							senderPlayer
 					);
-					if (deleteEvent.isCancelled()) {
-						cancelledDeletions += 1;
-						continue;
-					}
+					return !deleteEvent.isCancelled();
 				}
 
-				shopkeeper.delete(senderPlayer);
-				actualShopCount += 1;
-			}
-
-			// Trigger save:
-			plugin.getShopkeeperStorage().save();
+				@Override
+				protected void onProgress() {
+					TextUtils.sendMessage(sender, Messages.shopRemovalProgress,
+							"removedCount", this.getProcessedCount(),
+							"shopsCount", this.getTotalCount()
+					);
+				}
 
-			// Print the result messages:
-			if (invalidShops > 0) {
-				TextUtils.sendMessage(sender, Messages.shopsAlreadyRemoved,
-						"shopsCount", invalidShops
-				);
-			}
-			if (cancelledDeletions > 0) {
-				TextUtils.sendMessage(sender, Messages.shopRemovalsCancelled,
-						"shopsCount", cancelledDeletions
-				);
-			}
-			if (allAdmin) {
-				// Removed all admin shops:
-				TextUtils.sendMessage(sender, Messages.adminShopsRemoved,
-						"shopsCount", actualShopCount
-				);
-			} else if (allPlayers) {
-				// Removed all player shops:
-				TextUtils.sendMessage(sender, Messages.playerShopsRemoved,
-						"shopsCount", actualShopCount
-				);
-			} else {
-				// Removed all shops of the specified player:
-				TextUtils.sendMessage(sender, Messages.shopsOfPlayerRemoved,
-						"player", TextUtils.getPlayerText(
-								finalTargetPlayerName,
-								finalTargetPlayerUUID
-						),
-						"shopsCount", actualShopCount
-				);
-			}
+				@Override
+				protected void onCompleted() {
+					sendRemovalResult(
+							sender,
+							this,
+							allAdmin,
+							allPlayers,
+							finalTargetPlayerName,
+							finalTargetPlayerUUID
+					);
+				}
+			}.start();
 		});
 
 		// TODO Print 'no shops found' if shop count is 0?
@@ -302,4 +279,45 @@ class CommandRemoveAll extends Command {
 		// TODO Add clickable command suggestion?
 		TextUtils.sendMessage(sender, Messages.confirmationRequired);
 	}
+
+	private void sendRemovalResult(
+			CommandSender sender,
+			BulkShopkeeperDeletion deletion,
+			boolean allAdmin,
+			boolean allPlayers,
+			@Nullable String targetPlayerName,
+			@Nullable UUID targetPlayerUUID
+	) {
+		// Print the result messages:
+		int invalidShops = deletion.getAlreadyRemovedCount();
+		int cancelledDeletions = deletion.getSkippedCount();
+		int actualShopCount = deletion.getDeletedCount();
+		if (invalidShops > 0) {
+			TextUtils.sendMessage(sender, Messages.shopsAlreadyRemoved,
+					"shopsCount", invalidShops
+			);
+		}
+		if (cancelledDeletions > 0) {
+			TextUtils.sendMessage(sender, Messages.shopRemovalsCancelled,
+					"shopsCount", cancelledDeletions
+			);
+		}
+		if (allAdmin) {
+			// Removed all admin shops:
+			TextUtils.sendMessage(sender, Messages.adminShopsRemoved,
+					"shopsCount", actualShopCount
+			);
+		} else if (allPlayers) {
+			// Removed all player shops:
+			TextUtils.sendMessage(sender, Messages.playerShopsRemoved,
+					"shopsCount", actualShopCount
+			);
+		} else {
+			// Removed all shops of the specified player:
+			TextUtils.sendMessage(sender, Messages.shopsOfPlayerRemoved,
+					"player", TextUtils.getPlayerText(targetPlayerName, targetPlayerUUID),
+					"shopsCount", actualShopCount
+			);
+		}
+	}
 }
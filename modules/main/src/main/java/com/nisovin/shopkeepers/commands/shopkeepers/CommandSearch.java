@@ -0,0 +1,151 @@
+package com.nisovin.shopkeepers.commands.shopkeepers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.IndexedOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.OfferIndex;
+import com.nisovin.shopkeepers.commands.lib.CommandException;
+import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.arguments.FirstOfArgument;
+import com.nisovin.shopkeepers.commands.lib.arguments.LiteralArgument;
+import com.nisovin.shopkeepers.commands.lib.arguments.PositiveIntegerArgument;
+import com.nisovin.shopkeepers.commands.lib.commands.PlayerCommand;
+import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+
+class CommandSearch extends PlayerCommand {
+
+	private static final String ARGUMENT_SELLING = "selling";
+	private static final String ARGUMENT_BUYING = "buying";
+	private static final String ARGUMENT_PRICE = "price";
+	private static final String ARGUMENT_DISTANCE = "distance";
+	private static final String ARGUMENT_PAGE = "page";
+
+	private static final int ENTRIES_PER_PAGE = 8;
+
+	private final OfferIndex offerIndex;
+
+	CommandSearch(OfferIndex offerIndex) {
+		super("search");
+		this.offerIndex = offerIndex;
+
+		// Set permission:
+		this.setPermission(ShopkeepersPlugin.SEARCH_PERMISSION);
+
+		// Set description:
+		this.setDescription(Messages.commandDescriptionSearch);
+
+		// Arguments:
+		this.addArgument(new FirstOfArgument("mode", Arrays.asList(
+				new LiteralArgument(ARGUMENT_SELLING),
+				new LiteralArgument(ARGUMENT_BUYING)
+		), true).optional()); // Join formats
+		this.addArgument(new FirstOfArgument("sort", Arrays.asList(
+				new LiteralArgument(ARGUMENT_PRICE),
+				new LiteralArgument(ARGUMENT_DISTANCE)
+		), true).optional()); // Join formats
+		this.addArgument(new PositiveIntegerArgument(ARGUMENT_PAGE).orDefaultValue(1));
+	}
+
+	@Override
+	protected void execute(CommandInput input, CommandContextView context) throws CommandException {
+		assert (input.getSender() instanceof Player);
+		Player player = (Player) input.getSender();
+
+		int page = context.get(ARGUMENT_PAGE);
+		boolean buying = context.has(ARGUMENT_BUYING); // Searches selling offers by default
+		boolean sortByDistance = context.has(ARGUMENT_DISTANCE); // Sorts by price by default
+
+		ItemStack item = player.getInventory().getItemInMainHand();
+		if (ItemUtils.isEmpty(item)) {
+			TextUtils.sendMessage(player, Messages.mustHoldItemInMainHand);
+			return;
+		}
+
+		List<@NonNull IndexedOffer> offers = new ArrayList<>(
+				buying ? offerIndex.getBuyingOffers(item) : offerIndex.getSellingOffers(item)
+		);
+		Comparator<@NonNull IndexedOffer> comparator;
+		if (sortByDistance) {
+			Location playerLocation = player.getLocation();
+			comparator = Comparator.comparingDouble(offer -> getDistanceSquared(
+					offer.getShopkeeper(),
+					playerLocation
+			));
+		} else {
+			// Cheapest selling offers and best paying buying offers first:
+			comparator = Comparator.comparingDouble(offer -> getPricePerItem(offer, buying));
+		}
+		// Offers that are out of stock last:
+		offers.sort(Comparator.<@NonNull IndexedOffer>comparingInt(offer -> {
+			return (offer.getStock() == 0) ? 1 : 0;
+		}).thenComparing(comparator));
+
+		int offersCount = offers.size();
+		int maxPage = Math.max(1, (int) Math.ceil((double) offersCount / ENTRIES_PER_PAGE));
+		page = Math.max(1, Math.min(page, maxPage));
+
+		TextUtils.sendMessage(player,
+				buying ? Messages.searchBuyingOffersHeader : Messages.searchSellingOffersHeader,
+				"item", TextUtils.getItemText(item),
+				"offersCount", offersCount,
+				"page", page,
+				"maxPage", maxPage
+		);
+
+		int startIndex = (page - 1) * ENTRIES_PER_PAGE;
+		int endIndex = Math.min(startIndex + ENTRIES_PER_PAGE, offersCount);
+		for (int index = startIndex; index < endIndex; index++) {
+			IndexedOffer offer = offers.get(index);
+			Shopkeeper shopkeeper = offer.getShopkeeper();
+			String shopName = shopkeeper.getName(); // Can be empty
+			int price = offer.getPrice();
+			int stock = offer.getStock();
+			String stockText;
+			if (stock == IndexedOffer.UNLIMITED_STOCK) {
+				stockText = Messages.searchStockUnlimited;
+			} else if (stock == IndexedOffer.UNKNOWN_STOCK) {
+				stockText = Messages.searchStockUnknown;
+			} else {
+				stockText = String.valueOf(stock);
+			}
+			TextUtils.sendMessage(player, Messages.searchOffersEntry,
+					"offerIndex", (index + 1),
+					"shopId", shopkeeper.getId(),
+					"shopName", (shopName.isEmpty() ? "" : (shopName + " ")),
+					"location", shopkeeper.getPositionString(),
+					"amount", offer.getItem().getAmount(),
+					"price", (price >= 0) ? String.valueOf(price) : Messages.searchPriceItems,
+					"stock", stockText
+			);
+		}
+	}
+
+	// Offers that are not priced in currency are sorted last.
+	private static double getPricePerItem(IndexedOffer offer, boolean buying) {
+		int price = offer.getPrice();
+		if (price < 0) return Double.MAX_VALUE;
+		double pricePerItem = (double) price / offer.getItem().getAmount();
+		return buying ? -pricePerItem : pricePerItem;
+	}
+
+	// Virtual shopkeepers and shopkeepers in other worlds are sorted last.
+	private static double getDistanceSquared(Shopkeeper shopkeeper, Location location) {
+		Location shopkeeperLocation = shopkeeper.getLocation(); // Can be null
+		if (shopkeeperLocation == null) return Double.MAX_VALUE;
+		if (shopkeeperLocation.getWorld() != location.getWorld()) return Double.MAX_VALUE;
+		return shopkeeperLocation.distanceSquared(location);
+	}
+}
@@ -1,9 +1,14 @@
 package com.nisovin.shopkeepers.commands.shopkeepers;
 
+import java.util.Arrays;
+import java.util.UUID;
+
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.commands.arguments.ShopkeeperArgument;
 import com.nisovin.shopkeepers.commands.arguments.ShopkeeperFilter;
@@ -11,10 +16,13 @@ import com.nisovin.shopkeepers.commands.arguments.TargetShopkeeperFallback;
 import com.nisovin.shopkeepers.commands.lib.Command;
 import com.nisovin.shopkeepers.commands.lib.CommandException;
 import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.arguments.FirstOfArgument;
 import com.nisovin.shopkeepers.commands.lib.arguments.PlayerArgument;
+import com.nisovin.shopkeepers.commands.lib.arguments.PlayerNameArgument;
 import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.user.UserDirectory;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 
@@ -22,6 +30,8 @@ class CommandTransfer extends Command {
 
 	private static final String ARGUMENT_SHOPKEEPER = "shopkeeper";
 	private static final String ARGUMENT_NEW_OWNER = "new-owner";
+	private static final String ARGUMENT_NEW_OWNER_PLAYER = "new-owner:player";
+	private static final String ARGUMENT_NEW_OWNER_NAME = "new-owner:name";
 
 	CommandTransfer() {
 		super("transfer");
@@ -37,8 +47,11 @@ class CommandTransfer extends Command {
 				new ShopkeeperArgument(ARGUMENT_SHOPKEEPER, ShopkeeperFilter.PLAYER),
 				TargetShopkeeperFilter.PLAYER
 		));
-		this.addArgument(new PlayerArgument(ARGUMENT_NEW_OWNER)); // New owner has to be online
-		// TODO Allow offline player?
+		// Offline players are looked up by name in the user directory:
+		this.addArgument(new FirstOfArgument(ARGUMENT_NEW_OWNER, Arrays.asList(
+				new PlayerArgument(ARGUMENT_NEW_OWNER_PLAYER),
+				new PlayerNameArgument(ARGUMENT_NEW_OWNER_NAME)
+		), false)); // Don't join formats
 	}
 
 	@Override
@@ -46,7 +59,7 @@ class CommandTransfer extends Command {
 		CommandSender sender = input.getSender();
 
 		PlayerShopkeeper shopkeeper = context.get(ARGUMENT_SHOPKEEPER);
-		Player newOwner = context.get(ARGUMENT_NEW_OWNER);
+		Player newOwner = context.getOrNull(ARGUMENT_NEW_OWNER_PLAYER); // Can be null
 
 		// Check that the shop is owned by the executing player:
 		Player senderPlayer = (sender instanceof Player) ? (Player) sender : null;
@@ -56,12 +69,35 @@ class CommandTransfer extends Command {
 			return;
 		}
 
+		UUID newOwnerUUID;
+		String newOwnerName;
+		if (newOwner != null) {
+			newOwnerUUID = newOwner.getUniqueId();
+			newOwnerName = Unsafe.assertNonNull(newOwner.getName());
+		} else {
+			// Look up the offline player by name (without blocking):
+			String newOwnerNameInput = context.get(ARGUMENT_NEW_OWNER_NAME);
+			UserDirectory userDirectory = SKShopkeepersPlugin.getInstance().getUserDirectory();
+			UUID knownPlayerUUID = userDirectory.getUniqueId(newOwnerNameInput);
+			String knownPlayerName = (knownPlayerUUID != null)
+					? userDirectory.getName(knownPlayerUUID)
+					: null;
+			if (knownPlayerUUID == null || knownPlayerName == null) {
+				TextUtils.sendMessage(sender, Messages.commandPlayerArgumentInvalid,
+						"argument", newOwnerNameInput
+				);
+				return;
+			}
+			newOwnerUUID = knownPlayerUUID;
+			newOwnerName = knownPlayerName;
+		}
+
 		// Set new owner:
-		shopkeeper.setOwner(newOwner);
+		shopkeeper.setOwner(newOwnerUUID, newOwnerName);
 
 		// Success:
 		TextUtils.sendMessage(sender, Messages.ownerSet,
-				"owner", TextUtils.getPlayerText(newOwner)
+				"owner", TextUtils.getPlayerText(newOwnerName, newOwnerUUID)
 		);
 
 		// Save:
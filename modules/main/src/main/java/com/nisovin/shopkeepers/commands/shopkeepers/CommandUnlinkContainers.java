@@ -0,0 +1,68 @@
+package com.nisovin.shopkeepers.commands.shopkeepers;
+
+import org.bukkit.entity.Player;
+
+import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.commands.arguments.ShopkeeperArgument;
+import com.nisovin.shopkeepers.commands.arguments.ShopkeeperFilter;
+import com.nisovin.shopkeepers.commands.arguments.TargetShopkeeperFallback;
+import com.nisovin.shopkeepers.commands.lib.CommandException;
+import com.nisovin.shopkeepers.commands.lib.CommandInput;
+import com.nisovin.shopkeepers.commands.lib.commands.PlayerCommand;
+import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
+import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
+import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+
+class CommandUnlinkContainers extends PlayerCommand {
+
+	private static final String ARGUMENT_SHOPKEEPER = "shopkeeper";
+
+	CommandUnlinkContainers() {
+		super("unlinkContainers");
+
+		// Set permission:
+		this.setPermission(ShopkeepersPlugin.LINK_CONTAINERS_PERMISSION);
+
+		// Set description:
+		this.setDescription(Messages.commandDescriptionUnlinkContainers);
+
+		// Arguments:
+		this.addArgument(new TargetShopkeeperFallback(
+				new ShopkeeperArgument(ARGUMENT_SHOPKEEPER, ShopkeeperFilter.PLAYER),
+				TargetShopkeeperFilter.PLAYER
+		));
+	}
+
+	@Override
+	protected void execute(CommandInput input, CommandContextView context) throws CommandException {
+		assert (input.getSender() instanceof Player);
+		Player player = (Player) input.getSender();
+
+		AbstractPlayerShopkeeper shopkeeper = context.get(ARGUMENT_SHOPKEEPER);
+
+		// Check that the shop is owned by the executing player:
+		if (!shopkeeper.isOwner(player)
+				&& !PermissionUtils.hasPermission(player, ShopkeepersPlugin.BYPASS_PERMISSION)) {
+			TextUtils.sendMessage(player, Messages.notOwner);
+			return;
+		}
+
+		// Unlink the containers:
+		int unlinkedContainers = shopkeeper.unlinkContainers();
+		if (unlinkedContainers == 0) {
+			TextUtils.sendMessage(player, Messages.noLinkedContainers);
+			return;
+		}
+
+		// Success:
+		TextUtils.sendMessage(player, Messages.containersUnlinked,
+				"count", unlinkedContainers
+		);
+
+		// Save:
+		ShopkeepersPlugin.getInstance().getShopkeeperStorage().save();
+	}
+}
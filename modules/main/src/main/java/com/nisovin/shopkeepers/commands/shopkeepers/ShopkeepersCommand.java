@@ -76,6 +76,7 @@ public class ShopkeepersCommand extends BaseCommand {
 		childCommands.register(new CommandDebug());
 		childCommands.register(new CommandNotify());
 		childCommands.register(new CommandList(shopkeeperRegistry));
+		childCommands.register(new CommandSearch(plugin.getOfferIndex()));
 		childCommands.register(new CommandRemove(confirmations));
 		childCommands.register(new CommandRemoveAll(plugin, shopkeeperRegistry, confirmations));
 		childCommands.register(new CommandGive());
@@ -87,6 +88,8 @@ public class ShopkeepersCommand extends BaseCommand {
 		childCommands.register(new CommandTransfer());
 		childCommands.register(new CommandSetTradePerm());
 		childCommands.register(new CommandSetForHire());
+		childCommands.register(new CommandLinkContainer());
+		childCommands.register(new CommandUnlinkContainers());
 		childCommands.register(new CommandSnapshot(confirmations));
 		childCommands.register(new CommandEditVillager());
 		// Hidden commands:
@@ -1,10 +1,12 @@
 package com.nisovin.shopkeepers.commands.shopkeepers.snapshot;
 
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 
 import org.bukkit.command.CommandSender;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperLoadException;
@@ -20,6 +22,7 @@ import com.nisovin.shopkeepers.commands.lib.context.CommandContextView;
 import com.nisovin.shopkeepers.commands.util.ShopkeeperArgumentUtils.TargetShopkeeperFilter;
 import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.shopkeeper.SKShopkeeperSnapshot;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.logging.Log;
 
@@ -55,19 +58,37 @@ class CommandSnapshotRestore extends Command {
 		int snapshotId = snapshotIndex + 1;
 
 		ShopkeeperSnapshot snapshot = shopkeeper.getSnapshot(snapshotIndex);
+		SKShopkeepersPlugin plugin = SKShopkeepersPlugin.getInstance();
+		// Load the snapshot data without blocking the main thread:
+		((SKShopkeeperSnapshot) snapshot).loadShopkeeperDataAsync(plugin).whenComplete(
+				(shopkeeperData, error) -> {
+					// The shopkeeper might have been removed in the meantime:
+					if (!shopkeeper.isValid()) return;
+					if (error != null) {
+						Throwable cause = error;
+						Throwable errorCause = error.getCause();
+						if (error instanceof CompletionException && errorCause != null) {
+							cause = errorCause;
+						}
+						this.onRestoreFailed(sender, shopkeeper, snapshotId, snapshot, cause);
+						return;
+					}
+					this.restoreSnapshot(sender, shopkeeper, snapshotId, snapshot);
+				}
+		);
+	}
+
+	private void restoreSnapshot(
+			CommandSender sender,
+			Shopkeeper shopkeeper,
+			int snapshotId,
+			ShopkeeperSnapshot snapshot
+	) {
 		try {
 			shopkeeper.applySnapshot(snapshot);
 			shopkeeper.save();
 		} catch (ShopkeeperLoadException e) {
-			TextUtils.sendMessage(sender, Messages.snapshotRestoreFailed,
-					"id", snapshotId,
-					"name", snapshot.getName(),
-					"timestamp", (Supplier<?>) () -> DerivedSettings.dateTimeFormatter.format(
-							snapshot.getTimestamp()
-					)
-			);
-			Log.warning(shopkeeper.getLogPrefix() + "Failed to restore snapshot " + snapshotId
-					+ " ('" + snapshot.getName() + "')!", e);
+			this.onRestoreFailed(sender, shopkeeper, snapshotId, snapshot, e);
 			return;
 		}
 		TextUtils.sendMessage(sender, Messages.snapshotRestored,
@@ -78,4 +99,22 @@ class CommandSnapshotRestore extends Command {
 				)
 		);
 	}
+
+	private void onRestoreFailed(
+			CommandSender sender,
+			Shopkeeper shopkeeper,
+			int snapshotId,
+			ShopkeeperSnapshot snapshot,
+			Throwable error
+	) {
+		TextUtils.sendMessage(sender, Messages.snapshotRestoreFailed,
+				"id", snapshotId,
+				"name", snapshot.getName(),
+				"timestamp", (Supplier<?>) () -> DerivedSettings.dateTimeFormatter.format(
+						snapshot.getTimestamp()
+				)
+		);
+		Log.warning(shopkeeper.getLogPrefix() + "Failed to restore snapshot " + snapshotId
+				+ " ('" + snapshot.getName() + "')!", error);
+	}
 }
@@ -32,6 +32,7 @@ import com.nisovin.shopkeepers.container.ShopContainers;
 import com.nisovin.shopkeepers.container.protection.ProtectedContainers;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.text.Text;
+import com.nisovin.shopkeepers.user.UserDirectory;
 import com.nisovin.shopkeepers.util.java.StringUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 
@@ -319,6 +320,8 @@ public final class ShopkeeperArgumentUtils {
 	// which stores the player uuids and names of all shop owners found that match the given target
 	// player name. If this contains more than one entry then the target player name is ambiguous.
 	// The result contains the shops of all those matching players then.
+	// If no shop owner matches the given target player name, the target player is determined via
+	// the user directory.
 	public static OwnedPlayerShopsResult getOwnedPlayerShops(
 			@Nullable UUID targetPlayerUUID,
 			@Nullable String targetPlayerName
@@ -367,6 +370,25 @@ public final class ShopkeeperArgumentUtils {
 				}
 			}
 		}
+
+		UserDirectory userDirectory = SKShopkeepersPlugin.getInstance().getUserDirectory();
+		if (targetPlayerUUID != null) {
+			// If we found no shops for the specified player uuid, we look up the player's last
+			// known name in the user directory (without blocking):
+			if (actualTargetPlayerName == null) {
+				actualTargetPlayerName = userDirectory.getName(targetPlayerUUID);
+			}
+		} else if (shops.isEmpty()) {
+			// If we found no shops with matching owner name, the shop owner might have changed
+			// their name since. We look up the player that most recently used the specified name in
+			// the user directory (without blocking), and search for the shops of that player:
+			UUID knownPlayerUUID = userDirectory.getUniqueId(
+					Unsafe.assertNonNull(targetPlayerName)
+			);
+			if (knownPlayerUUID != null) {
+				return getOwnedPlayerShops(knownPlayerUUID, null);
+			}
+		}
 		return new OwnedPlayerShopsResult(
 				targetPlayerUUID,
 				actualTargetPlayerName,
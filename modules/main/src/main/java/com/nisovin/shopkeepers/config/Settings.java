@@ -54,6 +54,11 @@ public class Settings extends Config {
 	// See DebugOptions for all available options.
 	public static List<@NonNull String> debugOptions = new ArrayList<>(0);
 	public static boolean enableMetrics = true;
+	public static boolean exportMetricsViaJmx = false;
+	public static String metricsExportFile = "";
+	public static int metricsExportHttpPort = 0;
+	public static int metricsExportPeriodSeconds = 15;
+	public static int slowOperationThresholdMillis = 0;
 
 	/*
 	 * Messages
@@ -65,6 +70,9 @@ public class Settings extends Config {
 	 */
 	public static String fileEncoding = "UTF-8";
 	public static boolean saveInstantly = true;
+	public static boolean deferLoadingOfShopkeepersInUnloadedWorlds = false;
+	public static int userCacheSize = 1000;
+	public static int userDirectorySize = 10000;
 
 	public static boolean convertPlayerItems = false;
 	public static boolean convertAllPlayerItems = true;
@@ -103,6 +111,7 @@ public class Settings extends Config {
 
 	public static boolean requireContainerRecentlyPlaced = true;
 	public static int maxContainerDistance = 15;
+	public static int maxLinkedContainers = 3;
 	public static int maxShopsPerPlayer = -1;
 	public static String maxShopsPermOptions = "5,15,25";
 
@@ -221,6 +230,9 @@ public class Settings extends Config {
 	public static boolean enableSignShops = true;
 	public static boolean enableSignPostShops = true;
 
+	public static boolean eventDrivenShopObjectChecks = false;
+	public static boolean removeLeakedShopkeeperEntities = true;
+
 	/*
 	 * Naming
 	 */
@@ -351,6 +363,7 @@ public class Settings extends Config {
 	// Note: This can in general be larger than 64!
 	public static int highCurrencyValue = 9;
 	public static int highCurrencyMinCost = 20;
+	public static boolean consolidateContainerCurrency = false;
 
 	///// DERIVED SETTINGS
 
@@ -789,10 +802,37 @@ public class Settings extends Config {
 
 	@Override
 	protected void validateSettings() {
+		if (metricsExportHttpPort < 0 || metricsExportHttpPort > 65535) {
+			Log.warning(this.getLogPrefix() + "'metrics-export-http-port' has to be between 0 and "
+					+ "65535.");
+			metricsExportHttpPort = 0;
+		}
+		if (metricsExportPeriodSeconds <= 0) {
+			Log.warning(this.getLogPrefix() + "'metrics-export-period-seconds' has to be "
+					+ "positive.");
+			metricsExportPeriodSeconds = 1;
+		}
+		if (slowOperationThresholdMillis < 0) {
+			Log.warning(this.getLogPrefix() + "'slow-operation-threshold-millis' cannot be "
+					+ "negative.");
+			slowOperationThresholdMillis = 0;
+		}
+		if (userCacheSize <= 0) {
+			Log.warning(this.getLogPrefix() + "'user-cache-size' has to be positive.");
+			userCacheSize = 1;
+		}
+		if (userDirectorySize <= 0) {
+			Log.warning(this.getLogPrefix() + "'user-directory-size' has to be positive.");
+			userDirectorySize = 1;
+		}
 		if (maxContainerDistance > 50) {
 			Log.warning(this.getLogPrefix() + "'max-container-distance' can be at most 50.");
 			maxContainerDistance = 50;
 		}
+		if (maxLinkedContainers < 0) {
+			Log.warning(this.getLogPrefix() + "'max-linked-containers' cannot be negative.");
+			maxLinkedContainers = 0;
+		}
 		if (gravityChunkRange < 0) {
 			Log.warning(this.getLogPrefix() + "'gravity-chunk-range' cannot be negative.");
 			gravityChunkRange = 0;
@@ -1,11 +1,19 @@
 package com.nisovin.shopkeepers.container;
 
+import java.util.List;
+
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.Container;
+import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 
@@ -30,6 +38,23 @@ public class ShopContainers {
 				|| ItemUtils.isShulkerBox(material);
 	}
 
+	/**
+	 * Checks if the given inventory type is the type of inventory of a supported shop container.
+	 * <p>
+	 * This allows inventories to be quickly ruled out as shop container inventories, without
+	 * looking up their location or block.
+	 * 
+	 * @param inventoryType
+	 *            the inventory type
+	 * @return <code>true</code> if inventories of the given type can be shop container inventories
+	 */
+	public static boolean isSupportedContainerInventory(InventoryType inventoryType) {
+		// Also includes double chest inventories:
+		return inventoryType == InventoryType.CHEST
+				|| inventoryType == InventoryType.BARREL
+				|| inventoryType == InventoryType.SHULKER_BOX;
+	}
+
 	/**
 	 * Gets the {@link Inventory} of a supported type of shop container block.
 	 * <p>
@@ -52,4 +77,69 @@ public class ShopContainers {
 		// Note: For double chests this returns the complete double chest inventory.
 		return container.getInventory(); // Not null
 	}
+
+	/**
+	 * Gets the combined contents of the given container inventories.
+	 * <p>
+	 * The returned array contains the contents of the given inventories in the given order. This
+	 * allows the contents of multiple containers to be treated as one large container. Use
+	 * {@link #setContents(List, ItemStack[])} to apply changes to the returned contents back to the
+	 * individual inventories.
+	 * 
+	 * @param inventories
+	 *            the container inventories, not <code>null</code>
+	 * @return the combined contents, not <code>null</code>
+	 */
+	public static @Nullable ItemStack[] getContents(
+			@ReadOnly List<? extends @NonNull Inventory> inventories
+	) {
+		Validate.notNull(inventories, "inventories is null");
+		if (inventories.size() == 1) {
+			return Unsafe.cast(inventories.get(0).getContents());
+		}
+
+		int size = 0;
+		for (Inventory inventory : inventories) {
+			size += inventory.getSize();
+		}
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[size];
+		int offset = 0;
+		for (Inventory inventory : inventories) {
+			@Nullable ItemStack[] inventoryContents = Unsafe.cast(inventory.getContents());
+			System.arraycopy(inventoryContents, 0, contents, offset, inventoryContents.length);
+			offset += inventoryContents.length;
+		}
+		return contents;
+	}
+
+	/**
+	 * Applies the given combined contents, as returned by {@link #getContents(List)}, to the
+	 * individual container inventories.
+	 * 
+	 * @param inventories
+	 *            the container inventories, not <code>null</code>
+	 * @param contents
+	 *            the combined contents, not <code>null</code>
+	 */
+	public static void setContents(
+			@ReadOnly List<? extends @NonNull Inventory> inventories,
+			@ReadOnly @Nullable ItemStack @ReadOnly [] contents
+	) {
+		Validate.notNull(inventories, "inventories is null");
+		Validate.notNull(contents, "contents is null");
+		if (inventories.size() == 1) {
+			inventories.get(0).setContents(Unsafe.castNonNull(contents));
+			return;
+		}
+
+		int offset = 0;
+		for (Inventory inventory : inventories) {
+			int size = inventory.getSize();
+			Validate.isTrue(offset + size <= contents.length, "contents is too small");
+			@Nullable ItemStack[] inventoryContents = new @Nullable ItemStack[size];
+			System.arraycopy(contents, offset, inventoryContents, 0, size);
+			inventory.setContents(Unsafe.castNonNull(inventoryContents));
+			offset += size;
+		}
+	}
 }
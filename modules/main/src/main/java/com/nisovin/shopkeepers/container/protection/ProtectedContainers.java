@@ -94,6 +94,15 @@ public class ProtectedContainers {
 		protectedContainers.clear();
 	}
 
+	/**
+	 * Checks if there are currently no protected containers.
+	 * 
+	 * @return <code>true</code> if there are no protected containers
+	 */
+	public boolean isEmpty() {
+		return protectedContainers.isEmpty();
+	}
+
 	private BlockLocation getSharedKey(String worldName, int x, int y, int z) {
 		sharedBlockLocation.set(worldName, x, y, z);
 		return sharedBlockLocation;
@@ -13,6 +13,8 @@ import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.container.ShopContainers;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.bukkit.BlockLocation;
 
 public class RemoveShopOnContainerBreak {
 
@@ -44,6 +46,8 @@ public class RemoveShopOnContainerBreak {
 
 	// Does not trigger saving on its own, returns true if there were shopkeepers using the
 	// container, that got removed now.
+	// Shopkeepers that use the container as a linked container are not removed, but the container
+	// is unlinked from them.
 	// Does not check the delete-shopkeeper-on-break-container setting, this has to be checked by
 	// clients beforehand.
 	// Does not check whether the block is still a valid container type.
@@ -51,9 +55,15 @@ public class RemoveShopOnContainerBreak {
 		List<? extends @NonNull PlayerShopkeeper> shopkeepers = protectedContainers.getShopkeepers(block);
 		if (shopkeepers.isEmpty()) return false;
 
+		BlockLocation containerLocation = BlockLocation.of(block);
 		// Copy to deal with concurrent modifications:
 		for (PlayerShopkeeper shopkeeper : shopkeepers.toArray(new PlayerShopkeeper[0])) {
 			if (!shopkeeper.isValid()) continue; // Skip if no longer valid
+			if (shopkeeper instanceof AbstractPlayerShopkeeper
+					&& ((AbstractPlayerShopkeeper) shopkeeper).unlinkContainer(containerLocation)) {
+				// The shopkeeper keeps using its other containers:
+				continue;
+			}
 			// Return the shop creation item for player shopkeepers:
 			if (Settings.deletingPlayerShopReturnsCreationItem) {
 				ItemStack shopCreationItem = Settings.shopCreationItem.createItemStack();
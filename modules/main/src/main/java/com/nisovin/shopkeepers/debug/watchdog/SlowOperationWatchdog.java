@@ -0,0 +1,269 @@
+package com.nisovin.shopkeepers.debug.watchdog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Detects operations on the server's main thread that take unusually long, and records them
+ * together with their context and a sampled stack trace in a rotating debug log.
+ * <p>
+ * The stack trace is sampled by a monitoring thread once an operation has exceeded the configured
+ * threshold, so it shows what the main thread was busy with while the operation was still in
+ * progress. The operations are reported once they complete. Nested operations are tracked
+ * individually.
+ * <p>
+ * The watchdog is only active if a threshold is configured. Otherwise, starting and stopping
+ * operations does nothing.
+ */
+public class SlowOperationWatchdog {
+
+	private static final String LOG_FILE_PATTERN = "debug-logs/slow-operations.%g.log";
+	private static final int LOG_FILE_MAX_BYTES = 1024 * 1024;
+	private static final int LOG_FILE_COUNT = 5;
+
+	/**
+	 * A monitored operation.
+	 */
+	public static final class Operation {
+
+		private final @Nullable SlowOperationWatchdog watchdog;
+		private final String name;
+		private final Supplier<@NonNull String> contextSupplier;
+		private final @Nullable Operation parent;
+		private final long startNanos;
+		// Set by the monitoring thread:
+		private volatile StackTraceElement @Nullable [] sampledStackTrace = null;
+		private volatile boolean stopped = false;
+
+		private Operation(
+				@Nullable SlowOperationWatchdog watchdog,
+				String name,
+				Supplier<@NonNull String> contextSupplier,
+				@Nullable Operation parent
+		) {
+			this.watchdog = watchdog;
+			this.name = name;
+			this.contextSupplier = contextSupplier;
+			this.parent = parent;
+			this.startNanos = System.nanoTime();
+		}
+
+		/**
+		 * Stops the monitoring of this operation, and reports the operation if it exceeded the
+		 * threshold.
+		 * <p>
+		 * This has to be called on the main thread, in the reverse order in which the operations
+		 * have been started.
+		 */
+		public void stop() {
+			SlowOperationWatchdog watchdog = this.watchdog;
+			if (watchdog == null) return; // Not monitored
+			watchdog.stop(this);
+		}
+	}
+
+	private static final Operation NOT_MONITORED = new Operation(null, "", () -> "", null);
+
+	private final Plugin plugin;
+
+	// Read by the monitoring thread:
+	private volatile long thresholdNanos = 0L;
+	private volatile @Nullable Thread mainThread = null;
+	// Single thread that samples the stack traces and writes the log file:
+	private @Nullable ScheduledExecutorService monitor = null;
+	private @Nullable FileHandler logFileHandler = null;
+	// The innermost operation that is currently in progress. Read by the monitoring thread.
+	private volatile @Nullable Operation current = null;
+
+	public SlowOperationWatchdog(Plugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+	}
+
+	public void onEnable() {
+		if (Settings.slowOperationThresholdMillis <= 0) return; // Disabled
+
+		Path logFilePattern = plugin.getDataFolder().toPath().resolve(LOG_FILE_PATTERN);
+		FileHandler logFileHandler;
+		try {
+			FileUtils.createParentDirectories(logFilePattern);
+			logFileHandler = new FileHandler(
+					logFilePattern.toString(),
+					LOG_FILE_MAX_BYTES,
+					LOG_FILE_COUNT,
+					true
+			);
+		} catch (IOException e) {
+			Log.severe("Failed to set up the slow operations log!", e);
+			return;
+		}
+		logFileHandler.setFormatter(new SlowOperationFormatter());
+		this.logFileHandler = logFileHandler;
+
+		thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Settings.slowOperationThresholdMillis);
+		mainThread = Thread.currentThread();
+		assert Bukkit.isPrimaryThread();
+
+		ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Shopkeepers-SlowOperationWatchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// Sample at least twice per threshold duration:
+		long samplePeriodMillis = Math.max(1L, Settings.slowOperationThresholdMillis / 2);
+		monitor.scheduleAtFixedRate(
+				this::sample,
+				samplePeriodMillis,
+				samplePeriodMillis,
+				TimeUnit.MILLISECONDS
+		);
+		this.monitor = monitor;
+		Log.info("Logging operations that take longer than " + Settings.slowOperationThresholdMillis
+				+ " ms to " + logFilePattern.getParent());
+	}
+
+	public void onDisable() {
+		current = null;
+		mainThread = null;
+		thresholdNanos = 0L;
+
+		ScheduledExecutorService monitor = this.monitor;
+		if (monitor != null) {
+			monitor.shutdown();
+			try {
+				// Wait for any pending log writes:
+				monitor.awaitTermination(1L, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.monitor = null;
+		}
+
+		FileHandler logFileHandler = this.logFileHandler;
+		if (logFileHandler != null) {
+			logFileHandler.close();
+			this.logFileHandler = null;
+		}
+	}
+
+	/**
+	 * Starts monitoring an operation on the main thread.
+	 * <p>
+	 * The returned {@link Operation} has to be {@link Operation#stop() stopped} once the operation
+	 * completes, usually inside a <code>finally</code> block.
+	 * 
+	 * @param name
+	 *            the operation name, not <code>null</code>
+	 * @param contextSupplier
+	 *            provides a description of the operation's context, such as the involved
+	 *            shopkeeper. Only invoked on the main thread if the operation is reported. Not
+	 *            <code>null</code>.
+	 * @return the operation, not <code>null</code>
+	 */
+	public Operation start(String name, Supplier<@NonNull String> contextSupplier) {
+		if (thresholdNanos <= 0L || !Bukkit.isPrimaryThread()) return NOT_MONITORED;
+		Operation operation = new Operation(this, name, contextSupplier, current);
+		current = operation;
+		return operation;
+	}
+
+	private void stop(Operation operation) {
+		long durationNanos = System.nanoTime() - operation.startNanos;
+		operation.stopped = true;
+		if (current == operation) {
+			current = operation.parent;
+		} // Else: Unexpected order, or the watchdog has been disabled in the meantime.
+
+		if (durationNanos < thresholdNanos) return;
+		if (thresholdNanos <= 0L) return; // The watchdog has been disabled in the meantime
+
+		String context;
+		try {
+			context = operation.contextSupplier.get();
+		} catch (Exception e) {
+			context = "<failed to determine the context: " + e + ">";
+		}
+		double durationMillis = durationNanos / 1000000.0D;
+		String message = operation.name + " took " + TextUtils.format(durationMillis) + " ms ("
+				+ context + ")";
+		Log.debug(() -> "Slow operation: " + message);
+
+		LogRecord logRecord = new LogRecord(Level.WARNING, message);
+		StackTraceElement[] stackTrace = operation.sampledStackTrace;
+		if (stackTrace != null) {
+			Throwable sample = new Throwable("Sampled main thread stack trace");
+			sample.setStackTrace(stackTrace);
+			logRecord.setThrown(sample);
+		}
+		this.writeLogRecord(logRecord);
+	}
+
+	private void writeLogRecord(LogRecord logRecord) {
+		ScheduledExecutorService monitor = this.monitor;
+		FileHandler logFileHandler = this.logFileHandler;
+		if (monitor == null || logFileHandler == null) return;
+		// Write the log file on the monitoring thread:
+		monitor.execute(() -> logFileHandler.publish(logRecord));
+	}
+
+	// Called by the monitoring thread.
+	private void sample() {
+		Thread mainThread = this.mainThread;
+		Operation operation = current;
+		if (mainThread == null || operation == null) return;
+
+		long nowNanos = System.nanoTime();
+		StackTraceElement[] stackTrace = null;
+		// Sample all slow operations that have not been sampled yet, including outer operations:
+		for (Operation op = operation; op != null; op = op.parent) {
+			if (op.sampledStackTrace != null) continue;
+			if (nowNanos - op.startNanos < thresholdNanos) continue;
+
+			if (stackTrace == null) {
+				stackTrace = mainThread.getStackTrace();
+			}
+			// The operation might have completed while we sampled the stack trace:
+			if (op.stopped) continue;
+			op.sampledStackTrace = stackTrace;
+		}
+	}
+
+	private static final class SlowOperationFormatter extends Formatter {
+
+		@Override
+		public String format(LogRecord record) {
+			StringBuilder builder = new StringBuilder();
+			builder.append('[').append(Instant.ofEpochMilli(record.getMillis())).append("] ")
+					.append(record.getMessage()).append(System.lineSeparator());
+			Throwable thrown = record.getThrown();
+			if (thrown != null) {
+				builder.append("  ").append(thrown.getMessage()).append(':')
+						.append(System.lineSeparator());
+				for (StackTraceElement element : thrown.getStackTrace()) {
+					builder.append("    at ").append(element).append(System.lineSeparator());
+				}
+			}
+			return builder.toString();
+		}
+	}
+}
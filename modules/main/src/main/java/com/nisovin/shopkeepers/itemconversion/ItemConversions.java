@@ -1,24 +1,24 @@
 package com.nisovin.shopkeepers.itemconversion;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import org.bukkit.Bukkit;
-import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.HandlerList;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
-import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.config.Settings;
-import com.nisovin.shopkeepers.container.ShopContainers;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.lang.Messages;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -82,16 +82,20 @@ public class ItemConversions {
 		int convertedStacks = convertAffectedPlayerItems(player);
 
 		// Convert shop container items:
-		if (shopkeeper instanceof PlayerShopkeeper) {
-			PlayerShopkeeper playerShopkeeper = (PlayerShopkeeper) shopkeeper;
-			Block containerBlock = playerShopkeeper.getContainer();
-			if (containerBlock != null
-					&& ShopContainers.isSupportedContainer(containerBlock.getType())) {
+		if (shopkeeper instanceof AbstractPlayerShopkeeper) {
+			AbstractPlayerShopkeeper playerShopkeeper = (AbstractPlayerShopkeeper) shopkeeper;
+			// Includes the inventories of the linked containers.
+			// Returns the complete inventories for double chests.
+			// Inventory changes are directly reflected by the container blocks in the world.
+			List<? extends @NonNull Inventory> containerInventories = playerShopkeeper
+					.getContainerInventories();
+			if (!containerInventories.isEmpty()) {
 				long startNanos = System.nanoTime();
-				// Returns the complete inventory for double chests.
-				// Inventory changes are directly reflected by the container block in the world.
-				Inventory containerInventory = ShopContainers.getInventory(containerBlock);
-				int convertedContainerStacks = convertAffectedItems(containerInventory);
+				int convertedStacksCount = 0;
+				for (Inventory containerInventory : containerInventories) {
+					convertedStacksCount += convertAffectedItems(containerInventory);
+				}
+				int convertedContainerStacks = convertedStacksCount;
 				long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
 				// The conversion always has some performance impact, even if no items were actually
 				// converted. To enable debugging these item conversion timings, we always print
@@ -99,7 +103,7 @@ public class ItemConversions {
 				Log.debug(DebugOptions.itemConversions,
 						() -> shopkeeper.getLogPrefix() + "Player '" + player.getName()
 								+ "' triggered the conversion of " + convertedContainerStacks
-								+ " affected item stacks inside the shop container (took "
+								+ " affected item stacks inside the shop containers (took "
 								+ durationMillis + " ms)."
 				);
 				convertedStacks += convertedContainerStacks;
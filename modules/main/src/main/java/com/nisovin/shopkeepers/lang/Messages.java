@@ -385,6 +385,12 @@ public class Messages extends Config {
 	public static Text tradePermRemoved = Text.parse("&aThe shop's trading permission '&e{perm}&a' has been removed!");
 	public static Text tradePermView = Text.parse("&aThe shop's current trading permission is '&e{perm}&a'.");
 
+	public static Text noContainerSelected = Text.parse("&7You must first right-click a container with the shop creation item.");
+	public static Text tooManyLinkedContainers = Text.parse("&7You cannot link more than &e{maxLinkedContainers}&7 additional container(s) to a shop.");
+	public static Text containerLinked = Text.parse("&aThe selected container has been linked to the shop. The shop now uses &e{containersCount}&a container(s).");
+	public static Text noLinkedContainers = Text.parse("&7The shop has no linked containers.");
+	public static Text containersUnlinked = Text.parse("&aUnlinked &e{count}&a container(s) from the shop.");
+
 	public static Text zombieVillagerCuringDisabled = Text.parse("&7Curing of zombie villagers is disabled.");
 	public static Text mustHoldHireItem = Text.parse("&7You have to hold the required hire item in your hand.");
 	public static Text setForHire = Text.parse("&aThis shopkeeper can now be hired.");
@@ -659,11 +665,19 @@ public class Messages extends Config {
 	public static Text listPlayerShopsHeader = Text.parse("&9Player '&e{player}&9' has &e{shopsCount} &9shops: &e(Page {page} of {maxPage})");
 	public static Text listShopsEntry = Text.parse("  &e{shopId}) &7{shopName}&r&8at &7({location})&8, type: &7{shopType}&8, object: &7{objectType}");
 
+	public static Text searchSellingOffersHeader = Text.parse("&9There are &e{offersCount} &9offers that sell &e{item}&9: &e(Page {page} of {maxPage})");
+	public static Text searchBuyingOffersHeader = Text.parse("&9There are &e{offersCount} &9offers that buy &e{item}&9: &e(Page {page} of {maxPage})");
+	public static Text searchOffersEntry = Text.parse("  &e{offerIndex}) &7{shopName}&r&8at &7({location})&8: &7{amount}x &8for &e{price}&8, stock: &7{stock}");
+	public static String searchPriceItems = c("items");
+	public static String searchStockUnlimited = c("unlimited");
+	public static String searchStockUnknown = c("unknown");
+
 	public static Text shopRemoved = Text.parse("&aThe shopkeeper has been removed.");
 	public static Text shopAlreadyRemoved = Text.parse("&7The shopkeeper has already been removed.");
 	public static Text shopNoLongerExists = Text.parse("&7The shopkeeper no longer exists.");
 	public static Text shopRemovalCancelled = Text.parse("&cA plugin has prevented the removal of the shopkeeper.");
 
+	public static Text shopRemovalProgress = Text.parse("&7Removing shops: &e{removedCount}&7/&e{shopsCount}");
 	public static Text shopsAlreadyRemoved = Text.parse("&e{shopsCount}&7 of the shops have already been removed.");
 	public static Text shopRemovalsCancelled = Text.parse("&cPlugins have prevented the removal of &e{shopsCount}&c of the shops.");
 	public static Text adminShopsRemoved = Text.parse("&e{shopsCount} &aadmin shops have been removed.");
@@ -746,6 +760,7 @@ public class Messages extends Config {
 	public static Text commandDescriptionDebug = Text.parse("Toggles debug mode on and off.");
 	public static Text commandDescriptionNotify = Text.parse("Turns trade notifications for you on or off.");
 	public static Text commandDescriptionList = Text.parse("Lists all shops of a specific player, or all admin shops.");
+	public static Text commandDescriptionSearch = Text.parse("Searches the shops that sell or buy the held item.");
 	public static Text commandDescriptionRemove = Text.parse("Removes a specific shop.");
 	public static Text commandDescriptionRemoveAll = Text.parse("Removes all shops of a specific player, all players, or all admin shops.");
 	public static Text commandDescriptionGive = Text.parse("Gives shop creation item(s) to the specified player.");
@@ -757,6 +772,8 @@ public class Messages extends Config {
 	public static Text commandDescriptionTransfer = Text.parse("Transfers the ownership of a shop.");
 	public static Text commandDescriptionSettradeperm = Text.parse("Sets, removes (-) or displays (?) the trading permission.");
 	public static Text commandDescriptionSetforhire = Text.parse("Sets one of your shops for sale.");
+	public static Text commandDescriptionLinkContainer = Text.parse("Links the selected container to a player shop.");
+	public static Text commandDescriptionUnlinkContainers = Text.parse("Unlinks all additional containers from a player shop.");
 	public static Text commandDescriptionSnapshotList = Text.parse("Lists the snapshots of a shop.");
 	public static Text commandDescriptionSnapshotCreate = Text.parse("Creates a new shop snapshot.");
 	public static Text commandDescriptionSnapshotRemove = Text.parse("Removes a specific or all snapshots of a shop.");
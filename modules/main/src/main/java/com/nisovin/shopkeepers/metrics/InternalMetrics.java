@@ -0,0 +1,260 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.metrics.MetricsRegistry.MetricSamples;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.shopobjects.living.LivingEntityAI;
+import com.nisovin.shopkeepers.storage.SKShopkeeperStorage;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.timer.Timings;
+
+/**
+ * Periodically collects internal metrics of the plugin and exports them via JMX or in the
+ * Prometheus text format, if enabled in the config.
+ * <p>
+ * Unlike the {@link PluginMetrics}, these metrics are not reported anywhere by default, but are
+ * meant to be scraped by the server's own monitoring.
+ */
+public class InternalMetrics {
+
+	private static final String PREFIX = "shopkeepers_";
+
+	private final SKShopkeepersPlugin plugin;
+	private final MetricsRegistry registry = new MetricsRegistry();
+
+	private @Nullable JmxMetricsExporter jmxExporter = null;
+	private @Nullable PrometheusMetricsExporter prometheusExporter = null;
+	private @Nullable BukkitTask collectTask = null;
+
+	public InternalMetrics(SKShopkeepersPlugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Gets the {@link MetricsRegistry} of the internal metrics.
+	 * 
+	 * @return the metrics registry
+	 */
+	public MetricsRegistry getRegistry() {
+		return registry;
+	}
+
+	public void onEnable() {
+		Path exportFile = null;
+		if (!Settings.metricsExportFile.isEmpty()) {
+			exportFile = plugin.getDataFolder().toPath().resolve(Settings.metricsExportFile);
+		}
+		int httpPort = Settings.metricsExportHttpPort;
+		boolean exportViaJmx = Settings.exportMetricsViaJmx;
+		if (!exportViaJmx && exportFile == null && httpPort == 0) {
+			return; // No metrics export is enabled
+		}
+
+		this.registerMetrics();
+
+		if (exportViaJmx) {
+			JmxMetricsExporter jmxExporter = new JmxMetricsExporter();
+			jmxExporter.start();
+			this.jmxExporter = jmxExporter;
+		}
+		if (exportFile != null || httpPort != 0) {
+			PrometheusMetricsExporter prometheusExporter = new PrometheusMetricsExporter(
+					exportFile,
+					httpPort
+			);
+			prometheusExporter.start();
+			this.prometheusExporter = prometheusExporter;
+		}
+
+		// Collect once right away, so that the exports are available immediately:
+		this.collectAndExport();
+		long periodTicks = Settings.metricsExportPeriodSeconds * 20L;
+		collectTask = Bukkit.getScheduler().runTaskTimer(
+				plugin,
+				this::collectAndExport,
+				periodTicks,
+				periodTicks
+		);
+	}
+
+	public void onDisable() {
+		BukkitTask collectTask = this.collectTask;
+		if (collectTask != null) {
+			collectTask.cancel();
+			this.collectTask = null;
+		}
+
+		JmxMetricsExporter jmxExporter = this.jmxExporter;
+		if (jmxExporter != null) {
+			jmxExporter.stop();
+			this.jmxExporter = null;
+		}
+
+		PrometheusMetricsExporter prometheusExporter = this.prometheusExporter;
+		if (prometheusExporter != null) {
+			prometheusExporter.stop();
+			this.prometheusExporter = null;
+		}
+
+		registry.clear();
+	}
+
+	private void registerMetrics() {
+		SKShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
+		SKShopkeeperStorage shopkeeperStorage = plugin.getShopkeeperStorage();
+		LivingEntityAI livingEntityAI = plugin.getLivingShops().getLivingEntityAI();
+
+		// Shopkeepers:
+		registry.registerGauge(PREFIX + "shopkeepers", "Number of loaded shopkeepers.",
+				() -> shopkeeperRegistry.getAllShopkeepers().size());
+		registry.registerGauge(PREFIX + "virtual_shopkeepers", "Number of virtual shopkeepers.",
+				() -> shopkeeperRegistry.getVirtualShopkeepers().size());
+		registry.registerGauge(PREFIX + "player_shopkeepers", "Number of player shopkeepers.",
+				() -> shopkeeperRegistry.getAllPlayerShopkeepers().size());
+		registry.registerGauge(PREFIX + "active_shopkeepers",
+				"Number of shopkeepers in active chunks.",
+				() -> shopkeeperRegistry.getActiveShopkeepers().size());
+		registry.registerGauge(PREFIX + "chunks_with_shopkeepers",
+				"Number of chunks that contain shopkeepers.",
+				() -> shopkeeperRegistry.getWorldsWithShopkeepers().stream()
+						.mapToInt(worldName -> {
+							return shopkeeperRegistry.getShopkeepersByChunks(worldName).size();
+						})
+						.sum());
+
+		// Player shop containers:
+		registry.registerGauge(PREFIX + "player_shop_full_containers",
+				"Number of player shops whose containers have no empty slots left.",
+				() -> this.getPlayerShopContainerStatistics(true));
+		registry.registerGauge(PREFIX + "player_shop_container_slot_utilization",
+				"Average fraction of the occupied slots of the containers of player shops.",
+				() -> this.getPlayerShopContainerStatistics(false));
+
+		// Storage:
+		registry.registerGauge(PREFIX + "storage_dirty",
+				"Whether there are unsaved shopkeeper changes (1) or not (0).",
+				() -> shopkeeperStorage.isDirty() ? 1 : 0);
+		registry.registerGauge(PREFIX + "storage_unsaved_dirty_shopkeepers",
+				"Number of shopkeepers with unsaved changes.",
+				shopkeeperStorage::getUnsavedDirtyShopkeepersCount);
+		registry.registerGauge(PREFIX + "storage_unsaved_deleted_shopkeepers",
+				"Number of deleted shopkeepers whose deletion has not yet been saved.",
+				shopkeeperStorage::getUnsavedDeletedShopkeepersCount);
+		registry.registerGauge(PREFIX + "storage_deferred_shopkeepers",
+				"Number of shopkeepers whose loading is deferred until their world is loaded.",
+				shopkeeperStorage::getDeferredShopkeepersCount);
+		registry.registerSummary(PREFIX + "storage_save_duration_seconds",
+				"Durations of the shopkeeper saves.",
+				shopkeeperStorage::getSaveDurationHistogram,
+				shopkeeperStorage::getSaveDurationHistogram);
+
+		// Trade logs:
+		registry.registerSummary(PREFIX + "trade_log_save_duration_seconds",
+				"Durations of the writes of the trade logs.",
+				() -> plugin.getTradeLoggers().getSaveDurationHistogram(),
+				() -> plugin.getTradeLoggers().getSaveDurationHistogram());
+
+		// Spawning:
+		registry.registerGauge(PREFIX + "spawn_queue_pending",
+				"Number of shopkeepers that are pending to be spawned.",
+				() -> shopkeeperRegistry.getShopkeeperSpawner().getSpawnQueueStatistics()
+						.getPendingCount());
+		registry.registerGauge(PREFIX + "spawn_queue_max_pending",
+				"Maximum number of shopkeepers that were pending to be spawned at once.",
+				() -> shopkeeperRegistry.getShopkeeperSpawner().getSpawnQueueStatistics()
+						.getMaxPendingCount());
+		this.registerTimings(PREFIX + "chunk_activation_duration_seconds",
+				"Durations of the activations of chunks.",
+				shopkeeperRegistry.getChunkActivator().getChunkActivationTimings());
+		this.registerTimings(PREFIX + "chunk_spawn_duration_seconds",
+				"Durations of the spawning of the shopkeepers of chunks.",
+				shopkeeperRegistry.getShopkeeperSpawner().getChunkSpawnTimings());
+		this.registerTimings(PREFIX + "spawn_duration_seconds",
+				"Durations of the spawning of individual shopkeepers.",
+				shopkeeperRegistry.getShopkeeperSpawner().getSpawnTimings());
+
+		// Mob AI:
+		registry.registerGauge(PREFIX + "ai_entities", "Number of shop entities with AI.",
+				livingEntityAI::getEntityCount);
+		registry.registerGauge(PREFIX + "ai_active_entities",
+				"Number of shop entities with active AI.",
+				livingEntityAI::getActiveAIEntityCount);
+		registry.registerGauge(PREFIX + "ai_active_gravity_entities",
+				"Number of shop entities with active gravity.",
+				livingEntityAI::getActiveGravityEntityCount);
+		registry.registerGauge(PREFIX + "ai_active_chunks", "Number of chunks with active AI.",
+				livingEntityAI::getActiveAIChunksCount);
+		registry.registerGauge(PREFIX + "ai_active_gravity_chunks",
+				"Number of chunks with active gravity.",
+				livingEntityAI::getActiveGravityChunksCount);
+		this.registerTimings(PREFIX + "ai_tick_duration_seconds",
+				"Durations of the ticks of the shop entity AI.",
+				livingEntityAI.getTotalTimings());
+		this.registerTimings(PREFIX + "ai_activation_duration_seconds",
+				"Durations of the updates of the AI and gravity chunk activations.",
+				livingEntityAI.getActivationTimings());
+		this.registerTimings(PREFIX + "ai_gravity_duration_seconds",
+				"Durations of the gravity processing of the shop entity AI ticks.",
+				livingEntityAI.getGravityTimings());
+		this.registerTimings(PREFIX + "ai_ai_duration_seconds",
+				"Durations of the AI processing of the shop entity AI ticks.",
+				livingEntityAI.getAITimings());
+	}
+
+	// Only takes the player shops into account whose container slot utilization is known.
+	private double getPlayerShopContainerStatistics(boolean countFullContainers) {
+		int knownCount = 0;
+		int fullCount = 0;
+		double utilizationSum = 0.0D;
+		SKShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
+		for (AbstractPlayerShopkeeper shopkeeper : shopkeeperRegistry.getAllPlayerShopkeepers()) {
+			double utilization = shopkeeper.getContainerSlotUtilization();
+			if (utilization < 0.0D) continue; // Unknown
+			knownCount++;
+			utilizationSum += utilization;
+			if (utilization >= 1.0D) {
+				fullCount++;
+			}
+		}
+		if (countFullContainers) return fullCount;
+		return (knownCount == 0) ? 0.0D : (utilizationSum / knownCount);
+	}
+
+	private void registerTimings(String name, String help, Timings timings) {
+		// The quantiles are based on the recent timings, so that they reflect the current state:
+		registry.registerSummary(name, help, timings::getHistogram, timings::getRecentHistogram);
+	}
+
+	// Called on the main thread.
+	private void collectAndExport() {
+		List<? extends @NonNull MetricSamples> metrics = registry.collect();
+
+		JmxMetricsExporter jmxExporter = this.jmxExporter;
+		if (jmxExporter != null) {
+			jmxExporter.update(metrics);
+		}
+
+		PrometheusMetricsExporter prometheusExporter = this.prometheusExporter;
+		if (prometheusExporter != null) {
+			Runnable writeFileTask = prometheusExporter.update(metrics);
+			if (writeFileTask != null) {
+				if (plugin.isEnabled()) {
+					Bukkit.getScheduler().runTaskAsynchronously(plugin, writeFileTask);
+				} else {
+					writeFileTask.run();
+				}
+			}
+		}
+	}
+}
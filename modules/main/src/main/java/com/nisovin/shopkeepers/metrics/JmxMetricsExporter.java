@@ -0,0 +1,168 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.metrics.MetricsRegistry.MetricSamples;
+import com.nisovin.shopkeepers.metrics.MetricsRegistry.Sample;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Exports the collected metrics as the read-only attributes of a JMX MBean.
+ * <p>
+ * The quantiles of summary metrics are exported as separate attributes, with the quantile appended
+ * to the metric name, for example <code>_p99</code>. The attributes provide the metrics that have
+ * been collected last, since the metrics are only allowed to be collected on the server's main
+ * thread.
+ */
+class JmxMetricsExporter implements DynamicMBean {
+
+	private static final String OBJECT_NAME = "com.nisovin.shopkeepers:type=Metrics";
+
+	private static String getAttributeName(Sample sample) {
+		Double quantile = sample.getQuantile();
+		if (quantile == null) return sample.getName();
+		// For example: 0.999 -> p99_9
+		String percentile = String.valueOf(quantile * 100.0D);
+		if (percentile.endsWith(".0")) {
+			percentile = percentile.substring(0, percentile.length() - 2);
+		}
+		return sample.getName() + "_p" + percentile.replace('.', '_');
+	}
+
+	private @Nullable ObjectName objectName = null;
+	// The last collected metrics. Accessed by the JMX threads.
+	private volatile Map<@NonNull String, @NonNull Double> attributes = Collections.emptyMap();
+	private volatile MBeanInfo mbeanInfo = createMBeanInfo(Collections.emptyMap());
+
+	JmxMetricsExporter() {
+	}
+
+	void start() {
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+			MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+			if (mbeanServer.isRegistered(objectName)) {
+				// For example if a previous plugin instance was not properly disabled:
+				mbeanServer.unregisterMBean(objectName);
+			}
+			mbeanServer.registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException e) {
+			Log.severe("Failed to register the metrics MBean!", e);
+		}
+	}
+
+	void stop() {
+		ObjectName objectName = this.objectName;
+		if (objectName == null) return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			Log.warning("Failed to unregister the metrics MBean!", e);
+		}
+		this.objectName = null;
+	}
+
+	void update(List<? extends @NonNull MetricSamples> metrics) {
+		Map<@NonNull String, @NonNull Double> attributes = new LinkedHashMap<>();
+		Map<@NonNull String, @NonNull String> descriptions = new LinkedHashMap<>();
+		for (MetricSamples metric : metrics) {
+			for (Sample sample : metric.getSamples()) {
+				String attributeName = getAttributeName(sample);
+				attributes.put(attributeName, sample.getValue());
+				descriptions.put(attributeName, metric.getHelp());
+			}
+		}
+
+		// Only recreate the MBean info if the attributes have changed:
+		if (!attributes.keySet().equals(this.attributes.keySet())) {
+			mbeanInfo = createMBeanInfo(descriptions);
+		}
+		this.attributes = Collections.unmodifiableMap(attributes);
+	}
+
+	private static MBeanInfo createMBeanInfo(Map<@NonNull String, @NonNull String> descriptions) {
+		MBeanAttributeInfo[] attributeInfos = new MBeanAttributeInfo[descriptions.size()];
+		int index = 0;
+		for (Map.Entry<@NonNull String, @NonNull String> entry : descriptions.entrySet()) {
+			attributeInfos[index++] = new MBeanAttributeInfo(
+					entry.getKey(),
+					Double.class.getName(),
+					entry.getValue(),
+					true, // Readable
+					false, // Not writable
+					false // Not an 'is' getter
+			);
+		}
+		return new MBeanInfo(
+				JmxMetricsExporter.class.getName(),
+				"Shopkeepers metrics",
+				attributeInfos,
+				null,
+				null,
+				null
+		);
+	}
+
+	// DYNAMIC MBEAN
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Double value = attributes.get(attribute);
+		if (value == null) {
+			throw new AttributeNotFoundException("Unknown metric: " + attribute);
+		}
+		return value;
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributeNames) {
+		Map<@NonNull String, @NonNull Double> attributes = this.attributes;
+		AttributeList attributeList = new AttributeList();
+		for (String attributeName : attributeNames) {
+			Double value = attributes.get(attributeName);
+			if (value != null) {
+				attributeList.add(new Attribute(attributeName, value));
+			}
+		}
+		return attributeList;
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		// Read-only: No attributes are set.
+		return new AttributeList();
+	}
+
+	@Override
+	public @Nullable Object invoke(String actionName, Object[] params, String[] signature) {
+		throw new UnsupportedOperationException("The metrics MBean provides no operations!");
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		return mbeanInfo;
+	}
+}
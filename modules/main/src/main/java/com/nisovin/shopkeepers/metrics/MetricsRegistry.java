@@ -0,0 +1,282 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.timer.LatencyHistogram;
+
+/**
+ * A registry of internal metrics that can be exported to external monitoring systems.
+ * <p>
+ * The metrics are only {@link #collect() collected} on demand, by invoking the registered value
+ * suppliers. Since the suppliers usually access server and plugin state, collection is expected to
+ * happen on the server's main thread.
+ */
+public class MetricsRegistry {
+
+	/**
+	 * The type of a metric.
+	 * <p>
+	 * The names of these types match the corresponding Prometheus metric types.
+	 */
+	public enum MetricType {
+		/**
+		 * A value that can arbitrarily go up and down.
+		 */
+		GAUGE,
+		/**
+		 * Durations, represented by their quantiles, and the count and sum of all durations.
+		 */
+		SUMMARY;
+	}
+
+	/**
+	 * The quantiles that are exported for {@link MetricType#SUMMARY summary} metrics.
+	 */
+	public static final List<? extends @NonNull Double> QUANTILES = Collections.unmodifiableList(
+			Arrays.asList(0.5D, 0.9D, 0.99D, 0.999D)
+	);
+
+	private static final Pattern METRIC_NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+	/**
+	 * A single sampled value of a metric.
+	 */
+	public static final class Sample {
+
+		private final String name;
+		private final @Nullable Double quantile;
+		private final double value;
+
+		private Sample(String name, @Nullable Double quantile, double value) {
+			this.name = name;
+			this.quantile = quantile;
+			this.value = value;
+		}
+
+		/**
+		 * Gets the sample name.
+		 * <p>
+		 * This is either the metric name, or the metric name with a suffix, such as
+		 * <code>_count</code> or <code>_sum</code>.
+		 * 
+		 * @return the sample name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the quantile that this sample represents, if any.
+		 * 
+		 * @return the quantile, or <code>null</code>
+		 */
+		public @Nullable Double getQuantile() {
+			return quantile;
+		}
+
+		/**
+		 * Gets the sampled value.
+		 * 
+		 * @return the value
+		 */
+		public double getValue() {
+			return value;
+		}
+	}
+
+	/**
+	 * The collected samples of a metric.
+	 */
+	public static final class MetricSamples {
+
+		private final String name;
+		private final String help;
+		private final MetricType type;
+		private final List<? extends @NonNull Sample> samples;
+
+		private MetricSamples(
+				String name,
+				String help,
+				MetricType type,
+				List<? extends @NonNull Sample> samples
+		) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+			this.samples = samples;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getHelp() {
+			return help;
+		}
+
+		public MetricType getType() {
+			return type;
+		}
+
+		public List<? extends @NonNull Sample> getSamples() {
+			return samples;
+		}
+	}
+
+	private static abstract class Metric {
+
+		protected final String name;
+		protected final String help;
+		protected final MetricType type;
+
+		Metric(String name, String help, MetricType type) {
+			this.name = name;
+			this.help = help;
+			this.type = type;
+		}
+
+		abstract void collect(List<@NonNull Sample> samples);
+	}
+
+	private static final class GaugeMetric extends Metric {
+
+		private final DoubleSupplier valueSupplier;
+
+		GaugeMetric(String name, String help, DoubleSupplier valueSupplier) {
+			super(name, help, MetricType.GAUGE);
+			this.valueSupplier = valueSupplier;
+		}
+
+		@Override
+		void collect(List<@NonNull Sample> samples) {
+			samples.add(new Sample(name, null, valueSupplier.getAsDouble()));
+		}
+	}
+
+	private static final class SummaryMetric extends Metric {
+
+		private final Supplier<@NonNull LatencyHistogram> histogramSupplier;
+		private final Supplier<@NonNull LatencyHistogram> quantilesHistogramSupplier;
+
+		SummaryMetric(
+				String name,
+				String help,
+				Supplier<@NonNull LatencyHistogram> histogramSupplier,
+				Supplier<@NonNull LatencyHistogram> quantilesHistogramSupplier
+		) {
+			super(name, help, MetricType.SUMMARY);
+			this.histogramSupplier = histogramSupplier;
+			this.quantilesHistogramSupplier = quantilesHistogramSupplier;
+		}
+
+		@Override
+		void collect(List<@NonNull Sample> samples) {
+			// Durations are exported in seconds:
+			LatencyHistogram quantilesHistogram = quantilesHistogramSupplier.get();
+			for (double quantile : QUANTILES) {
+				double valueMillis = quantilesHistogram.getPercentileMillis(quantile * 100.0D);
+				samples.add(new Sample(name, quantile, valueMillis / 1000.0D));
+			}
+
+			LatencyHistogram histogram = histogramSupplier.get();
+			long count = histogram.getCount();
+			double sumMillis = histogram.getAverageMillis() * count;
+			samples.add(new Sample(name + "_sum", null, sumMillis / 1000.0D));
+			samples.add(new Sample(name + "_count", null, count));
+		}
+	}
+
+	private final Map<@NonNull String, @NonNull Metric> metrics = new LinkedHashMap<>();
+
+	public MetricsRegistry() {
+	}
+
+	private void register(Metric metric) {
+		Validate.isTrue(METRIC_NAME_PATTERN.matcher(metric.name).matches(),
+				() -> "Invalid metric name: " + metric.name);
+		Validate.isTrue(!metrics.containsKey(metric.name),
+				() -> "Metric already registered: " + metric.name);
+		metrics.put(metric.name, metric);
+	}
+
+	/**
+	 * Registers a {@link MetricType#GAUGE gauge} metric.
+	 * 
+	 * @param name
+	 *            the metric name, not <code>null</code>
+	 * @param help
+	 *            a short description of the metric, not <code>null</code>
+	 * @param valueSupplier
+	 *            provides the current value, not <code>null</code>
+	 */
+	public void registerGauge(String name, String help, DoubleSupplier valueSupplier) {
+		Validate.notNull(help, "help is null");
+		Validate.notNull(valueSupplier, "valueSupplier is null");
+		this.register(new GaugeMetric(name, help, valueSupplier));
+	}
+
+	/**
+	 * Registers a {@link MetricType#SUMMARY summary} metric for durations.
+	 * 
+	 * @param name
+	 *            the metric name, not <code>null</code>
+	 * @param help
+	 *            a short description of the metric, not <code>null</code>
+	 * @param histogramSupplier
+	 *            provides the histogram of all durations, which is used for the count and the sum
+	 *            of the durations, not <code>null</code>
+	 * @param quantilesHistogramSupplier
+	 *            provides the histogram that is used for the quantiles, for example of only the
+	 *            recent durations, not <code>null</code>
+	 */
+	public void registerSummary(
+			String name,
+			String help,
+			Supplier<@NonNull LatencyHistogram> histogramSupplier,
+			Supplier<@NonNull LatencyHistogram> quantilesHistogramSupplier
+	) {
+		Validate.notNull(help, "help is null");
+		Validate.notNull(histogramSupplier, "histogramSupplier is null");
+		Validate.notNull(quantilesHistogramSupplier, "quantilesHistogramSupplier is null");
+		this.register(new SummaryMetric(
+				name,
+				help,
+				histogramSupplier,
+				quantilesHistogramSupplier
+		));
+	}
+
+	/**
+	 * Removes all registered metrics.
+	 */
+	public void clear() {
+		metrics.clear();
+	}
+
+	/**
+	 * Collects the current values of all registered metrics.
+	 * 
+	 * @return the collected metric samples, not <code>null</code>
+	 */
+	public List<? extends @NonNull MetricSamples> collect() {
+		List<@NonNull MetricSamples> collected = new ArrayList<>(metrics.size());
+		for (Metric metric : metrics.values()) {
+			List<@NonNull Sample> samples = new ArrayList<>();
+			metric.collect(samples);
+			collected.add(new MetricSamples(metric.name, metric.help, metric.type, samples));
+		}
+		return collected;
+	}
+}
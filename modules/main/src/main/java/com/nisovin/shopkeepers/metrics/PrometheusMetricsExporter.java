@@ -0,0 +1,166 @@
+package com.nisovin.shopkeepers.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.metrics.MetricsRegistry.MetricSamples;
+import com.nisovin.shopkeepers.metrics.MetricsRegistry.Sample;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Exports the collected metrics in the Prometheus text format, either to a file that can be picked
+ * up by the node exporter's textfile collector, or via a local HTTP endpoint.
+ * <p>
+ * The HTTP endpoint only binds to the loopback address, and serves the metrics that have been
+ * collected last. It does not collect any metrics by itself, because the metrics are only allowed
+ * to be collected on the server's main thread.
+ */
+class PrometheusMetricsExporter {
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final String HTTP_PATH = "/metrics";
+
+	static String format(List<? extends @NonNull MetricSamples> metrics) {
+		StringBuilder builder = new StringBuilder();
+		for (MetricSamples metric : metrics) {
+			builder.append("# HELP ").append(metric.getName()).append(' ')
+					.append(escapeHelp(metric.getHelp())).append('\n');
+			builder.append("# TYPE ").append(metric.getName()).append(' ')
+					.append(metric.getType().name().toLowerCase(Locale.ROOT))
+					.append('\n');
+			for (Sample sample : metric.getSamples()) {
+				builder.append(sample.getName());
+				Double quantile = sample.getQuantile();
+				if (quantile != null) {
+					builder.append("{quantile=\"").append(quantile).append("\"}");
+				}
+				builder.append(' ').append(formatValue(sample.getValue())).append('\n');
+			}
+		}
+		return builder.toString();
+	}
+
+	private static String escapeHelp(String help) {
+		return help.replace("\\", "\\\\").replace("\n", "\\n");
+	}
+
+	private static String formatValue(double value) {
+		if (Double.isNaN(value)) return "NaN";
+		if (Double.isInfinite(value)) return (value > 0) ? "+Inf" : "-Inf";
+		if (value == Math.rint(value) && Math.abs(value) < 1.0E15D) {
+			return String.valueOf((long) value);
+		}
+		return String.valueOf(value);
+	}
+
+	private final @Nullable Path file;
+	private final int httpPort;
+
+	private @Nullable HttpServer httpServer = null;
+	// The last formatted metrics. Accessed by the HTTP server's thread.
+	private volatile byte[] formattedMetrics = new byte[0];
+
+	/**
+	 * Creates a new {@link PrometheusMetricsExporter}.
+	 * 
+	 * @param file
+	 *            the file to write the metrics to, or <code>null</code> to not write the metrics to
+	 *            a file
+	 * @param httpPort
+	 *            the port of the local HTTP endpoint, or <code>0</code> to not start the HTTP
+	 *            endpoint
+	 */
+	PrometheusMetricsExporter(@Nullable Path file, int httpPort) {
+		Validate.isTrue(httpPort >= 0, "httpPort cannot be negative");
+		this.file = file;
+		this.httpPort = httpPort;
+	}
+
+	void start() {
+		if (httpPort == 0) return;
+		try {
+			InetSocketAddress address = new InetSocketAddress(
+					InetAddress.getLoopbackAddress(),
+					httpPort
+			);
+			HttpServer httpServer = HttpServer.create(address, 0);
+			httpServer.createContext(HTTP_PATH, this::handleRequest);
+			httpServer.start();
+			this.httpServer = httpServer;
+			Log.info("Serving the metrics at http://" + address.getHostString() + ":" + httpPort
+					+ HTTP_PATH);
+		} catch (IOException e) {
+			Log.severe("Failed to start the metrics HTTP endpoint on port " + httpPort, e);
+		}
+	}
+
+	void stop() {
+		HttpServer httpServer = this.httpServer;
+		if (httpServer == null) return;
+		httpServer.stop(0);
+		this.httpServer = null;
+	}
+
+	private void handleRequest(HttpExchange exchange) throws IOException {
+		try {
+			if (!exchange.getRequestMethod().equals("GET")) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] response = formattedMetrics;
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			exchange.sendResponseHeaders(200, response.length);
+			try (OutputStream responseBody = exchange.getResponseBody()) {
+				responseBody.write(response);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Updates the exported metrics.
+	 * <p>
+	 * This is expected to be called on the main thread. If the metrics are exported to a file,
+	 * this returns a task that writes the metrics to the file and that can be run asynchronously.
+	 * 
+	 * @param metrics
+	 *            the collected metrics, not <code>null</code>
+	 * @return the file write task, or <code>null</code> if the metrics are not written to a file
+	 */
+	@Nullable Runnable update(List<? extends @NonNull MetricSamples> metrics) {
+		byte[] formattedMetrics = format(metrics).getBytes(StandardCharsets.UTF_8);
+		this.formattedMetrics = formattedMetrics;
+
+		Path file = this.file;
+		if (file == null) return null;
+		return () -> writeFile(file, formattedMetrics);
+	}
+
+	private static void writeFile(Path file, byte[] formattedMetrics) {
+		// The textfile collector may read the file at any time. We therefore first write to a
+		// temporary file and then replace the actual file.
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			FileUtils.createParentDirectories(file);
+			Files.write(tempFile, formattedMetrics);
+			FileUtils.moveFile(tempFile, file, Log.getLogger());
+		} catch (IOException e) {
+			Log.warning("Failed to write the metrics file " + file, e);
+		}
+	}
+}
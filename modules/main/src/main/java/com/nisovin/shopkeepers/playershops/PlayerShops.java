@@ -1,5 +1,7 @@
 package com.nisovin.shopkeepers.playershops;
 
+import org.bukkit.entity.Player;
+
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.playershops.inactivity.PlayerInactivity;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -12,24 +14,36 @@ public class PlayerShops {
 	private final PlayerShopsLimit playerShopsLimit;
 	private final PlayerInactivity playerInactivity;
 	private final ShopOwnerNameUpdates shopOwnerNameUpdates;
+	private final ShopContainerChangeListener shopContainerChangeListener;
 
 	public PlayerShops(SKShopkeepersPlugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
 		this.playerShopsLimit = new PlayerShopsLimit();
 		this.playerInactivity = new PlayerInactivity(plugin);
 		this.shopOwnerNameUpdates = new ShopOwnerNameUpdates(plugin);
+		this.shopContainerChangeListener = new ShopContainerChangeListener(plugin);
 	}
 
 	public void onEnable() {
 		playerShopsLimit.onEnable();
 		playerInactivity.onEnable();
 		shopOwnerNameUpdates.onEnable();
+		shopContainerChangeListener.onEnable();
 	}
 
 	public void onDisable() {
 		playerShopsLimit.onDisable();
 		playerInactivity.onDisable();
 		shopOwnerNameUpdates.onDisable();
+		shopContainerChangeListener.onDisable();
+	}
+
+	public void onPlayerJoin(Player player) {
+		playerInactivity.onPlayerJoin(player);
+	}
+
+	public void onPlayerQuit(Player player) {
+		playerInactivity.onPlayerQuit(player);
 	}
 
 	public PlayerShopsLimit getPlayerShopsLimit() {
@@ -0,0 +1,88 @@
+package com.nisovin.shopkeepers.playershops;
+
+import java.util.List;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.inventory.Inventory;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+import com.nisovin.shopkeepers.container.ShopContainers;
+import com.nisovin.shopkeepers.container.protection.ProtectedContainers;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Informs player shopkeepers about inventory events that might change the contents of their
+ * containers.
+ * <p>
+ * See {@link AbstractPlayerShopkeeper#onContainerContentsChanged()}.
+ */
+class ShopContainerChangeListener implements Listener {
+
+	private final SKShopkeepersPlugin plugin;
+
+	ShopContainerChangeListener(SKShopkeepersPlugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+	}
+
+	void onEnable() {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	void onDisable() {
+		HandlerList.unregisterAll(this);
+	}
+
+	private void onInventoryChanged(Inventory inventory) {
+		// These events are frequent (e.g. item moves by hoppers). We therefore first rule out the
+		// inventories that cannot belong to shop containers before we look up any blocks.
+		ProtectedContainers protectedContainers = plugin.getProtectedContainers();
+		if (protectedContainers.isEmpty()) return;
+		if (!ShopContainers.isSupportedContainerInventory(inventory.getType())) return;
+
+		// Note: We avoid calling Inventory#getHolder here for performance reasons. For block
+		// inventories this creates a snapshot of the block's BlockState.
+		Location location = inventory.getLocation(); // Can be null
+		if (location == null) return;
+
+		Block block = location.getBlock();
+		if (!ShopContainers.isSupportedContainer(block.getType())) return;
+
+		// Also includes the shopkeepers using a connected chest (double chests):
+		List<? extends @NonNull PlayerShopkeeper> shopkeepers = protectedContainers
+				.getShopkeepersUsingContainer(block);
+		for (PlayerShopkeeper shopkeeper : shopkeepers) {
+			((AbstractPlayerShopkeeper) shopkeeper).onContainerContentsChanged();
+		}
+	}
+
+	// Any click inside an inventory view with a container can affect the container, for example
+	// when items are shift-clicked from the player's inventory.
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryClick(InventoryClickEvent event) {
+		this.onInventoryChanged(event.getView().getTopInventory());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryDrag(InventoryDragEvent event) {
+		this.onInventoryChanged(event.getView().getTopInventory());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onInventoryMoveItem(InventoryMoveItemEvent event) {
+		this.onInventoryChanged(event.getSource());
+		this.onInventoryChanged(event.getDestination());
+	}
+}
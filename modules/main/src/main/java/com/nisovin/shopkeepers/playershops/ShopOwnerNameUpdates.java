@@ -1,5 +1,11 @@
 package com.nisovin.shopkeepers.playershops;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
@@ -9,20 +15,59 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
-import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.dependencies.citizens.CitizensUtils;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
+/**
+ * Updates the stored owner names of player shops when their owners join the server with a changed
+ * name.
+ * <p>
+ * We keep a table of the owner names that are currently stored by the player shops. This allows us
+ * to quickly detect on player join whether the player owns any shops and whether their name has
+ * changed, without having to search through all player shops.
+ * <p>
+ * The owner name updates are applied across several ticks, so that owners with many shops do not
+ * cause a spike of shop object updates (e.g. sign and nameplate updates) during their join. The
+ * shopkeepers are saved once after all pending updates have been applied.
+ */
 public class ShopOwnerNameUpdates implements Listener {
 
+	// The maximum number of shopkeepers that are updated per tick:
+	private static final int UPDATES_PER_TICK = 10;
+
+	private static final class PendingUpdate {
+
+		private final UUID playerId;
+		private final String playerName;
+		private @Nullable List<? extends @NonNull PlayerShopkeeper> shopkeepers = null;
+		private int nextIndex = 0;
+
+		PendingUpdate(UUID playerId, String playerName) {
+			this.playerId = playerId;
+			this.playerName = playerName;
+		}
+	}
+
 	private final SKShopkeepersPlugin plugin;
+	// Owner id -> The owner name that is stored by the owner's shops, or null if the shops of the
+	// owner store different names.
+	// Entries for owners that no longer own any shops are not removed. They only result in an
+	// unnecessary lookup of the owner's shops when the player joins with a changed name.
+	private final Map<@NonNull UUID, @Nullable String> ownerNames = new HashMap<>();
+	private final Deque<@NonNull PendingUpdate> pendingUpdates = new ArrayDeque<>();
+	private @Nullable BukkitTask updateTask = null;
+	private boolean dirty = false;
 
 	public ShopOwnerNameUpdates(SKShopkeepersPlugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
@@ -32,6 +77,10 @@ public class ShopOwnerNameUpdates implements Listener {
 	public void onEnable() {
 		Bukkit.getPluginManager().registerEvents(this, plugin);
 
+		// Set up the owner names table:
+		ownerNames.clear();
+		plugin.getShopkeeperRegistry().getAllPlayerShopkeepers().forEach(this::onShopOwnerChanged);
+
 		// Update the owner information of all shops owned by players that are already online:
 		for (Player player : Bukkit.getOnlinePlayers()) {
 			assert player != null;
@@ -44,6 +93,32 @@ public class ShopOwnerNameUpdates implements Listener {
 
 	public void onDisable() {
 		HandlerList.unregisterAll(this);
+
+		// Any pending updates are checked again for the online players when we are enabled again.
+		// Shopkeepers that have already been updated are saved by the storage on disable.
+		this.stopUpdateTask();
+		pendingUpdates.clear();
+		dirty = false;
+		ownerNames.clear();
+	}
+
+	/**
+	 * This is called when a player shopkeeper is added, or when the owner of a player shopkeeper
+	 * has changed.
+	 * 
+	 * @param playerShop
+	 *            the player shopkeeper, not <code>null</code>
+	 */
+	public void onShopOwnerChanged(PlayerShopkeeper playerShop) {
+		Validate.notNull(playerShop, "playerShop is null");
+		UUID ownerId = playerShop.getOwnerUUID();
+		String ownerName = playerShop.getOwnerName();
+		if (!ownerNames.containsKey(ownerId)) {
+			ownerNames.put(ownerId, ownerName);
+		} else if (!ownerName.equals(ownerNames.get(ownerId))) {
+			// The owner's shops store different names:
+			ownerNames.put(ownerId, null);
+		}
 	}
 
 	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -61,34 +136,94 @@ public class ShopOwnerNameUpdates implements Listener {
 
 	// Updates owner names for the shopkeepers of the specified player:
 	private void updateShopkeepersForPlayer(UUID playerId, String playerName) {
+		if (!ownerNames.containsKey(playerId)) {
+			// The player does not own any shops.
+			return;
+		}
+		if (playerName.equals(ownerNames.get(playerId))) {
+			Log.debug(DebugOptions.ownerNameUpdates, () -> "Shopkeeper owner names are up-to-date "
+					+ "for: " + TextUtils.getPlayerString(playerName, playerId));
+			return;
+		}
+
 		Log.debug(DebugOptions.ownerNameUpdates, () -> "Updating shopkeeper owner names for: "
 				+ TextUtils.getPlayerString(playerName, playerId));
 
-		boolean dirty = false;
-		ShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
-		for (PlayerShopkeeper playerShop : shopkeeperRegistry.getPlayerShopkeepersByOwner(playerId)) {
-			String ownerName = playerShop.getOwnerName();
-			if (!ownerName.equals(playerName)) {
-				// Update the stored name, because the player must have changed it:
-				Log.debug(DebugOptions.ownerNameUpdates, () -> playerShop.getLogPrefix()
-						+ "Updating owner name '" + ownerName + "' to '" + playerName + "'.");
-				playerShop.setOwner(playerId, playerName);
-				dirty = true;
-			} else if (!dirty) { // Dirty if we already found a shop with mismatching name
-				// The stored owner name matches the player's current name.
-				// Since we assume that the stored owner names among all shopkeepers are consistent,
-				// we can abort checking the remaining shops of this player.
-				Log.debug(DebugOptions.ownerNameUpdates, () -> playerShop.getLogPrefix()
-						+ "Owner name '" + ownerName + "' is up-to-date. "
-						+ "Assuming the owner names of all shopkeepers are consistent, "
-						+ "we skip checking all other shopkeepers.");
-				return;
+		// Apply the updates during the subsequent ticks:
+		pendingUpdates.add(new PendingUpdate(playerId, playerName));
+		// We assume that the shops are updated to the player's current name. This prevents
+		// redundant updates if the player quickly rejoins.
+		ownerNames.put(playerId, playerName);
+		this.startUpdateTask();
+	}
+
+	private void startUpdateTask() {
+		if (updateTask != null) return; // Already running
+		updateTask = Bukkit.getScheduler().runTaskTimer(plugin, this::applyPendingUpdates, 1L, 1L);
+	}
+
+	private void stopUpdateTask() {
+		if (updateTask != null) {
+			updateTask.cancel();
+			updateTask = null;
+		}
+	}
+
+	private void applyPendingUpdates() {
+		int remainingUpdates = UPDATES_PER_TICK;
+		while (remainingUpdates > 0) {
+			PendingUpdate pendingUpdate = pendingUpdates.peek();
+			if (pendingUpdate == null) break;
+
+			List<? extends @NonNull PlayerShopkeeper> shopkeepers = pendingUpdate.shopkeepers;
+			if (shopkeepers == null) {
+				// Copied, because the shopkeepers might change while we update them:
+				SKShopkeeperRegistry shopkeeperRegistry = plugin.getShopkeeperRegistry();
+				shopkeepers = new ArrayList<>(
+						shopkeeperRegistry.getPlayerShopkeepersByOwner(pendingUpdate.playerId)
+				);
+				pendingUpdate.shopkeepers = shopkeepers;
+			}
+
+			while (remainingUpdates > 0 && pendingUpdate.nextIndex < shopkeepers.size()) {
+				PlayerShopkeeper playerShop = shopkeepers.get(pendingUpdate.nextIndex++);
+				if (this.updateOwnerName(playerShop, pendingUpdate)) {
+					remainingUpdates--;
+				}
+			}
+
+			if (pendingUpdate.nextIndex >= shopkeepers.size()) {
+				pendingUpdates.poll();
 			}
 		}
 
-		// Save:
-		if (dirty) {
-			plugin.getShopkeeperStorage().save();
+		if (pendingUpdates.isEmpty()) {
+			this.stopUpdateTask();
+
+			// Save once for all updates:
+			if (dirty) {
+				dirty = false;
+				plugin.getShopkeeperStorage().save();
+			}
 		}
 	}
+
+	// Returns true if the owner name has been updated.
+	private boolean updateOwnerName(PlayerShopkeeper playerShop, PendingUpdate pendingUpdate) {
+		// The shopkeeper might have been removed or transferred to another player in the meantime:
+		if (!playerShop.isValid()) return false;
+		UUID playerId = pendingUpdate.playerId;
+		if (!playerShop.getOwnerUUID().equals(playerId)) return false;
+
+		String ownerName = playerShop.getOwnerName();
+		String playerName = pendingUpdate.playerName;
+		if (ownerName.equals(playerName)) return false;
+
+		// Update the stored name, because the player must have changed it:
+		Log.debug(DebugOptions.ownerNameUpdates, () -> playerShop.getLogPrefix()
+				+ "Updating owner name '" + ownerName + "' to '" + playerName + "'.");
+		playerShop.setOwner(playerId, playerName);
+		dirty = true;
+		return true;
+	}
 }
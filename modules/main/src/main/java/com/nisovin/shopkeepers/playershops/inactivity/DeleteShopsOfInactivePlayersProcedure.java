@@ -1,46 +1,69 @@
 package com.nisovin.shopkeepers.playershops.inactivity;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.checkerframework.checker.nullness.qual.NonNull;
-import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.events.PlayerInactiveEvent;
-import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.api.user.User;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.shopkeeper.registry.BulkShopkeeperDeletion;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
-import com.nisovin.shopkeepers.util.java.CollectionUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
 /**
  * Identifies and deletes the shops that are owned by inactive players.
+ * <p>
+ * The inactive shop owners are identified via the {@link LastSeenTable}. Only shop owners that are
+ * not yet known to this table, or that the table considers inactive, are looked up
+ * asynchronously, so that the shops of players whose last seen time is outdated (e.g. because the
+ * table was not updated while this feature was disabled) are not deleted. Until the table has
+ * {@link LastSeenTable#isLoaded() loaded} its persisted entries, all shop owners are looked up.
+ * <p>
+ * The shops of the inactive players are deleted in batches across several ticks, starting with
+ * the players that have been inactive for the longest time.
  */
 class DeleteShopsOfInactivePlayersProcedure {
 
 	private static class InactivePlayerData {
 
+		private final User user;
+		private final long lastSeenMillis;
 		private final int lastSeenDaysAgo;
 		private final List<@NonNull PlayerShopkeeper> shopkeepers = new ArrayList<>();
 
-		InactivePlayerData(int lastSeenDaysAgo) {
+		InactivePlayerData(User user, long lastSeenMillis, int lastSeenDaysAgo) {
+			this.user = user;
+			this.lastSeenMillis = lastSeenMillis;
 			this.lastSeenDaysAgo = lastSeenDaysAgo;
 		}
 
+		User getUser() {
+			return user;
+		}
+
+		long getLastSeenMillis() {
+			return lastSeenMillis;
+		}
+
 		int getLastSeenDaysAgo() {
 			return lastSeenDaysAgo;
 		}
@@ -52,19 +75,27 @@ class DeleteShopsOfInactivePlayersProcedure {
 
 	private final SKShopkeepersPlugin plugin;
 	private final SKShopkeeperRegistry shopkeeperRegistry;
+	private final LastSeenTable lastSeenTable;
 	private final int playerInactivityDays;
 
 	private boolean started = false;
 	// Retrieved once and then reused for all inactivity checks of this procedure:
 	private final long currentTimeMillis = System.currentTimeMillis();
-	private final Map<@NonNull User, @Nullable InactivePlayerData> inactivePlayers = new HashMap<>();
-
-	public DeleteShopsOfInactivePlayersProcedure(SKShopkeepersPlugin plugin) {
+	// The shop owners whose last seen time is looked up asynchronously:
+	private final Map<@NonNull User, @NonNull Long> uncertainShopOwners = new HashMap<>();
+	// Sorted by last seen time, starting with the players that have been inactive the longest:
+	private final List<@NonNull InactivePlayerData> inactivePlayers = new ArrayList<>();
+
+	public DeleteShopsOfInactivePlayersProcedure(
+			SKShopkeepersPlugin plugin,
+			LastSeenTable lastSeenTable
+	) {
 		Validate.notNull(plugin, "plugin is null");
+		Validate.notNull(lastSeenTable, "lastSeenTable is null");
 		this.plugin = plugin;
 		this.shopkeeperRegistry = plugin.getShopkeeperRegistry();
-		// Local copy, because this setting might change while we use it, and we might access it
-		// asynchronously:
+		this.lastSeenTable = lastSeenTable;
+		// Local copy, because this setting might change while we use it:
 		this.playerInactivityDays = Settings.playerShopkeeperInactiveDays;
 	}
 
@@ -81,98 +112,127 @@ class DeleteShopsOfInactivePlayersProcedure {
 
 		Log.info("Checking for shopkeepers of inactive players.");
 
-		this.collectShopOwners();
-		if (inactivePlayers.isEmpty()) {
-			return; // There are no player shops
+		this.findUncertainShopOwners();
+		if (uncertainShopOwners.isEmpty()) {
+			return; // There are no inactive shop owners
 		}
 
-		this.asyncCheckInactivityOfAllShopOwnersAndContinue();
+		this.asyncCheckInactivityOfUncertainShopOwnersAndContinue();
 	}
 
-	// This initially collects all shop owners into the inactivePlayers Map, which is subsequently
-	// pruned from shop owners that are not actually inactive.
-	private void collectShopOwners() {
+	private boolean isInactive(long lastSeenMillis) {
+		return this.getDaysSince(lastSeenMillis) >= playerInactivityDays;
+	}
+
+	private int getDaysSince(long lastSeenMillis) {
+		long millisSinceLastSeen = currentTimeMillis - lastSeenMillis;
+		return (int) TimeUnit.MILLISECONDS.toDays(millisSinceLastSeen);
+	}
+
+	// Scans the shop owners for owners that are either not yet known to the last seen table, or
+	// considered inactive by it. If the table has not yet loaded its persisted entries, all shop
+	// owners are uncertain. This also removes players from the last seen table that no longer own
+	// any shops.
+	private void findUncertainShopOwners() {
+		boolean tableLoaded = lastSeenTable.isLoaded();
+		Set<@NonNull UUID> shopOwnerIds = new HashSet<>();
 		shopkeeperRegistry.getAllPlayerShopkeepers().forEach(playerShop -> {
-			// In this first step, we only collect the existing shop owners, and don't store their
-			// shopkeepers yet. Later, we collect the shopkeepers of only the inactive shop owners.
-			inactivePlayers.put(playerShop.getOwnerUser(), null);
+			User shopOwner = playerShop.getOwnerUser();
+			if (!shopOwnerIds.add(shopOwner.getUniqueId())) return; // Already checked
+
+			long lastSeenMillis = lastSeenTable.getLastSeen(shopOwner.getUniqueId());
+			if (!tableLoaded || lastSeenMillis == 0L || this.isInactive(lastSeenMillis)) {
+				uncertainShopOwners.put(shopOwner, lastSeenMillis);
+			}
 		});
+		// The table is only cleaned up once it contains all persisted entries:
+		if (!tableLoaded) return;
+
+		// Keep the table compact: Players that are neither online nor own any shops are removed.
+		// They are added again once they join the server the next time.
+		List<@NonNull UUID> removedPlayers = new ArrayList<>();
+		for (UUID playerId : lastSeenTable.getPlayers()) {
+			if (shopOwnerIds.contains(playerId)) continue;
+			Player player = Bukkit.getPlayer(playerId);
+			if (player != null) continue;
+			removedPlayers.add(playerId);
+		}
+		removedPlayers.forEach(lastSeenTable::remove);
 	}
 
-	private void asyncCheckInactivityOfAllShopOwnersAndContinue() {
+	private void asyncCheckInactivityOfUncertainShopOwnersAndContinue() {
 		// We retrieve the OfflinePlayers and their 'last played' times asynchronously:
+		Map<@NonNull User, @NonNull Long> shopOwners = new HashMap<>(uncertainShopOwners);
 		new BukkitRunnable() {
 			@Override
 			public void run() {
-				// Set up the data for all inactive shop owners, and remove all shop owners that are
-				// not inactive:
-				setUpInactiveShopOwners();
-
-				// Abort if no inactive players were found:
-				if (inactivePlayers.isEmpty()) return;
+				Map<@NonNull User, @NonNull Long> lastPlayed = new HashMap<>(shopOwners.size());
+				shopOwners.keySet().forEach(user -> {
+					lastPlayed.put(user, getLastPlayed(user));
+				});
 
 				// Abort if the task has been cancelled in the meantime (e.g. if the plugin has been
 				// disabled or reloaded):
 				if (this.isCancelled()) return;
 
-				SchedulerUtils.runTaskOrOmit(plugin, () -> continueWithInactiveShopOwners());
+				SchedulerUtils.runTaskOrOmit(plugin, () -> continueWithLastPlayed(lastPlayed));
 			}
 		}.runTaskAsynchronously(plugin);
 	}
 
 	// This may be called asynchronously.
-	// Sets up the data for all inactive shop owners, and removes all shop owners that are not
-	// inactive.
-	private void setUpInactiveShopOwners() {
-		Iterator<@NonNull Entry<@NonNull User, @Nullable InactivePlayerData>> iterator = inactivePlayers.entrySet().iterator();
-		while (iterator.hasNext()) {
-			Entry<@NonNull User, @Nullable InactivePlayerData> entry = iterator.next();
-			User user = entry.getKey();
-			InactivePlayerData data = this.setUpIfInactive(user);
-			if (data == null) {
-				// The user is not inactive:
-				iterator.remove();
-			} else {
-				entry.setValue(data);
-			}
-		}
-		assert !CollectionUtils.containsNull(inactivePlayers.values());
-	}
-
-	// This may be called asynchronously.
-	// Returns null if the given user is not inactive.
-	private @Nullable InactivePlayerData setUpIfInactive(User user) {
+	// Returns 0 if unknown.
+	private static long getLastPlayed(User user) {
 		assert user != null;
 		OfflinePlayer offlinePlayer = user.getOfflinePlayer();
 		// Some servers may delete player data files, either regularly for all players (which breaks
 		// this feature), or for particular players (for example to reset or fix some issue with
 		// their data). If this is the case, we cannot reliably determine when the player was last
 		// seen on the server, and therefore do not delete their shopkeepers.
-		if (!offlinePlayer.hasPlayedBefore()) return null;
-
-		long lastPlayedMillis = offlinePlayer.getLastPlayed();
-		if (lastPlayedMillis == 0) return null; // 0 if unknown (see reasoning above)
-
-		long millisSinceLastPlayed = currentTimeMillis - lastPlayedMillis;
-		int daysSinceLastPlayed = (int) TimeUnit.MILLISECONDS.toDays(millisSinceLastPlayed);
-		if (daysSinceLastPlayed < playerInactivityDays) return null;
-
-		return new InactivePlayerData(daysSinceLastPlayed);
+		if (!offlinePlayer.hasPlayedBefore()) return 0L;
+		return offlinePlayer.getLastPlayed(); // 0 if unknown (see reasoning above)
 	}
 
-	private void continueWithInactiveShopOwners() {
+	private void continueWithLastPlayed(Map<? extends @NonNull User, @NonNull Long> lastPlayed) {
 		assert Bukkit.isPrimaryThread();
-		assert !inactivePlayers.isEmpty();
-		assert !CollectionUtils.containsNull(inactivePlayers.values());
-		this.collectShopsOfInactivePlayers();
+		Map<@NonNull User, @NonNull InactivePlayerData> inactivePlayersByUser = new HashMap<>();
+		uncertainShopOwners.forEach((user, tableLastSeenMillis) -> {
+			// The player might have joined the server in the meantime:
+			long lastSeenMillis = Math.max(
+					lastSeenTable.getLastSeen(user.getUniqueId()),
+					lastPlayed.getOrDefault(user, 0L)
+			);
+			// If the last seen time is unknown, we do not delete the player's shopkeepers:
+			if (lastSeenMillis == 0L) return;
+
+			// Remember the last seen time, so that we don't need to look it up again:
+			lastSeenTable.updateLastSeen(user.getUniqueId(), lastSeenMillis);
+
+			if (!this.isInactive(lastSeenMillis)) return;
+			InactivePlayerData data = new InactivePlayerData(
+					user,
+					lastSeenMillis,
+					this.getDaysSince(lastSeenMillis)
+			);
+			inactivePlayersByUser.put(user, data);
+		});
+
+		// Abort if no inactive players were found:
+		if (inactivePlayersByUser.isEmpty()) return;
+
+		this.collectShopsOfInactivePlayers(inactivePlayersByUser);
+		inactivePlayers.addAll(inactivePlayersByUser.values());
+		inactivePlayers.sort(Comparator.comparingLong(InactivePlayerData::getLastSeenMillis));
 		this.deleteShopsOfInactivePlayers();
 	}
 
-	private void collectShopsOfInactivePlayers() {
+	private void collectShopsOfInactivePlayers(
+			Map<? extends @NonNull User, ? extends @NonNull InactivePlayerData> inactiveUsers
+	) {
 		shopkeeperRegistry.getAllPlayerShopkeepers().forEach(playerShop -> {
 			// If the shop is owned by an inactive player, remember it for removal:
 			User shopOwner = playerShop.getOwnerUser();
-			InactivePlayerData inactivePlayerData = inactivePlayers.get(shopOwner);
+			InactivePlayerData inactivePlayerData = inactiveUsers.get(shopOwner);
 			if (inactivePlayerData != null) {
 				inactivePlayerData.getShopkeepers().add(playerShop);
 			}
@@ -182,50 +242,91 @@ class DeleteShopsOfInactivePlayersProcedure {
 	}
 
 	private void deleteShopsOfInactivePlayers() {
-		inactivePlayers.forEach((user, nullableInactivePlayerData) -> {
-			InactivePlayerData inactivePlayerData = Unsafe.assertNonNull(nullableInactivePlayerData);
-			List<? extends @NonNull PlayerShopkeeper> shopkeepers = inactivePlayerData.getShopkeepers();
-			if (shopkeepers.isEmpty()) {
-				// We initially found this shop owner and identified them as inactive, but were then
-				// subsequently no longer able to find any shopkeepers that are still owned by them.
-				return;
+		// Call the events for all inactive players first, and then delete all remaining shops:
+		// Shop -> The inactive player that owned the shop at the time of the event.
+		Map<@NonNull Shopkeeper, @NonNull InactivePlayerData> inactiveOwners = new HashMap<>();
+		List<@NonNull PlayerShopkeeper> shopsToDelete = new ArrayList<>();
+		inactivePlayers.forEach(inactivePlayerData -> {
+			if (!this.callPlayerInactiveEvent(inactivePlayerData)) return;
+
+			inactivePlayerData.getShopkeepers().forEach(playerShop -> {
+				inactiveOwners.put(playerShop, inactivePlayerData);
+				shopsToDelete.add(playerShop);
+			});
+		});
+		if (shopsToDelete.isEmpty()) return;
+
+		// The shops are deleted across several ticks, and the storage is saved once at the end:
+		new BulkShopkeeperDeletion(plugin, shopsToDelete, null) {
+			@Override
+			protected boolean beforeDeletion(Shopkeeper shopkeeper) {
+				InactivePlayerData inactivePlayerData = inactiveOwners.get(shopkeeper);
+				if (inactivePlayerData == null) return false;
+				return canDeleteShop(inactivePlayerData, (PlayerShopkeeper) shopkeeper);
 			}
+		}.start();
+	}
 
-			int originalShopkeepersCount = shopkeepers.size();
+	// Returns false if the shopkeepers of the inactive player shall not be deleted.
+	private boolean callPlayerInactiveEvent(InactivePlayerData inactivePlayerData) {
+		User user = inactivePlayerData.getUser();
+		List<@NonNull PlayerShopkeeper> shopkeepers = inactivePlayerData.getShopkeepers();
+		// The shopkeepers might have been removed in the meantime:
+		shopkeepers.removeIf(playerShop -> !playerShop.isValid());
+		if (shopkeepers.isEmpty()) {
+			// We initially found this shop owner and identified them as inactive, but were then
+			// subsequently no longer able to find any shopkeepers that are still owned by them.
+			return false;
+		}
 
-			// Call event:
-			PlayerInactiveEvent event = new PlayerInactiveEvent(user, shopkeepers);
-			Bukkit.getPluginManager().callEvent(event);
+		// The player might have joined the server in the meantime:
+		if (!this.isInactive(lastSeenTable.getLastSeen(user.getUniqueId()))
+				|| Bukkit.getPlayer(user.getUniqueId()) != null) {
+			return false;
+		}
 
-			if (event.isCancelled() || shopkeepers.isEmpty()) {
-				Log.debug(() -> "Ignoring inactive player " + TextUtils.getPlayerString(user)
-						+ " (last seen " + inactivePlayerData.getLastSeenDaysAgo() + " days ago)"
-						+ " and their " + originalShopkeepersCount + " shopkeepers"
-						+ (shopkeepers.size() != originalShopkeepersCount
-								? " (reduced to " + shopkeepers.size() + ")" : "")
-						+ ": Cancelled by a plugin.");
-				return;
-			}
+		int originalShopkeepersCount = shopkeepers.size();
 
-			// Delete the shopkeepers:
-			shopkeepers.forEach(playerShop -> {
-				if (!playerShop.isValid()) {
-					// The shopkeeper has already been removed in the meantime.
-					Log.debug(() -> playerShop.getUniqueIdLogPrefix()
-							+ "Deletion due to inactivity of owner " + playerShop.getOwnerString()
-							+ " (last seen " + inactivePlayerData.getLastSeenDaysAgo()
-							+ " days ago)" + " skipped: The shopkeeper has already been removed.");
-					return;
-				}
-
-				Log.info(playerShop.getUniqueIdLogPrefix() + "Deletion due to inactivity of owner "
-						+ playerShop.getOwnerString() + " (last seen "
-						+ inactivePlayerData.getLastSeenDaysAgo() + " days ago).");
-				playerShop.delete();
-			});
-		});
+		// Call event:
+		PlayerInactiveEvent event = new PlayerInactiveEvent(user, shopkeepers);
+		Bukkit.getPluginManager().callEvent(event);
+
+		if (event.isCancelled() || shopkeepers.isEmpty()) {
+			Log.debug(() -> "Ignoring inactive player " + TextUtils.getPlayerString(user)
+					+ " (last seen " + inactivePlayerData.getLastSeenDaysAgo() + " days ago)"
+					+ " and their " + originalShopkeepersCount + " shopkeepers"
+					+ (shopkeepers.size() != originalShopkeepersCount
+							? " (reduced to " + shopkeepers.size() + ")" : "")
+					+ ": Cancelled by a plugin.");
+			return false;
+		}
+		return true;
+	}
+
+	private boolean canDeleteShop(
+			InactivePlayerData inactivePlayerData,
+			PlayerShopkeeper playerShop
+	) {
+		// The shop might have been transferred to another player in the meantime:
+		if (!playerShop.getOwnerUUID().equals(inactivePlayerData.getUser().getUniqueId())) {
+			Log.debug(() -> playerShop.getUniqueIdLogPrefix()
+					+ "Deletion due to inactivity of owner "
+					+ TextUtils.getPlayerString(inactivePlayerData.getUser())
+					+ " skipped: The shop owner has changed.");
+			return false;
+		}
+
+		// The player might have joined the server in the meantime:
+		if (Bukkit.getPlayer(playerShop.getOwnerUUID()) != null) {
+			Log.debug(() -> playerShop.getUniqueIdLogPrefix()
+					+ "Deletion due to inactivity of owner " + playerShop.getOwnerString()
+					+ " skipped: The owner is online.");
+			return false;
+		}
 
-		// Save if necessary:
-		plugin.getShopkeeperStorage().saveIfDirty();
+		Log.info(playerShop.getUniqueIdLogPrefix() + "Deletion due to inactivity of owner "
+				+ playerShop.getOwnerString() + " (last seen "
+				+ inactivePlayerData.getLastSeenDaysAgo() + " days ago).");
+		return true;
 	}
 }
@@ -0,0 +1,273 @@
+package com.nisovin.shopkeepers.playershops.inactivity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
+import com.nisovin.shopkeepers.util.bukkit.Ticks;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Keeps track of when players were last seen on the server.
+ * <p>
+ * The table is updated when players join or leave the server. This allows the detection of
+ * inactive shop owners to be a cheap in-memory scan, instead of having to look up the player data
+ * of every shop owner.
+ * <p>
+ * The table is persisted in a compact line-based file, with one <code>uuid timestamp</code> entry
+ * per line. The file is read in the background when the table is enabled, so the table might not
+ * yet contain the persisted entries right after the plugin has been enabled (see
+ * {@link #isLoaded()}). Changes are written to disk periodically in the background, and when the
+ * table is disabled.
+ */
+public class LastSeenTable {
+
+	private static final String DATA_FOLDER = "data";
+	private static final String FILE_NAME = "last-seen.txt";
+	private static final String TEMP_FILE_NAME = FILE_NAME + ".tmp";
+
+	// ~5 minutes (can be noticeably longer if the server lags)
+	private static final long SAVE_INTERVAL_TICKS = Ticks.PER_SECOND * 60 * 5;
+
+	private final Plugin plugin;
+	private final Path file;
+	private final Path tempFile;
+
+	// Only accessed by the main thread:
+	private final Map<@NonNull UUID, @NonNull Long> lastSeen = new HashMap<>();
+	private boolean enabled = false;
+	// Incremented whenever the table is enabled, so that we can ignore outdated load results:
+	private int generation = 0;
+	// Whether the persisted entries have been loaded. We only save once they have been loaded.
+	private boolean loaded = false;
+	private boolean dirty = false;
+	private long version = 0L;
+	private @Nullable BukkitTask saveTask = null;
+
+	// The version of the data that has last been written to disk. Guarded by 'this'.
+	private long writtenVersion = 0L;
+
+	public LastSeenTable(Plugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+		Path dataFolder = plugin.getDataFolder().toPath().resolve(DATA_FOLDER);
+		this.file = Unsafe.assertNonNull(dataFolder.resolve(FILE_NAME));
+		this.tempFile = Unsafe.assertNonNull(dataFolder.resolve(TEMP_FILE_NAME));
+	}
+
+	public void onEnable() {
+		enabled = true;
+		generation++;
+		loaded = false;
+		this.loadAsync();
+
+		saveTask = Bukkit.getScheduler().runTaskTimer(
+				plugin,
+				this::saveAsyncIfDirty,
+				SAVE_INTERVAL_TICKS,
+				SAVE_INTERVAL_TICKS
+		);
+	}
+
+	public void onDisable() {
+		if (!enabled) return;
+		enabled = false;
+
+		if (saveTask != null) {
+			saveTask.cancel();
+			saveTask = null;
+		}
+		// If the plugin is disabled before the persisted entries have been loaded (e.g. during a
+		// quick shutdown), we load them now, so that we don't lose them when we save:
+		if (!loaded) {
+			this.onLoaded(this.read());
+		}
+		// Write any pending changes synchronously, since we cannot start new tasks while the plugin
+		// is being disabled:
+		if (dirty) {
+			dirty = false;
+			this.write(this.serialize(), ++version);
+		}
+		lastSeen.clear();
+	}
+
+	private void loadAsync() {
+		int loadGeneration = generation;
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+			Map<@NonNull UUID, @NonNull Long> loadedTimestamps = this.read();
+			SchedulerUtils.runTaskOrOmit(plugin, () -> {
+				// Ignore the result if we have been disabled or reloaded in the meantime:
+				if (!enabled || generation != loadGeneration) return;
+				this.onLoaded(loadedTimestamps);
+			});
+		});
+	}
+
+	// This may be called asynchronously.
+	// Returns an empty map if there is no data or if the data could not be read.
+	private synchronized Map<@NonNull UUID, @NonNull Long> read() {
+		Map<@NonNull UUID, @NonNull Long> loadedTimestamps = new HashMap<>();
+		if (!Files.exists(file)) return loadedTimestamps;
+
+		int invalidEntries = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) continue;
+				int separatorIndex = line.indexOf(' ');
+				try {
+					if (separatorIndex < 0) throw new IllegalArgumentException("Missing timestamp");
+					UUID playerId = UUID.fromString(line.substring(0, separatorIndex));
+					long timestamp = Long.parseLong(line.substring(separatorIndex + 1));
+					loadedTimestamps.put(playerId, timestamp);
+				} catch (IllegalArgumentException e) { // Includes NumberFormatException
+					invalidEntries++;
+				}
+			}
+		} catch (IOException e) {
+			Log.warning("Failed to load the last seen times of players from " + file, e);
+			return new HashMap<>();
+		}
+
+		if (invalidEntries > 0) {
+			Log.warning("Ignored " + invalidEntries + " invalid entries in " + file);
+		}
+		return loadedTimestamps;
+	}
+
+	private void onLoaded(Map<? extends @NonNull UUID, ? extends @NonNull Long> loadedTimestamps) {
+		assert Bukkit.isPrimaryThread();
+		loaded = true;
+		loadedTimestamps.forEach((playerId, timestamp) -> {
+			// Players that have been seen since we were enabled keep their more recent time:
+			lastSeen.merge(playerId, timestamp, Math::max);
+		});
+		Log.debug(() -> "Loaded the last seen times of " + loadedTimestamps.size() + " players.");
+	}
+
+	/**
+	 * Checks whether the persisted entries of this table have been loaded.
+	 * <p>
+	 * Until then, this table only contains the players that have been seen since the table was
+	 * enabled, and {@link #getLastSeen(UUID)} returns <code>0</code> for all other players.
+	 * 
+	 * @return <code>true</code> if the persisted entries have been loaded
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * Gets the time at which the specified player was last seen on the server.
+	 * 
+	 * @param playerId
+	 *            the player's unique id, not <code>null</code>
+	 * @return the time in milliseconds since the epoch, or <code>0</code> if unknown
+	 */
+	public long getLastSeen(UUID playerId) {
+		Validate.notNull(playerId, "playerId is null");
+		Long timestamp = lastSeen.get(playerId);
+		return (timestamp != null) ? timestamp : 0L;
+	}
+
+	/**
+	 * Updates the time at which the specified player was last seen on the server.
+	 * <p>
+	 * Times that are older than the currently stored time are ignored.
+	 * 
+	 * @param playerId
+	 *            the player's unique id, not <code>null</code>
+	 * @param timestamp
+	 *            the time in milliseconds since the epoch
+	 */
+	public void updateLastSeen(UUID playerId, long timestamp) {
+		Validate.notNull(playerId, "playerId is null");
+		if (timestamp <= 0L) return;
+		Long previousTimestamp = lastSeen.get(playerId);
+		if (previousTimestamp != null && previousTimestamp >= timestamp) return;
+		lastSeen.put(playerId, timestamp);
+		dirty = true;
+	}
+
+	/**
+	 * Gets the unique ids of all players in this table.
+	 * 
+	 * @return an unmodifiable view on the player ids
+	 */
+	public Set<? extends @NonNull UUID> getPlayers() {
+		return Collections.unmodifiableSet(lastSeen.keySet());
+	}
+
+	/**
+	 * Removes the specified player from this table.
+	 * 
+	 * @param playerId
+	 *            the player's unique id, not <code>null</code>
+	 */
+	public void remove(UUID playerId) {
+		Validate.notNull(playerId, "playerId is null");
+		if (lastSeen.remove(playerId) != null) {
+			dirty = true;
+		}
+	}
+
+	private void saveAsyncIfDirty() {
+		if (!dirty || !loaded) return;
+		dirty = false;
+		String data = this.serialize();
+		long dataVersion = ++version;
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+			if (!this.write(data, dataVersion)) {
+				// Retry during the next periodic save:
+				SchedulerUtils.runTaskOrOmit(plugin, () -> dirty = true);
+			}
+		});
+	}
+
+	private String serialize() {
+		// UUID (36 characters), separator, timestamp (13 digits), line break:
+		StringBuilder data = new StringBuilder(lastSeen.size() * 51);
+		lastSeen.forEach((playerId, timestamp) -> {
+			data.append(playerId).append(' ').append(timestamp.longValue()).append('\n');
+		});
+		return data.toString();
+	}
+
+	// This may be called asynchronously.
+	// Returns false if the data could not be written.
+	private synchronized boolean write(String data, long dataVersion) {
+		// Skip outdated data if a newer version has already been written in the meantime:
+		if (dataVersion <= writtenVersion) return true;
+		try {
+			FileUtils.createParentDirectories(file);
+			try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				writer.write(data);
+			}
+			FileUtils.fsync(tempFile);
+			FileUtils.moveFile(tempFile, file, Log.getLogger());
+			writtenVersion = dataVersion;
+			return true;
+		} catch (IOException e) {
+			Log.warning("Failed to save the last seen times of players to " + file, e);
+			return false;
+		}
+	}
+}
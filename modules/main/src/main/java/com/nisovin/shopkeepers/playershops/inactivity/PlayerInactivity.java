@@ -1,12 +1,14 @@
 package com.nisovin.shopkeepers.playershops.inactivity;
 
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitTask;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.dependencies.citizens.CitizensUtils;
 import com.nisovin.shopkeepers.util.bukkit.Ticks;
 import com.nisovin.shopkeepers.util.java.Validate;
 
@@ -16,23 +18,60 @@ import com.nisovin.shopkeepers.util.java.Validate;
 public class PlayerInactivity {
 
 	private final SKShopkeepersPlugin plugin;
+	private final LastSeenTable lastSeenTable;
 	private final DeleteInactivePlayerShopsTask task;
+	private boolean enabled = false;
 
 	public PlayerInactivity(SKShopkeepersPlugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
 		this.plugin = plugin;
+		this.lastSeenTable = new LastSeenTable(plugin);
 		this.task = new DeleteInactivePlayerShopsTask(plugin);
 	}
 
 	public void onEnable() {
 		if (Settings.playerShopkeeperInactiveDays <= 0) return; // Feature is disabled
+		enabled = true;
+
+		lastSeenTable.onEnable();
+		// Players that are already online (e.g. after a plugin reload) are seen right now:
+		long nowMillis = System.currentTimeMillis();
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			this.updateLastSeen(player, nowMillis);
+		}
 
 		// Delete inactive player shops, once shortly after plugin startup, and then periodically:
 		task.start();
 	}
 
 	public void onDisable() {
+		if (!enabled) return;
+		enabled = false;
+
 		task.stop();
+
+		// Players that are still online (e.g. during a server shutdown) are seen right now:
+		long nowMillis = System.currentTimeMillis();
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			this.updateLastSeen(player, nowMillis);
+		}
+		lastSeenTable.onDisable();
+	}
+
+	public void onPlayerJoin(Player player) {
+		if (!enabled) return;
+		this.updateLastSeen(player, System.currentTimeMillis());
+	}
+
+	public void onPlayerQuit(Player player) {
+		if (!enabled) return;
+		this.updateLastSeen(player, System.currentTimeMillis());
+	}
+
+	private void updateLastSeen(Player player, long nowMillis) {
+		assert player != null;
+		if (CitizensUtils.isNPC(player)) return;
+		lastSeenTable.updateLastSeen(player.getUniqueId(), nowMillis);
 	}
 
 	/**
@@ -84,6 +123,7 @@ public class PlayerInactivity {
 	// TODO Also add a command to manually detect and then optionally delete inactive player shops?
 	public void deleteShopsOfInactivePlayers() {
 		if (Settings.playerShopkeeperInactiveDays <= 0) return; // Feature is disabled
-		new DeleteShopsOfInactivePlayersProcedure(plugin).start();
+		if (!enabled) return; // Not yet enabled
+		new DeleteShopsOfInactivePlayersProcedure(plugin, lastSeenTable).start();
 	}
 }
@@ -32,6 +32,8 @@ import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperLoadException;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperSnapshot;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeResult;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeResult.AbortReason;
 import com.nisovin.shopkeepers.api.shopkeeper.TradingRecipe;
 import com.nisovin.shopkeepers.api.shopobjects.ShopObjectType;
 import com.nisovin.shopkeepers.api.shopobjects.virtual.VirtualShopObject;
@@ -54,6 +56,7 @@ import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
 import com.nisovin.shopkeepers.text.Text;
 import com.nisovin.shopkeepers.ui.SKDefaultUITypes;
 import com.nisovin.shopkeepers.ui.UIHandler;
+import com.nisovin.shopkeepers.ui.trading.SKTradeResult;
 import com.nisovin.shopkeepers.ui.trading.TradingHandler;
 import com.nisovin.shopkeepers.util.bukkit.BlockLocation;
 import com.nisovin.shopkeepers.util.bukkit.ColorUtils;
@@ -156,6 +159,12 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	// of. A value of 'false' only indicates that the storage is aware of the latest data of the
 	// shopkeeper, not that it has actually persisted the data to disk yet.
 	private boolean dirty = false;
+	// Data key -> Serialized data of the sections that have not changed since they were last saved
+	// for the storage. The serialized data is not modified after it has been saved, so it can be
+	// reused for subsequent saves for the storage.
+	private final Map<@NonNull String, @NonNull Object> savedSections = new HashMap<>();
+	// Whether the shopkeeper is currently saved for the storage (see saveForStorage):
+	private boolean savingForStorage = false;
 	// Is currently registered:
 	private boolean valid = false;
 	private boolean active = false;
@@ -505,6 +514,44 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		this.saveSnapshots(shopkeeperData);
 	}
 
+	/**
+	 * Saves the shopkeeper's state to the given {@link ShopkeeperData} for the
+	 * {@link ShopkeeperStorage}.
+	 * <p>
+	 * This behaves like {@link #save(ShopkeeperData, boolean)}, but reuses the previously saved
+	 * data of the sections that have not changed since the previous save for the storage (see
+	 * {@link #saveSection(ShopkeeperData, String, Runnable)}). Since SnakeYaml represents data that
+	 * occurs multiple times inside the same Yaml document via anchors and aliases, the reused data
+	 * must not also be stored anywhere else. Only the storage therefore uses this method, and only
+	 * for the data that replaces the shopkeeper's previously saved data. Any other saves, such as
+	 * for snapshots, produce independent data.
+	 * 
+	 * @param shopkeeperData
+	 *            the shopkeeper data, not <code>null</code>
+	 */
+	public final void saveForStorage(ShopkeeperData shopkeeperData) {
+		Validate.State.isTrue(!savingForStorage, "The shopkeeper is already being saved!");
+		savingForStorage = true;
+		try {
+			this.save(shopkeeperData, false); // May reference externally stored data
+		} finally {
+			savingForStorage = false;
+		}
+	}
+
+	/**
+	 * Checks whether the shopkeeper is currently {@link #saveForStorage(ShopkeeperData) saved for
+	 * the storage}.
+	 * <p>
+	 * Only these saves are allowed to reuse previously saved data, or to store data that is reused
+	 * by subsequent saves.
+	 * 
+	 * @return <code>true</code> if the shopkeeper is currently saved for the storage
+	 */
+	protected final boolean isSavingForStorage() {
+		return savingForStorage;
+	}
+
 	/**
 	 * Saves the shopkeeper's dynamic state to the given {@link ShopkeeperData}.
 	 * <p>
@@ -573,7 +620,13 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		if (this.isValid()) {
 			// If the shopkeeper is marked as dirty during creation or loading (while it is not yet
 			// valid), the storage is informed once the shopkeeper becomes valid.
-			SKShopkeepersPlugin.getInstance().getShopkeeperStorage().markDirty(this);
+			SKShopkeepersPlugin plugin = SKShopkeepersPlugin.getInstance();
+			plugin.getShopkeeperStorage().markDirty(this);
+
+			// The change might have affected the offers: Refresh any open trading UIs and inform
+			// the offer index.
+			plugin.getUIRegistry().getTradingUIRefresher().requestRefresh(this);
+			plugin.getShopkeeperRegistry().getOfferIndex().onShopkeeperChanged(this);
 		}
 	}
 
@@ -597,6 +650,65 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		dirty = false;
 	}
 
+	/**
+	 * Saves a section of the shopkeeper's data, reusing the section's previously saved data if the
+	 * section has not been {@link #markSectionDirty(String) modified} since then.
+	 * <p>
+	 * This is meant for sections that are expensive to serialize, such as large lists of offers,
+	 * but usually don't change with every save. The section saver is expected to store the data of
+	 * the section under the given data key, and the saved data must not depend on anything other
+	 * than the state that is covered by the section.
+	 * <p>
+	 * The section data is only reused across {@link #saveForStorage(ShopkeeperData) saves for the
+	 * storage}. For any other saves, this simply runs the section saver.
+	 * 
+	 * @param shopkeeperData
+	 *            the shopkeeper data, not <code>null</code>
+	 * @param dataKey
+	 *            the data key of the section, not <code>null</code> or empty
+	 * @param sectionSaver
+	 *            saves the section to the given shopkeeper data, not <code>null</code>
+	 */
+	protected final void saveSection(
+			ShopkeeperData shopkeeperData,
+			String dataKey,
+			Runnable sectionSaver
+	) {
+		assert shopkeeperData != null && dataKey != null && sectionSaver != null;
+		if (!savingForStorage) {
+			sectionSaver.run();
+			return;
+		}
+
+		Object sectionData = savedSections.get(dataKey);
+		if (sectionData != null) {
+			shopkeeperData.set(dataKey, sectionData);
+			return;
+		}
+
+		sectionSaver.run();
+		sectionData = shopkeeperData.get(dataKey);
+		if (sectionData != null) {
+			savedSections.put(dataKey, sectionData);
+		}
+	}
+
+	/**
+	 * Discards the previously saved data of the specified section, so that the section is saved
+	 * anew during the next save.
+	 * <p>
+	 * This needs to be called on every change of the state that is covered by a section that is
+	 * saved via {@link #saveSection(ShopkeeperData, String, Runnable)}. This does not
+	 * {@link #markDirty() mark} the shopkeeper as dirty.
+	 * 
+	 * @param dataKey
+	 *            the data key of the section, not <code>null</code>
+	 */
+	protected final void markSectionDirty(String dataKey) {
+		assert dataKey != null;
+		savedSections.remove(dataKey);
+	}
+
 	// COMPONENTS
 
 	/**
@@ -1191,8 +1303,9 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 
 	// SNAPSHOTS
 
+	private static final String DATA_KEY_SNAPSHOTS = "snapshots";
 	public static final Property<@NonNull List<? extends @NonNull SKShopkeeperSnapshot>> SNAPSHOTS = new BasicProperty<@NonNull List<? extends @NonNull SKShopkeeperSnapshot>>()
-			.dataKeyAccessor("snapshots", SKShopkeeperSnapshot.LIST_SERIALIZER)
+			.dataKeyAccessor(DATA_KEY_SNAPSHOTS, SKShopkeeperSnapshot.LIST_SERIALIZER)
 			.useDefaultIfMissing()
 			.defaultValue(Collections.emptyList())
 			.build();
@@ -1216,9 +1329,13 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 				boolean migrated = false;
 				int snapshotId = 1;
 				for (SKShopkeeperSnapshot snapshot : snapshots) {
-					String snapshotLogPrefix = shopkeeperPrefix + "Snapshot " + snapshotId
-							+ " ('" + snapshot.getName() + "'): ";
-					migrated |= snapshot.getShopkeeperData().migrate(snapshotLogPrefix);
+					// Snapshot data that is stored in the snapshot data store is migrated once it
+					// is loaded.
+					if (snapshot.isShopkeeperDataLoaded()) {
+						String snapshotLogPrefix = shopkeeperPrefix + "Snapshot " + snapshotId
+								+ " ('" + snapshot.getName() + "'): ";
+						migrated |= snapshot.getShopkeeperData().migrate(snapshotLogPrefix);
+					}
 					snapshotId++;
 				}
 				return migrated;
@@ -1226,10 +1343,29 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		});
 	}
 
+	/**
+	 * Adds the ids of the snapshot data that is referenced by the given serialized shopkeeper data
+	 * to the given collection, without deserializing the snapshots.
+	 * 
+	 * @param shopkeeperData
+	 *            the serialized shopkeeper data, not <code>null</code>
+	 * @param dataIds
+	 *            the collection to add the data ids to, not <code>null</code>
+	 * @see SKShopkeeperSnapshot#collectDataIds(List, Collection)
+	 */
+	public static void collectSnapshotDataIds(
+			DataContainer shopkeeperData,
+			Collection<? super @NonNull String> dataIds
+	) {
+		Validate.notNull(shopkeeperData, "shopkeeperData is null");
+		SKShopkeeperSnapshot.collectDataIds(shopkeeperData.getList(DATA_KEY_SNAPSHOTS), dataIds);
+	}
+
 	private void loadSnapshots(ShopkeeperData shopkeeperData) throws InvalidDataException {
 		assert shopkeeperData != null;
 		List<? extends @NonNull SKShopkeeperSnapshot> loadedSnapshots = shopkeeperData.get(SNAPSHOTS);
 		snapshots.clear();
+		this.markSectionDirty(DATA_KEY_SNAPSHOTS);
 		try {
 			// Applies additional shopkeeper specific validations:
 			loadedSnapshots.forEach(this::_addSnapshot);
@@ -1253,7 +1389,9 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 
 	private void saveSnapshots(ShopkeeperData shopkeeperData) {
 		assert shopkeeperData != null;
-		shopkeeperData.set(SNAPSHOTS, snapshotsView);
+		this.saveSection(shopkeeperData, DATA_KEY_SNAPSHOTS, () -> {
+			shopkeeperData.set(SNAPSHOTS, snapshotsView);
+		});
 	}
 
 	@Override
@@ -1307,10 +1445,14 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		Validate.isTrue(snapshot instanceof SKShopkeeperSnapshot, () -> "snapshot is not of type "
 				+ SKShopkeeperSnapshot.class.getName() + ", but " + snapshot.getClass().getName());
 		SKShopkeeperSnapshot skSnapshot = (SKShopkeeperSnapshot) snapshot;
-		try {
-			this.getAndValidateShopType(skSnapshot.getShopkeeperData());
-		} catch (InvalidDataException e) {
-			Validate.error("Invalid snapshot shop type: " + e.getMessage());
+		// The shop type of snapshots whose data has not been loaded yet is validated once the
+		// snapshot is applied.
+		if (skSnapshot.isShopkeeperDataLoaded()) {
+			try {
+				this.getAndValidateShopType(skSnapshot.getShopkeeperData());
+			} catch (InvalidDataException e) {
+				Validate.error("Invalid snapshot shop type: " + e.getMessage());
+			}
 		}
 
 		// The name is assumed to be valid, since it has already been validated during the creation
@@ -1320,11 +1462,13 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 				() -> "There already exists a snapshot with this name: " + snapshotName);
 
 		snapshots.add(skSnapshot);
+		this.markSectionDirty(DATA_KEY_SNAPSHOTS);
 	}
 
 	@Override
 	public final ShopkeeperSnapshot removeSnapshot(int index) {
 		ShopkeeperSnapshot snapshot = snapshots.remove(index);
+		this.markSectionDirty(DATA_KEY_SNAPSHOTS);
 		this.markDirty();
 		return snapshot;
 	}
@@ -1332,6 +1476,7 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 	@Override
 	public final void removeAllSnapshots() {
 		snapshots.clear();
+		this.markSectionDirty(DATA_KEY_SNAPSHOTS);
 		this.markDirty();
 	}
 
@@ -1343,6 +1488,8 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 		// TODO Inform players.
 		SKShopkeepersPlugin.getInstance().getUIRegistry().abortUISessions(this);
 		try {
+			// If the snapshot data has not been loaded yet, this loads it synchronously. Our own
+			// callers load the data asynchronously beforehand.
 			this.loadDynamicState(((SKShopkeeperSnapshot) snapshot).getShopkeeperData());
 		} catch (InvalidDataException e) {
 			throw new ShopkeeperLoadException(e.getMessage(), e);
@@ -1364,6 +1511,19 @@ public abstract class AbstractShopkeeper implements Shopkeeper {
 			@Nullable Player player
 	);
 
+	@Override
+	public final TradeResult trade(Player player, TradingRecipe tradingRecipe, int tradeCount) {
+		Validate.notNull(player, "player is null");
+		Validate.notNull(tradingRecipe, "tradingRecipe is null");
+		Validate.isTrue(tradeCount > 0, "tradeCount has to be positive");
+		UIHandler tradingHandler = this.getUIHandler(DefaultUITypes.TRADING());
+		if (!(tradingHandler instanceof TradingHandler)) {
+			// This shopkeeper does not support trading:
+			return new SKTradeResult(tradeCount, 0, AbortReason.UNKNOWN_TRADING_RECIPE);
+		}
+		return ((TradingHandler) tradingHandler).trade(player, tradingRecipe, tradeCount);
+	}
+
 	// USER INTERFACES
 
 	@Override
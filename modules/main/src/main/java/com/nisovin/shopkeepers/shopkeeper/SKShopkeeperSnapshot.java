@@ -2,14 +2,22 @@ package com.nisovin.shopkeepers.shopkeeper;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 import org.bukkit.ChatColor;
+import org.bukkit.plugin.Plugin;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperSnapshot;
+import com.nisovin.shopkeepers.storage.SKShopkeeperStorage;
+import com.nisovin.shopkeepers.storage.ShopkeeperSnapshotDataStore;
 import com.nisovin.shopkeepers.util.annotations.ReadOnly;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.data.container.DataContainer;
@@ -86,34 +94,120 @@ public final class SKShopkeeperSnapshot implements ShopkeeperSnapshot {
 	private static final Property<@NonNull DataContainer> DATA = new BasicProperty<@NonNull DataContainer>()
 			.dataKeyAccessor("data", DataContainerSerializers.DEFAULT)
 			.build();
+	private static final String DATA_KEY_DATA_ID = "data-id";
+	private static final Property<@NonNull String> DATA_ID = new BasicProperty<@NonNull String>()
+			.dataKeyAccessor(DATA_KEY_DATA_ID, StringSerializers.STRICT_NON_EMPTY)
+			.build();
+
+	// Null if the snapshot data is stored inline, e.g. while the plugin is disabled.
+	private static @Nullable ShopkeeperSnapshotDataStore getPluginDataStore() {
+		if (!SKShopkeepersPlugin.isPluginEnabled()) return null;
+		return SKShopkeepersPlugin.getInstance().getShopkeeperStorage().getSnapshotDataStore();
+	}
 
 	/**
-	 * A {@link DataSerializer} for {@link SKShopkeeperSnapshot} values.
+	 * Adds the ids of the shopkeeper data that is stored in the {@link ShopkeeperSnapshotDataStore}
+	 * for the given serialized snapshots to the given collection.
+	 * <p>
+	 * This does not deserialize the snapshots. Invalid snapshot data is ignored.
+	 * 
+	 * @param snapshotsData
+	 *            the serialized snapshots, can be <code>null</code>
+	 * @param dataIds
+	 *            the collection to add the data ids to, not <code>null</code>
 	 */
-	public static final DataSerializer<@NonNull SKShopkeeperSnapshot> SERIALIZER = new DataSerializer<@NonNull SKShopkeeperSnapshot>() {
-		@Override
-		public @Nullable Object serialize(SKShopkeeperSnapshot value) {
-			Validate.notNull(value, "value is null");
-			DataContainer dataContainer = DataContainer.create();
-			dataContainer.set(NAME, value.getName());
-			dataContainer.set(TIMESTAMP, value.getTimestamp());
-			dataContainer.set(DATA, value.getShopkeeperData());
-			return dataContainer.serialize();
+	public static void collectDataIds(
+			@Nullable List<?> snapshotsData,
+			Collection<? super @NonNull String> dataIds
+	) {
+		Validate.notNull(dataIds, "dataIds is null");
+		if (snapshotsData == null) return;
+		for (Object snapshotData : snapshotsData) {
+			DataContainer snapshotDataContainer = DataContainer.of(snapshotData);
+			if (snapshotDataContainer == null) continue;
+			String dataId = snapshotDataContainer.getString(DATA_KEY_DATA_ID);
+			if (dataId != null) {
+				dataIds.add(dataId);
+			}
 		}
+	}
 
-		@Override
-		public SKShopkeeperSnapshot deserialize(Object data) throws InvalidDataException {
-			DataContainer dataContainer = DataContainerSerializers.DEFAULT.deserialize(data);
-			try {
-				String name = dataContainer.get(NAME);
-				Instant timestamp = dataContainer.get(TIMESTAMP);
-				ShopkeeperData shopkeeperData = ShopkeeperData.ofNonNull(dataContainer.get(DATA));
-				return new SKShopkeeperSnapshot(name, timestamp, shopkeeperData);
-			} catch (MissingDataException e) {
-				throw new InvalidDataException(e.getMessage(), e);
+	/**
+	 * A {@link DataSerializer} for {@link SKShopkeeperSnapshot} values.
+	 * <p>
+	 * While the plugin is enabled, the shopkeeper data of the snapshot is stored in the
+	 * {@link SKShopkeeperStorage#getSnapshotDataStore() snapshot data store} of the shopkeeper
+	 * storage, and only its id is included in the serialized snapshot. Otherwise, the data is
+	 * stored inline. Snapshots that still store their data inline can always be deserialized.
+	 */
+	public static final DataSerializer<@NonNull SKShopkeeperSnapshot> SERIALIZER = createSerializer(
+			SKShopkeeperSnapshot::getPluginDataStore
+	);
+
+	/**
+	 * Gets a {@link DataSerializer} for {@link SKShopkeeperSnapshot} values that stores the
+	 * shopkeeper data of the snapshots in the given {@link ShopkeeperSnapshotDataStore}.
+	 * <p>
+	 * Apart from that, this behaves like {@link #SERIALIZER}.
+	 * 
+	 * @param dataStore
+	 *            the snapshot data store, or <code>null</code> to store the data inline
+	 * @return the data serializer, not <code>null</code>
+	 */
+	public static DataSerializer<@NonNull SKShopkeeperSnapshot> serializer(
+			@Nullable ShopkeeperSnapshotDataStore dataStore
+	) {
+		return createSerializer(() -> dataStore);
+	}
+
+	private static DataSerializer<@NonNull SKShopkeeperSnapshot> createSerializer(
+			Supplier<? extends @Nullable ShopkeeperSnapshotDataStore> dataStoreSupplier
+	) {
+		assert dataStoreSupplier != null;
+		return new DataSerializer<@NonNull SKShopkeeperSnapshot>() {
+			@Override
+			public @Nullable Object serialize(SKShopkeeperSnapshot value) {
+				Validate.notNull(value, "value is null");
+				DataContainer dataContainer = DataContainer.create();
+				dataContainer.set(NAME, value.getName());
+				dataContainer.set(TIMESTAMP, value.getTimestamp());
+				ShopkeeperSnapshotDataStore dataStore = dataStoreSupplier.get();
+				if (dataStore != null) {
+					dataContainer.set(DATA_ID, value.getDataId(dataStore));
+				} else {
+					dataContainer.set(DATA, value.getLoadedShopkeeperData());
+				}
+				return dataContainer.serialize();
 			}
-		}
-	};
+
+			@Override
+			public SKShopkeeperSnapshot deserialize(Object data) throws InvalidDataException {
+				DataContainer dataContainer = DataContainerSerializers.DEFAULT.deserialize(data);
+				try {
+					String name = dataContainer.get(NAME);
+					Instant timestamp = dataContainer.get(TIMESTAMP);
+					String dataId = dataContainer.getOrNullIfMissing(DATA_ID);
+					if (dataId != null) {
+						ShopkeeperSnapshotDataStore dataStore = dataStoreSupplier.get();
+						if (dataStore == null) {
+							throw new InvalidDataException("Cannot load snapshot data " + dataId
+									+ ": There is no snapshot data store!");
+						}
+						// The data is loaded lazily:
+						return new SKShopkeeperSnapshot(name, timestamp, dataStore, dataId);
+					}
+					DataContainer shopkeeperData = dataContainer.get(DATA);
+					return new SKShopkeeperSnapshot(
+							name,
+							timestamp,
+							ShopkeeperData.ofNonNull(shopkeeperData)
+					);
+				} catch (MissingDataException e) {
+					throw new InvalidDataException(e.getMessage(), e);
+				}
+			}
+		};
+	}
 
 	/**
 	 * A {@link DataSerializer} for lists of {@link ShopkeeperSnapshot}s.
@@ -167,7 +261,12 @@ public final class SKShopkeeperSnapshot implements ShopkeeperSnapshot {
 
 	private final String name;
 	private final Instant timestamp;
-	private final ShopkeeperData shopkeeperData;
+	// Null if the data has not yet been loaded from the snapshot data store.
+	private @Nullable ShopkeeperData shopkeeperData;
+	// The snapshot data store that stores the data, and the id of the data inside this data store,
+	// or null if the data has not yet been stored.
+	private @Nullable ShopkeeperSnapshotDataStore dataStore = null;
+	private @Nullable String dataId = null;
 
 	/**
 	 * Creates a new {@link SKShopkeeperSnapshot}.
@@ -188,6 +287,23 @@ public final class SKShopkeeperSnapshot implements ShopkeeperSnapshot {
 		this.shopkeeperData = shopkeeperData;
 	}
 
+	private SKShopkeeperSnapshot(
+			String name,
+			Instant timestamp,
+			ShopkeeperSnapshotDataStore dataStore,
+			String dataId
+	) {
+		validateName(name);
+		Validate.notNull(timestamp, "timestamp is null");
+		Validate.notNull(dataStore, "dataStore is null");
+		Validate.notEmpty(dataId, "dataId is null or empty");
+		this.name = name;
+		this.timestamp = timestamp;
+		this.shopkeeperData = null;
+		this.dataStore = dataStore;
+		this.dataId = dataId;
+	}
+
 	@Override
 	public final String getName() {
 		return name;
@@ -198,15 +314,99 @@ public final class SKShopkeeperSnapshot implements ShopkeeperSnapshot {
 		return timestamp;
 	}
 
+	/**
+	 * Checks if the {@link #getShopkeeperData() shopkeeper data} of this snapshot has already been
+	 * loaded.
+	 * <p>
+	 * The data of snapshots that have been loaded from the save file is only loaded from the
+	 * {@link ShopkeeperSnapshotDataStore} once it is requested.
+	 * 
+	 * @return <code>true</code> if the shopkeeper data is loaded
+	 */
+	public final boolean isShopkeeperDataLoaded() {
+		return (shopkeeperData != null);
+	}
+
 	/**
 	 * The (dynamic) shopkeeper data at the time this snapshot was taken.
+	 * <p>
+	 * If the data has not been {@link #isShopkeeperDataLoaded() loaded} yet, it is synchronously
+	 * loaded from the {@link ShopkeeperSnapshotDataStore} and migrated. Prefer
+	 * {@link #loadShopkeeperDataAsync(Plugin)} when possible.
 	 * 
 	 * @return the shopkeeper data, not <code>null</code>
+	 * @throws InvalidDataException
+	 *             if the data cannot be loaded
 	 */
-	public final ShopkeeperData getShopkeeperData() {
+	public final ShopkeeperData getShopkeeperData() throws InvalidDataException {
+		ShopkeeperData shopkeeperData = this.shopkeeperData;
+		if (shopkeeperData == null) {
+			String dataId = Unsafe.assertNonNull(this.dataId);
+			shopkeeperData = Unsafe.assertNonNull(dataStore).load(dataId);
+			shopkeeperData = this.onShopkeeperDataLoaded(shopkeeperData);
+		}
 		return shopkeeperData;
 	}
 
+	/**
+	 * Loads the {@link #getShopkeeperData() shopkeeper data} of this snapshot, without blocking the
+	 * server's main thread while the data is read from the {@link ShopkeeperSnapshotDataStore}.
+	 * <p>
+	 * If the data is already {@link #isShopkeeperDataLoaded() loaded}, the returned future is
+	 * already completed. Otherwise, it is completed on the server's main thread, or not at all if
+	 * the plugin is disabled in the meantime.
+	 * 
+	 * @param plugin
+	 *            the plugin, not <code>null</code>
+	 * @return a future that provides the shopkeeper data, or fails with an
+	 *         {@link InvalidDataException} if the data cannot be loaded
+	 */
+	public final CompletableFuture<@NonNull ShopkeeperData> loadShopkeeperDataAsync(Plugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		ShopkeeperData shopkeeperData = this.shopkeeperData;
+		if (shopkeeperData != null) {
+			return CompletableFuture.completedFuture(shopkeeperData);
+		}
+
+		String dataId = Unsafe.assertNonNull(this.dataId);
+		ShopkeeperSnapshotDataStore dataStore = Unsafe.assertNonNull(this.dataStore);
+		return dataStore.loadAsync(plugin, dataId).thenApply(loadedData -> {
+			try {
+				return this.onShopkeeperDataLoaded(loadedData);
+			} catch (InvalidDataException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	private ShopkeeperData onShopkeeperDataLoaded(
+			ShopkeeperData loadedData
+	) throws InvalidDataException {
+		// The data might have been loaded in the meantime:
+		ShopkeeperData shopkeeperData = this.shopkeeperData;
+		if (shopkeeperData != null) return shopkeeperData;
+
+		loadedData.migrate("Snapshot '" + name + "': ");
+		this.shopkeeperData = loadedData;
+		return loadedData;
+	}
+
+	private ShopkeeperData getLoadedShopkeeperData() {
+		return Validate.State.notNull(shopkeeperData, "The snapshot data is not loaded!");
+	}
+
+	private String getDataId(ShopkeeperSnapshotDataStore dataStore) {
+		assert dataStore != null;
+		String dataId = this.dataId;
+		if (dataId == null) {
+			// The snapshot data does not change, so we only need to store it once:
+			dataId = dataStore.store(this.getLoadedShopkeeperData());
+			this.dataStore = dataStore;
+			this.dataId = dataId;
+		}
+		return dataId;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
@@ -214,6 +414,8 @@ public final class SKShopkeeperSnapshot implements ShopkeeperSnapshot {
 		builder.append(name);
 		builder.append(", timestamp=");
 		builder.append(timestamp);
+		builder.append(", dataId=");
+		builder.append(dataId);
 		builder.append(", shopkeeperData=");
 		builder.append(shopkeeperData);
 		builder.append("]");
@@ -6,6 +6,7 @@ import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
 import com.nisovin.shopkeepers.util.data.container.DataContainer;
 import com.nisovin.shopkeepers.util.data.container.DelegateDataContainer;
+import com.nisovin.shopkeepers.util.data.serialization.DataSerializer;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.java.Validate;
 
@@ -15,6 +16,14 @@ import com.nisovin.shopkeepers.util.java.Validate;
  * This wrapper and its subclasses are expected to read and write through to the underlying data
  * container. They shall not copy or derive any state, because external components may directly
  * access the underlying data container and thereby bypass this wrapper.
+ * <p>
+ * Not all values inside the shopkeeper data that is saved for the storage have the same types as
+ * when the data is loaded from a file. For example, the items of offers are saved as Maps that
+ * contain their serialized item data, instead of as item stacks (see
+ * {@link AbstractShopkeeper#saveForStorage(ShopkeeperData)}). Components that read this data are
+ * therefore expected to use the corresponding {@link DataSerializer}s, which accept both
+ * representations. Other saved shopkeeper data, such as the data of snapshots, stores the items as
+ * item stacks.
  */
 public class ShopkeeperData extends DelegateDataContainer {
 
@@ -24,12 +24,14 @@ import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.debug.DebugOptions;
+import com.nisovin.shopkeepers.debug.watchdog.SlowOperationWatchdog.Operation;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
 import com.nisovin.shopkeepers.shopkeeper.spawning.ShopkeeperSpawner;
 import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTicker;
-import com.nisovin.shopkeepers.util.bukkit.MutableChunkCoords;
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.java.LongObjectHashMap;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 import com.nisovin.shopkeepers.util.timer.Timer;
@@ -61,7 +63,6 @@ public class ShopkeeperChunkActivator {
 	private static final Predicate<@NonNull AbstractShopkeeper> SHOPKEEPER_IS_INACTIVE = Unsafe.assertNonNull(SHOPKEEPER_IS_ACTIVE.negate());
 
 	private static final Location sharedLocation = new Location(null, 0, 0, 0);
-	private static final MutableChunkCoords sharedChunkCoords = new MutableChunkCoords();
 
 	private final SKShopkeepersPlugin plugin;
 	private final SKShopkeeperRegistry shopkeeperRegistry;
@@ -69,7 +70,14 @@ public class ShopkeeperChunkActivator {
 	private final ShopkeeperSpawner shopkeeperSpawner;
 	private final ChunkActivationListener listener = new ChunkActivationListener(Unsafe.initialized(this));
 
-	private final Map<@NonNull ChunkCoords, @NonNull ChunkData> chunks = new HashMap<>();
+	// Per world, chunk data by chunk key (see ChunkKeys):
+	// Unlike a map keyed by ChunkCoords, this avoids hashing and comparing the world name for every
+	// chunk lookup, and the allocation of key objects.
+	private final Map<@NonNull String, @NonNull LongObjectHashMap<@NonNull ChunkData>> chunks = new HashMap<>();
+	// Most consecutive chunk lookups are for the same world. We therefore cache the chunk data map
+	// of the last looked up world:
+	private @Nullable String lastWorldName = null;
+	private @Nullable LongObjectHashMap<@NonNull ChunkData> lastWorldChunks = null;
 
 	private boolean chunkActivationInProgress = false;
 	// This does not consider pending delayed chunk activation tasks, but only tracks actual
@@ -118,6 +126,8 @@ public class ShopkeeperChunkActivator {
 			Log.warning("Some chunk entries were not properly removed from the chunk activator!");
 			chunks.clear();
 		}
+		lastWorldName = null;
+		lastWorldChunks = null;
 		if (!deferredChunkActivations.isEmpty()) {
 			Log.warning("Some deferred chunk activations were not properly removed from the chunk activator!");
 			deferredChunkActivations.clear();
@@ -126,34 +136,75 @@ public class ShopkeeperChunkActivator {
 
 	// DATA
 
+	// Returns null if there is no chunk data for the specified world.
+	private @Nullable LongObjectHashMap<@NonNull ChunkData> getWorldChunks(String worldName) {
+		assert worldName != null;
+		if (worldName.equals(lastWorldName)) {
+			return lastWorldChunks;
+		}
+
+		LongObjectHashMap<@NonNull ChunkData> worldChunks = chunks.get(worldName);
+		if (worldChunks != null) {
+			lastWorldName = worldName;
+			lastWorldChunks = worldChunks;
+		}
+		return worldChunks;
+	}
+
 	private @Nullable ChunkData getChunkData(Chunk chunk) {
 		assert chunk != null;
-		sharedChunkCoords.set(chunk);
-		return this.getChunkData(sharedChunkCoords);
+		return this.getChunkData(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
 	}
 
 	private @Nullable ChunkData getChunkData(String worldName, int chunkX, int chunkZ) {
-		sharedChunkCoords.set(worldName, chunkX, chunkZ);
-		return this.getChunkData(sharedChunkCoords);
+		LongObjectHashMap<@NonNull ChunkData> worldChunks = this.getWorldChunks(worldName);
+		if (worldChunks == null) return null;
+		return worldChunks.get(ChunkKeys.of(chunkX, chunkZ));
 	}
 
 	// Returns null if there is no data for the specified chunk, i.e. if there are no shopkeepers in
 	// this chunk.
 	private @Nullable ChunkData getChunkData(ChunkCoords chunkCoords) {
 		assert chunkCoords != null;
-		return chunks.get(chunkCoords);
+		return this.getChunkData(
+				chunkCoords.getWorldName(),
+				chunkCoords.getChunkX(),
+				chunkCoords.getChunkZ()
+		);
 	}
 
 	private ChunkData getOrCreateChunkData(ChunkCoords chunkCoords) {
 		assert chunkCoords != null;
-		ChunkData chunkData = chunks.computeIfAbsent(chunkCoords, ChunkData::new);
-		assert chunkData != null;
+		String worldName = chunkCoords.getWorldName();
+		LongObjectHashMap<@NonNull ChunkData> worldChunks = this.getWorldChunks(worldName);
+		if (worldChunks == null) {
+			worldChunks = new LongObjectHashMap<>();
+			chunks.put(worldName, worldChunks);
+		}
+
+		long chunkKey = ChunkKeys.of(chunkCoords);
+		ChunkData chunkData = worldChunks.get(chunkKey);
+		if (chunkData == null) {
+			chunkData = new ChunkData(chunkCoords);
+			worldChunks.put(chunkKey, chunkData);
+		}
 		return chunkData;
 	}
 
 	private @Nullable ChunkData removeChunkData(ChunkCoords chunkCoords) {
 		assert chunkCoords != null;
-		ChunkData chunkData = chunks.remove(chunkCoords);
+		String worldName = chunkCoords.getWorldName();
+		LongObjectHashMap<@NonNull ChunkData> worldChunks = this.getWorldChunks(worldName);
+		if (worldChunks == null) return null;
+
+		ChunkData chunkData = worldChunks.remove(ChunkKeys.of(chunkCoords));
+		if (worldChunks.isEmpty()) {
+			chunks.remove(worldName);
+			if (worldName.equals(lastWorldName)) {
+				lastWorldName = null;
+				lastWorldChunks = null;
+			}
+		}
 		if (chunkData != null) {
 			this.cancelDeferredActivation(chunkData);
 			chunkData.cleanUp();
@@ -442,6 +493,11 @@ public class ShopkeeperChunkActivator {
 
 		// Get the chunk shopkeepers:
 		Collection<? extends @NonNull AbstractShopkeeper> shopkeepers = shopkeeperRegistry.getShopkeepersInChunkSnapshot(chunkCoords);
+		Operation watchdogOperation = plugin.getSlowOperationWatchdog().start(
+				"Chunk activation",
+				() -> "chunk " + TextUtils.getChunkString(chunkCoords) + ", "
+						+ shopkeepers.size() + " shopkeepers"
+		);
 
 		Log.debug(DebugOptions.shopkeeperActivation,
 				() -> "Activating " + shopkeepers.size() + " shopkeepers in chunk "
@@ -490,6 +546,7 @@ public class ShopkeeperChunkActivator {
 					false
 			);
 		} finally {
+			watchdogOperation.stop();
 			chunkActivationTimings.stop();
 			chunkActivationInProgress = false;
 
@@ -19,6 +19,7 @@ import com.nisovin.shopkeepers.shopkeeper.admin.AbstractAdminShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferDataCache;
 import com.nisovin.shopkeepers.shopkeeper.offers.SKTradeOffer;
 import com.nisovin.shopkeepers.util.data.property.BasicProperty;
 import com.nisovin.shopkeepers.util.data.property.Property;
@@ -32,6 +33,11 @@ public class SKRegularAdminShopkeeper
 	// There can be multiple different offers for the same kind of item:
 	private final List<@NonNull SKTradeOffer> offers = new ArrayList<>();
 	private final List<? extends @NonNull SKTradeOffer> offersView = Collections.unmodifiableList(offers);
+	// Reuses the serialized data of the offers that have not changed since the last save for the
+	// storage:
+	private final OfferDataCache<@NonNull TradeOffer> offerDataCache = new OfferDataCache<>(
+			SKTradeOffer.SERIALIZER
+	);
 
 	/**
 	 * Creates a not yet initialized {@link SKRegularAdminShopkeeper}.
@@ -114,7 +120,13 @@ public class SKRegularAdminShopkeeper
 
 	private void saveOffers(ShopkeeperData shopkeeperData) {
 		assert shopkeeperData != null;
-		shopkeeperData.set(OFFERS, this.getOffers());
+		this.saveSection(shopkeeperData, DATA_KEY_OFFERS, () -> {
+			if (this.isSavingForStorage()) {
+				shopkeeperData.set(DATA_KEY_OFFERS, offerDataCache.serialize(this.getOffers()));
+			} else {
+				shopkeeperData.set(OFFERS, this.getOffers());
+			}
+		});
 	}
 
 	@Override
@@ -130,6 +142,7 @@ public class SKRegularAdminShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
@@ -160,6 +173,7 @@ public class SKRegularAdminShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
@@ -0,0 +1,99 @@
+package com.nisovin.shopkeepers.shopkeeper.offers;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
+import com.nisovin.shopkeepers.util.bukkit.ConfigUtils;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.data.serialization.DataSerializer;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Serializes the offers of a shopkeeper, and reuses the serialized data of the offers that have
+ * not changed since the previous serialization.
+ * <p>
+ * Offers are immutable. When the offers of a shopkeeper change, usually only a few offers are
+ * replaced, and the other offer instances are retained. Only the new offers therefore need to be
+ * serialized. Their items are serialized right away into Maps that contain their serialized item
+ * data, instead of being stored as item stacks that are only serialized during the Yaml
+ * serialization of every save. The comparatively costly serialization of the item meta is
+ * therefore only performed once per offer.
+ * <p>
+ * The serialized data of an offer is reused for at most one offer inside the serialized list of
+ * offers, since SnakeYaml represents data that occurs multiple times inside the same Yaml document
+ * via anchors and aliases. For the same reason, the serialized data is only meant to be stored in
+ * one place: Each shopkeeper uses its own instance of this class, and only for the data that it
+ * saves for the shopkeeper storage. Other saves, such as for snapshots, serialize the offers via
+ * the list serializers of the offers, such as {@link SKTradeOffer#LIST_SERIALIZER}.
+ * <p>
+ * Apart from the representation of the items, the serialized list of offers has the same format
+ * as the list serializers of the offers. The item deserializers accept both representations.
+ * 
+ * @param <O>
+ *            the type of offer
+ */
+public final class OfferDataCache<O> {
+
+	private final DataSerializer<O> offerSerializer;
+	// Offer -> Serialized data of the offers of the previous serialization.
+	private Map<O, @NonNull Object> offerData = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new {@link OfferDataCache}.
+	 * 
+	 * @param offerSerializer
+	 *            the serializer for individual offers, not <code>null</code>
+	 */
+	public OfferDataCache(DataSerializer<O> offerSerializer) {
+		Validate.notNull(offerSerializer, "offerSerializer is null");
+		this.offerSerializer = offerSerializer;
+	}
+
+	/**
+	 * Serializes the given offers.
+	 * <p>
+	 * The serialized data of the offers that were already part of the previous serialization is
+	 * reused. The returned data is not meant to be modified.
+	 * 
+	 * @param offers
+	 *            the offers, not <code>null</code>
+	 * @return the serialized offers, not <code>null</code>
+	 */
+	public Object serialize(@ReadOnly List<? extends O> offers) {
+		Validate.notNull(offers, "offers is null");
+		Map<O, @NonNull Object> previousOfferData = offerData;
+		Map<O, @NonNull Object> newOfferData = new IdentityHashMap<>(offers.size());
+		DataContainer offerListData = DataContainer.create();
+		int id = 1;
+		for (O offer : offers) {
+			Validate.notNull(offer, "list of offers contains null");
+			// Removed, so that the data is only reused once:
+			Object data = previousOfferData.remove(offer);
+			if (data == null) {
+				data = this.serializeOffer(offer);
+			}
+			newOfferData.put(offer, data);
+			offerListData.set(String.valueOf(id), data);
+			id++;
+		}
+		offerData = newOfferData;
+		return offerListData.serialize();
+	}
+
+	private Object serializeOffer(O offer) {
+		Object data = Unsafe.assertNonNull(offerSerializer.serialize(offer));
+		if (data instanceof Map) {
+			// Also serializes the contained items:
+			Map<@NonNull Object, @NonNull Object> dataMap = new LinkedHashMap<>((Map<?, ?>) data);
+			ConfigUtils.serializeDeeply(dataMap);
+			data = dataMap;
+		}
+		return data;
+	}
+}
@@ -0,0 +1,228 @@
+package com.nisovin.shopkeepers.shopkeeper.offers;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.admin.regular.RegularAdminShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.PriceOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.player.buy.BuyingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.sell.SellingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.trade.TradingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.util.inventory.SKUnmodifiableItemStack;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Interns the immutable item stacks of offers.
+ * <p>
+ * Many shops offer the same items. Interning these items ensures that offers with equal items share
+ * the same item stack instance, instead of each offer holding its own copy of the item and its
+ * item meta.
+ * <p>
+ * The interned items are retained until the plugin is disabled. In order to limit the memory usage
+ * in case items are frequently edited, no further items are interned once a certain number of
+ * distinct items has been interned.
+ */
+public final class OfferItemInterner {
+
+	private static final int MAX_INTERNED_ITEMS = 65536;
+
+	// Rough estimates of the memory usage of an item stack and of its item meta, used to estimate
+	// the memory that is saved by interning.
+	private static final int ESTIMATED_ITEM_STACK_BYTES = 48;
+	private static final int ESTIMATED_ITEM_META_BYTES = 256;
+
+	private static final Map<@NonNull UnmodifiableItemStack, @NonNull UnmodifiableItemStack> INTERNED_ITEMS = new ConcurrentHashMap<>();
+
+	/**
+	 * Gets the interned instance of the given item stack.
+	 * 
+	 * @param item
+	 *            the item stack, not <code>null</code>
+	 * @return the interned item stack, or the given item stack itself if it has not been interned
+	 */
+	public static UnmodifiableItemStack intern(UnmodifiableItemStack item) {
+		Validate.notNull(item, "item is null");
+		UnmodifiableItemStack internedItem = INTERNED_ITEMS.get(item);
+		if (internedItem == null) {
+			if (INTERNED_ITEMS.size() >= MAX_INTERNED_ITEMS) return item;
+			internedItem = INTERNED_ITEMS.putIfAbsent(item, item);
+			if (internedItem == null) return item;
+		}
+
+		// Depending on the server implementation, equal item stacks may be represented by different
+		// item stack implementations that behave differently in certain comparisons (see
+		// DataUtils#deserializeItemStack). We only share items of the same implementation.
+		if (getImplementationType(internedItem) != getImplementationType(item)) return item;
+		return internedItem;
+	}
+
+	/**
+	 * Shorthand for {@link #intern(UnmodifiableItemStack)} that accepts <code>null</code>.
+	 * 
+	 * @param item
+	 *            the item stack, can be <code>null</code>
+	 * @return the interned item stack, or <code>null</code> if the given item stack is
+	 *         <code>null</code>
+	 */
+	public static @Nullable UnmodifiableItemStack internOrNull(
+			@Nullable UnmodifiableItemStack item
+	) {
+		return (item != null) ? intern(item) : null;
+	}
+
+	@SuppressWarnings("deprecation")
+	private static Class<?> getImplementationType(UnmodifiableItemStack item) {
+		if (item instanceof SKUnmodifiableItemStack) {
+			return ((SKUnmodifiableItemStack) item).getInternalItemStack().getClass();
+		}
+		return item.getClass();
+	}
+
+	/**
+	 * Gets the number of distinct interned items.
+	 * 
+	 * @return the number of interned items
+	 */
+	public static int getInternedItemsCount() {
+		return INTERNED_ITEMS.size();
+	}
+
+	/**
+	 * Removes all interned items.
+	 * <p>
+	 * Offers that have already been created keep using their current item stacks.
+	 */
+	public static void clear() {
+		INTERNED_ITEMS.clear();
+	}
+
+	/**
+	 * Statistics about the items of the offers of a set of shopkeepers.
+	 */
+	public static final class OfferItemStatistics {
+
+		private int totalItemsCount = 0;
+		private int uniqueItemsCount = 0;
+		private long estimatedSavedBytes = 0L;
+
+		private OfferItemStatistics() {
+		}
+
+		/**
+		 * Gets the total number of offer items.
+		 * 
+		 * @return the total number of offer items
+		 */
+		public int getTotalItems() {
+			return totalItemsCount;
+		}
+
+		/**
+		 * Gets the number of distinct item stack instances among the offer items.
+		 * 
+		 * @return the number of unique offer items
+		 */
+		public int getUniqueItems() {
+			return uniqueItemsCount;
+		}
+
+		/**
+		 * Gets a rough estimate of the memory in bytes that is saved by offers sharing item stack
+		 * instances.
+		 * 
+		 * @return the estimated saved memory in bytes
+		 */
+		public long getEstimatedSavedBytes() {
+			return estimatedSavedBytes;
+		}
+
+		private void addItem(
+				@Nullable UnmodifiableItemStack item,
+				Set<@NonNull UnmodifiableItemStack> uniqueItems
+		) {
+			if (item == null) return;
+			totalItemsCount++;
+			if (uniqueItems.add(item)) {
+				uniqueItemsCount++;
+			} else {
+				estimatedSavedBytes += ESTIMATED_ITEM_STACK_BYTES;
+				if (item.hasItemMeta()) {
+					estimatedSavedBytes += ESTIMATED_ITEM_META_BYTES;
+				}
+			}
+		}
+
+		private void addTradeOffers(
+				Collection<? extends @NonNull TradeOffer> offers,
+				Set<@NonNull UnmodifiableItemStack> uniqueItems
+		) {
+			offers.forEach(offer -> {
+				this.addItem(offer.getResultItem(), uniqueItems);
+				this.addItem(offer.getItem1(), uniqueItems);
+				this.addItem(offer.getItem2(), uniqueItems);
+			});
+		}
+
+		private void addPriceOffers(
+				Collection<? extends @NonNull PriceOffer> offers,
+				Set<@NonNull UnmodifiableItemStack> uniqueItems
+		) {
+			offers.forEach(offer -> this.addItem(offer.getItem(), uniqueItems));
+		}
+	}
+
+	/**
+	 * Collects {@link OfferItemStatistics} for the offers of the given shopkeepers.
+	 * 
+	 * @param shopkeepers
+	 *            the shopkeepers, not <code>null</code>
+	 * @return the statistics, not <code>null</code>
+	 */
+	public static OfferItemStatistics getStatistics(
+			Collection<? extends @NonNull Shopkeeper> shopkeepers
+	) {
+		Validate.notNull(shopkeepers, "shopkeepers is null");
+		OfferItemStatistics statistics = new OfferItemStatistics();
+		// Identity based: Counts the distinct item stack instances.
+		Set<@NonNull UnmodifiableItemStack> uniqueItems = Collections.newSetFromMap(
+				new IdentityHashMap<>()
+		);
+		for (Shopkeeper shopkeeper : shopkeepers) {
+			if (shopkeeper instanceof RegularAdminShopkeeper) {
+				statistics.addTradeOffers(
+						((RegularAdminShopkeeper) shopkeeper).getOffers(),
+						uniqueItems
+				);
+			} else if (shopkeeper instanceof TradingPlayerShopkeeper) {
+				statistics.addTradeOffers(
+						((TradingPlayerShopkeeper) shopkeeper).getOffers(),
+						uniqueItems
+				);
+			} else if (shopkeeper instanceof SellingPlayerShopkeeper) {
+				statistics.addPriceOffers(
+						((SellingPlayerShopkeeper) shopkeeper).getOffers(),
+						uniqueItems
+				);
+			} else if (shopkeeper instanceof BuyingPlayerShopkeeper) {
+				statistics.addPriceOffers(
+						((BuyingPlayerShopkeeper) shopkeeper).getOffers(),
+						uniqueItems
+				);
+			}
+		}
+		return statistics;
+	}
+
+	private OfferItemInterner() {
+	}
+}
@@ -0,0 +1,546 @@
+package com.nisovin.shopkeepers.shopkeeper.offers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.admin.regular.RegularAdminShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.IndexedOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.OfferIndex;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.PriceOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.player.buy.BuyingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.sell.SellingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.trade.TradingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.currency.Currencies;
+import com.nisovin.shopkeepers.currency.Currency;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * An index of the offers of all loaded shopkeepers by the items they trade.
+ * <p>
+ * The index is updated incrementally: The registry informs the index when shopkeepers are added or
+ * removed, and shopkeepers inform the index when they are marked dirty, since this might indicate a
+ * change of their offers. In order to not slow down frequent shopkeeper changes, the offers of
+ * changed shopkeepers are only re-indexed lazily, once the index is queried the next time, and only
+ * if the offers actually changed.
+ * <p>
+ * The stock of player shop offers is determined from the contents of their containers. It is only
+ * determined for the offers that are returned by a query, and cached until the container contents
+ * have changed, or at most for 30 seconds, since other plugins may modify the containers without
+ * any indication. The containers are only inspected if their chunk is loaded.
+ * <p>
+ * Book shops are not indexed, since their offers only specify the titles of the books, but not the
+ * traded book items.
+ */
+public class SKOfferIndex implements OfferIndex {
+
+	private static final long MAX_STOCK_AGE_NANOS = TimeUnit.SECONDS.toNanos(30L);
+
+	/**
+	 * Identifies an item by its type and item data, regardless of its amount.
+	 */
+	static final class ItemKey {
+
+		private final UnmodifiableItemStack item;
+		private final int hashCode;
+
+		ItemKey(UnmodifiableItemStack item) {
+			this.item = item;
+			// The hash code of the item with its amount normalized to 1 covers the type and the
+			// item data. Items of the same type with different item data therefore end up in
+			// different buckets. Since this may copy the item and its item meta, it is only
+			// computed once per key, i.e. once per indexed offer and query.
+			if (item.getAmount() == 1) {
+				this.hashCode = item.hashCode();
+			} else {
+				this.hashCode = ItemUtils.copyWithAmount(item, 1).hashCode();
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object obj) {
+			if (this == obj) return true;
+			if (!(obj instanceof ItemKey)) return false;
+			ItemKey other = (ItemKey) obj;
+			if (hashCode != other.hashCode) return false;
+			return item.isSimilar(other.item);
+		}
+	}
+
+	/**
+	 * An offer of a shopkeeper inside the index.
+	 * <p>
+	 * The stock is updated by the queries that return this offer. Queries return
+	 * {@link SKIndexedOffer snapshots} of these offers, so that the stock of the offers returned
+	 * by previous queries is not affected.
+	 */
+	private static final class OfferEntry {
+
+		private final IndexedShopkeeper indexedShopkeeper;
+		private final ItemKey itemKey;
+		private final boolean selling;
+		private final int price;
+		// The item that the shop has to provide for each trade, or null if the shop pays with
+		// currency:
+		private final @Nullable UnmodifiableItemStack stockItem;
+		private final int stockCurrency;
+		private int stock;
+
+		OfferEntry(
+				IndexedShopkeeper indexedShopkeeper,
+				UnmodifiableItemStack item,
+				boolean selling,
+				int price,
+				@Nullable UnmodifiableItemStack stockItem,
+				int stockCurrency
+		) {
+			this.indexedShopkeeper = indexedShopkeeper;
+			this.itemKey = new ItemKey(item);
+			this.selling = selling;
+			this.price = price;
+			this.stockItem = stockItem;
+			this.stockCurrency = stockCurrency;
+			boolean playerShop = (indexedShopkeeper.shopkeeper instanceof AbstractPlayerShopkeeper);
+			this.stock = playerShop ? IndexedOffer.UNKNOWN_STOCK : IndexedOffer.UNLIMITED_STOCK;
+		}
+
+		SKIndexedOffer createSnapshot() {
+			return new SKIndexedOffer(
+					indexedShopkeeper.shopkeeper,
+					itemKey.item,
+					selling,
+					price,
+					stock
+			);
+		}
+	}
+
+	private static final class SKIndexedOffer implements IndexedOffer {
+
+		private final Shopkeeper shopkeeper;
+		private final UnmodifiableItemStack item;
+		private final boolean selling;
+		private final int price;
+		private final int stock;
+
+		SKIndexedOffer(
+				Shopkeeper shopkeeper,
+				UnmodifiableItemStack item,
+				boolean selling,
+				int price,
+				int stock
+		) {
+			this.shopkeeper = shopkeeper;
+			this.item = item;
+			this.selling = selling;
+			this.price = price;
+			this.stock = stock;
+		}
+
+		@Override
+		public Shopkeeper getShopkeeper() {
+			return shopkeeper;
+		}
+
+		@Override
+		public UnmodifiableItemStack getItem() {
+			return item;
+		}
+
+		@Override
+		public boolean isSelling() {
+			return selling;
+		}
+
+		@Override
+		public int getPrice() {
+			return price;
+		}
+
+		@Override
+		public int getStock() {
+			return stock;
+		}
+	}
+
+	private static final class IndexedShopkeeper {
+
+		private final AbstractShopkeeper shopkeeper;
+		// The offers that have last been indexed, used to detect offer changes:
+		private List<?> offers = Collections.emptyList();
+		private List<@NonNull OfferEntry> offerEntries = Collections.emptyList();
+		private boolean stockOutdated = true;
+		private long stockNanos = 0L;
+
+		IndexedShopkeeper(AbstractShopkeeper shopkeeper) {
+			this.shopkeeper = shopkeeper;
+		}
+	}
+
+	private final Map<@NonNull AbstractShopkeeper, @NonNull IndexedShopkeeper> indexedShopkeepers = new HashMap<>();
+	// Shopkeepers whose offers might have changed since they were last indexed:
+	private final Set<@NonNull IndexedShopkeeper> dirtyShopkeepers = new LinkedHashSet<>();
+	private final Map<@NonNull ItemKey, @NonNull List<@NonNull OfferEntry>> sellingOffers = new HashMap<>();
+	private final Map<@NonNull ItemKey, @NonNull List<@NonNull OfferEntry>> buyingOffers = new HashMap<>();
+
+	public SKOfferIndex() {
+	}
+
+	/**
+	 * Adds the given shopkeeper to the index.
+	 * <p>
+	 * This is called by the shopkeeper registry.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	public void addShopkeeper(AbstractShopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		if (!isIndexed(shopkeeper)) return;
+		IndexedShopkeeper indexedShopkeeper = new IndexedShopkeeper(shopkeeper);
+		indexedShopkeepers.put(shopkeeper, indexedShopkeeper);
+		// The offers are indexed lazily:
+		dirtyShopkeepers.add(indexedShopkeeper);
+	}
+
+	/**
+	 * Removes the given shopkeeper from the index.
+	 * <p>
+	 * This is called by the shopkeeper registry.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	public void removeShopkeeper(AbstractShopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		IndexedShopkeeper indexedShopkeeper = indexedShopkeepers.remove(shopkeeper);
+		if (indexedShopkeeper == null) return;
+		dirtyShopkeepers.remove(indexedShopkeeper);
+		this.removeOffers(indexedShopkeeper);
+	}
+
+	/**
+	 * This is called when the given shopkeeper has been marked dirty, which might indicate a change
+	 * of its offers or of its container.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	public void onShopkeeperChanged(AbstractShopkeeper shopkeeper) {
+		IndexedShopkeeper indexedShopkeeper = indexedShopkeepers.get(shopkeeper);
+		if (indexedShopkeeper == null) return;
+		indexedShopkeeper.stockOutdated = true;
+		dirtyShopkeepers.add(indexedShopkeeper);
+	}
+
+	/**
+	 * This is called when the contents of the container of the given player shopkeeper might have
+	 * changed.
+	 * 
+	 * @param shopkeeper
+	 *            the player shopkeeper, not <code>null</code>
+	 */
+	public void onContainerContentsChanged(AbstractPlayerShopkeeper shopkeeper) {
+		IndexedShopkeeper indexedShopkeeper = indexedShopkeepers.get(shopkeeper);
+		if (indexedShopkeeper == null) return;
+		indexedShopkeeper.stockOutdated = true;
+	}
+
+	/**
+	 * Removes all shopkeepers from the index.
+	 */
+	public void clear() {
+		indexedShopkeepers.clear();
+		dirtyShopkeepers.clear();
+		sellingOffers.clear();
+		buyingOffers.clear();
+	}
+
+	// QUERIES
+
+	@Override
+	public List<? extends @NonNull IndexedOffer> getSellingOffers(ItemStack item) {
+		Validate.isTrue(!ItemUtils.isEmpty(item), "item is empty");
+		return this.getSellingOffers(UnmodifiableItemStack.ofNonNull(item));
+	}
+
+	@Override
+	public List<? extends @NonNull IndexedOffer> getSellingOffers(UnmodifiableItemStack item) {
+		return this.getOffers(true, item);
+	}
+
+	@Override
+	public List<? extends @NonNull IndexedOffer> getBuyingOffers(ItemStack item) {
+		Validate.isTrue(!ItemUtils.isEmpty(item), "item is empty");
+		return this.getBuyingOffers(UnmodifiableItemStack.ofNonNull(item));
+	}
+
+	@Override
+	public List<? extends @NonNull IndexedOffer> getBuyingOffers(UnmodifiableItemStack item) {
+		return this.getOffers(false, item);
+	}
+
+	private List<? extends @NonNull IndexedOffer> getOffers(
+			boolean selling,
+			UnmodifiableItemStack item
+	) {
+		Validate.isTrue(!ItemUtils.isEmpty(item), "item is empty");
+		this.indexDirtyShopkeepers();
+
+		ItemKey itemKey = new ItemKey(item);
+		List<@NonNull OfferEntry> offerEntries = this.getOffersByItem(selling).get(itemKey);
+		if (offerEntries == null) return Collections.emptyList();
+
+		long nowNanos = System.nanoTime();
+		List<@NonNull IndexedOffer> offers = new ArrayList<>(offerEntries.size());
+		for (OfferEntry offerEntry : offerEntries) {
+			this.updateStock(offerEntry.indexedShopkeeper, nowNanos);
+			offers.add(offerEntry.createSnapshot());
+		}
+		return Collections.unmodifiableList(offers);
+	}
+
+	// INDEXING
+
+	private static boolean isIndexed(AbstractShopkeeper shopkeeper) {
+		return shopkeeper instanceof RegularAdminShopkeeper
+				|| shopkeeper instanceof TradingPlayerShopkeeper
+				|| shopkeeper instanceof SellingPlayerShopkeeper
+				|| shopkeeper instanceof BuyingPlayerShopkeeper;
+	}
+
+	private static List<?> getOffers(AbstractShopkeeper shopkeeper) {
+		if (shopkeeper instanceof RegularAdminShopkeeper) {
+			return ((RegularAdminShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof TradingPlayerShopkeeper) {
+			return ((TradingPlayerShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof SellingPlayerShopkeeper) {
+			return ((SellingPlayerShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof BuyingPlayerShopkeeper) {
+			return ((BuyingPlayerShopkeeper) shopkeeper).getOffers();
+		} else {
+			return Collections.emptyList();
+		}
+	}
+
+	private static boolean isSameOffers(List<?> offers1, List<?> offers2) {
+		int size = offers1.size();
+		if (size != offers2.size()) return false;
+		// Offers are immutable: It is sufficient to compare their identity.
+		for (int i = 0; i < size; i++) {
+			if (offers1.get(i) != offers2.get(i)) return false;
+		}
+		return true;
+	}
+
+	private Map<@NonNull ItemKey, @NonNull List<@NonNull OfferEntry>> getOffersByItem(
+			boolean selling
+	) {
+		return selling ? sellingOffers : buyingOffers;
+	}
+
+	private void indexDirtyShopkeepers() {
+		if (dirtyShopkeepers.isEmpty()) return;
+		for (IndexedShopkeeper indexedShopkeeper : dirtyShopkeepers) {
+			List<?> offers = getOffers(indexedShopkeeper.shopkeeper);
+			if (isSameOffers(indexedShopkeeper.offers, offers)) continue;
+
+			this.removeOffers(indexedShopkeeper);
+			indexedShopkeeper.offers = new ArrayList<>(offers);
+			indexedShopkeeper.offerEntries = this.createOfferEntries(indexedShopkeeper, offers);
+			indexedShopkeeper.stockOutdated = true;
+			for (OfferEntry offerEntry : indexedShopkeeper.offerEntries) {
+				this.getOffersByItem(offerEntry.selling)
+						.computeIfAbsent(offerEntry.itemKey, key -> new ArrayList<>())
+						.add(offerEntry);
+			}
+		}
+		dirtyShopkeepers.clear();
+	}
+
+	private void removeOffers(IndexedShopkeeper indexedShopkeeper) {
+		for (OfferEntry offerEntry : indexedShopkeeper.offerEntries) {
+			ItemKey itemKey = offerEntry.itemKey;
+			Map<@NonNull ItemKey, @NonNull List<@NonNull OfferEntry>> offersByItem = this
+					.getOffersByItem(offerEntry.selling);
+			List<@NonNull OfferEntry> offerEntries = offersByItem.get(itemKey);
+			if (offerEntries == null) continue;
+			offerEntries.remove(offerEntry);
+			if (offerEntries.isEmpty()) {
+				offersByItem.remove(itemKey);
+			}
+		}
+		indexedShopkeeper.offers = Collections.emptyList();
+		indexedShopkeeper.offerEntries = Collections.emptyList();
+	}
+
+	private List<@NonNull OfferEntry> createOfferEntries(
+			IndexedShopkeeper indexedShopkeeper,
+			List<?> offers
+	) {
+		AbstractShopkeeper shopkeeper = indexedShopkeeper.shopkeeper;
+		List<@NonNull OfferEntry> offerEntries = new ArrayList<>();
+		for (Object offer : offers) {
+			if (offer instanceof TradeOffer) {
+				TradeOffer tradeOffer = (TradeOffer) offer;
+				UnmodifiableItemStack resultItem = tradeOffer.getResultItem();
+				UnmodifiableItemStack item1 = tradeOffer.getItem1();
+				UnmodifiableItemStack item2 = tradeOffer.getItem2();
+				// The shop sells the result item and buys the other items:
+				int costPrice = getCurrencyValue(item1, item2);
+				int resultPrice = getCurrencyValue(resultItem, null);
+				offerEntries.add(new OfferEntry(
+						indexedShopkeeper,
+						resultItem,
+						true,
+						costPrice,
+						resultItem,
+						0
+				));
+				offerEntries.add(new OfferEntry(
+						indexedShopkeeper,
+						item1,
+						false,
+						resultPrice,
+						resultItem,
+						0
+				));
+				if (item2 != null) {
+					offerEntries.add(new OfferEntry(
+							indexedShopkeeper,
+							item2,
+							false,
+							resultPrice,
+							resultItem,
+							0
+					));
+				}
+			} else if (offer instanceof PriceOffer) {
+				PriceOffer priceOffer = (PriceOffer) offer;
+				UnmodifiableItemStack item = priceOffer.getItem();
+				int price = priceOffer.getPrice();
+				if (shopkeeper instanceof BuyingPlayerShopkeeper) {
+					// The shop pays with the currency in its container:
+					offerEntries.add(new OfferEntry(
+							indexedShopkeeper,
+							item,
+							false,
+							price,
+							null,
+							price
+					));
+				} else {
+					offerEntries.add(new OfferEntry(
+							indexedShopkeeper,
+							item,
+							true,
+							price,
+							item,
+							0
+					));
+				}
+			}
+		}
+		return offerEntries;
+	}
+
+	// Returns -1 if any of the items is not a currency item.
+	private static int getCurrencyValue(
+			UnmodifiableItemStack item1,
+			@Nullable UnmodifiableItemStack item2
+	) {
+		Currency currency1 = Currencies.match(item1);
+		if (currency1 == null) return -1;
+		int value = currency1.getValue() * item1.getAmount();
+		if (item2 != null) {
+			Currency currency2 = Currencies.match(item2);
+			if (currency2 == null) return -1;
+			value += currency2.getValue() * item2.getAmount();
+		}
+		return value;
+	}
+
+	// STOCK
+
+	private void updateStock(IndexedShopkeeper indexedShopkeeper, long nowNanos) {
+		if (!(indexedShopkeeper.shopkeeper instanceof AbstractPlayerShopkeeper)) return;
+		if (!indexedShopkeeper.stockOutdated
+				&& nowNanos - indexedShopkeeper.stockNanos < MAX_STOCK_AGE_NANOS) {
+			return;
+		}
+
+		AbstractPlayerShopkeeper shopkeeper = (AbstractPlayerShopkeeper) indexedShopkeeper
+				.shopkeeper;
+		// Avoid loading the containers' chunks:
+		if (!shopkeeper.areContainerChunksLoaded()) {
+			for (OfferEntry offerEntry : indexedShopkeeper.offerEntries) {
+				offerEntry.stock = IndexedOffer.UNKNOWN_STOCK;
+			}
+			// Check again during the next query.
+			return;
+		}
+
+		// Empty if the container is not found:
+		@Nullable ItemStack[] contents = shopkeeper.getContainerContents();
+		int currencyInContainer = -1; // Lazily determined
+		for (OfferEntry offerEntry : indexedShopkeeper.offerEntries) {
+			UnmodifiableItemStack stockItem = offerEntry.stockItem;
+			if (stockItem != null) {
+				offerEntry.stock = countSimilarItems(contents, stockItem) / stockItem.getAmount();
+			} else {
+				if (currencyInContainer < 0) {
+					currencyInContainer = countCurrency(contents);
+				}
+				offerEntry.stock = currencyInContainer / offerEntry.stockCurrency;
+			}
+		}
+		indexedShopkeeper.stockOutdated = false;
+		indexedShopkeeper.stockNanos = nowNanos;
+	}
+
+	private static int countSimilarItems(
+			@Nullable ItemStack[] contents,
+			UnmodifiableItemStack item
+	) {
+		int count = 0;
+		for (ItemStack itemStack : contents) {
+			if (itemStack == null) continue;
+			if (item.isSimilar(itemStack)) {
+				count += itemStack.getAmount();
+			}
+		}
+		return count;
+	}
+
+	private static int countCurrency(@Nullable ItemStack[] contents) {
+		int totalCurrency = 0;
+		for (ItemStack itemStack : contents) {
+			if (itemStack == null) continue;
+			Currency currency = Currencies.match(itemStack);
+			if (currency != null) {
+				totalCurrency += (itemStack.getAmount() * currency.getValue());
+			}
+		}
+		return totalCurrency;
+	}
+}
@@ -54,7 +54,11 @@ public class SKTradeOffer extends SKTradingRecipe implements TradeOffer {
 			@ReadOnly ItemStack item1,
 			@ReadOnly @Nullable ItemStack item2
 	) {
-		super(resultItem, item1, item2);
+		this(
+				ItemUtils.nonNullUnmodifiableCloneIfModifiable(resultItem),
+				ItemUtils.nonNullUnmodifiableCloneIfModifiable(item1),
+				ItemUtils.unmodifiableCloneIfModifiable(item2)
+		);
 	}
 
 	/**
@@ -75,7 +79,11 @@ public class SKTradeOffer extends SKTradingRecipe implements TradeOffer {
 			UnmodifiableItemStack item1,
 			@Nullable UnmodifiableItemStack item2
 	) {
-		super(resultItem, item1, item2);
+		super(
+				OfferItemInterner.intern(resultItem),
+				OfferItemInterner.intern(item1),
+				OfferItemInterner.internOrNull(item2)
+		);
 	}
 
 	@Override
@@ -1,5 +1,7 @@
 package com.nisovin.shopkeepers.shopkeeper.player;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.bukkit.Bukkit;
@@ -120,20 +122,26 @@ public abstract class AbstractPlayerShopType<T extends @NonNull AbstractPlayerSh
 
 		if (spawnLocation == null) return true; // Nothing to validate
 
-		// Check if the shop container is too far away:
-		BlockLocation containerLocation = null;
+		// Check if the shop containers are too far away:
+		List<? extends @NonNull BlockLocation> containerLocations = Collections.emptyList();
 		if (shopCreationData != null) {
 			assert shopCreationData instanceof PlayerShopCreationData;
 			PlayerShopCreationData playerShopCreationData = (PlayerShopCreationData) shopCreationData;
-			containerLocation = BlockLocation.of(playerShopCreationData.getShopContainer());
+			containerLocations = Collections.singletonList(
+					BlockLocation.of(playerShopCreationData.getShopContainer())
+			);
 		} else if (shopkeeper != null) {
 			assert shopkeeper instanceof AbstractPlayerShopkeeper;
 			AbstractPlayerShopkeeper playerShopkeeper = (AbstractPlayerShopkeeper) shopkeeper;
-			containerLocation = playerShopkeeper.getContainerLocation();
+			// Also includes the linked containers:
+			List<@NonNull BlockLocation> shopkeeperContainers = new ArrayList<>();
+			shopkeeperContainers.add(playerShopkeeper.getContainerLocation());
+			shopkeeperContainers.addAll(playerShopkeeper.getLinkedContainers());
+			containerLocations = shopkeeperContainers;
 		}
 
-		if (containerLocation != null) {
-			// Check if the selected container is too far away:
+		for (BlockLocation containerLocation : containerLocations) {
+			// Check if the container is too far away:
 			double maxContainerDistanceSq = Settings.maxContainerDistance * Settings.maxContainerDistance;
 			if (containerLocation.getBlockCenterDistanceSquared(spawnLocation) > maxContainerDistanceSq) {
 				if (player != null) {
@@ -1,7 +1,11 @@
 package com.nisovin.shopkeepers.shopkeeper.player;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Supplier;
 
@@ -28,6 +32,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopCreationData;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.api.ui.DefaultUITypes;
 import com.nisovin.shopkeepers.api.user.User;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
@@ -46,6 +51,7 @@ import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
 import com.nisovin.shopkeepers.ui.UIHandler;
 import com.nisovin.shopkeepers.user.SKUser;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
 import com.nisovin.shopkeepers.util.bukkit.BlockLocation;
 import com.nisovin.shopkeepers.util.bukkit.LocationUtils;
 import com.nisovin.shopkeepers.util.bukkit.MutableBlockLocation;
@@ -56,9 +62,12 @@ import com.nisovin.shopkeepers.util.data.property.Property;
 import com.nisovin.shopkeepers.util.data.property.validation.bukkit.ItemStackValidators;
 import com.nisovin.shopkeepers.util.data.property.validation.java.StringValidators;
 import com.nisovin.shopkeepers.util.data.serialization.DataAccessor;
+import com.nisovin.shopkeepers.util.data.serialization.DataSerializer;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
+import com.nisovin.shopkeepers.util.data.serialization.MissingDataException;
 import com.nisovin.shopkeepers.util.data.serialization.bukkit.ItemStackSerializers;
 import com.nisovin.shopkeepers.util.data.serialization.java.BooleanSerializers;
+import com.nisovin.shopkeepers.util.data.serialization.java.DataContainerSerializers;
 import com.nisovin.shopkeepers.util.data.serialization.java.NumberSerializers;
 import com.nisovin.shopkeepers.util.data.serialization.java.StringSerializers;
 import com.nisovin.shopkeepers.util.data.serialization.java.UUIDSerializers;
@@ -86,6 +95,10 @@ public abstract class AbstractPlayerShopkeeper
 	// still need a container block in a world.
 	// Immutable, valid after successful initialization:
 	private BlockLocation container = BlockLocation.EMPTY;
+	// Additional containers whose contents are combined with the contents of the main container,
+	// in the order in which they were linked. Same world as the shopkeeper, like the container.
+	// Unmodifiable, contains immutable BlockLocations:
+	private List<? extends @NonNull BlockLocation> linkedContainers = Collections.emptyList();
 	private boolean notifyOnTrades = NOTIFY_ON_TRADES.getDefaultValue();
 	private @Nullable UnmodifiableItemStack hireCost = null; // Null if not for hire
 
@@ -95,6 +108,14 @@ public abstract class AbstractPlayerShopkeeper
 			nextCheckingOffset.getAndIncrement()
 	);
 
+	// Whether the currency inside the container is consolidated during the next shopkeeper tick:
+	private boolean currencyConsolidationPending = false;
+	// The last known number of used and total slots of the container, or -1 if unknown. Only
+	// determined on demand, i.e. when the metrics are collected:
+	private int containerUsedSlots = -1;
+	private int containerTotalSlots = -1;
+	private boolean containerSlotUtilizationOutdated = true;
+
 	/**
 	 * Creates a new and not yet initialized {@link AbstractPlayerShopkeeper}.
 	 * <p>
@@ -131,6 +152,7 @@ public abstract class AbstractPlayerShopkeeper
 		super.loadDynamicState(shopkeeperData);
 		this.loadOwner(shopkeeperData);
 		this.loadContainer(shopkeeperData);
+		this.loadLinkedContainers(shopkeeperData);
 		this.loadNotifyOnTrades(shopkeeperData);
 		this.loadForHire(shopkeeperData);
 	}
@@ -140,6 +162,7 @@ public abstract class AbstractPlayerShopkeeper
 		super.saveDynamicState(shopkeeperData, saveAll);
 		this.saveOwner(shopkeeperData);
 		this.saveContainer(shopkeeperData);
+		this.saveLinkedContainers(shopkeeperData);
 		this.saveNotifyOnTrades(shopkeeperData);
 		this.saveForHire(shopkeeperData);
 	}
@@ -150,6 +173,9 @@ public abstract class AbstractPlayerShopkeeper
 
 		// Enable the container protection:
 		this.protectContainer();
+
+		// Update the owner names table and the user directory:
+		this.informAboutOwner();
 	}
 
 	@Override
@@ -207,8 +233,9 @@ public abstract class AbstractPlayerShopkeeper
 		// also have been moved. Otherwise, if the container cannot be found in the new world,
 		// trading will not work.
 		if (!Objects.equals(this.getWorldName(), container.getWorldName())) {
-			// This updates the container's world based on the shopkeeper's current world:
+			// This updates the containers' world based on the shopkeeper's current world:
 			this._setContainer(container);
+			this._setLinkedContainers(linkedContainers);
 		}
 	}
 
@@ -316,6 +343,16 @@ public abstract class AbstractPlayerShopkeeper
 
 		// Inform the shop object:
 		this.getShopObject().onShopOwnerChanged();
+
+		if (this.isValid()) {
+			this.informAboutOwner();
+		}
+	}
+
+	private void informAboutOwner() {
+		SKShopkeepersPlugin plugin = SKShopkeepersPlugin.getInstance();
+		plugin.getPlayerShops().getShopOwnerNameUpdates().onShopOwnerChanged(this);
+		plugin.getUserDirectory().update(owner);
 	}
 
 	public User getOwnerUser() {
@@ -470,7 +507,6 @@ public abstract class AbstractPlayerShopkeeper
 	// CONTAINER
 
 	// TODO Rename the storage keys to containerx/y/z?
-	// TODO Change to a list of containers?
 	// TODO Store container world independently of shopkeeper world?
 	public static final Property<@NonNull Integer> CONTAINER_X = new BasicProperty<@NonNull Integer>()
 			.dataKeyAccessor("chestx", NumberSerializers.INTEGER)
@@ -517,14 +553,18 @@ public abstract class AbstractPlayerShopkeeper
 		shopkeeperData.set(CONTAINER, container);
 	}
 
+	// Also protects the linked containers.
 	private void protectContainer() {
 		ProtectedContainers protectedContainers = SKShopkeepersPlugin.getInstance().getProtectedContainers();
 		protectedContainers.addContainer(container, this);
+		this.protectLinkedContainers();
 	}
 
+	// Also unprotects the linked containers.
 	private void unprotectContainer() {
 		ProtectedContainers protectedContainers = SKShopkeepersPlugin.getInstance().getProtectedContainers();
 		protectedContainers.removeContainer(container, this);
+		this.unprotectLinkedContainers();
 	}
 
 	protected void _setContainer(int containerX, int containerY, int containerZ) {
@@ -535,11 +575,24 @@ public abstract class AbstractPlayerShopkeeper
 		Validate.notNull(container, "container is null");
 		if (this.isValid()) {
 			// Disable the protection for the previous container:
-			this.unprotectContainer();
+			ProtectedContainers protectedContainers = SKShopkeepersPlugin.getInstance().getProtectedContainers();
+			protectedContainers.removeContainer(this.container, this);
 		}
 
 		// Update the container:
-		// Ensure that the container's world matches the shopkeeper world:
+		this.container = this.toShopkeeperWorld(container);
+
+		if (this.isValid()) {
+			// Enable the protection for the new container:
+			ProtectedContainers protectedContainers = SKShopkeepersPlugin.getInstance().getProtectedContainers();
+			protectedContainers.addContainer(this.container, this);
+		}
+	}
+
+	// Ensures that the container's world matches the shopkeeper world, and that we store an
+	// immutable BlockLocation:
+	private BlockLocation toShopkeeperWorld(BlockLocation container) {
+		assert container != null;
 		BlockLocation newContainer = container;
 		String shopkeeperWorldName = this.getWorldName(); // Can be null for virtual shopkeepers
 		if (!Objects.equals(container.getWorldName(), shopkeeperWorldName)) {
@@ -547,14 +600,7 @@ public abstract class AbstractPlayerShopkeeper
 			containerCopy.setWorldName(shopkeeperWorldName);
 			newContainer = containerCopy;
 		}
-
-		// Ensure that we store an immutable BlockLocation:
-		this.container = newContainer.immutable();
-
-		if (this.isValid()) {
-			// Enable the protection for the new container:
-			this.protectContainer();
-		}
+		return newContainer.immutable();
 	}
 
 	@Override
@@ -587,23 +633,339 @@ public abstract class AbstractPlayerShopkeeper
 		return container.getBlock();
 	}
 
+	// LINKED CONTAINERS
+
+	private static final Property<@NonNull Integer> LINKED_CONTAINER_X = new BasicProperty<@NonNull Integer>()
+			.dataKeyAccessor("x", NumberSerializers.INTEGER)
+			.build();
+	private static final Property<@NonNull Integer> LINKED_CONTAINER_Y = new BasicProperty<@NonNull Integer>()
+			.dataKeyAccessor("y", NumberSerializers.INTEGER)
+			.build();
+	private static final Property<@NonNull Integer> LINKED_CONTAINER_Z = new BasicProperty<@NonNull Integer>()
+			.dataKeyAccessor("z", NumberSerializers.INTEGER)
+			.build();
+
+	/**
+	 * A {@link DataSerializer} for lists of linked container locations.
+	 * <p>
+	 * The world names of the locations are not saved, because the linked containers are always
+	 * located in the same world as the shopkeeper.
+	 */
+	private static final DataSerializer<@NonNull List<? extends @NonNull BlockLocation>> LINKED_CONTAINERS_SERIALIZER = new DataSerializer<@NonNull List<? extends @NonNull BlockLocation>>() {
+		@Override
+		public @Nullable Object serialize(List<? extends @NonNull BlockLocation> value) {
+			Validate.notNull(value, "value is null");
+			DataContainer containerListData = DataContainer.create();
+			int id = 1;
+			for (BlockLocation container : value) {
+				Validate.notNull(container, "list of containers contains null");
+				DataContainer containerData = DataContainer.create();
+				containerData.set(LINKED_CONTAINER_X, container.getX());
+				containerData.set(LINKED_CONTAINER_Y, container.getY());
+				containerData.set(LINKED_CONTAINER_Z, container.getZ());
+				containerListData.set(String.valueOf(id), containerData.serialize());
+				id++;
+			}
+			return containerListData.serialize();
+		}
+
+		@Override
+		public List<? extends @NonNull BlockLocation> deserialize(
+				Object data
+		) throws InvalidDataException {
+			DataContainer containerListData = DataContainerSerializers.DEFAULT.deserialize(data);
+			Set<? extends @NonNull String> keys = containerListData.getKeys();
+			List<@NonNull BlockLocation> containers = new ArrayList<>(keys.size());
+			for (String id : keys) {
+				Object containerData = Unsafe.assertNonNull(containerListData.get(id));
+				try {
+					DataContainer container = DataContainerSerializers.DEFAULT.deserialize(
+							containerData
+					);
+					int containerX = container.get(LINKED_CONTAINER_X);
+					int containerY = container.get(LINKED_CONTAINER_Y);
+					int containerZ = container.get(LINKED_CONTAINER_Z);
+					containers.add(new BlockLocation(containerX, containerY, containerZ));
+				} catch (InvalidDataException | MissingDataException e) {
+					throw new InvalidDataException("Invalid linked container " + id + ": "
+							+ e.getMessage(), e);
+				}
+			}
+			return containers;
+		}
+	};
+
+	public static final Property<@NonNull List<? extends @NonNull BlockLocation>> LINKED_CONTAINERS = new BasicProperty<@NonNull List<? extends @NonNull BlockLocation>>()
+			.dataKeyAccessor("linkedContainers", LINKED_CONTAINERS_SERIALIZER)
+			.useDefaultIfMissing()
+			.defaultValue(Collections.emptyList())
+			.omitIfDefault()
+			.build();
+
+	private void loadLinkedContainers(ShopkeeperData shopkeeperData) throws InvalidDataException {
+		assert shopkeeperData != null;
+		this._setLinkedContainers(shopkeeperData.get(LINKED_CONTAINERS));
+	}
+
+	private void saveLinkedContainers(ShopkeeperData shopkeeperData) {
+		assert shopkeeperData != null;
+		shopkeeperData.set(LINKED_CONTAINERS, linkedContainers);
+	}
+
+	private void protectLinkedContainers() {
+		ProtectedContainers protectedContainers = SKShopkeepersPlugin.getInstance().getProtectedContainers();
+		for (BlockLocation linkedContainer : linkedContainers) {
+			protectedContainers.addContainer(linkedContainer, this);
+		}
+	}
+
+	private void unprotectLinkedContainers() {
+		ProtectedContainers protectedContainers = SKShopkeepersPlugin.getInstance().getProtectedContainers();
+		for (BlockLocation linkedContainer : linkedContainers) {
+			protectedContainers.removeContainer(linkedContainer, this);
+		}
+	}
+
+	private void _setLinkedContainers(List<? extends @NonNull BlockLocation> linkedContainers) {
+		Validate.notNull(linkedContainers, "linkedContainers is null");
+		if (this.isValid()) {
+			// Disable the protection for the previously linked containers:
+			this.unprotectLinkedContainers();
+		}
+
+		if (linkedContainers.isEmpty()) {
+			this.linkedContainers = Collections.emptyList();
+		} else {
+			int size = linkedContainers.size();
+			List<@NonNull BlockLocation> newLinkedContainers = new ArrayList<>(size);
+			for (BlockLocation linkedContainer : linkedContainers) {
+				Validate.notNull(linkedContainer, "linkedContainers contains null");
+				BlockLocation newLinkedContainer = this.toShopkeeperWorld(linkedContainer);
+				// Ignore duplicates:
+				if (newLinkedContainer.equals(container)) continue;
+				if (newLinkedContainers.contains(newLinkedContainer)) continue;
+				newLinkedContainers.add(newLinkedContainer);
+			}
+			this.linkedContainers = Collections.unmodifiableList(newLinkedContainers);
+		}
+
+		if (this.isValid()) {
+			// Enable the protection for the newly linked containers:
+			this.protectLinkedContainers();
+			// The combined container contents have changed:
+			this.onContainerContentsChanged();
+		}
+	}
+
+	/**
+	 * Gets the locations of the additional containers that are linked to this shop.
+	 * <p>
+	 * The contents of the linked containers are combined with the contents of the shop's
+	 * {@link #getContainerLocation() main container}, in the order of the returned list.
+	 * 
+	 * @return an unmodifiable view on the linked container locations, not <code>null</code>
+	 */
+	public List<? extends @NonNull BlockLocation> getLinkedContainers() {
+		return linkedContainers;
+	}
+
+	/**
+	 * Checks if the given container is the {@link #getContainerLocation() main container} or one
+	 * of the {@link #getLinkedContainers() linked containers} of this shop.
+	 * 
+	 * @param containerLocation
+	 *            the container location, not <code>null</code>
+	 * @return <code>true</code> if the container is used by this shop
+	 */
+	public boolean isUsingContainer(BlockLocation containerLocation) {
+		Validate.notNull(containerLocation, "containerLocation is null");
+		return container.equals(containerLocation) || linkedContainers.contains(containerLocation);
+	}
+
+	/**
+	 * Links the given container to this shop.
+	 * <p>
+	 * This does not check whether the container is valid, located near the shopkeeper, or already
+	 * used by another shop.
+	 * 
+	 * @param containerLocation
+	 *            the container location, not <code>null</code>
+	 * @return <code>false</code> if the container is already used by this shop
+	 */
+	public boolean linkContainer(BlockLocation containerLocation) {
+		Validate.notNull(containerLocation, "containerLocation is null");
+		BlockLocation newLinkedContainer = this.toShopkeeperWorld(containerLocation);
+		if (this.isUsingContainer(newLinkedContainer)) return false;
+
+		List<@NonNull BlockLocation> newLinkedContainers = new ArrayList<>(linkedContainers);
+		newLinkedContainers.add(newLinkedContainer);
+		this._setLinkedContainers(newLinkedContainers);
+		this.markDirty();
+		return true;
+	}
+
+	/**
+	 * Unlinks the given container from this shop.
+	 * 
+	 * @param containerLocation
+	 *            the container location, not <code>null</code>
+	 * @return <code>true</code> if the container was linked to this shop
+	 */
+	public boolean unlinkContainer(BlockLocation containerLocation) {
+		Validate.notNull(containerLocation, "containerLocation is null");
+		if (!linkedContainers.contains(containerLocation)) return false;
+
+		List<@NonNull BlockLocation> newLinkedContainers = new ArrayList<>(linkedContainers);
+		newLinkedContainers.remove(containerLocation);
+		this._setLinkedContainers(newLinkedContainers);
+		this.markDirty();
+		return true;
+	}
+
+	/**
+	 * Unlinks all {@link #getLinkedContainers() linked containers} from this shop.
+	 * 
+	 * @return the number of unlinked containers
+	 */
+	public int unlinkContainers() {
+		int unlinkedContainers = linkedContainers.size();
+		if (unlinkedContainers == 0) return 0;
+
+		this._setLinkedContainers(Collections.emptyList());
+		this.markDirty();
+		return unlinkedContainers;
+	}
+
+	/**
+	 * Checks if the chunks of the shop's main container and of all its linked containers are
+	 * currently loaded.
+	 * <p>
+	 * This can be used to avoid loading chunks when accessing the containers.
+	 * 
+	 * @return <code>true</code> if the chunks of all shop containers are loaded
+	 */
+	public boolean areContainerChunksLoaded() {
+		if (!isChunkLoaded(container)) return false;
+		for (BlockLocation linkedContainer : linkedContainers) {
+			if (!isChunkLoaded(linkedContainer)) return false;
+		}
+		return true;
+	}
+
+	private static boolean isChunkLoaded(BlockLocation blockLocation) {
+		ChunkCoords chunk = blockLocation.getChunkCoords();
+		return chunk != null && chunk.isChunkLoaded();
+	}
+
+	/**
+	 * This is called when the contents of the shop's container might have changed, for example
+	 * due to players interacting with the container, or due to trades.
+	 * <p>
+	 * This is meant to invalidate any information about the container contents that shopkeepers
+	 * might cache. However, this is not guaranteed to be called for all changes: Other plugins may
+	 * modify the container without any indication.
+	 */
+	public void onContainerContentsChanged() {
+		// The cached stock of the indexed offers is outdated:
+		SKShopkeepersPlugin.getInstance().getShopkeeperRegistry().getOfferIndex()
+				.onContainerContentsChanged(this);
+		containerSlotUtilizationOutdated = true;
+	}
+
+	/**
+	 * Requests the base currency inside the shop's container to be converted into high currency,
+	 * if enabled in the config.
+	 * <p>
+	 * This is called after trades that added currency to the container. In order to not scan the
+	 * container after every single trade, the conversion is deferred to the next shopkeeper tick
+	 * and then covers the earnings of all trades since the last conversion.
+	 */
+	public void requestCurrencyConsolidation() {
+		if (!Settings.consolidateContainerCurrency) return;
+		currencyConsolidationPending = true;
+	}
+
+	/**
+	 * Gets the fraction of the container's slots that are occupied by items.
+	 * <p>
+	 * This is only determined on demand, after the container contents are known to have changed,
+	 * and only if the container's chunk is loaded. Otherwise, this returns the last known slot
+	 * utilization.
+	 * 
+	 * @return the slot utilization between <code>0</code> and <code>1</code>, or <code>-1</code> if
+	 *         it is not known yet
+	 */
+	public double getContainerSlotUtilization() {
+		if (containerSlotUtilizationOutdated) {
+			this.updateContainerSlotUtilization();
+		}
+		if (containerTotalSlots <= 0) return -1.0D;
+		return (double) containerUsedSlots / containerTotalSlots;
+	}
+
+	private void updateContainerSlotUtilization() {
+		// Avoid loading the containers' chunks:
+		if (!this.areContainerChunksLoaded()) return;
+		List<? extends @NonNull Inventory> containerInventories = this.getContainerInventories();
+		if (containerInventories.isEmpty()) return;
+
+		@Nullable ItemStack[] contents = ShopContainers.getContents(containerInventories);
+		containerSlotUtilizationOutdated = false;
+		containerUsedSlots = getUsedSlots(contents);
+		containerTotalSlots = contents.length;
+	}
+
 	// Returns null if the container could not be found.
 	public @Nullable Inventory getContainerInventory() {
-		Block container = this.getContainer();
+		return getContainerInventory(container);
+	}
+
+	private static @Nullable Inventory getContainerInventory(BlockLocation containerLocation) {
+		Block container = containerLocation.getBlock();
 		if (container != null && ShopContainers.isSupportedContainer(container.getType())) {
 			return ShopContainers.getInventory(container); // Not null
 		}
 		return null;
 	}
 
-	// Returns an empty array if the container could not be found.
-	public @Nullable ItemStack[] getContainerContents() {
+	/**
+	 * Gets the inventories of the shop's main container and of all its linked containers that
+	 * could be found, in the order in which their contents are combined.
+	 * <p>
+	 * Linked containers that could not be found are skipped.
+	 * 
+	 * @return the container inventories, or an empty list if the main container could not be found
+	 */
+	public List<? extends @NonNull Inventory> getContainerInventories() {
 		Inventory containerInventory = this.getContainerInventory();
 		if (containerInventory == null) {
+			// Container not found:
+			return Collections.emptyList();
+		}
+		if (linkedContainers.isEmpty()) {
+			return Collections.singletonList(containerInventory);
+		}
+
+		int size = linkedContainers.size() + 1;
+		List<@NonNull Inventory> containerInventories = new ArrayList<>(size);
+		containerInventories.add(containerInventory);
+		for (BlockLocation linkedContainer : linkedContainers) {
+			Inventory linkedContainerInventory = getContainerInventory(linkedContainer);
+			if (linkedContainerInventory == null) continue; // Linked container not found
+			containerInventories.add(linkedContainerInventory);
+		}
+		return containerInventories;
+	}
+
+	// Returns the combined contents of all container inventories, or an empty array if the
+	// container could not be found.
+	public @Nullable ItemStack[] getContainerContents() {
+		List<? extends @NonNull Inventory> containerInventories = this.getContainerInventories();
+		if (containerInventories.isEmpty()) {
 			// Container not found:
 			return InventoryUtils.emptyItemStackArray();
 		} else {
-			return Unsafe.cast(containerInventory.getContents()); // Not null
+			return ShopContainers.getContents(containerInventories); // Not null
 		}
 	}
 
@@ -736,17 +1098,63 @@ public abstract class AbstractPlayerShopkeeper
 	@Override
 	protected void onTick() {
 		this.onTickCheckDeleteIfContainerBroken();
+		this.onTickConsolidateContainerCurrency();
 		super.onTick();
 	}
 
-	// Deletes the shopkeeper if the container is no longer present (e.g. if it got removed
-	// externally by another plugin, such as WorldEdit, etc.):
+	private void onTickConsolidateContainerCurrency() {
+		if (!currencyConsolidationPending) return;
+
+		// Avoid loading the containers' chunks:
+		if (!this.areContainerChunksLoaded()) return;
+		List<? extends @NonNull Inventory> containerInventories = this.getContainerInventories();
+		if (containerInventories.isEmpty()) return;
+
+		// Do not modify the containers while players are viewing them. Otherwise, we might
+		// interfere with their inventory interactions. We try again during the next tick.
+		if (hasViewers(containerInventories)) return;
+
+		currencyConsolidationPending = false;
+		@Nullable ItemStack[] contents = ShopContainers.getContents(containerInventories);
+		int convertedAmount = ContainerCurrencyConsolidator.consolidate(contents);
+		if (convertedAmount > 0) {
+			ShopContainers.setContents(containerInventories, contents);
+			this.onContainerContentsChanged();
+			Log.debug(() -> this.getLogPrefix() + "Converted " + convertedAmount
+					+ " base currency items in the container into high currency.");
+		}
+	}
+
+	// Returns the number of slots that are occupied by items.
+	static int getUsedSlots(@ReadOnly @Nullable ItemStack @ReadOnly [] contents) {
+		int usedSlots = 0;
+		for (ItemStack itemStack : contents) {
+			if (!ItemUtils.isEmpty(itemStack)) {
+				usedSlots++;
+			}
+		}
+		return usedSlots;
+	}
+
+	private static boolean hasViewers(List<? extends @NonNull Inventory> inventories) {
+		for (Inventory inventory : inventories) {
+			if (!inventory.getViewers().isEmpty()) return true;
+		}
+		return false;
+	}
+
+	// Unlinks linked containers that are no longer present, and deletes the shopkeeper if the
+	// container is no longer present (e.g. if it got removed externally by another plugin, such as
+	// WorldEdit, etc.):
 	private void onTickCheckDeleteIfContainerBroken() {
-		if (!Settings.deleteShopkeeperOnBreakContainer) return;
 		if (!checkContainerLimiter.request()) {
 			return;
 		}
 
+		this.unlinkBrokenContainers();
+
+		if (!Settings.deleteShopkeeperOnBreakContainer) return;
+
 		// This checks if the block is still a valid container:
 		Block containerBlock = this.getContainer();
 		if (containerBlock != null && !ShopContainers.isSupportedContainer(containerBlock.getType())) {
@@ -755,4 +1163,28 @@ public abstract class AbstractPlayerShopkeeper
 			SKShopkeepersPlugin.getInstance().getRemoveShopOnContainerBreak().handleBlockBreakage(containerBlock);
 		}
 	}
+
+	private void unlinkBrokenContainers() {
+		if (linkedContainers.isEmpty()) return;
+
+		List<@NonNull BlockLocation> brokenContainers = new ArrayList<>();
+		for (BlockLocation linkedContainer : linkedContainers) {
+			// Avoid loading the linked container's chunk:
+			if (!isChunkLoaded(linkedContainer)) continue;
+			Block containerBlock = linkedContainer.getBlock();
+			if (containerBlock != null
+					&& !ShopContainers.isSupportedContainer(containerBlock.getType())) {
+				brokenContainers.add(linkedContainer);
+			}
+		}
+		if (brokenContainers.isEmpty()) return;
+
+		for (BlockLocation brokenContainer : brokenContainers) {
+			this.unlinkContainer(brokenContainer);
+		}
+		Log.debug(() -> this.getLogPrefix() + "Unlinked " + brokenContainers.size()
+				+ " linked container(s) that are no longer present.");
+		// Note: We trigger a delayed save after the ticking of the shopkeepers, since the
+		// shopkeeper is marked dirty.
+	}
 }
@@ -0,0 +1,83 @@
+package com.nisovin.shopkeepers.shopkeeper.player;
+
+import java.util.function.Predicate;
+
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.currency.Currencies;
+import com.nisovin.shopkeepers.currency.Currency;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
+import com.nisovin.shopkeepers.util.annotations.ReadWrite;
+import com.nisovin.shopkeepers.util.inventory.InventoryUtils;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Converts the base currency items inside the containers of player shops into high currency items
+ * of the same total value, so that the earnings of busy shops take up less container space.
+ */
+final class ContainerCurrencyConsolidator {
+
+	/**
+	 * Converts as much of the base currency inside the given contents into high currency as
+	 * possible, without changing the total currency value of the contents.
+	 * <p>
+	 * Only base currency items that are {@link ItemStack#isSimilar(ItemStack) similar} to the
+	 * configured currency item are converted, so that currency items with additional item data are
+	 * preserved.
+	 * <p>
+	 * Each high currency item replaces as many base currency items as the value of the high
+	 * currency. This relies on the base currency having a value of <code>1</code>, which
+	 * {@link Currencies} ensures.
+	 * <p>
+	 * This does not modify the item stacks inside the given contents array, but only replaces them.
+	 * The contents are left unchanged if the high currency items do not fit into the contents.
+	 * 
+	 * @param contents
+	 *            the contents, not <code>null</code>
+	 * @return the number of base currency items that were converted, or <code>0</code> if nothing
+	 *         was converted
+	 */
+	static int consolidate(@ReadOnly @Nullable ItemStack @ReadWrite [] contents) {
+		Validate.notNull(contents, "contents is null");
+		if (!Currencies.isHighCurrencyEnabled()) return 0;
+
+		Currency baseCurrency = Currencies.getBase();
+		assert baseCurrency.getValue() == 1;
+		Currency highCurrency = Currencies.getHigh();
+		// The number of base currency items per high currency item:
+		int highCurrencyValue = highCurrency.getValue();
+		ItemStack baseCurrencyItem = baseCurrency.getItemData().createItemStack(1);
+		Predicate<@ReadOnly @Nullable ItemStack> isBaseCurrency = ItemUtils.similarItems(
+				baseCurrencyItem
+		);
+
+		int baseCurrencyAmount = 0;
+		for (ItemStack itemStack : contents) {
+			if (itemStack == null) continue;
+			if (!isBaseCurrency.test(itemStack)) continue;
+			baseCurrencyAmount += itemStack.getAmount();
+		}
+		int highCurrencyAmount = baseCurrencyAmount / highCurrencyValue;
+		if (highCurrencyAmount == 0) return 0;
+
+		// Apply the changes to a copy first, so that we can abort if there is not enough space:
+		@Nullable ItemStack[] newContents = contents.clone();
+		int convertedAmount = highCurrencyAmount * highCurrencyValue;
+		int remaining = InventoryUtils.removeItems(newContents, isBaseCurrency, convertedAmount);
+		assert remaining == 0;
+
+		ItemStack highCurrencyItem = highCurrency.getItemData().createItemStack(1);
+		if (InventoryUtils.addItems(newContents, highCurrencyItem, highCurrencyAmount) != 0) {
+			// Not enough space, since removing the base currency did not free enough slots:
+			return 0;
+		}
+
+		System.arraycopy(newContents, 0, contents, 0, contents.length);
+		return convertedAmount;
+	}
+
+	private ContainerCurrencyConsolidator() {
+	}
+}
@@ -1,14 +1,18 @@
 package com.nisovin.shopkeepers.shopkeeper.player;
 
+import java.util.List;
+
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.container.ShopContainers;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.ui.SKDefaultUITypes;
 import com.nisovin.shopkeepers.ui.trading.Trade;
@@ -16,11 +20,20 @@ import com.nisovin.shopkeepers.ui.trading.TradingContext;
 import com.nisovin.shopkeepers.ui.trading.TradingHandler;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.java.KeyValueStore;
 
 public abstract class PlayerShopTradingHandler extends TradingHandler {
 
+	// Trading context metadata: The container inventories and their contents after the previously
+	// applied trade of the same trading context. Subsequent trades of the same trading context
+	// reuse these instead of looking up and copying the containers again.
+	private static final String METADATA_CONTAINER_INVENTORIES = "container-inventories";
+	private static final String METADATA_CONTAINER_CONTENTS = "container-contents";
+
 	// State related to the currently handled trade:
-	protected @Nullable Inventory containerInventory = null;
+	// The inventories of the shop's main container and its linked containers:
+	protected @Nullable List<? extends @NonNull Inventory> containerInventories = null;
+	// The combined contents of all container inventories:
 	protected @Nullable ItemStack @Nullable [] newContainerContents = null;
 
 	protected PlayerShopTradingHandler(AbstractPlayerShopkeeper shopkeeper) {
@@ -88,8 +101,14 @@ public abstract class PlayerShopTradingHandler extends TradingHandler {
 		}
 
 		// Check for the shop's container:
-		Inventory containerInventory = shopkeeper.getContainerInventory();
-		if (containerInventory == null) {
+		KeyValueStore metadata = trade.getTradingContext().getMetadata();
+		List<? extends @NonNull Inventory> containerInventories = metadata.get(
+				METADATA_CONTAINER_INVENTORIES
+		);
+		if (containerInventories == null) {
+			containerInventories = shopkeeper.getContainerInventories();
+		}
+		if (containerInventories.isEmpty()) {
 			TextUtils.sendMessage(tradingPlayer, Messages.cannotTradeWithShopMissingContainer,
 					"owner", shopkeeper.getOwnerName()
 			);
@@ -101,8 +120,16 @@ public abstract class PlayerShopTradingHandler extends TradingHandler {
 		}
 
 		// Setup common state information for handling this trade:
-		this.containerInventory = containerInventory;
-		this.newContainerContents = Unsafe.cast(containerInventory.getContents());
+		// The stock and space of all containers are combined, so that trades can be applied across
+		// the containers in a single pass:
+		this.containerInventories = containerInventories;
+		@Nullable ItemStack[] containerContents = metadata.get(METADATA_CONTAINER_CONTENTS);
+		if (containerContents != null) {
+			// Shallow copy: The trade replaces the affected item stacks instead of modifying them.
+			this.newContainerContents = containerContents.clone();
+		} else {
+			this.newContainerContents = ShopContainers.getContents(containerInventories);
+		}
 
 		return true;
 	}
@@ -112,8 +139,14 @@ public abstract class PlayerShopTradingHandler extends TradingHandler {
 		super.onTradeApplied(trade);
 
 		// Apply container content changes:
-		if (containerInventory != null && newContainerContents != null) {
-			containerInventory.setContents(Unsafe.castNonNull(newContainerContents));
+		if (containerInventories != null && newContainerContents != null) {
+			ShopContainers.setContents(containerInventories, newContainerContents);
+			this.getShopkeeper().onContainerContentsChanged();
+
+			// Reused by subsequent trades of the same trading context:
+			KeyValueStore metadata = trade.getTradingContext().getMetadata();
+			metadata.set(METADATA_CONTAINER_INVENTORIES, containerInventories);
+			metadata.set(METADATA_CONTAINER_CONTENTS, newContainerContents);
 		}
 
 		// Reset trade related state information:
@@ -127,7 +160,7 @@ public abstract class PlayerShopTradingHandler extends TradingHandler {
 	}
 
 	protected void resetTradeState() {
-		containerInventory = null;
+		containerInventories = null;
 		newContainerContents = null;
 	}
 }
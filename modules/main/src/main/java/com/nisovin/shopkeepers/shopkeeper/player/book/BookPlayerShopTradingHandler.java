@@ -119,4 +119,12 @@ public class BookPlayerShopTradingHandler extends PlayerShopTradingHandler {
 		}
 		return true;
 	}
+
+	@Override
+	protected void onTradeApplied(Trade trade) {
+		super.onTradeApplied(trade);
+
+		// The earnings are consolidated together with those of any subsequent trades:
+		this.getShopkeeper().requestCurrencyConsolidation();
+	}
 }
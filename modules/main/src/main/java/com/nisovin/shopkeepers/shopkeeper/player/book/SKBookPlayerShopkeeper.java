@@ -6,6 +6,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -23,6 +24,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.api.shopkeeper.player.book.BookPlayerShopkeeper;
 import com.nisovin.shopkeepers.api.ui.DefaultUITypes;
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.container.ShopContainers;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.SKDefaultShopTypes;
@@ -30,9 +32,11 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferDataCache;
 import com.nisovin.shopkeepers.shopkeeper.offers.SKBookOffer;
 import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
 import com.nisovin.shopkeepers.util.annotations.ReadOnly;
+import com.nisovin.shopkeepers.util.bukkit.BlockLocation;
 import com.nisovin.shopkeepers.util.data.property.BasicProperty;
 import com.nisovin.shopkeepers.util.data.property.Property;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
@@ -46,6 +50,11 @@ public class SKBookPlayerShopkeeper
 	// Contains only one offer for a specific book (book title):
 	private final List<@NonNull BookOffer> offers = new ArrayList<>();
 	private final List<? extends @NonNull BookOffer> offersView = Collections.unmodifiableList(offers);
+	// Reuses the serialized data of the offers that have not changed since the last save for the
+	// storage:
+	private final OfferDataCache<@NonNull BookOffer> offerDataCache = new OfferDataCache<>(
+			SKBookOffer.SERIALIZER
+	);
 
 	/**
 	 * Creates a new and not yet initialized {@link SKBookPlayerShopkeeper}.
@@ -129,16 +138,89 @@ public class SKBookPlayerShopkeeper
 	 * <p>
 	 * Book items without title are omitted. If multiple book items share the same title, only the
 	 * first encountered book item with that title is returned.
+	 * <p>
+	 * The returned book items are cached and must not be modified.
 	 * 
-	 * @return the book items mapped by their title, or an empty Map if the container is not found
+	 * @return an unmodifiable view on the book items mapped by their title, or an empty Map if the
+	 *         container is not found
 	 */
 	protected Map<? extends @NonNull String, ? extends @NonNull ItemStack> getCopyableBooksFromContainer() {
+		return this.getBookCatalogue().booksByTitle;
+	}
+
+	/**
+	 * Checks if the shopkeeper's container contains any blank books (i.e. items of type
+	 * {@link Material#WRITABLE_BOOK}).
+	 * 
+	 * @return <code>true</code> if the container is found and contains blank books
+	 */
+	protected boolean hasContainerBlankBooks() {
+		return this.getBookCatalogue().blankBooksCount > 0;
+	}
+
+	// Reading the BookMeta of all items in the container is comparatively costly, especially for
+	// large containers. We therefore cache an index of the books in the container. This index is
+	// invalidated when the container contents might have changed. Since other plugins can modify
+	// the container without any indication, the index is also rebuilt after a certain duration.
+	private static final long BOOK_CATALOGUE_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+	private static final class BookCatalogue {
+
+		static final BookCatalogue EMPTY = new BookCatalogue(null, Collections.emptyMap(), 0);
+
+		// Null for the empty catalogue of a missing container:
+		final @Nullable BlockLocation container;
+		final long creationNanos;
+		final Map<? extends @NonNull String, ? extends @NonNull ItemStack> booksByTitle;
+		final int blankBooksCount;
+
+		BookCatalogue(
+				@Nullable BlockLocation container,
+				Map<? extends @NonNull String, ? extends @NonNull ItemStack> booksByTitle,
+				int blankBooksCount
+		) {
+			this.container = container;
+			this.creationNanos = System.nanoTime();
+			this.booksByTitle = Collections.unmodifiableMap(booksByTitle);
+			this.blankBooksCount = blankBooksCount;
+		}
+
+		boolean isValid(BlockLocation container) {
+			if (!container.equals(this.container)) return false;
+			return (System.nanoTime() - creationNanos) < BOOK_CATALOGUE_MAX_AGE_NANOS;
+		}
+	}
+
+	private @Nullable BookCatalogue bookCatalogue = null;
+
+	private BookCatalogue getBookCatalogue() {
+		BlockLocation container = this.getContainerLocation();
+		BookCatalogue bookCatalogue = this.bookCatalogue;
+		if (bookCatalogue != null && bookCatalogue.isValid(container)) {
+			return bookCatalogue;
+		}
+
+		List<? extends @NonNull Inventory> containerInventories = this.getContainerInventories();
+		if (containerInventories.isEmpty()) {
+			// Container not found: Not cached, so that we notice when the container is placed
+			// again.
+			this.bookCatalogue = null;
+			return BookCatalogue.EMPTY;
+		}
+
 		// Linked Map: Preserves the order of encountered items.
 		Map<@NonNull String, @NonNull ItemStack> booksByTitle = new LinkedHashMap<>();
-		// Empty if the container is not found:
-		@Nullable ItemStack[] contents = this.getContainerContents();
+		int blankBooksCount = 0;
+		@Nullable ItemStack[] contents = ShopContainers.getContents(containerInventories);
 		for (ItemStack itemStack : contents) {
 			if (itemStack == null) continue;
+			Material type = itemStack.getType();
+			if (type == Material.WRITABLE_BOOK) {
+				blankBooksCount += itemStack.getAmount();
+				continue;
+			}
+			if (type != Material.WRITTEN_BOOK) continue;
+
 			BookMeta bookMeta = BookItems.getBookMeta(itemStack);
 			if (bookMeta == null) continue; // Not a written book
 			if (!BookItems.isCopyable(bookMeta)) continue;
@@ -147,21 +229,20 @@ public class SKBookPlayerShopkeeper
 
 			// The item is ignored if we already encountered another book item with the same title
 			// before:
-			booksByTitle.putIfAbsent(title, itemStack);
+			if (booksByTitle.containsKey(title)) continue;
+			// Copy: The container's item stacks might change while they are cached.
+			booksByTitle.put(title, itemStack.clone());
 		}
-		return booksByTitle;
+
+		bookCatalogue = new BookCatalogue(container, booksByTitle, blankBooksCount);
+		this.bookCatalogue = bookCatalogue;
+		return bookCatalogue;
 	}
 
-	/**
-	 * Checks if the shopkeeper's container contains any blank books (i.e. items of type
-	 * {@link Material#WRITABLE_BOOK}).
-	 * 
-	 * @return <code>true</code> if the container is found and contains blank books
-	 */
-	protected boolean hasContainerBlankBooks() {
-		Inventory containerInventory = this.getContainerInventory();
-		if (containerInventory == null) return false; // Container not found
-		return containerInventory.contains(Material.WRITABLE_BOOK);
+	@Override
+	public void onContainerContentsChanged() {
+		super.onContainerContentsChanged();
+		bookCatalogue = null;
 	}
 
 	/**
@@ -234,7 +315,13 @@ public class SKBookPlayerShopkeeper
 
 	private void saveOffers(ShopkeeperData shopkeeperData) {
 		assert shopkeeperData != null;
-		shopkeeperData.set(OFFERS, this.getOffers());
+		this.saveSection(shopkeeperData, DATA_KEY_OFFERS, () -> {
+			if (this.isSavingForStorage()) {
+				shopkeeperData.set(DATA_KEY_OFFERS, offerDataCache.serialize(this.getOffers()));
+			} else {
+				shopkeeperData.set(OFFERS, this.getOffers());
+			}
+		});
 	}
 
 	@Override
@@ -274,6 +361,7 @@ public class SKBookPlayerShopkeeper
 		while (iterator.hasNext()) {
 			if (iterator.next().getBookTitle().equals(bookTitle)) {
 				iterator.remove();
+				this.markSectionDirty(DATA_KEY_OFFERS);
 				this.markDirty();
 				break;
 			}
@@ -288,6 +376,7 @@ public class SKBookPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
@@ -322,6 +411,7 @@ public class SKBookPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
@@ -21,6 +21,7 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferDataCache;
 import com.nisovin.shopkeepers.shopkeeper.offers.SKPriceOffer;
 import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
 import com.nisovin.shopkeepers.util.annotations.ReadOnly;
@@ -36,6 +37,11 @@ public class SKBuyingPlayerShopkeeper
 	// Contains only one offer for any specific type of item:
 	private final List<@NonNull PriceOffer> offers = new ArrayList<>();
 	private final List<? extends @NonNull PriceOffer> offersView = Collections.unmodifiableList(offers);
+	// Reuses the serialized data of the offers that have not changed since the last save for the
+	// storage:
+	private final OfferDataCache<@NonNull PriceOffer> offerDataCache = new OfferDataCache<>(
+			SKPriceOffer.SERIALIZER
+	);
 
 	/**
 	 * Creates a new and not yet initialized {@link SKBuyingPlayerShopkeeper}.
@@ -135,7 +141,13 @@ public class SKBuyingPlayerShopkeeper
 
 	private void saveOffers(ShopkeeperData shopkeeperData) {
 		assert shopkeeperData != null;
-		shopkeeperData.set(OFFERS, this.getOffers());
+		this.saveSection(shopkeeperData, DATA_KEY_OFFERS, () -> {
+			if (this.isSavingForStorage()) {
+				shopkeeperData.set(DATA_KEY_OFFERS, offerDataCache.serialize(this.getOffers()));
+			} else {
+				shopkeeperData.set(OFFERS, this.getOffers());
+			}
+		});
 	}
 
 	@Override
@@ -168,6 +180,7 @@ public class SKBuyingPlayerShopkeeper
 			PriceOffer offer = iterator.next();
 			if (offer.getItem().isSimilar(tradedItem)) {
 				iterator.remove();
+				this.markSectionDirty(DATA_KEY_OFFERS);
 				this.markDirty();
 				break;
 			}
@@ -188,6 +201,7 @@ public class SKBuyingPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
@@ -221,6 +235,7 @@ public class SKBuyingPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
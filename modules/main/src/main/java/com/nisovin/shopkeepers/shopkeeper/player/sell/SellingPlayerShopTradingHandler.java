@@ -103,4 +103,12 @@ public class SellingPlayerShopTradingHandler extends PlayerShopTradingHandler {
 		}
 		return true;
 	}
+
+	@Override
+	protected void onTradeApplied(Trade trade) {
+		super.onTradeApplied(trade);
+
+		// The earnings are consolidated together with those of any subsequent trades:
+		this.getShopkeeper().requestCurrencyConsolidation();
+	}
 }
@@ -20,6 +20,7 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferDataCache;
 import com.nisovin.shopkeepers.shopkeeper.offers.SKTradeOffer;
 import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
 import com.nisovin.shopkeepers.util.data.property.BasicProperty;
@@ -35,6 +36,11 @@ public class SKTradingPlayerShopkeeper
 	// There can be multiple different offers for the same kind of item:
 	private final List<@NonNull TradeOffer> offers = new ArrayList<>();
 	private final List<? extends @NonNull TradeOffer> offersView = Collections.unmodifiableList(offers);
+	// Reuses the serialized data of the offers that have not changed since the last save for the
+	// storage:
+	private final OfferDataCache<@NonNull TradeOffer> offerDataCache = new OfferDataCache<>(
+			SKTradeOffer.SERIALIZER
+	);
 
 	/**
 	 * Creates a new and not yet initialized {@link SKTradingPlayerShopkeeper}.
@@ -131,7 +137,13 @@ public class SKTradingPlayerShopkeeper
 
 	private void saveOffers(ShopkeeperData shopkeeperData) {
 		assert shopkeeperData != null;
-		shopkeeperData.set(OFFERS, this.getOffers());
+		this.saveSection(shopkeeperData, DATA_KEY_OFFERS, () -> {
+			if (this.isSavingForStorage()) {
+				shopkeeperData.set(DATA_KEY_OFFERS, offerDataCache.serialize(this.getOffers()));
+			} else {
+				shopkeeperData.set(OFFERS, this.getOffers());
+			}
+		});
 	}
 
 	@Override
@@ -166,6 +178,7 @@ public class SKTradingPlayerShopkeeper
 
 	private void _clearOffers() {
 		offers.clear();
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
@@ -196,6 +209,7 @@ public class SKTradingPlayerShopkeeper
 
 		// Add the new offer:
 		offers.add(skOffer);
+		this.markSectionDirty(DATA_KEY_OFFERS);
 	}
 
 	@Override
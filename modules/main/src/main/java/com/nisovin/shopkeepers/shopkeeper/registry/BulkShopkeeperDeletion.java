@@ -0,0 +1,224 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * Deletes a potentially large number of shopkeepers.
+ * <p>
+ * Deleting a shopkeeper involves despawning its shop object, updating the shopkeeper registry and
+ * its indices, updating the container protections, calling events, and removing the shopkeeper's
+ * data from the storage. Doing this for thousands of shopkeepers at once can stall the server for
+ * several seconds. Instead, the deletions are spread across several ticks, with each tick only
+ * spending a limited amount of time on them.
+ * <p>
+ * The storage is saved only once after all shopkeepers have been deleted.
+ * <p>
+ * Subclasses can override the {@link #beforeDeletion(Shopkeeper)}, {@link #onProgress()}, and
+ * {@link #onCompleted()} hooks.
+ */
+public class BulkShopkeeperDeletion {
+
+	// The maximum duration per tick that is spent on deleting shopkeepers:
+	private static final long BUDGET_PER_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+	// The minimum duration between progress updates:
+	private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+	private final SKShopkeepersPlugin plugin;
+	private final List<? extends @NonNull Shopkeeper> shopkeepers;
+	private final @Nullable Player player;
+
+	private boolean started = false;
+	private boolean completed = false;
+	private int nextIndex = 0;
+	private long lastProgressNanos;
+
+	private int deletedCount = 0;
+	private int alreadyRemovedCount = 0;
+	private int skippedCount = 0;
+
+	/**
+	 * Creates a new {@link BulkShopkeeperDeletion}.
+	 * 
+	 * @param plugin
+	 *            the plugin, not <code>null</code>
+	 * @param shopkeepers
+	 *            the shopkeepers to delete, not <code>null</code>, copied
+	 * @param player
+	 *            the player responsible for the deletions, or <code>null</code>
+	 */
+	public BulkShopkeeperDeletion(
+			SKShopkeepersPlugin plugin,
+			Collection<? extends @NonNull Shopkeeper> shopkeepers,
+			@Nullable Player player
+	) {
+		Validate.notNull(plugin, "plugin is null");
+		Validate.notNull(shopkeepers, "shopkeepers is null");
+		this.plugin = plugin;
+		this.shopkeepers = new ArrayList<>(shopkeepers);
+		this.player = player;
+	}
+
+	/**
+	 * Starts the deletion of the shopkeepers.
+	 * <p>
+	 * The first shopkeepers are deleted right away. Each instance can only be started once.
+	 */
+	public final void start() {
+		Validate.State.isTrue(!started, "Already started!");
+		started = true;
+		lastProgressNanos = System.nanoTime();
+
+		if (this.deleteNextShopkeepers()) return;
+
+		// Continue during the subsequent ticks:
+		new BukkitRunnable() {
+			@Override
+			public void run() {
+				if (deleteNextShopkeepers()) {
+					this.cancel();
+				}
+			}
+		}.runTaskTimer(plugin, 1L, 1L);
+	}
+
+	// Returns true if all shopkeepers have been processed.
+	private boolean deleteNextShopkeepers() {
+		long startNanos = System.nanoTime();
+		while (nextIndex < shopkeepers.size()) {
+			Shopkeeper shopkeeper = shopkeepers.get(nextIndex++);
+			this.deleteShopkeeper(shopkeeper);
+
+			// Continue during the next tick if we exceeded our time budget:
+			long nowNanos = System.nanoTime();
+			if (nowNanos - startNanos >= BUDGET_PER_TICK_NANOS
+					&& nextIndex < shopkeepers.size()) {
+				if (nowNanos - lastProgressNanos >= PROGRESS_INTERVAL_NANOS) {
+					lastProgressNanos = nowNanos;
+					this.onProgress();
+				}
+				return false;
+			}
+		}
+
+		completed = true;
+
+		// Save once for all deletions:
+		plugin.getShopkeeperStorage().saveIfDirty();
+
+		this.onCompleted();
+		return true;
+	}
+
+	private void deleteShopkeeper(Shopkeeper shopkeeper) {
+		// Skip the shopkeeper if it no longer exists:
+		if (!shopkeeper.isValid()) {
+			alreadyRemovedCount++;
+			return;
+		}
+
+		if (!this.beforeDeletion(shopkeeper)) {
+			skippedCount++;
+			return;
+		}
+		// The shopkeeper might have been removed by the hook:
+		if (!shopkeeper.isValid()) {
+			alreadyRemovedCount++;
+			return;
+		}
+
+		shopkeeper.delete(player);
+		deletedCount++;
+	}
+
+	/**
+	 * This is called right before the given shopkeeper is deleted, and can be used to skip its
+	 * deletion, for example if a plugin cancelled the deletion via an event.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code> and still valid
+	 * @return <code>true</code> to delete the shopkeeper, <code>false</code> to skip it
+	 */
+	protected boolean beforeDeletion(Shopkeeper shopkeeper) {
+		return true;
+	}
+
+	/**
+	 * This is called periodically while the deletion is still in progress, and can be used to
+	 * report the progress.
+	 */
+	protected void onProgress() {
+	}
+
+	/**
+	 * This is called once all shopkeepers have been processed and the storage save has been
+	 * triggered.
+	 */
+	protected void onCompleted() {
+	}
+
+	/**
+	 * Gets the total number of shopkeepers to delete.
+	 * 
+	 * @return the total number of shopkeepers
+	 */
+	public final int getTotalCount() {
+		return shopkeepers.size();
+	}
+
+	/**
+	 * Gets the number of shopkeepers that have been processed so far.
+	 * 
+	 * @return the number of processed shopkeepers
+	 */
+	public final int getProcessedCount() {
+		return nextIndex;
+	}
+
+	/**
+	 * Gets the number of shopkeepers that have been deleted so far.
+	 * 
+	 * @return the number of deleted shopkeepers
+	 */
+	public final int getDeletedCount() {
+		return deletedCount;
+	}
+
+	/**
+	 * Gets the number of shopkeepers that were skipped because they had already been removed.
+	 * 
+	 * @return the number of already removed shopkeepers
+	 */
+	public final int getAlreadyRemovedCount() {
+		return alreadyRemovedCount;
+	}
+
+	/**
+	 * Gets the number of shopkeepers that were skipped by {@link #beforeDeletion(Shopkeeper)}.
+	 * 
+	 * @return the number of skipped shopkeepers
+	 */
+	public final int getSkippedCount() {
+		return skippedCount;
+	}
+
+	/**
+	 * Checks if all shopkeepers have been processed.
+	 * 
+	 * @return <code>true</code> if completed
+	 */
+	public final boolean isCompleted() {
+		return completed;
+	}
+}
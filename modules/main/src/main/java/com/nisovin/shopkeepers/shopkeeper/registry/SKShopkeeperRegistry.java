@@ -37,13 +37,13 @@ import com.nisovin.shopkeepers.shopkeeper.AbstractShopType;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.activation.ShopkeeperChunkActivator;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKOfferIndex;
 import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.registry.ShopkeeperChunkMap.ChangeListener;
 import com.nisovin.shopkeepers.shopkeeper.spawning.ShopkeeperSpawner;
 import com.nisovin.shopkeepers.shopkeeper.ticking.ShopkeeperTicker;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObjectType;
 import com.nisovin.shopkeepers.shopobjects.block.BlockShopObjectIds;
-import com.nisovin.shopkeepers.shopobjects.entity.EntityShopObjectIds;
 import com.nisovin.shopkeepers.storage.SKShopkeeperStorage;
 import com.nisovin.shopkeepers.util.bukkit.LocationUtils;
 import com.nisovin.shopkeepers.util.bukkit.TextUtils;
@@ -133,6 +133,7 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 	};
 
 	private final ShopObjectRegistry shopObjectRegistry = new ShopObjectRegistry();
+	private final SKOfferIndex offerIndex = new SKOfferIndex();
 	private final ShopkeeperTicker shopkeeperTicker;
 	private final ShopkeeperSpawner shopkeeperSpawner;
 	private final ShopkeeperChunkActivator chunkActivator;
@@ -171,6 +172,7 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		shopkeeperSpawner.onDisable();
 		chunkActivator.onDisable();
 		shopObjectRegistry.onDisable();
+		offerIndex.clear();
 	}
 
 	private void ensureEmpty() {
@@ -193,6 +195,10 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 		return chunkActivator;
 	}
 
+	public SKOfferIndex getOfferIndex() {
+		return offerIndex;
+	}
+
 	// SHOPKEEPER CREATION
 
 	private SKShopkeeperStorage getShopkeeperStorage() {
@@ -306,6 +312,9 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 			playerShopCount++;
 		}
 
+		// Index the shopkeeper's offers:
+		offerIndex.addShopkeeper(shopkeeper);
+
 		// Log a warning if either the shop type or the shop object type is disabled. The shopkeeper
 		// is still added (so containers are still protected), but it might not get spawned, and
 		// there is no guarantee that the shop still works as expected. Admins are advised to either
@@ -390,6 +399,9 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 			playerShopCount--;
 		}
 
+		// Remove the shopkeeper's offers from the offer index:
+		offerIndex.removeShopkeeper(shopkeeper);
+
 		if (cause == ShopkeeperRemoveEvent.Cause.DELETE) {
 			// Remove shopkeeper from storage:
 			this.getShopkeeperStorage().deleteShopkeeper(shopkeeper);
@@ -641,9 +653,7 @@ public class SKShopkeeperRegistry implements ShopkeeperRegistry {
 
 	@Override
 	public @Nullable AbstractShopkeeper getShopkeeperByEntity(Entity entity) {
-		Validate.notNull(entity, "entity is null");
-		Object objectId = EntityShopObjectIds.getObjectId(entity);
-		return shopObjectRegistry.getShopkeeperByObjectId(objectId);
+		return shopObjectRegistry.getShopkeeperByEntity(entity);
 	}
 
 	@Override
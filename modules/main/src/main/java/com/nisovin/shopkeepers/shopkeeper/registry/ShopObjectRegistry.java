@@ -1,16 +1,22 @@
 package com.nisovin.shopkeepers.shopkeeper.registry;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopobjects.entity.EntityShopObject;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+import com.nisovin.shopkeepers.shopobjects.entity.EntityShopObjectIds;
+import com.nisovin.shopkeepers.util.bukkit.EntityUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 
@@ -25,6 +31,15 @@ public class ShopObjectRegistry {
 	// Since some types of shop objects may handle their spawning themselves, shop objects might
 	// already be spawned before their chunk is activated.
 	private final Map<@NonNull Object, @NonNull AbstractShopkeeper> shopkeepersByObjectId = new HashMap<>();
+	// The entity types of the registered entity shop objects, by their object ids:
+	// Entity shop objects whose entity type could not be determined are registered with type
+	// UNKNOWN.
+	private final Map<@NonNull Object, @NonNull EntityType> entityTypesByObjectId = new HashMap<>();
+	// The number of registered entity shop objects per entity type, indexed by the type's ordinal:
+	// Most entities that are involved in the entity events that we handle are not shopkeepers. If
+	// there are no shopkeeper entities of the entity's type, we can quickly reject the entity
+	// without determining and looking up its object id. The type of an entity never changes.
+	private final int[] entityObjectCounts = new int[EntityType.values().length];
 
 	ShopObjectRegistry() {
 	}
@@ -40,6 +55,8 @@ public class ShopObjectRegistry {
 		if (!shopkeepersByObjectId.isEmpty()) {
 			Log.warning("Some spawned shop objects were not properly unregistered!");
 			shopkeepersByObjectId.clear();
+			entityTypesByObjectId.clear();
+			Arrays.fill(entityObjectCounts, 0);
 		}
 	}
 
@@ -54,6 +71,29 @@ public class ShopObjectRegistry {
 		return shopkeepersByObjectId.get(objectId);
 	}
 
+	/**
+	 * Gets the shopkeeper that is represented by the given entity.
+	 * <p>
+	 * This behaves like looking up the entity's {@link EntityShopObjectIds#getObjectId(Entity)
+	 * object id} via {@link #getShopkeeperByObjectId(Object)}, but quickly returns
+	 * <code>null</code> if there are no spawned shopkeeper entities of the entity's type.
+	 * 
+	 * @param entity
+	 *            the entity, not <code>null</code>
+	 * @return the shopkeeper, or <code>null</code> if the entity is not a shopkeeper
+	 */
+	public @Nullable AbstractShopkeeper getShopkeeperByEntity(Entity entity) {
+		Validate.notNull(entity, "entity is null");
+		Entity resolvedEntity = EntityUtils.resolveComplexEntity(entity);
+		if (entityObjectCounts[resolvedEntity.getType().ordinal()] == 0
+				&& entityObjectCounts[EntityType.UNKNOWN.ordinal()] == 0) {
+			return null;
+		}
+
+		Object objectId = EntityShopObjectIds.getObjectId(resolvedEntity);
+		return this.getShopkeeperByObjectId(objectId);
+	}
+
 	/**
 	 * Handles the registration and unregistration of spawned shop objects.
 	 * <p>
@@ -113,9 +153,32 @@ public class ShopObjectRegistry {
 			return;
 		} else {
 			shopObject.setLastId(objectId); // Remember the object id
+			this.registerEntityType(shopObject, objectId);
 		}
 	}
 
+	private void registerEntityType(AbstractShopObject shopObject, Object objectId) {
+		assert shopObject != null && objectId != null;
+		if (!(shopObject instanceof EntityShopObject)) return;
+
+		Entity entity = ((EntityShopObject) shopObject).getEntity();
+		EntityType entityType = EntityType.UNKNOWN;
+		if (entity != null) {
+			entityType = EntityUtils.resolveComplexEntity(entity).getType();
+		}
+		entityTypesByObjectId.put(objectId, entityType);
+		entityObjectCounts[entityType.ordinal()] += 1;
+	}
+
+	private void unregisterEntityType(Object objectId) {
+		assert objectId != null;
+		EntityType entityType = entityTypesByObjectId.remove(objectId);
+		if (entityType == null) return; // Not an entity shop object
+
+		entityObjectCounts[entityType.ordinal()] -= 1;
+		assert entityObjectCounts[entityType.ordinal()] >= 0;
+	}
+
 	private void unregisterShopObject(AbstractShopkeeper shopkeeper) {
 		assert shopkeeper != null;
 		AbstractShopObject shopObject = shopkeeper.getShopObject();
@@ -126,6 +189,7 @@ public class ShopObjectRegistry {
 				+ "Unregistering object with id '" + objectId + "'.");
 		assert shopkeepersByObjectId.get(objectId) == shopkeeper;
 		shopkeepersByObjectId.remove(objectId);
+		this.unregisterEntityType(objectId);
 		shopObject.setLastId(null);
 	}
 }
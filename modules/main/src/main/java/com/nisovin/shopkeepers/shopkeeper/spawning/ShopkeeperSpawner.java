@@ -18,6 +18,7 @@ import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.util.ChunkCoords;
 import com.nisovin.shopkeepers.debug.DebugOptions;
+import com.nisovin.shopkeepers.debug.watchdog.SlowOperationWatchdog.Operation;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.activation.ShopkeeperChunkActivator;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
@@ -28,6 +29,8 @@ import com.nisovin.shopkeepers.util.bukkit.TextUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
 import com.nisovin.shopkeepers.util.taskqueue.TaskQueueStatistics;
+import com.nisovin.shopkeepers.util.timer.Timer;
+import com.nisovin.shopkeepers.util.timer.Timings;
 
 /**
  * Responsible for the spawning of shopkeepers.
@@ -69,6 +72,13 @@ public class ShopkeeperSpawner {
 	// been removed.
 	private final Map<@NonNull String, @NonNull WorldData> worlds = new HashMap<>();
 
+	// Timings of the spawning of the shopkeepers of individual chunks, and of the spawning of
+	// individual shopkeepers outside of chunk spawns (e.g. by the spawn queue):
+	private final Timer chunkSpawnTimings = new Timer();
+	private final Timer spawnTimings = new Timer();
+	private boolean chunkSpawnInProgress = false;
+	private boolean spawnInProgress = false;
+
 	public ShopkeeperSpawner(SKShopkeepersPlugin plugin, SKShopkeeperRegistry shopkeeperRegistry) {
 		Validate.notNull(plugin, "plugin is null");
 		Validate.notNull(shopkeeperRegistry, "shopkeeperRegistry is null");
@@ -112,6 +122,9 @@ public class ShopkeeperSpawner {
 
 		// Remove all cached world data:
 		worlds.clear();
+
+		chunkSpawnTimings.reset();
+		spawnTimings.reset();
 	}
 
 	// DATA
@@ -258,11 +271,28 @@ public class ShopkeeperSpawner {
 			return SpawnResult.IGNORED_INACTIVE;
 		}
 
-		boolean alreadySpawned = shopObject.isSpawned();
-
 		String worldName = Unsafe.assertNonNull(shopkeeper.getWorldName());
 		WorldData worldData = this.getOrCreateWorldData(worldName);
-		assert worldData != null;
+		return this.spawnActiveShopkeeper(shopkeeper, worldData, spawnImmediately);
+	}
+
+	// Expects a valid and active shopkeeper whose shop object needs to be spawned, and the data of
+	// the shopkeeper's world. When the shopkeepers of a chunk are spawned, the chunk spawn already
+	// checked these preconditions and looks up the world data only once for the whole chunk. Apart
+	// from that, each shopkeeper of the chunk is still spawned individually: The shop objects
+	// resolve their own spawn locations, and are registered right after they have been spawned.
+	private SpawnResult spawnActiveShopkeeper(
+			AbstractShopkeeper shopkeeper,
+			WorldData worldData,
+			boolean spawnImmediately
+	) {
+		assert shopkeeper.isValid() && shopkeeper.isActive();
+		assert worldData.getWorldName().equals(shopkeeper.getWorldName());
+		AbstractShopObject shopObject = shopkeeper.getShopObject();
+		AbstractShopObjectType<?> shopObjectType = shopObject.getType();
+		assert shopObjectType.mustBeSpawned();
+
+		boolean alreadySpawned = shopObject.isSpawned();
 		if (worldData.isWorldSaveRespawnPending() && shopObjectType.mustDespawnDuringWorldSave()) {
 			SpawnResult result;
 			if (alreadySpawned) {
@@ -372,6 +402,31 @@ public class ShopkeeperSpawner {
 
 	// Returns true on success.
 	private boolean doSpawnShopkeeper(AbstractShopkeeper shopkeeper) {
+		// Note: Spawning a shopkeeper can trigger nested spawns (e.g. via events that are called
+		// during the spawning). We only time the outermost spawn. Spawns that are part of a chunk
+		// spawn are only covered by the chunk spawn timings.
+		boolean timed = !spawnInProgress && !chunkSpawnInProgress;
+		if (timed) {
+			spawnInProgress = true;
+			spawnTimings.start();
+		}
+		Operation watchdogOperation = plugin.getSlowOperationWatchdog().start(
+				"Shopkeeper spawn",
+				() -> "shopkeeper " + shopkeeper.getId() + ", object type "
+						+ shopkeeper.getShopObject().getType().getIdentifier()
+		);
+		try {
+			return this.doSpawnShopkeeperUntimed(shopkeeper);
+		} finally {
+			watchdogOperation.stop();
+			if (timed) {
+				spawnTimings.stop();
+				spawnInProgress = false;
+			}
+		}
+	}
+
+	private boolean doSpawnShopkeeperUntimed(AbstractShopkeeper shopkeeper) {
 		assert shopkeeper != null;
 		AbstractShopObject shopObject = shopkeeper.getShopObject();
 		AbstractShopObjectType<?> shopObjectType = shopObject.getType();
@@ -449,6 +504,28 @@ public class ShopkeeperSpawner {
 		return spawnQueue;
 	}
 
+	/**
+	 * Gets the timings of the spawning of the shopkeepers of individual chunks.
+	 * <p>
+	 * If the shopkeepers of a chunk are only added to the spawn queue, these timings only include
+	 * the time to add them to the queue.
+	 * 
+	 * @return the chunk spawn timings
+	 */
+	public Timings getChunkSpawnTimings() {
+		return chunkSpawnTimings;
+	}
+
+	/**
+	 * Gets the timings of the spawning of individual shopkeepers outside of chunk spawns, for
+	 * example by the spawn queue.
+	 * 
+	 * @return the shopkeeper spawn timings
+	 */
+	public Timings getSpawnTimings() {
+		return spawnTimings;
+	}
+
 	public void spawnChunkShopkeepers(
 			ChunkCoords chunkCoords,
 			String spawnReason,
@@ -471,12 +548,55 @@ public class ShopkeeperSpawner {
 		if (shopkeepers.isEmpty()) return;
 		if (!shopkeeperRegistry.isChunkActive(chunkCoords)) return;
 
+		// Note: Chunk spawns can be nested, for example if a shopkeeper is moved into another
+		// active chunk during spawning. The timer would report a state error in this case. We
+		// therefore only time the outermost chunk spawn.
+		boolean timed = !chunkSpawnInProgress;
+		if (timed) {
+			chunkSpawnInProgress = true;
+			chunkSpawnTimings.start();
+		}
+		Operation watchdogOperation = plugin.getSlowOperationWatchdog().start(
+				"Chunk spawn",
+				() -> "chunk " + TextUtils.getChunkString(chunkCoords) + ", "
+						+ shopkeepers.size() + " shopkeepers, reason: " + spawnReason
+		);
+		try {
+			this.doSpawnChunkShopkeepers(
+					chunkCoords,
+					spawnReason,
+					shopkeepers,
+					filter,
+					spawnImmediately
+			);
+		} finally {
+			watchdogOperation.stop();
+			if (timed) {
+				chunkSpawnTimings.stop();
+				chunkSpawnInProgress = false;
+			}
+		}
+	}
+
+	private void doSpawnChunkShopkeepers(
+			ChunkCoords chunkCoords,
+			String spawnReason,
+			Collection<? extends @NonNull AbstractShopkeeper> shopkeepers,
+			Predicate<? super @NonNull AbstractShopkeeper> filter,
+			boolean spawnImmediately
+	) {
 		Log.debug(DebugOptions.shopkeeperActivation,
 				() -> "Spawning " + shopkeepers.size() + " shopkeepers in chunk "
 						+ TextUtils.getChunkString(chunkCoords)
 						+ (spawnReason.isEmpty() ? "" : " (" + spawnReason + ")")
 		);
 
+		// Look up the world data that is shared by all shopkeepers of the chunk only once:
+		// All shopkeepers that are spawned below are still located in this chunk, and therefore in
+		// its world. This is the only per-chunk work that is shared: The shopkeepers are still
+		// spawned one by one below.
+		WorldData worldData = this.getOrCreateWorldData(chunkCoords.getWorldName());
+
 		// Mark the shopkeepers as 'currently-spawning':
 		shopkeepers.forEach(shopkeeper -> {
 			AbstractShopObject shopObject = shopkeeper.getShopObject();
@@ -528,7 +648,11 @@ public class ShopkeeperSpawner {
 
 			// Spawn the shopkeeper:
 			// This also updates the shopkeeper's spawn state.
-			SpawnResult result = this.spawnShopkeeper(shopkeeper, spawnImmediately);
+			SpawnResult result = this.spawnActiveShopkeeper(
+					shopkeeper,
+					worldData,
+					spawnImmediately
+			);
 			switch (result) {
 			case SPAWNED:
 			case QUEUED:
@@ -0,0 +1,72 @@
+package com.nisovin.shopkeepers.shopobjects;
+
+/**
+ * Keeps track of the number of shop object checks and repairs (e.g. respawns or teleports back
+ * into place) that were triggered either by events or by the regular polling of shop objects.
+ */
+public class ShopObjectCheckStatistics {
+
+	private long eventTriggeredChecks = 0L;
+	private long pollTriggeredChecks = 0L;
+	private long eventTriggeredRepairs = 0L;
+	private long pollTriggeredRepairs = 0L;
+
+	public ShopObjectCheckStatistics() {
+	}
+
+	/**
+	 * Records a shop object check.
+	 *
+	 * @param eventTriggered
+	 *            <code>true</code> if the check was requested due to an event, <code>false</code>
+	 *            if it was triggered by the regular polling
+	 */
+	public void onCheck(boolean eventTriggered) {
+		if (eventTriggered) {
+			eventTriggeredChecks++;
+		} else {
+			pollTriggeredChecks++;
+		}
+	}
+
+	/**
+	 * Records a shop object repair.
+	 *
+	 * @param eventTriggered
+	 *            <code>true</code> if the check that detected the need for the repair was requested
+	 *            due to an event, <code>false</code> if it was triggered by the regular polling
+	 */
+	public void onRepair(boolean eventTriggered) {
+		if (eventTriggered) {
+			eventTriggeredRepairs++;
+		} else {
+			pollTriggeredRepairs++;
+		}
+	}
+
+	public long getEventTriggeredChecks() {
+		return eventTriggeredChecks;
+	}
+
+	public long getPollTriggeredChecks() {
+		return pollTriggeredChecks;
+	}
+
+	public long getEventTriggeredRepairs() {
+		return eventTriggeredRepairs;
+	}
+
+	public long getPollTriggeredRepairs() {
+		return pollTriggeredRepairs;
+	}
+
+	/**
+	 * Resets all counters.
+	 */
+	public void reset() {
+		eventTriggeredChecks = 0L;
+		pollTriggeredChecks = 0L;
+		eventTriggeredRepairs = 0L;
+		pollTriggeredRepairs = 0L;
+	}
+}
@@ -1,10 +1,13 @@
 package com.nisovin.shopkeepers.shopobjects;
 
+import org.bukkit.NamespacedKey;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.persistence.PersistentDataType;
 
 import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
+import com.nisovin.shopkeepers.util.bukkit.NamespacedKeyUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 
 /**
@@ -13,6 +16,11 @@ import com.nisovin.shopkeepers.util.java.Validate;
 public final class ShopkeeperMetadata {
 
 	public static final String SHOPKEEPER_METADATA_KEY = "shopkeeper";
+	// Stored inside the entity's persistent data container:
+	private static final NamespacedKey SHOPKEEPER_ENTITY_MARKER_KEY = NamespacedKeyUtils.create(
+			"shopkeepers",
+			"shopkeeper"
+	);
 
 	// ENTITY METADATA
 
@@ -34,6 +42,30 @@ public final class ShopkeeperMetadata {
 		return entity.hasMetadata(SHOPKEEPER_METADATA_KEY);
 	}
 
+	// PERSISTENT ENTITY MARKER
+
+	// Unlike the entity metadata, this marker is preserved if the entity is saved with the chunk.
+	// Since shopkeeper entities are non-persistent, this marker is only expected to be found on
+	// freshly loaded entities if a shopkeeper entity has unexpectedly been saved with the chunk
+	// (i.e. if the entity has been leaked).
+
+	public static void applyPersistentMarker(Entity entity) {
+		Validate.notNull(entity, "entity is null");
+		entity.getPersistentDataContainer().set(
+				SHOPKEEPER_ENTITY_MARKER_KEY,
+				PersistentDataType.BYTE,
+				(byte) 1
+		);
+	}
+
+	public static boolean hasPersistentMarker(Entity entity) {
+		Validate.notNull(entity, "entity is null");
+		return entity.getPersistentDataContainer().has(
+				SHOPKEEPER_ENTITY_MARKER_KEY,
+				PersistentDataType.BYTE
+		);
+	}
+
 	// BLOCK METADATA
 
 	public static void apply(Block block) {
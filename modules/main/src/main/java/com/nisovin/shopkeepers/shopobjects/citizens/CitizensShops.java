@@ -14,6 +14,7 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -85,6 +86,9 @@ public class CitizensShops {
 	// these shopkeepers.
 	private final Map<@NonNull UUID, @NonNull List<@NonNull AbstractShopkeeper>> shopkeepersByNpcId = new HashMap<>();
 
+	// Merges all NPC save requests within the same tick:
+	private @Nullable BukkitTask pendingNPCsSaveTask = null;
+
 	public CitizensShops(SKShopkeepersPlugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
 		this.plugin = plugin;
@@ -170,6 +174,9 @@ public class CitizensShops {
 			((SKCitizensShopObject) shopkeeper.getShopObject()).onCitizensShopsDisabled();
 		});
 
+		// Process any pending NPC save request now, while the Citizens shops are still enabled:
+		this.savePendingNPCs();
+
 		Plugin citizensPlugin = CitizensDependency.getPlugin();
 		if (citizensPlugin != null) {
 			// Unregister the shopkeeper trait:
@@ -324,20 +331,42 @@ public class CitizensShops {
 	}
 
 	void onNPCEdited(NPC npc) {
-		// TODO We may sometimes unnecessarily call this multiple times within the same tick. Merge
-		// all save requests within a short time period (i.e. a few ticks)? But we would also need
-		// to ensure that the save is triggered on plugin shutdown, including when Citizens shuts
-		// down.
 		if (Settings.saveCitizenNpcsInstantly) {
-			this.saveNPCs();
+			this.requestNPCsSave();
 		}
 		// Else: Saving is controlled only by Citizens itself: Periodically, manually, and on
 		// shutdown.
 	}
 
+	// This may be called multiple times within the same tick, for example when several Citizens
+	// shopkeepers are edited at once. We therefore merge all save requests within the same tick
+	// into a single save. Any pending save is also triggered when the Citizens shops are disabled
+	// (e.g. on plugin shutdown, or when the Citizens plugin shuts down).
+	private void requestNPCsSave() {
+		if (!this.isEnabled()) return;
+		if (pendingNPCsSaveTask != null) return; // Already pending
+
+		pendingNPCsSaveTask = Bukkit.getScheduler().runTask(plugin, () -> {
+			pendingNPCsSaveTask = null;
+			this.saveNPCs();
+		});
+	}
+
+	private void savePendingNPCs() {
+		if (pendingNPCsSaveTask == null) return;
+		this.saveNPCs(); // Also resets the pending save task
+	}
+
 	public void saveNPCs() {
 		if (!this.isEnabled()) return;
 
+		// This save also covers any pending save request:
+		BukkitTask pendingNPCsSaveTask = this.pendingNPCsSaveTask;
+		if (pendingNPCsSaveTask != null) {
+			pendingNPCsSaveTask.cancel();
+			this.pendingNPCsSaveTask = null;
+		}
+
 		long startNanos = System.nanoTime();
 		// TODO Saving is quite a heavy operation, but there is no API yet to trigger an
 		// asynchronous save. We therefore execute this command to trigger an asynchronous save.
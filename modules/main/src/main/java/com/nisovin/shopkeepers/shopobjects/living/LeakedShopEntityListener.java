@@ -0,0 +1,158 @@
+package com.nisovin.shopkeepers.shopobjects.living;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.shopobjects.ShopkeeperMetadata;
+import com.nisovin.shopkeepers.util.bukkit.EventUtils;
+import com.nisovin.shopkeepers.util.bukkit.TextUtils;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Removes shopkeeper entities that have unexpectedly been saved with the world data.
+ * <p>
+ * Shopkeeper entities are non-persistent, so that they don't need to be despawned during world
+ * saves. To verify that they were indeed not saved, we check chunks that contain living
+ * shopkeepers for entities with the {@link ShopkeeperMetadata#hasPersistentMarker(Entity)
+ * persistent shopkeeper marker} when their entities are loaded.
+ * <p>
+ * On MC 1.17 and above, the entities of chunks are loaded separately from the chunks themselves.
+ * Accessing the entities of a chunk during the {@link ChunkLoadEvent} would force them to be
+ * loaded synchronously. We therefore check the entities once Bukkit's EntitiesLoadEvent is called.
+ * This event is not available in the Bukkit API that we compile against, so we register it via
+ * reflection. On older server versions, the entities are loaded together with the chunk and we
+ * check them during the {@link ChunkLoadEvent}.
+ * <p>
+ * Only registered if {@link com.nisovin.shopkeepers.config.Settings#removeLeakedShopkeeperEntities}
+ * is enabled.
+ */
+class LeakedShopEntityListener implements Listener {
+
+	// TODO Use the EntitiesLoadEvent directly once we only support Bukkit 1.17 upwards.
+	// Null if not available:
+	private static final @Nullable Class<? extends @NonNull ChunkEvent> ENTITIES_LOAD_EVENT;
+	private static final @Nullable Method ENTITIES_LOAD_EVENT_GET_ENTITIES;
+
+	static {
+		Class<? extends @NonNull ChunkEvent> entitiesLoadEvent = null;
+		Method getEntities = null;
+		try {
+			entitiesLoadEvent = Class.forName("org.bukkit.event.world.EntitiesLoadEvent")
+					.asSubclass(ChunkEvent.class);
+			getEntities = entitiesLoadEvent.getMethod("getEntities");
+		} catch (ClassNotFoundException | ClassCastException | NoSuchMethodException e) {
+			// Not available: Older server version.
+			entitiesLoadEvent = null;
+			getEntities = null;
+		}
+		ENTITIES_LOAD_EVENT = entitiesLoadEvent;
+		ENTITIES_LOAD_EVENT_GET_ENTITIES = getEntities;
+	}
+
+	private final SKShopkeepersPlugin plugin;
+	private final SKShopkeeperRegistry shopkeeperRegistry;
+
+	LeakedShopEntityListener(SKShopkeepersPlugin plugin) {
+		this.plugin = plugin;
+		this.shopkeeperRegistry = plugin.getShopkeeperRegistry();
+	}
+
+	void onEnable() {
+		Class<? extends @NonNull ChunkEvent> entitiesLoadEvent = ENTITIES_LOAD_EVENT;
+		if (entitiesLoadEvent != null) {
+			this.registerEvent(entitiesLoadEvent, this::onEntitiesLoad);
+		} else {
+			this.registerEvent(ChunkLoadEvent.class, this::onChunkLoad);
+		}
+	}
+
+	void onDisable() {
+		HandlerList.unregisterAll(this);
+	}
+
+	// Low priority: The ChunkLoadEvent is handled before the chunk's shopkeepers are activated.
+	private <E extends @NonNull ChunkEvent> void registerEvent(
+			Class<? extends E> eventClass,
+			Consumer<? super @NonNull E> handler
+	) {
+		Bukkit.getPluginManager().registerEvent(
+				eventClass,
+				this,
+				EventPriority.LOW,
+				EventUtils.eventExecutor(eventClass, handler),
+				plugin,
+				false
+		);
+	}
+
+	// Only used on server versions before MC 1.17.
+	private void onChunkLoad(ChunkLoadEvent event) {
+		// New chunks cannot contain any leaked entities:
+		if (event.isNewChunk()) return;
+
+		Chunk chunk = event.getChunk();
+		ChunkCoords chunkCoords = new ChunkCoords(chunk);
+		if (!this.containsLivingShopkeepers(chunkCoords)) return;
+
+		this.removeLeakedEntities(Arrays.asList(chunk.getEntities()));
+	}
+
+	// Only used on MC 1.17 and above.
+	private void onEntitiesLoad(ChunkEvent event) {
+		ChunkCoords chunkCoords = new ChunkCoords(event.getChunk());
+		if (!this.containsLivingShopkeepers(chunkCoords)) return;
+
+		Method getEntities = Unsafe.assertNonNull(ENTITIES_LOAD_EVENT_GET_ENTITIES);
+		List<? extends @NonNull Entity> entities;
+		try {
+			entities = Unsafe.castNonNull(getEntities.invoke(event));
+		} catch (ReflectiveOperationException e) {
+			Log.warning("Could not retrieve the entities of loaded chunk "
+					+ TextUtils.getChunkString(chunkCoords), e);
+			return;
+		}
+		this.removeLeakedEntities(entities);
+	}
+
+	private void removeLeakedEntities(Collection<? extends @NonNull Entity> entities) {
+		for (Entity entity : entities) {
+			if (!ShopkeeperMetadata.hasPersistentMarker(entity)) continue;
+			// Skip currently spawned shopkeeper entities:
+			if (shopkeeperRegistry.getShopkeeperByEntity(entity) != null) continue;
+
+			Log.warning("Removing leaked shopkeeper entity " + entity.getType()
+					+ " at " + TextUtils.getLocationString(entity.getLocation()));
+			entity.remove();
+		}
+	}
+
+	private boolean containsLivingShopkeepers(ChunkCoords chunkCoords) {
+		Collection<? extends @NonNull AbstractShopkeeper> shopkeepers = shopkeeperRegistry
+				.getShopkeepersInChunk(chunkCoords);
+		for (AbstractShopkeeper shopkeeper : shopkeepers) {
+			if (shopkeeper.getShopObject() instanceof SKLivingShopObject) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
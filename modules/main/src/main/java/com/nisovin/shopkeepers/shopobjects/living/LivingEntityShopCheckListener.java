@@ -0,0 +1,73 @@
+package com.nisovin.shopkeepers.shopobjects.living;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityPortalEvent;
+import org.bukkit.event.entity.EntityTeleportEvent;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
+import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+
+/**
+ * Requests a {@link SKLivingShopObject#requestCheck() check} of shopkeeper entities that might
+ * have died or been moved.
+ * <p>
+ * Only registered if {@link com.nisovin.shopkeepers.config.Settings#eventDrivenShopObjectChecks}
+ * is enabled.
+ * <p>
+ * Shopkeeper entities are usually already protected by the {@link LivingEntityShopListener}. We
+ * only need to react to the events that nevertheless went through, for example because another
+ * plugin uncancelled them.
+ */
+class LivingEntityShopCheckListener implements Listener {
+
+	private final SKShopkeepersPlugin plugin;
+	private final SKShopkeeperRegistry shopkeeperRegistry;
+
+	LivingEntityShopCheckListener(SKShopkeepersPlugin plugin) {
+		this.plugin = plugin;
+		this.shopkeeperRegistry = plugin.getShopkeeperRegistry();
+	}
+
+	void onEnable() {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	void onDisable() {
+		HandlerList.unregisterAll(this);
+	}
+
+	private void requestCheck(Entity entity) {
+		AbstractShopkeeper shopkeeper = shopkeeperRegistry.getShopkeeperByEntity(entity);
+		if (shopkeeper == null) return;
+
+		// Ignores other types of entity shop objects, such as Citizens NPCs:
+		AbstractShopObject shopObject = shopkeeper.getShopObject();
+		if (shopObject instanceof SKLivingShopObject) {
+			((SKLivingShopObject<?>) shopObject).requestCheck();
+		}
+	}
+
+	// Shopkeeper entities are invulnerable, but can still be killed, for example via commands.
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onEntityDeath(EntityDeathEvent event) {
+		this.requestCheck(event.getEntity());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onEntityTeleport(EntityTeleportEvent event) {
+		this.requestCheck(event.getEntity());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onEntityPortalTeleport(EntityPortalEvent event) {
+		this.requestCheck(event.getEntity());
+	}
+}
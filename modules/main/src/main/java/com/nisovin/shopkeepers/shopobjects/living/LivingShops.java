@@ -14,6 +14,7 @@ import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
 import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+import com.nisovin.shopkeepers.shopobjects.ShopObjectCheckStatistics;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
 import com.nisovin.shopkeepers.util.logging.Log;
@@ -65,12 +66,17 @@ public class LivingShops {
 	);
 	private final LivingEntityAI livingEntityAI;
 	private final LivingEntityShopListener livingEntityShopListener;
+	private final LivingEntityShopCheckListener livingEntityShopCheckListener;
+	private final LeakedShopEntityListener leakedShopEntityListener;
 	private final CreatureForceSpawnListener creatureForceSpawnListener = new CreatureForceSpawnListener();
+	private final ShopObjectCheckStatistics checkStatistics = new ShopObjectCheckStatistics();
 
 	public LivingShops(SKShopkeepersPlugin plugin) {
 		this.plugin = plugin;
 		livingEntityAI = new LivingEntityAI(plugin);
 		livingEntityShopListener = new LivingEntityShopListener(plugin);
+		livingEntityShopCheckListener = new LivingEntityShopCheckListener(plugin);
+		leakedShopEntityListener = new LeakedShopEntityListener(plugin);
 	}
 
 	public void onRegisterDefaults() {
@@ -80,6 +86,12 @@ public class LivingShops {
 	public void onEnable() {
 		livingEntityAI.onEnable();
 		livingEntityShopListener.onEnable();
+		if (Settings.eventDrivenShopObjectChecks) {
+			livingEntityShopCheckListener.onEnable();
+		}
+		if (Settings.removeLeakedShopkeeperEntities) {
+			leakedShopEntityListener.onEnable();
+		}
 		// Register force-creature-spawn event handler:
 		if (Settings.bypassSpawnBlocking) {
 			Bukkit.getPluginManager().registerEvents(creatureForceSpawnListener, plugin);
@@ -88,12 +100,16 @@ public class LivingShops {
 
 	public void onDisable() {
 		livingEntityShopListener.onDisable();
+		livingEntityShopCheckListener.onDisable();
+		leakedShopEntityListener.onDisable();
 		HandlerList.unregisterAll(creatureForceSpawnListener);
 		// Reset force spawning:
 		creatureForceSpawnListener.forceCreatureSpawn(null, null);
 
 		// Stop living entity AI:
 		livingEntityAI.onDisable();
+
+		checkStatistics.reset();
 	}
 
 	public SKLivingShopObjectTypes getLivingShopObjectTypes() {
@@ -104,6 +120,10 @@ public class LivingShops {
 		return livingEntityAI;
 	}
 
+	public ShopObjectCheckStatistics getCheckStatistics() {
+		return checkStatistics;
+	}
+
 	// Bypassing creature spawn blocking plugins ('region protection' plugins):
 	void forceCreatureSpawn(Location location, EntityType entityType) {
 		if (Settings.bypassSpawnBlocking) {
@@ -36,6 +36,7 @@ import com.nisovin.shopkeepers.debug.events.DebugListener;
 import com.nisovin.shopkeepers.debug.events.EventDebugListener;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopobjects.ShopObjectCheckStatistics;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
 import com.nisovin.shopkeepers.shopobjects.ShopkeeperMetadata;
 import com.nisovin.shopkeepers.shopobjects.entity.AbstractEntityShopObject;
@@ -59,10 +60,16 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 	protected static final double SPAWN_LOCATION_RANGE = 2.0D;
 
 	protected static final int CHECK_PERIOD_SECONDS = 10;
+	// Safety check period if the entity is checked in reaction to events:
+	protected static final int EVENT_DRIVEN_CHECK_PERIOD_SECONDS = 60;
 	private static final CyclicCounter nextCheckingOffset = new CyclicCounter(
 			1,
 			CHECK_PERIOD_SECONDS + 1
 	);
+	private static final CyclicCounter nextEventDrivenCheckingOffset = new CyclicCounter(
+			1,
+			EVENT_DRIVEN_CHECK_PERIOD_SECONDS + 1
+	);
 	// If the entity could not be respawned this amount of times, we throttle its tick rate (i.e.
 	// the rate at which we attempt to respawn it):
 	protected static final int MAX_RESPAWN_ATTEMPTS = 5;
@@ -80,9 +87,13 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 	private static long lastSpawnDebugMillis = 0L;
 	private static final long SPAWN_DEBUG_THROTTLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
-	// Initial threshold between [1, CHECK_PERIOD_SECONDS] for load balancing:
-	private final int checkingOffset = nextCheckingOffset.getAndIncrement();
-	private final RateLimiter checkLimiter = new RateLimiter(CHECK_PERIOD_SECONDS, checkingOffset);
+	// Initial threshold between [1, default check period] for load balancing:
+	private final int checkingOffset = getNextCheckingOffset();
+	private final RateLimiter checkLimiter = new RateLimiter(
+			getDefaultCheckPeriodSeconds(),
+			checkingOffset
+	);
+	private boolean checkRequested = false;
 	private boolean skipRespawnAttemptsIfPeaceful = false;
 
 	protected SKLivingShopObject(
@@ -195,7 +206,10 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 		ShopkeeperMetadata.apply(entity);
 
 		// Don't save the entity to the world data:
+		// This also avoids that we need to despawn the entity during world saves.
 		entity.setPersistent(false);
+		// Allows us to detect the entity if it has nevertheless been saved with the world data:
+		ShopkeeperMetadata.applyPersistentMarker(entity);
 
 		// Apply name (if it has/uses one):
 		this.applyName(entity, shopkeeper.getName());
@@ -512,17 +526,47 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 
 	// TICKING
 
+	private static int getDefaultCheckPeriodSeconds() {
+		if (Settings.eventDrivenShopObjectChecks) {
+			return EVENT_DRIVEN_CHECK_PERIOD_SECONDS;
+		} else {
+			return CHECK_PERIOD_SECONDS;
+		}
+	}
+
+	// The offset is drawn from the active default check period, so that the checks are
+	// distributed across the whole period:
+	private static int getNextCheckingOffset() {
+		if (Settings.eventDrivenShopObjectChecks) {
+			return nextEventDrivenCheckingOffset.getAndIncrement();
+		} else {
+			return nextCheckingOffset.getAndIncrement();
+		}
+	}
+
+	/**
+	 * Requests the entity to be checked during the next tick, for example because an event
+	 * indicates that the entity might have died or been moved.
+	 */
+	public void requestCheck() {
+		checkRequested = true;
+	}
+
 	@Override
 	public void onTick() {
 		super.onTick();
-		if (checkLimiter.request()) {
+		// Note: The rate limiter is only updated if no check has been requested. This keeps the
+		// regular checks distributed across the ticks.
+		boolean eventTriggered = checkRequested;
+		if (eventTriggered || checkLimiter.request()) {
+			checkRequested = false;
 			if (this.isSpawningScheduled()) {
 				Log.debug(DebugOptions.regularTickActivities, () -> shopkeeper.getLogPrefix()
 						+ "Spawning is scheduled. Skipping entity check.");
 				return;
 			}
 
-			this.check();
+			this.check(eventTriggered);
 
 			// Indicate ticking activity for visualization:
 			this.indicateTickActivity();
@@ -541,15 +585,21 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 	}
 
 	private void resetTickRate() {
-		checkLimiter.setThreshold(CHECK_PERIOD_SECONDS);
+		checkLimiter.setThreshold(getDefaultCheckPeriodSeconds());
 		checkLimiter.setRemainingThreshold(checkingOffset);
 	}
 
-	private void check() {
+	private void check(boolean eventTriggered) {
+		ShopObjectCheckStatistics checkStatistics = livingShops.getCheckStatistics();
+		checkStatistics.onCheck(eventTriggered);
 		if (!this.isActive()) {
-			this.respawnInactiveEntity();
+			if (this.respawnInactiveEntity()) {
+				checkStatistics.onRepair(eventTriggered);
+			}
 		} else {
-			this.teleportBackIfMoved();
+			if (this.teleportBackIfMoved()) {
+				checkStatistics.onRepair(eventTriggered);
+			}
 			this.removePotionEffects();
 		}
 	}
@@ -628,7 +678,8 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 
 	// This is not only relevant when gravity is enabled, but also to react to other plugins
 	// teleporting shopkeeper entities around or enabling their AI again.
-	private void teleportBackIfMoved() {
+	// True if the entity was teleported back.
+	private boolean teleportBackIfMoved() {
 		assert this.isActive();
 		E entity = Unsafe.assertNonNull(this.entity);
 		// Note: Comparing the entity's current location with the last spawn location (instead of
@@ -665,8 +716,11 @@ public class SKLivingShopObject<E extends @NonNull LivingEntity>
 			this.lastSpawnLocation = spawnLocation;
 			entity.teleport(spawnLocation);
 			this.overwriteAI();
+			sharedLocation.setWorld(null); // Reset
+			return true;
 		}
 		sharedLocation.setWorld(null); // Reset
+		return false;
 	}
 
 	private void removePotionEffects() {
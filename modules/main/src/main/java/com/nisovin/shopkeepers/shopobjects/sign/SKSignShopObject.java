@@ -26,6 +26,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
 import com.nisovin.shopkeepers.api.shopobjects.sign.SignShopObject;
 import com.nisovin.shopkeepers.compat.MC_1_17;
 import com.nisovin.shopkeepers.compat.NMSManager;
+import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.debug.DebugOptions;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
@@ -33,6 +34,7 @@ import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.migration.Migration;
 import com.nisovin.shopkeepers.shopkeeper.migration.MigrationPhase;
 import com.nisovin.shopkeepers.shopkeeper.migration.ShopkeeperDataMigrator;
+import com.nisovin.shopkeepers.shopobjects.ShopObjectCheckStatistics;
 import com.nisovin.shopkeepers.shopobjects.ShopObjectData;
 import com.nisovin.shopkeepers.shopobjects.ShopkeeperMetadata;
 import com.nisovin.shopkeepers.shopobjects.block.AbstractBlockShopObject;
@@ -164,10 +166,16 @@ public class SKSignShopObject extends AbstractBlockShopObject implements SignSho
 	}
 
 	private static final int CHECK_PERIOD_SECONDS = 10;
+	// Safety check period if the sign is checked in reaction to events:
+	private static final int EVENT_DRIVEN_CHECK_PERIOD_SECONDS = 60;
 	private static final CyclicCounter nextCheckingOffset = new CyclicCounter(
 			1,
 			CHECK_PERIOD_SECONDS + 1
 	);
+	private static final CyclicCounter nextEventDrivenCheckingOffset = new CyclicCounter(
+			1,
+			EVENT_DRIVEN_CHECK_PERIOD_SECONDS + 1
+	);
 	private static final long RESPAWN_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(3);
 
 	protected final SignShops signShops;
@@ -185,11 +193,12 @@ public class SKSignShopObject extends AbstractBlockShopObject implements SignSho
 	private @Nullable Block block = null;
 	private long lastFailedRespawnAttemptMillis = 0;
 
-	// Initial threshold between [1, CHECK_PERIOD_SECONDS] for load balancing:
+	// Initial threshold between [1, check period] for load balancing:
 	private final RateLimiter checkLimiter = new RateLimiter(
-			CHECK_PERIOD_SECONDS,
-			nextCheckingOffset.getAndIncrement()
+			getCheckPeriodSeconds(),
+			getNextCheckingOffset()
 	);
+	private boolean checkRequested = false;
 
 	protected SKSignShopObject(
 			SignShops signShops,
@@ -411,12 +420,42 @@ public class SKSignShopObject extends AbstractBlockShopObject implements SignSho
 
 	// TICKING
 
+	private static int getCheckPeriodSeconds() {
+		if (Settings.eventDrivenShopObjectChecks) {
+			return EVENT_DRIVEN_CHECK_PERIOD_SECONDS;
+		} else {
+			return CHECK_PERIOD_SECONDS;
+		}
+	}
+
+	// The offset is drawn from the active check period, so that the checks are distributed across
+	// the whole period:
+	private static int getNextCheckingOffset() {
+		if (Settings.eventDrivenShopObjectChecks) {
+			return nextEventDrivenCheckingOffset.getAndIncrement();
+		} else {
+			return nextCheckingOffset.getAndIncrement();
+		}
+	}
+
+	/**
+	 * Requests the sign to be checked during the next tick, for example because an event indicates
+	 * that the sign might have been broken.
+	 */
+	public void requestCheck() {
+		checkRequested = true;
+	}
+
 	@Override
 	public void onTick() {
 		super.onTick();
-		if (!checkLimiter.request()) {
+		// Note: The rate limiter is only updated if no check has been requested. This keeps the
+		// regular checks distributed across the ticks.
+		boolean eventTriggered = checkRequested;
+		if (!eventTriggered && !checkLimiter.request()) {
 			return;
 		}
+		checkRequested = false;
 
 		if (this.isSpawningScheduled()) {
 			Log.debug(DebugOptions.regularTickActivities, () -> shopkeeper.getLogPrefix()
@@ -431,6 +470,9 @@ public class SKSignShopObject extends AbstractBlockShopObject implements SignSho
 		// despawned on chunk unload:
 		assert Unsafe.assertNonNull(shopkeeper.getChunkCoords()).isChunkLoaded();
 
+		ShopObjectCheckStatistics checkStatistics = signShops.getCheckStatistics();
+		checkStatistics.onCheck(eventTriggered);
+
 		if (!this.isActive()) {
 			Log.debug(() -> shopkeeper.getLocatedLogPrefix()
 					+ "Sign is missing! Attempting respawn.");
@@ -439,7 +481,9 @@ public class SKSignShopObject extends AbstractBlockShopObject implements SignSho
 			boolean success = this.spawn();
 			if (!success) {
 				Log.warning(shopkeeper.getLocatedLogPrefix() + "Sign could not be spawned!");
+				return;
 			}
+			checkStatistics.onRepair(eventTriggered);
 			return;
 		}
 	}
@@ -0,0 +1,141 @@
+package com.nisovin.shopkeepers.shopobjects.sign;
+
+import java.util.List;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+import com.nisovin.shopkeepers.util.bukkit.BlockFaceUtils;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+
+/**
+ * Requests a {@link SKSignShopObject#requestCheck() check} of sign shops that might have been
+ * affected by block changes.
+ * <p>
+ * Only registered if {@link com.nisovin.shopkeepers.config.Settings#eventDrivenShopObjectChecks}
+ * is enabled.
+ * <p>
+ * All handlers run at {@link EventPriority#MONITOR} and ignore cancelled events: Sign shops are
+ * usually already protected by the {@link SignShopListener}. We only need to react to the events
+ * that nevertheless went through, for example because another plugin uncancelled them.
+ */
+class SignShopCheckListener implements Listener {
+
+	// Local copy as array (enables a very high-performance iteration):
+	private static final @NonNull BlockFace[] BLOCK_SIDES = BlockFaceUtils.getBlockSides()
+			.toArray(new @NonNull BlockFace[0]);
+
+	private final SKShopkeepersPlugin plugin;
+	private final SKSignShopObjectType signShopObjectType;
+
+	SignShopCheckListener(SKShopkeepersPlugin plugin, SignShops signShops) {
+		this.plugin = plugin;
+		this.signShopObjectType = signShops.getSignShopObjectType();
+	}
+
+	void onEnable() {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	void onDisable() {
+		HandlerList.unregisterAll(this);
+	}
+
+	private void requestCheck(String worldName, int blockX, int blockY, int blockZ) {
+		AbstractShopkeeper shopkeeper = signShopObjectType.getShopkeeper(
+				worldName,
+				blockX,
+				blockY,
+				blockZ
+		);
+		if (shopkeeper == null) return;
+
+		AbstractShopObject shopObject = shopkeeper.getShopObject();
+		if (shopObject instanceof SKSignShopObject) {
+			((SKSignShopObject) shopObject).requestCheck();
+		}
+	}
+
+	// Requests a check of the sign shop at the given block, and of any sign shops that might be
+	// attached to the given block.
+	private void requestChecks(Block block) {
+		String worldName = block.getWorld().getName();
+		int blockX = block.getX();
+		int blockY = block.getY();
+		int blockZ = block.getZ();
+		this.requestCheck(worldName, blockX, blockY, blockZ);
+
+		// Note: We don't check whether the adjacent sign shops are actually attached to the given
+		// block. Requesting an unnecessary check is cheap.
+		for (BlockFace blockFace : BLOCK_SIDES) {
+			this.requestCheck(
+					worldName,
+					blockX + blockFace.getModX(),
+					blockY + blockFace.getModY(),
+					blockZ + blockFace.getModZ()
+			);
+		}
+	}
+
+	private void requestChecks(List<? extends @NonNull Block> blocks) {
+		for (Block block : blocks) {
+			this.requestChecks(block);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onBlockBreak(BlockBreakEvent event) {
+		this.requestChecks(event.getBlock());
+	}
+
+	// Block physics events are called very frequently. We therefore only check the block itself,
+	// and only if it is a sign.
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onBlockPhysics(BlockPhysicsEvent event) {
+		Block block = event.getBlock();
+		if (!ItemUtils.isSign(block.getType())) return;
+		this.requestCheck(block.getWorld().getName(), block.getX(), block.getY(), block.getZ());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onEntityExplosion(EntityExplodeEvent event) {
+		@NonNull List<@NonNull Block> blocks = Unsafe.cast(event.blockList());
+		this.requestChecks(blocks);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onBlockExplosion(BlockExplodeEvent event) {
+		@NonNull List<@NonNull Block> blocks = Unsafe.cast(event.blockList());
+		this.requestChecks(blocks);
+	}
+
+	// Signs are destroyed when they are moved by pistons, or when the block they are attached to is
+	// moved.
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onPistonExtend(BlockPistonExtendEvent event) {
+		@NonNull List<@NonNull Block> blocks = Unsafe.cast(event.getBlocks());
+		this.requestChecks(blocks);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	void onPistonRetract(BlockPistonRetractEvent event) {
+		@NonNull List<@NonNull Block> blocks = Unsafe.cast(event.getBlocks());
+		this.requestChecks(blocks);
+	}
+}
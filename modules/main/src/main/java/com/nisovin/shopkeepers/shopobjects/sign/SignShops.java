@@ -6,6 +6,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import com.nisovin.shopkeepers.SKShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.shopobjects.ShopObjectCheckStatistics;
 
 public class SignShops {
 
@@ -13,25 +14,39 @@ public class SignShops {
 			Unsafe.initialized(this)
 	);
 	private final SignShopListener signShopListener;
+	private final SignShopCheckListener signShopCheckListener;
+	private final ShopObjectCheckStatistics checkStatistics = new ShopObjectCheckStatistics();
 
 	public SignShops(SKShopkeepersPlugin plugin) {
 		this.signShopListener = new SignShopListener(plugin, Unsafe.initialized(this));
+		this.signShopCheckListener = new SignShopCheckListener(plugin, Unsafe.initialized(this));
 	}
 
 	public void onEnable() {
 		if (Settings.enableSignShops) {
 			signShopListener.onEnable();
 		}
+		// Note: Even if the creation of sign shops is disabled, there might still be existing sign
+		// shops that need to be checked.
+		if (Settings.eventDrivenShopObjectChecks) {
+			signShopCheckListener.onEnable();
+		}
 	}
 
 	public void onDisable() {
 		signShopListener.onDisable();
+		signShopCheckListener.onDisable();
+		checkStatistics.reset();
 	}
 
 	public SKSignShopObjectType getSignShopObjectType() {
 		return signShopObjectType;
 	}
 
+	public ShopObjectCheckStatistics getCheckStatistics() {
+		return checkStatistics;
+	}
+
 	void cancelNextBlockPhysics(@Nullable Block block) {
 		signShopListener.cancelNextBlockPhysics(block);
 	}
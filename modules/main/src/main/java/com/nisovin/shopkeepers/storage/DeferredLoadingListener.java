@@ -0,0 +1,37 @@
+package com.nisovin.shopkeepers.storage;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Loads the shopkeepers whose loading has been deferred until their world is loaded.
+ */
+class DeferredLoadingListener implements Listener {
+
+	private final Plugin plugin;
+	private final SKShopkeeperStorage storage;
+
+	DeferredLoadingListener(Plugin plugin, SKShopkeeperStorage storage) {
+		this.plugin = plugin;
+		this.storage = storage;
+	}
+
+	void onEnable() {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	void onDisable() {
+		HandlerList.unregisterAll(this);
+	}
+
+	// Runs before the shopkeepers of the world are activated.
+	@EventHandler(priority = EventPriority.LOWEST)
+	void onWorldLoad(WorldLoadEvent event) {
+		storage.loadDeferredShopkeepers(event.getWorld().getName());
+	}
+}
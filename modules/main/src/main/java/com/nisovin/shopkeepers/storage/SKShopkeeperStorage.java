@@ -5,8 +5,11 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -28,6 +31,7 @@ import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperRegistry;
 import com.nisovin.shopkeepers.api.storage.ShopkeeperStorage;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.config.Settings.DerivedSettings;
+import com.nisovin.shopkeepers.debug.watchdog.SlowOperationWatchdog.Operation;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
 import com.nisovin.shopkeepers.shopkeeper.registry.SKShopkeeperRegistry;
@@ -47,6 +51,7 @@ import com.nisovin.shopkeepers.util.java.ThrowableUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.java.VoidCallable;
 import com.nisovin.shopkeepers.util.logging.Log;
+import com.nisovin.shopkeepers.util.timer.LatencyHistogram;
 
 /**
  * Storage responsible for persisting and loading the data of shopkeepers.
@@ -71,6 +76,7 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 	private static final String DATA_FOLDER = "data";
 	private static final String SAVE_FILE_NAME = "save.yml";
 	private static final String TEMP_SAVE_FILE_NAME = SAVE_FILE_NAME + ".tmp";
+	private static final String SNAPSHOTS_FOLDER = "snapshots";
 
 	private static final String DATA_VERSION_KEY = "data-version";
 
@@ -89,6 +95,7 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 
 	private final Path saveFile;
 	private final Path tempSaveFile;
+	private final ShopkeeperSnapshotDataStore snapshotDataStore;
 
 	/* Data */
 	/*
@@ -123,6 +130,12 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 
 	/* Loading */
 	private boolean currentlyLoading = false;
+	// The keys of the shopkeepers whose loading has been deferred until their world is loaded, by
+	// world name. Their data is retained inside the saveData in the meantime.
+	private final Map<@NonNull String, @NonNull List<@NonNull String>> deferredShopkeepers = new HashMap<>();
+	// Whether the deferred shopkeepers are marked as dirty once they are loaded.
+	private boolean forceSaveDeferredShopkeepers = false;
+	private final DeferredLoadingListener deferredLoadingListener;
 
 	/* Saving */
 	private final SaveTask saveTask;
@@ -137,7 +150,14 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		this.plugin = plugin;
 		this.saveFile = Unsafe.initialized(this)._getSaveFile();
 		this.tempSaveFile = Unsafe.initialized(this)._getTempSaveFile();
+		this.snapshotDataStore = new ShopkeeperSnapshotDataStore(Unsafe.assertNonNull(
+				Unsafe.initialized(this)._getDataFolder().resolve(SNAPSHOTS_FOLDER)
+		));
 		this.saveTask = new SaveTask(plugin);
+		this.deferredLoadingListener = new DeferredLoadingListener(
+				plugin,
+				Unsafe.initialized(this)
+		);
 	}
 
 	private Path getPluginDataFolder() {
@@ -156,6 +176,15 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		return Unsafe.assertNonNull(this._getSaveFile().resolveSibling(TEMP_SAVE_FILE_NAME));
 	}
 
+	/**
+	 * Gets the {@link ShopkeeperSnapshotDataStore} that stores the data of shopkeeper snapshots.
+	 * 
+	 * @return the snapshot data store, not <code>null</code>
+	 */
+	public ShopkeeperSnapshotDataStore getSnapshotDataStore() {
+		return snapshotDataStore;
+	}
+
 	// Gets the path relative to the plugin data folder.
 	private Path pluginDataRelative(Path path) {
 		return Unsafe.assertNonNull(this.getPluginDataFolder().relativize(path));
@@ -166,6 +195,10 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		if (!Settings.saveInstantly) {
 			new PeriodicSaveTask().start();
 		}
+
+		if (Settings.deferLoadingOfShopkeepersInUnloadedWorlds) {
+			deferredLoadingListener.onEnable();
+		}
 	}
 
 	public void onDisable() {
@@ -191,6 +224,8 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 					+ saveTask.isExecutionPending() + ")!");
 		}
 
+		deferredLoadingListener.onDisable();
+
 		// Reset a few things:
 		saveTask.onDisable();
 		this.clearSaveData();
@@ -341,6 +376,8 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		saveData.clear();
 		maxUsedShopkeeperId = 0;
 		nextShopkeeperId = 1;
+		deferredShopkeepers.clear();
+		forceSaveDeferredShopkeepers = false;
 	}
 
 	// We previously stored the save file within the plugin's root folder. If no save file exist at
@@ -415,9 +452,38 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		} finally {
 			currentlyLoading = false;
 		}
+
+		if (result) {
+			this.deleteUnreferencedSnapshotData();
+		}
 		return result;
 	}
 
+	// Deletes the snapshot data files that are no longer referenced by the loaded save data.
+	private void deleteUnreferencedSnapshotData() {
+		// The save data still contains the data of all shopkeepers, including the shopkeepers that
+		// could not be loaded or whose loading has been deferred:
+		Set<@NonNull String> referencedDataIds = new HashSet<>();
+		for (String key : saveData.getKeys()) {
+			if (key.equals(DATA_VERSION_KEY)) continue; // Skip the data version entry
+
+			DataContainer shopkeeperData = saveData.getContainer(key);
+			if (shopkeeperData == null) continue;
+			AbstractShopkeeper.collectSnapshotDataIds(shopkeeperData, referencedDataIds);
+		}
+
+		SchedulerUtils.runAsyncTaskOrOmit(plugin, () -> {
+			try {
+				int deleted = snapshotDataStore.deleteUnreferencedData(referencedDataIds);
+				if (deleted > 0) {
+					Log.info("Deleted " + deleted + " unreferenced snapshot data files.");
+				}
+			} catch (IOException e) {
+				Log.warning("Failed to delete unreferenced snapshot data files!", e);
+			}
+		});
+	}
+
 	// TODO Move parts of this into the ShopkeeperRegistry (resolves the currently existing cyclic
 	// dependency between the storage and the registry).
 	// Returns true on success, and false if there was some severe issue during loading.
@@ -548,6 +614,7 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			this.requestSave();
 		}
 
+		forceSaveDeferredShopkeepers = forceSaveAllShopkeepers;
 		for (String key : keys) {
 			if (key.equals(DATA_VERSION_KEY)) continue; // Skip the data version entry
 
@@ -558,11 +625,78 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			// immediately look into. However, we do not abort the enabling of the plugin if
 			// individual shopkeepers cannot be loaded, because this would disable the protection of
 			// all player shop containers on the server (which is even worse).
-			this.loadShopkeeper(key, forceSaveAllShopkeepers);
+			this.loadShopkeeper(key, forceSaveAllShopkeepers, true);
+		}
+
+		if (!deferredShopkeepers.isEmpty()) {
+			Log.info("Deferred the loading of " + this.getDeferredShopkeepersCount()
+					+ " shopkeepers in " + deferredShopkeepers.size() + " unloaded worlds.");
 		}
 		return true;
 	}
 
+	/**
+	 * Gets the number of shopkeepers whose loading has been deferred until their world is loaded.
+	 * 
+	 * @return the number of deferred shopkeepers
+	 */
+	public int getDeferredShopkeepersCount() {
+		int count = 0;
+		for (List<? extends @NonNull String> keys : deferredShopkeepers.values()) {
+			count += keys.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Gets a histogram of the durations of the completed saves, including the time spent on the
+	 * asynchronous writing of the save file.
+	 * 
+	 * @return a copy of the histogram of the save durations
+	 */
+	public LatencyHistogram getSaveDurationHistogram() {
+		return saveTask.getTotalDurationHistogram();
+	}
+
+	/**
+	 * Loads the shopkeepers whose loading has been deferred until the specified world is loaded.
+	 * 
+	 * @param worldName
+	 *            the world name
+	 */
+	void loadDeferredShopkeepers(String worldName) {
+		List<? extends @NonNull String> keys = deferredShopkeepers.remove(worldName);
+		if (keys == null) return;
+
+		Log.info("Loading " + keys.size() + " shopkeepers of world '" + worldName + "' ...");
+		for (String key : keys) {
+			// The data might have been removed in the meantime (e.g. if the id became invalid):
+			if (!saveData.contains(key)) continue;
+			this.loadShopkeeper(key, forceSaveDeferredShopkeepers, false);
+		}
+
+		// Save all updated shopkeeper data (e.g. after data migrations):
+		this.saveIfDirty();
+	}
+
+	// Returns true if the loading of the shopkeeper has been deferred until its world is loaded.
+	private boolean deferLoadingIfWorldNotLoaded(String key, ShopkeeperData shopkeeperData) {
+		if (!Settings.deferLoadingOfShopkeepersInUnloadedWorlds) return false;
+
+		String worldName;
+		try {
+			worldName = shopkeeperData.get(AbstractShopkeeper.WORLD_NAME);
+		} catch (InvalidDataException e) {
+			// Let the regular loading report the issue:
+			return false;
+		}
+		if (worldName == null) return false; // Virtual shopkeeper
+		if (Bukkit.getWorld(worldName) != null) return false; // World is loaded
+
+		deferredShopkeepers.computeIfAbsent(worldName, k -> new ArrayList<>()).add(key);
+		return true;
+	}
+
 	private @Nullable ShopkeeperData getShopkeeperData(int shopkeeperId) {
 		DataContainer shopkeeperDataContainer = saveData.getContainer(String.valueOf(shopkeeperId));
 		if (shopkeeperDataContainer == null) {
@@ -583,7 +717,9 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 		return shopkeeperData;
 	}
 
-	private void loadShopkeeper(String key, boolean forceSave) {
+	// allowDeferral: Whether the loading of the shopkeeper can be deferred if its world is not
+	// loaded currently.
+	private void loadShopkeeper(String key, boolean forceSave, boolean allowDeferral) {
 		Integer idInt = ConversionUtils.parseInt(key);
 		if (idInt == null || idInt <= 0) {
 			this.failedToLoadShopkeeper(key, "Invalid id: " + key);
@@ -601,6 +737,10 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			return;
 		}
 
+		if (allowDeferral && this.deferLoadingIfWorldNotLoaded(key, shopkeeperData)) {
+			return;
+		}
+
 		// Perform data migrations:
 		boolean migrated;
 		try {
@@ -909,6 +1049,19 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 
 		@Override
 		protected void prepare() {
+			Operation watchdogOperation = plugin.getSlowOperationWatchdog().start(
+					"Save preparation",
+					() -> savingDirtyShopkeepers.size() + " dirty shopkeepers, "
+							+ failedToSave.size() + " failed"
+			);
+			try {
+				this.doPrepare();
+			} finally {
+				watchdogOperation.stop();
+			}
+		}
+
+		private void doPrepare() {
 			// Stop any active delayed save task:
 			if (delayedSaveTask != null) {
 				delayedSaveTask.cancel();
@@ -945,7 +1098,7 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 			// This replaces the previous shopkeeper data:
 			ShopkeeperData newData = ShopkeeperData.ofNonNull(saveData.createContainer(key));
 			try {
-				shopkeeper.save(newData, false); // May reference externally stored data
+				shopkeeper.saveForStorage(newData);
 			} catch (Exception e) {
 				// Error while saving shopkeeper data:
 				// Restore previous shopkeeper data and then skip this shopkeeper.
@@ -992,6 +1145,8 @@ public class SKShopkeeperStorage implements ShopkeeperStorage {
 				}
 
 				Retry.retry((VoidCallable) () -> {
+					// The snapshot data referenced by the save data needs to be written first:
+					this.wrapException(() -> snapshotDataStore.writePendingData());
 					this.doSaveToFile(data);
 				}, SAVING_MAX_ATTEMPTS, (attemptNumber, exception, retry) -> {
 					// Saving failed:
@@ -0,0 +1,327 @@
+package com.nisovin.shopkeepers.storage;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.shopkeeper.SKShopkeeperSnapshot;
+import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
+import com.nisovin.shopkeepers.util.data.persistence.InvalidDataFormatException;
+import com.nisovin.shopkeepers.util.data.persistence.bukkit.BukkitConfigDataStore;
+import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
+import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Stores the shopkeeper data of {@link SKShopkeeperSnapshot}s separately from the main save file.
+ * <p>
+ * Each snapshot's shopkeeper data is stored in its own file, named after the SHA-256 hash of its
+ * serialized contents. Snapshots with identical data therefore share the same file, and the main
+ * save file only needs to store the hashes of the snapshot data.
+ * <p>
+ * Newly stored data is only written to disk with the next save of the shopkeeper storage, before
+ * the save file that references the data is written. Stored data files are never modified
+ * afterwards. Data files that are no longer referenced by the save file, for example because their
+ * snapshots or shopkeepers have been deleted, are deleted after the next plugin start.
+ * <p>
+ * The data files are always encoded in UTF-8, regardless of the configured file encoding.
+ */
+public class ShopkeeperSnapshotDataStore {
+
+	private static final String FILE_EXTENSION = ".yml";
+	private static final String TEMP_FILE_EXTENSION = FILE_EXTENSION + ".tmp";
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	private final Path directory;
+	// Data id -> Serialized data that still needs to be written to disk.
+	// Accessed by the main thread and by async saves.
+	private final Map<@NonNull String, @NonNull String> pendingData = new ConcurrentHashMap<>();
+	// The ids of the data that is known to have been written to disk already.
+	private final Set<@NonNull String> writtenData = ConcurrentHashMap.newKeySet();
+	// Synchronizes the writing of data files with the deletion of unreferenced data files.
+	private final Object fileLock = new Object();
+
+	ShopkeeperSnapshotDataStore(Path directory) {
+		Validate.notNull(directory, "directory is null");
+		this.directory = directory;
+	}
+
+	private Path getFile(String dataId) {
+		return Unsafe.assertNonNull(directory.resolve(dataId + FILE_EXTENSION));
+	}
+
+	private Path getTempFile(String dataId) {
+		return Unsafe.assertNonNull(directory.resolve(dataId + TEMP_FILE_EXTENSION));
+	}
+
+	private static String getDataId(String serializedData) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform is required to support SHA-256.
+			throw new IllegalStateException("SHA-256 is not supported!", e);
+		}
+		byte[] hash = digest.digest(serializedData.getBytes(CHARSET));
+		StringBuilder dataId = new StringBuilder(hash.length * 2);
+		for (byte b : hash) {
+			dataId.append(Character.forDigit((b >> 4) & 0xF, 16));
+			dataId.append(Character.forDigit(b & 0xF, 16));
+		}
+		return dataId.toString();
+	}
+
+	/**
+	 * Stores the given shopkeeper data.
+	 * <p>
+	 * The data is written to disk with the next save of the shopkeeper storage.
+	 * 
+	 * @param shopkeeperData
+	 *            the shopkeeper data, not <code>null</code>
+	 * @return the id by which the data can be {@link #load(String) loaded} again, not
+	 *         <code>null</code>
+	 */
+	public String store(ShopkeeperData shopkeeperData) {
+		Validate.notNull(shopkeeperData, "shopkeeperData is null");
+		BukkitConfigDataStore dataStore = BukkitConfigDataStore.ofNewYamlConfig();
+		dataStore.setAll(shopkeeperData.getValues());
+		String serializedData = dataStore.saveToString();
+		String dataId = getDataId(serializedData);
+		if (!writtenData.contains(dataId)) {
+			pendingData.putIfAbsent(dataId, serializedData);
+		}
+		return dataId;
+	}
+
+	/**
+	 * Loads the shopkeeper data with the given id.
+	 * <p>
+	 * This reads the data file synchronously. Prefer {@link #loadAsync(Plugin, String)} when
+	 * possible.
+	 * <p>
+	 * This does not apply any data migrations.
+	 * 
+	 * @param dataId
+	 *            the data id, not <code>null</code>
+	 * @return the loaded shopkeeper data, not <code>null</code>
+	 * @throws InvalidDataException
+	 *             if the data cannot be found or loaded
+	 */
+	public ShopkeeperData load(String dataId) throws InvalidDataException {
+		Validate.notNull(dataId, "dataId is null");
+		String serializedData = pendingData.get(dataId);
+		if (serializedData == null) {
+			serializedData = this.readData(dataId);
+		}
+		return parseData(dataId, serializedData);
+	}
+
+	/**
+	 * Loads the shopkeeper data with the given id.
+	 * <p>
+	 * The data file is read asynchronously, and the data is then parsed on the server's main
+	 * thread. The returned future is completed on the main thread, or not at all if the plugin is
+	 * disabled in the meantime.
+	 * <p>
+	 * This does not apply any data migrations.
+	 * 
+	 * @param plugin
+	 *            the plugin, not <code>null</code>
+	 * @param dataId
+	 *            the data id, not <code>null</code>
+	 * @return a future that provides the loaded shopkeeper data, or fails with an
+	 *         {@link InvalidDataException} if the data cannot be found or loaded
+	 */
+	public CompletableFuture<@NonNull ShopkeeperData> loadAsync(Plugin plugin, String dataId) {
+		Validate.notNull(plugin, "plugin is null");
+		Validate.notNull(dataId, "dataId is null");
+		CompletableFuture<@NonNull ShopkeeperData> future = new CompletableFuture<>();
+		String pendingSerializedData = pendingData.get(dataId);
+		if (pendingSerializedData != null) {
+			this.completeLoad(future, dataId, pendingSerializedData);
+			return future;
+		}
+
+		SchedulerUtils.runAsyncTaskOrOmit(plugin, () -> {
+			String serializedData;
+			try {
+				serializedData = this.readData(dataId);
+			} catch (InvalidDataException e) {
+				SchedulerUtils.runTaskOrOmit(plugin, () -> future.completeExceptionally(e));
+				return;
+			}
+			// Bukkit deserializes items during the parsing of the data, so we parse the data on
+			// the main thread:
+			SchedulerUtils.runTaskOrOmit(plugin, () -> {
+				this.completeLoad(future, dataId, serializedData);
+			});
+		});
+		return future;
+	}
+
+	private void completeLoad(
+			CompletableFuture<@NonNull ShopkeeperData> future,
+			String dataId,
+			String serializedData
+	) {
+		try {
+			future.complete(parseData(dataId, serializedData));
+		} catch (InvalidDataException e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	private String readData(String dataId) throws InvalidDataException {
+		Path file = this.getFile(dataId);
+		if (!Files.exists(file)) {
+			throw new InvalidDataException("Missing snapshot data file: " + file);
+		}
+		try {
+			return new String(Files.readAllBytes(file), CHARSET);
+		} catch (IOException e) {
+			throw new InvalidDataException("Failed to read snapshot data " + dataId + ": "
+					+ e.getMessage(), e);
+		}
+	}
+
+	private static ShopkeeperData parseData(
+			String dataId,
+			String serializedData
+	) throws InvalidDataException {
+		BukkitConfigDataStore dataStore = BukkitConfigDataStore.ofNewYamlConfig();
+		try {
+			dataStore.loadFromString(serializedData);
+		} catch (InvalidDataFormatException e) {
+			throw new InvalidDataException("Failed to load snapshot data " + dataId + ": "
+					+ e.getMessage(), e);
+		}
+		return ShopkeeperData.ofNonNull(dataStore);
+	}
+
+	/**
+	 * Writes all stored data that has not yet been written to disk.
+	 * <p>
+	 * This can be called asynchronously.
+	 * 
+	 * @throws IOException
+	 *             if the data could not be written
+	 */
+	void writePendingData() throws IOException {
+		if (pendingData.isEmpty()) return;
+
+		FileUtils.createDirectories(directory);
+		for (Entry<@NonNull String, @NonNull String> entry : pendingData.entrySet()) {
+			String dataId = entry.getKey();
+			String serializedData = entry.getValue();
+			Path file = this.getFile(dataId);
+			synchronized (fileLock) {
+				if (!Files.exists(file)) {
+					Path tempFile = this.getTempFile(dataId);
+					try (Writer writer = Files.newBufferedWriter(tempFile, CHARSET)) {
+						writer.write(serializedData);
+					}
+					FileUtils.fsync(tempFile);
+					FileUtils.moveFile(tempFile, file, Log.getLogger());
+					FileUtils.fsyncParentDirectory(file);
+				}
+				// Marked as written before it is removed from the pending data, so that the data
+				// file is not considered unreferenced in the meantime:
+				writtenData.add(dataId);
+				pendingData.remove(dataId, serializedData);
+			}
+		}
+	}
+
+	/**
+	 * Deletes all data files that are not referenced by the given data ids, and that have also not
+	 * been stored since the creation of this data store.
+	 * <p>
+	 * This also deletes any temporary data files that were left behind by writes that did not
+	 * complete, for example because the server crashed.
+	 * <p>
+	 * This is meant to be called once after the save file has been loaded, with the ids of all the
+	 * snapshot data that is referenced by the save file. The snapshots that are removed afterwards
+	 * may still be referenced by the API (e.g. when they are added to another shopkeeper again).
+	 * Their data files are therefore only deleted after the next plugin start.
+	 * <p>
+	 * This can be called asynchronously.
+	 * 
+	 * @param referencedDataIds
+	 *            the ids of the data that is still referenced, not <code>null</code>
+	 * @return the number of deleted data files, including temporary files
+	 * @throws IOException
+	 *             if the data files could not be listed or deleted
+	 */
+	int deleteUnreferencedData(
+			Set<? extends @NonNull String> referencedDataIds
+	) throws IOException {
+		Validate.notNull(referencedDataIds, "referencedDataIds is null");
+		if (!Files.isDirectory(directory)) return 0;
+
+		int deleted = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				if (isTempFile(file)) {
+					// The temporary files only exist while the data file is written, which happens
+					// while holding the file lock:
+					synchronized (fileLock) {
+						if (Files.deleteIfExists(file)) {
+							deleted++;
+						}
+					}
+					continue;
+				}
+
+				String dataId = getDataIdFromFile(file);
+				if (dataId == null) continue; // Not a data file
+				if (referencedDataIds.contains(dataId)) continue;
+
+				synchronized (fileLock) {
+					// Checked in this order, because the data is marked as written before it is
+					// removed from the pending data:
+					if (pendingData.containsKey(dataId)) continue;
+					if (writtenData.contains(dataId)) continue;
+					if (Files.deleteIfExists(file)) {
+						deleted++;
+					}
+				}
+			}
+		}
+		return deleted;
+	}
+
+	private static boolean isTempFile(@Nullable Path file) {
+		if (file == null) return false;
+		Path fileName = file.getFileName();
+		if (fileName == null) return false;
+		return fileName.toString().endsWith(TEMP_FILE_EXTENSION);
+	}
+
+	// Returns null if the given file is not a data file.
+	private static @Nullable String getDataIdFromFile(@Nullable Path file) {
+		if (file == null) return null;
+		Path fileName = file.getFileName();
+		if (fileName == null) return null;
+		String fileNameString = fileName.toString();
+		if (!fileNameString.endsWith(FILE_EXTENSION)) return null;
+		return fileNameString.substring(0, fileNameString.length() - FILE_EXTENSION.length());
+	}
+}
@@ -18,6 +18,7 @@ import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.tradelog.csv.CsvTradeLogger;
 import com.nisovin.shopkeepers.tradelog.data.TradeRecord;
 import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.timer.LatencyHistogram;
 import com.nisovin.shopkeepers.util.trading.MergedTrades;
 import com.nisovin.shopkeepers.util.trading.TradeMerger;
 import com.nisovin.shopkeepers.util.trading.TradeMerger.MergeMode;
@@ -78,6 +79,22 @@ public class TradeLoggers implements Listener {
 		loggers.clear();
 	}
 
+	/**
+	 * Gets a histogram of the save durations of all active trade loggers that save their trade
+	 * records asynchronously.
+	 * 
+	 * @return the combined histogram of the save durations
+	 */
+	public LatencyHistogram getSaveDurationHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (TradeLogger logger : loggers) {
+			if (logger instanceof CsvTradeLogger) {
+				histogram.add(((CsvTradeLogger) logger).getSaveDurationHistogram());
+			}
+		}
+		return histogram;
+	}
+
 	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
 	void onTradeCompleted(ShopkeeperTradeEvent event) {
 		if (loggers.isEmpty()) return; // Nothing to log
@@ -45,6 +45,7 @@ import com.nisovin.shopkeepers.util.java.ThrowableUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.java.VoidCallable;
 import com.nisovin.shopkeepers.util.logging.Log;
+import com.nisovin.shopkeepers.util.timer.LatencyHistogram;
 import com.nisovin.shopkeepers.util.yaml.YamlUtils;
 
 /**
@@ -133,6 +134,15 @@ public class CsvTradeLogger implements TradeLogger {
 		saveTask.awaitExecutions();
 	}
 
+	/**
+	 * Gets a histogram of the durations of the completed writes of trade records to the CSV files.
+	 * 
+	 * @return a copy of the histogram of the save durations
+	 */
+	public LatencyHistogram getSaveDurationHistogram() {
+		return saveTask.getTotalDurationHistogram();
+	}
+
 	private boolean isDirty() {
 		return !pending.isEmpty();
 	}
@@ -27,6 +27,7 @@ import com.nisovin.shopkeepers.api.ui.UIType;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.types.AbstractTypeRegistry;
 import com.nisovin.shopkeepers.ui.state.UIState;
+import com.nisovin.shopkeepers.ui.trading.TradingUIRefresher;
 import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
 import com.nisovin.shopkeepers.util.java.Validate;
 import com.nisovin.shopkeepers.util.logging.Log;
@@ -42,23 +43,35 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 	private final Collection<? extends @NonNull SKUISession> uiSessionsView = Collections.unmodifiableCollection(
 			uiSessions.values()
 	);
+	// Shopkeeper -> UI sessions
+	// Avoids having to iterate all UI sessions when looking up the UI sessions of a shopkeeper.
+	private final Map<@NonNull Shopkeeper, @NonNull List<@NonNull SKUISession>> uiSessionsByShopkeeper = new HashMap<>();
+
+	private final TradingUIRefresher tradingUIRefresher;
 
 	public SKUIRegistry(ShopkeepersPlugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
 		this.plugin = plugin;
 		this.uiListener = new UIListener(plugin, Unsafe.initialized(this));
+		this.tradingUIRefresher = new TradingUIRefresher(plugin, Unsafe.initialized(this));
 	}
 
 	public void onEnable() {
 		uiListener.onEnable();
+		tradingUIRefresher.onEnable();
 	}
 
 	public void onDisable() {
 		// Close all open UIs:
 		this.abortUISessions();
+		tradingUIRefresher.onDisable();
 		uiListener.onDisable();
 	}
 
+	public TradingUIRefresher getTradingUIRefresher() {
+		return tradingUIRefresher;
+	}
+
 	@Override
 	protected String getTypeName() {
 		return "UI type";
@@ -174,6 +187,10 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 		// Start a new UI session:
 		SKUISession session = new SKUISession(uiHandler, player, shopkeeper);
 		uiSessions.put(player.getUniqueId(), session);
+		if (shopkeeper != null) {
+			uiSessionsByShopkeeper.computeIfAbsent(shopkeeper, key -> new ArrayList<>(1))
+					.add(session);
+		}
 		this.onSessionStarted(session);
 
 		// Open the new UI:
@@ -194,14 +211,24 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 
 	@Override
 	public Collection<? extends @NonNull SKUISession> getUISessions(Shopkeeper shopkeeper) {
+		return new ArrayList<>(this.getUISessionsView(shopkeeper));
+	}
+
+	/**
+	 * Gets an unmodifiable view on the UI sessions of the given shopkeeper.
+	 * <p>
+	 * Unlike {@link #getUISessions(Shopkeeper)}, this does not copy the UI sessions. The returned
+	 * view must therefore not be iterated while UI sessions might be started or ended.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 * @return an unmodifiable view on the UI sessions of the shopkeeper, not <code>null</code>
+	 */
+	public Collection<? extends @NonNull SKUISession> getUISessionsView(Shopkeeper shopkeeper) {
 		Validate.notNull(shopkeeper, "shopkeeper is null");
-		List<@NonNull SKUISession> sessions = new ArrayList<>();
-		uiSessionsView.forEach(uiSession -> {
-			if (uiSession.getShopkeeper() == shopkeeper) {
-				sessions.add(uiSession);
-			}
-		});
-		return sessions;
+		List<@NonNull SKUISession> sessions = uiSessionsByShopkeeper.get(shopkeeper);
+		if (sessions == null) return Collections.emptyList();
+		return Collections.unmodifiableList(sessions);
 	}
 
 	@Override
@@ -212,8 +239,8 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 		Validate.notNull(shopkeeper, "shopkeeper is null");
 		Validate.notNull(uiType, "uiType is null");
 		List<@NonNull SKUISession> sessions = new ArrayList<>();
-		uiSessionsView.forEach(uiSession -> {
-			if (uiSession.getShopkeeper() == shopkeeper && uiSession.getUIType() == uiType) {
+		this.getUISessionsView(shopkeeper).forEach(uiSession -> {
+			if (uiSession.getUIType() == uiType) {
 				sessions.add(uiSession);
 			}
 		});
@@ -265,6 +292,17 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 		SKUISession session = uiSessions.remove(player.getUniqueId());
 		if (session == null) return;
 
+		AbstractShopkeeper shopkeeper = session.getShopkeeper();
+		if (shopkeeper != null) {
+			List<@NonNull SKUISession> shopkeeperSessions = uiSessionsByShopkeeper.get(shopkeeper);
+			if (shopkeeperSessions != null) {
+				shopkeeperSessions.remove(session);
+				if (shopkeeperSessions.isEmpty()) {
+					uiSessionsByShopkeeper.remove(shopkeeper);
+				}
+			}
+		}
+
 		this.onSessionEnded(session, closeEvent);
 	}
 
@@ -320,10 +358,6 @@ public class SKUIRegistry extends AbstractTypeRegistry<@NonNull AbstractUIType>
 
 	private void deactivateUIs(Shopkeeper shopkeeper) {
 		assert shopkeeper != null;
-		uiSessionsView.forEach(uiSession -> {
-			if (uiSession.getShopkeeper() == shopkeeper) {
-				uiSession.deactivateUI();
-			}
-		});
+		this.getUISessionsView(shopkeeper).forEach(SKUISession::deactivateUI);
 	}
 }
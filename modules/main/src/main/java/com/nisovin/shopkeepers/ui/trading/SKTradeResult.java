@@ -0,0 +1,71 @@
+package com.nisovin.shopkeepers.ui.trading;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.shopkeeper.TradeResult;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+public final class SKTradeResult implements TradeResult {
+
+	private final int requestedTrades;
+	private final int completedTrades;
+	private final @Nullable AbortReason abortReason;
+
+	/**
+	 * Creates a new {@link SKTradeResult}.
+	 * 
+	 * @param requestedTrades
+	 *            the number of requested trades
+	 * @param completedTrades
+	 *            the number of completed trades
+	 * @param abortReason
+	 *            the abort reason, or <code>null</code> if all requested trades were completed
+	 */
+	public SKTradeResult(
+			int requestedTrades,
+			int completedTrades,
+			@Nullable AbortReason abortReason
+	) {
+		Validate.isTrue(completedTrades >= 0, "completedTrades is negative");
+		Validate.isTrue(completedTrades <= requestedTrades,
+				"completedTrades is greater than requestedTrades");
+		Validate.isTrue((abortReason == null) == (completedTrades == requestedTrades),
+				"abortReason has to be null if and only if all requested trades were completed");
+		this.requestedTrades = requestedTrades;
+		this.completedTrades = completedTrades;
+		this.abortReason = abortReason;
+	}
+
+	@Override
+	public int getRequestedTrades() {
+		return requestedTrades;
+	}
+
+	@Override
+	public int getCompletedTrades() {
+		return completedTrades;
+	}
+
+	@Override
+	public boolean isComplete() {
+		return (abortReason == null);
+	}
+
+	@Override
+	public @Nullable AbortReason getAbortReason() {
+		return abortReason;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("SKTradeResult [requestedTrades=");
+		builder.append(requestedTrades);
+		builder.append(", completedTrades=");
+		builder.append(completedTrades);
+		builder.append(", abortReason=");
+		builder.append(abortReason);
+		builder.append("]");
+		return builder.toString();
+	}
+}
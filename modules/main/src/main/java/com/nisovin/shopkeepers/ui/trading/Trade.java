@@ -87,6 +87,7 @@ public final class Trade {
 	 * Do not modify this event or any of the involved items! The event has to be kept cancelled!
 	 * 
 	 * @return the inventory click event, not <code>null</code>
+	 * @see TradingContext#isSimulated()
 	 */
 	public InventoryClickEvent getInventoryClickEvent() {
 		return tradingContext.getInventoryClickEvent();
@@ -95,9 +96,10 @@ public final class Trade {
 	/**
 	 * Gets the involved {@link MerchantInventory}.
 	 * 
-	 * @return the merchant inventory, not <code>null</code>
+	 * @return the merchant inventory, or <code>null</code> if the trading context is
+	 *         {@link TradingContext#isSimulated() simulated}
 	 */
-	public MerchantInventory getMerchantInventory() {
+	public @Nullable MerchantInventory getMerchantInventory() {
 		return tradingContext.getMerchantInventory();
 	}
 
@@ -154,7 +156,8 @@ public final class Trade {
 	 * being disabled), the offered item might still be accepted for the trade nevertheless.
 	 * <p>
 	 * The returned item stack is not a copy and might get modified once the trade is applied! The
-	 * item stack size matches the original stack size of the item used by the player.
+	 * item stack size matches the original stack size of the item used by the player. For trades
+	 * that are not triggered via a trading UI, the item stack size matches the required amount.
 	 * 
 	 * @return the offered item that matches the first required item, not <code>null</code> or empty
 	 */
@@ -176,7 +179,8 @@ public final class Trade {
 	 * being disabled), the offered item might still be accepted for the trade nevertheless.
 	 * <p>
 	 * The returned item stack is not a copy and might get modified once the trade is applied! The
-	 * item stack size matches the original stack size of the item used by the player.
+	 * item stack size matches the original stack size of the item used by the player. For trades
+	 * that are not triggered via a trading UI, the item stack size matches the required amount.
 	 * 
 	 * @return the offered item that matches the second required item, or <code>null</code> if the
 	 *         trade requires no second item
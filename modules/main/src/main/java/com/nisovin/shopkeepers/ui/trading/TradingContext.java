@@ -1,12 +1,17 @@
 package com.nisovin.shopkeepers.ui.trading;
 
 import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType.SlotType;
+import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.MerchantInventory;
 import org.bukkit.inventory.PlayerInventory;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.TradingRecipe;
 import com.nisovin.shopkeepers.util.java.KeyValueStore;
 import com.nisovin.shopkeepers.util.java.MapBasedKeyValueStore;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -14,12 +19,18 @@ import com.nisovin.shopkeepers.util.java.Validate;
 /**
  * Information about an inventory interaction and its processing that might trigger zero, one, or
  * multiple trades.
+ * <p>
+ * Trades that are applied via {@link TradingHandler#trade(Player, TradingRecipe, int)} are not
+ * triggered by an inventory interaction. Their trading context is {@link #isSimulated() simulated}:
+ * It provides a cancelled placeholder {@link InventoryClickEvent} for a click outside the player's
+ * currently open inventory view, and no {@link MerchantInventory}.
  */
 public final class TradingContext {
 
 	private final Shopkeeper shopkeeper;
 	private final InventoryClickEvent inventoryClickEvent;
-	private final MerchantInventory merchantInventory;
+	private final boolean simulated;
+	private final @Nullable MerchantInventory merchantInventory;
 	private final Player tradingPlayer;
 	private final PlayerInventory playerInventory;
 	private final KeyValueStore metadata = new MapBasedKeyValueStore();
@@ -42,11 +53,39 @@ public final class TradingContext {
 		assert inventoryClickEvent.getWhoClicked() instanceof Player;
 		this.shopkeeper = shopkeeper;
 		this.inventoryClickEvent = inventoryClickEvent;
+		this.simulated = false;
 		this.merchantInventory = (MerchantInventory) inventoryClickEvent.getView().getTopInventory();
 		this.tradingPlayer = (Player) inventoryClickEvent.getWhoClicked();
 		this.playerInventory = tradingPlayer.getInventory();
 	}
 
+	/**
+	 * Creates a new {@link TradingContext} for trades that are not triggered via a trading UI.
+	 * 
+	 * @param shopkeeper
+	 *            the involved {@link Shopkeeper}, not <code>null</code>
+	 * @param tradingPlayer
+	 *            the trading player, not <code>null</code>
+	 */
+	TradingContext(Shopkeeper shopkeeper, Player tradingPlayer) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		Validate.notNull(tradingPlayer, "tradingPlayer is null");
+		this.shopkeeper = shopkeeper;
+		InventoryClickEvent simulatedClickEvent = new InventoryClickEvent(
+				tradingPlayer.getOpenInventory(),
+				SlotType.OUTSIDE,
+				InventoryView.OUTSIDE,
+				ClickType.UNKNOWN,
+				InventoryAction.NOTHING
+		);
+		simulatedClickEvent.setCancelled(true);
+		this.inventoryClickEvent = simulatedClickEvent;
+		this.simulated = true;
+		this.merchantInventory = null;
+		this.tradingPlayer = tradingPlayer;
+		this.playerInventory = tradingPlayer.getInventory();
+	}
+
 	/**
 	 * Gets the involved {@link Shopkeeper}.
 	 * 
@@ -60,6 +99,9 @@ public final class TradingContext {
 	 * Gets the involved {@link InventoryClickEvent}.
 	 * <p>
 	 * Do not modify this event or any of the involved items! The event has to be kept cancelled!
+	 * <p>
+	 * If this trading context is {@link #isSimulated() simulated}, this is a placeholder event that
+	 * has not been called.
 	 * 
 	 * @return the inventory click event, not <code>null</code>
 	 */
@@ -67,12 +109,23 @@ public final class TradingContext {
 		return inventoryClickEvent;
 	}
 
+	/**
+	 * Checks whether the trades of this {@link TradingContext} are not triggered via a trading UI,
+	 * but applied via {@link TradingHandler#trade(Player, TradingRecipe, int)}.
+	 * 
+	 * @return <code>true</code> if the trades are simulated
+	 */
+	public boolean isSimulated() {
+		return simulated;
+	}
+
 	/**
 	 * Gets the involved {@link MerchantInventory}.
 	 * 
-	 * @return the merchant inventory, not <code>null</code>
+	 * @return the merchant inventory, or <code>null</code> if this trading context is
+	 *         {@link #isSimulated() simulated}
 	 */
-	public MerchantInventory getMerchantInventory() {
+	public @Nullable MerchantInventory getMerchantInventory() {
 		return merchantInventory;
 	}
 
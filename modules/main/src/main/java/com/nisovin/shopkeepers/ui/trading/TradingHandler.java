@@ -28,6 +28,8 @@ import com.nisovin.shopkeepers.api.ShopkeepersPlugin;
 import com.nisovin.shopkeepers.api.events.ShopkeeperTradeEvent;
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeResult;
+import com.nisovin.shopkeepers.api.shopkeeper.TradeResult.AbortReason;
 import com.nisovin.shopkeepers.api.shopkeeper.TradingRecipe;
 import com.nisovin.shopkeepers.api.ui.UISession;
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
@@ -35,6 +37,7 @@ import com.nisovin.shopkeepers.compat.NMSManager;
 import com.nisovin.shopkeepers.config.Settings;
 import com.nisovin.shopkeepers.debug.Debug;
 import com.nisovin.shopkeepers.debug.DebugOptions;
+import com.nisovin.shopkeepers.debug.watchdog.SlowOperationWatchdog.Operation;
 import com.nisovin.shopkeepers.lang.Messages;
 import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
 import com.nisovin.shopkeepers.ui.AbstractShopkeeperUIHandler;
@@ -42,6 +45,8 @@ import com.nisovin.shopkeepers.ui.AbstractUIType;
 import com.nisovin.shopkeepers.ui.SKDefaultUITypes;
 import com.nisovin.shopkeepers.ui.UIHandler;
 import com.nisovin.shopkeepers.ui.state.UIState;
+import com.nisovin.shopkeepers.util.annotations.ReadOnly;
+import com.nisovin.shopkeepers.util.annotations.ReadWrite;
 import com.nisovin.shopkeepers.util.bukkit.ConfigUtils;
 import com.nisovin.shopkeepers.util.bukkit.MerchantUtils;
 import com.nisovin.shopkeepers.util.bukkit.PermissionUtils;
@@ -187,7 +192,14 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 		return Messages.tradingTitlePrefix + title;
 	}
 
-	protected void updateTrades(Player player) {
+	/**
+	 * Updates the trades of the given player, if the player has this UI open and the trades have
+	 * changed.
+	 * 
+	 * @param player
+	 *            the player, not <code>null</code>
+	 */
+	public void updateTrades(Player player) {
 		// Check if the currently open inventory still corresponds to this UI:
 		if (!this.isOpen(player)) return;
 
@@ -536,6 +548,161 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 		}
 	}
 
+	/**
+	 * Applies the given trading recipe up to the specified number of times for the given player,
+	 * without involving a trading UI.
+	 * <p>
+	 * The required items are taken from the player's inventory and the result items are added to
+	 * it. Otherwise, the trades are processed like trades that are triggered via the trading UI.
+	 * See {@link Shopkeeper#trade(Player, TradingRecipe, int)}.
+	 * 
+	 * @param player
+	 *            the trading player, not <code>null</code>
+	 * @param tradingRecipe
+	 *            the trading recipe, not <code>null</code>
+	 * @param tradeCount
+	 *            the number of trades to apply, has to be positive
+	 * @return the result, not <code>null</code>
+	 */
+	public final TradeResult trade(Player player, TradingRecipe tradingRecipe, int tradeCount) {
+		Validate.notNull(player, "player is null");
+		Validate.notNull(tradingRecipe, "tradingRecipe is null");
+		Validate.isTrue(tradeCount > 0, "tradeCount has to be positive");
+		Shopkeeper shopkeeper = this.getShopkeeper();
+
+		// Use the shopkeeper's own trading recipe, which reflects its current stock:
+		TradingRecipe shopTradingRecipe = this.findTradingRecipe(player, tradingRecipe);
+		if (shopTradingRecipe == null) {
+			Log.debug(() -> shopkeeper.getLogPrefix() + "Not handling trade of player "
+					+ player.getName() + ": The shopkeeper does not offer the trading recipe.");
+			return new SKTradeResult(tradeCount, 0, AbortReason.UNKNOWN_TRADING_RECIPE);
+		}
+
+		// Set up a new TradingContext:
+		TradingContext tradingContext = new TradingContext(shopkeeper, player);
+		this.setupTradingContext(tradingContext);
+
+		PlayerInventory playerInventory = player.getInventory();
+		UnmodifiableItemStack resultItem = shopTradingRecipe.getResultItem();
+		UnmodifiableItemStack requiredItem2 = shopTradingRecipe.getItem2();
+		// The player's inventory contents are read once and then kept up-to-date across the trades.
+		// Shallow copies are sufficient, since the inventory utilities replace modified item stacks
+		// instead of modifying them.
+		ItemStack[] playerContents = playerInventory.getStorageContents();
+		int completedTrades = 0;
+		AbortReason abortReason = null;
+		while (completedTrades < tradeCount) {
+			tradingContext.startNewTrade();
+
+			// Remove the required items from the player's inventory:
+			ItemStack[] newPlayerContents = playerContents.clone();
+			ItemStack offeredItem1 = removeOfferedItem(
+					newPlayerContents,
+					shopTradingRecipe.getItem1()
+			);
+			ItemStack offeredItem2 = null;
+			if (offeredItem1 != null && requiredItem2 != null) {
+				offeredItem2 = removeOfferedItem(newPlayerContents, requiredItem2);
+			}
+			if (offeredItem1 == null || (requiredItem2 != null && offeredItem2 == null)) {
+				Log.debug(() -> shopkeeper.getLogPrefix() + "Not handling trade of player "
+						+ player.getName() + ": The player does not have the required items.");
+				abortReason = AbortReason.MISSING_ITEMS;
+				this.onTradeAborted(tradingContext, true);
+				break;
+			}
+
+			// Add the result item to the player's inventory:
+			// No item copy required here:
+			if (InventoryUtils.addItems(newPlayerContents, resultItem) != 0) {
+				Log.debug(() -> shopkeeper.getLogPrefix() + "Not handling trade of player "
+						+ player.getName() + ": Not enough inventory space.");
+				abortReason = AbortReason.INSUFFICIENT_SPACE;
+				this.onTradeAborted(tradingContext, true);
+				break;
+			}
+
+			// Create and set up a new Trade:
+			Trade trade = new Trade(
+					tradingContext,
+					tradingContext.getTradeCount(),
+					shopTradingRecipe,
+					offeredItem1,
+					offeredItem2,
+					false
+			);
+			this.setupTrade(trade);
+			tradingContext.setCurrentTrade(trade);
+
+			if (!this.handleTrade(trade)) {
+				// Trade was aborted:
+				abortReason = AbortReason.CANCELLED;
+				break;
+			}
+
+			// Apply player inventory changes:
+			InventoryUtils.setStorageContents(playerInventory, newPlayerContents);
+			playerContents = newPlayerContents;
+
+			// Common apply trade:
+			this.commonApplyTrade(trade);
+			completedTrades++;
+		}
+		return new SKTradeResult(tradeCount, completedTrades, abortReason);
+	}
+
+	// Ignores whether the trading recipes are out of stock.
+	private @Nullable TradingRecipe findTradingRecipe(Player player, TradingRecipe tradingRecipe) {
+		for (TradingRecipe shopTradingRecipe : this.getShopkeeper().getTradingRecipes(player)) {
+			if (!ItemUtils.equals(shopTradingRecipe.getResultItem(),
+					tradingRecipe.getResultItem().asItemStack())) {
+				continue;
+			}
+			if (!ItemUtils.equals(shopTradingRecipe.getItem1(),
+					tradingRecipe.getItem1().asItemStack())) {
+				continue;
+			}
+			if (!ItemUtils.equals(shopTradingRecipe.getItem2(),
+					ItemUtils.asItemStackOrNull(tradingRecipe.getItem2()))) {
+				continue;
+			}
+			return shopTradingRecipe;
+		}
+		return null;
+	}
+
+	// Removes the required amount of items that match the given required item from the given
+	// contents. In order for the offered item to accurately represent the removed items, only items
+	// that are similar to the first matching item are removed.
+	// Returns a copy of the first matching item with the required amount, or null if the contents
+	// do not contain enough matching items.
+	private static @Nullable ItemStack removeOfferedItem(
+			@ReadOnly @Nullable ItemStack @ReadWrite [] contents,
+			UnmodifiableItemStack requiredItem
+	) {
+		ItemStack offeredItem = null;
+		for (ItemStack item : contents) {
+			if (item == null) continue;
+			if (ItemUtils.isEmpty(item)) continue;
+			boolean matching;
+			if (Settings.useStrictItemComparison) {
+				matching = requiredItem.isSimilar(item);
+			} else {
+				matching = NMSManager.getProvider().matches(item, requiredItem);
+			}
+			if (matching) {
+				offeredItem = ItemUtils.copyWithAmount(item, requiredItem.getAmount());
+				break;
+			}
+		}
+		if (offeredItem == null) return null;
+
+		if (InventoryUtils.removeItems(contents, offeredItem) != 0) {
+			return null;
+		}
+		return offeredItem;
+	}
+
 	private void clearResultSlotForInvalidTrade(MerchantInventory merchantInventory) {
 		// TODO This is not working currently. The client updates the result slot contents whenever
 		// it receives a slot update from the server.
@@ -561,7 +728,9 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 
 		Shopkeeper shopkeeper = tradingContext.getShopkeeper();
 		Player tradingPlayer = tradingContext.getTradingPlayer();
-		MerchantInventory merchantInventory = tradingContext.getMerchantInventory();
+		MerchantInventory merchantInventory = Unsafe.assertNonNull(
+				tradingContext.getMerchantInventory()
+		);
 
 		// Use null here instead of air for consistent behavior with previous versions:
 		ItemStack offeredItem1 = ItemUtils.getNullIfEmpty(
@@ -768,6 +937,18 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 	// Returns true if the trade was not aborted and is now supposed to get applied.
 	private boolean handleTrade(Trade trade) {
 		assert trade != null;
+		Operation watchdogOperation = SKShopkeepersPlugin.getInstance().getSlowOperationWatchdog()
+				.start("Trade", () -> "shopkeeper " + this.getShopkeeper().getId() + ", player "
+						+ trade.getTradingPlayer().getName() + ", result item "
+						+ trade.getTradingRecipe().getResultItem().getType());
+		try {
+			return this.handleTradeUnmonitored(trade);
+		} finally {
+			watchdogOperation.stop();
+		}
+	}
+
+	private boolean handleTradeUnmonitored(Trade trade) {
 		// Check and prepare the trade:
 		if (!this.prepareTrade(trade)) {
 			// The trade got cancelled for some shopkeeper-specific reason:
@@ -802,7 +983,8 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 				tradingRecipe,
 				UnmodifiableItemStack.ofNonNull(eventOfferedItem1),
 				UnmodifiableItemStack.of(eventOfferedItem2),
-				trade.isItemOrderSwapped()
+				trade.isItemOrderSwapped(),
+				trade.getTradingContext().isSimulated()
 		);
 		Bukkit.getPluginManager().callEvent(tradeEvent);
 		if (tradeEvent.isCancelled()) {
@@ -829,27 +1011,32 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 
 	private void commonApplyTrade(Trade trade) {
 		// Update merchant inventory contents:
+		// The merchant inventory is null if the trade was not triggered via the trading UI. The
+		// offered items were then already removed from the player's inventory.
+		TradingRecipe tradingRecipe = trade.getTradingRecipe();
 		MerchantInventory merchantInventory = trade.getMerchantInventory();
-		merchantInventory.setItem(RESULT_ITEM_SLOT_ID, null); // Clear result slot, just in case
+		if (merchantInventory != null) {
+			// Clear result slot, just in case:
+			merchantInventory.setItem(RESULT_ITEM_SLOT_ID, null);
 
-		TradingRecipe tradingRecipe = trade.getTradingRecipe();
-		ItemStack newOfferedItem1 = ItemUtils.decreaseItemAmount(
-				trade.getOfferedItem1(),
-				ItemUtils.getItemStackAmount(tradingRecipe.getItem1())
-		);
-		ItemStack newOfferedItem2 = ItemUtils.decreaseItemAmount(
-				trade.getOfferedItem2(),
-				ItemUtils.getItemStackAmount(tradingRecipe.getItem2())
-		);
-		// Inform the merchant inventory about the change (updates the active trading recipe and
-		// result item):
-		boolean itemOrderSwapped = trade.isItemOrderSwapped();
-		merchantInventory.setItem(
-				itemOrderSwapped ? BUY_ITEM_2_SLOT_ID : BUY_ITEM_1_SLOT_ID, newOfferedItem1
-		);
-		merchantInventory.setItem(
-				itemOrderSwapped ? BUY_ITEM_1_SLOT_ID : BUY_ITEM_2_SLOT_ID, newOfferedItem2
-		);
+			ItemStack newOfferedItem1 = ItemUtils.decreaseItemAmount(
+					trade.getOfferedItem1(),
+					ItemUtils.getItemStackAmount(tradingRecipe.getItem1())
+			);
+			ItemStack newOfferedItem2 = ItemUtils.decreaseItemAmount(
+					trade.getOfferedItem2(),
+					ItemUtils.getItemStackAmount(tradingRecipe.getItem2())
+			);
+			// Inform the merchant inventory about the change (updates the active trading recipe
+			// and result item):
+			boolean itemOrderSwapped = trade.isItemOrderSwapped();
+			merchantInventory.setItem(
+					itemOrderSwapped ? BUY_ITEM_2_SLOT_ID : BUY_ITEM_1_SLOT_ID, newOfferedItem1
+			);
+			merchantInventory.setItem(
+					itemOrderSwapped ? BUY_ITEM_1_SLOT_ID : BUY_ITEM_2_SLOT_ID, newOfferedItem2
+			);
+		}
 
 		// TODO Increase uses of corresponding MerchantRecipe?
 		// TODO Add support for exp-rewards?
@@ -865,6 +1052,10 @@ public class TradingHandler extends AbstractShopkeeperUIHandler {
 		// Shopkeeper-specific application of the trade:
 		this.onTradeApplied(trade);
 
+		// The trade might have affected the stock that other players see in their trading UIs:
+		SKShopkeepersPlugin.getInstance().getUIRegistry().getTradingUIRefresher()
+				.requestRefresh(this.getShopkeeper());
+
 		// Play a sound effect if this is the first trade triggered by the inventory click:
 		boolean silent = (trade.getTradeNumber() > 1);
 		if (!silent) {
@@ -0,0 +1,146 @@
+package com.nisovin.shopkeepers.ui.trading;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.SKShopkeepersPlugin;
+import com.nisovin.shopkeepers.api.shopkeeper.Shopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.PlayerShopkeeper;
+import com.nisovin.shopkeepers.ui.SKUIRegistry;
+import com.nisovin.shopkeepers.ui.SKUISession;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Refreshes the trades of all open trading UIs of a shopkeeper when its offers or its container
+ * contents might have changed.
+ * <p>
+ * Otherwise, players that keep the trading UI open would keep seeing outdated offers and stock, for
+ * example after another player traded with the same shop. Refresh requests are coalesced: The
+ * trading UIs of each affected shopkeeper are refreshed at most once per tick, in a single batched
+ * pass at the start of the next tick. Refreshing only updates the trades of players whose trades
+ * actually changed.
+ */
+public class TradingUIRefresher implements Listener {
+
+	private final Plugin plugin;
+	private final SKUIRegistry uiRegistry;
+
+	private final Set<@NonNull Shopkeeper> pendingRefreshes = new LinkedHashSet<>();
+	private @Nullable BukkitTask refreshTask = null;
+
+	public TradingUIRefresher(Plugin plugin, SKUIRegistry uiRegistry) {
+		Validate.notNull(plugin, "plugin is null");
+		Validate.notNull(uiRegistry, "uiRegistry is null");
+		this.plugin = plugin;
+		this.uiRegistry = uiRegistry;
+	}
+
+	public void onEnable() {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	public void onDisable() {
+		HandlerList.unregisterAll(this);
+		BukkitTask refreshTask = this.refreshTask;
+		if (refreshTask != null) {
+			refreshTask.cancel();
+			this.refreshTask = null;
+		}
+		pendingRefreshes.clear();
+	}
+
+	/**
+	 * Requests a refresh of the trades of all trading UIs that are currently open for the given
+	 * shopkeeper.
+	 * <p>
+	 * The refresh is deferred to the next tick. Multiple requests for the same shopkeeper within
+	 * the same tick result in a single refresh.
+	 * 
+	 * @param shopkeeper
+	 *            the shopkeeper, not <code>null</code>
+	 */
+	public void requestRefresh(Shopkeeper shopkeeper) {
+		Validate.notNull(shopkeeper, "shopkeeper is null");
+		// Skip if there are no open trading UIs:
+		if (!this.hasTradingSessions(shopkeeper)) return;
+		if (!pendingRefreshes.add(shopkeeper)) return; // Already pending
+
+		if (refreshTask == null && plugin.isEnabled()) {
+			refreshTask = Bukkit.getScheduler().runTask(plugin, this::refreshPending);
+		}
+	}
+
+	private boolean hasTradingSessions(Shopkeeper shopkeeper) {
+		for (SKUISession uiSession : uiRegistry.getUISessionsView(shopkeeper)) {
+			if (uiSession.getUIHandler() instanceof TradingHandler) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void refreshPending() {
+		refreshTask = null;
+		if (pendingRefreshes.isEmpty()) return;
+
+		// Copy, because refreshing might trigger new refresh requests:
+		List<@NonNull Shopkeeper> shopkeepers = new ArrayList<>(pendingRefreshes);
+		pendingRefreshes.clear();
+
+		for (Shopkeeper shopkeeper : shopkeepers) {
+			// The sessions may get closed during the refresh, so we iterate a copy:
+			List<@NonNull SKUISession> uiSessions = new ArrayList<>(
+					uiRegistry.getUISessionsView(shopkeeper)
+			);
+			int refreshedCount = 0;
+			for (SKUISession uiSession : uiSessions) {
+				if (!uiSession.isValid()) continue;
+				if (!(uiSession.getUIHandler() instanceof TradingHandler)) continue;
+
+				TradingHandler tradingHandler = (TradingHandler) uiSession.getUIHandler();
+				tradingHandler.updateTrades(uiSession.getPlayer());
+				refreshedCount++;
+			}
+
+			int finalRefreshedCount = refreshedCount;
+			Log.debug(() -> shopkeeper.getLogPrefix() + "Refreshed the trades of "
+					+ finalRefreshedCount + " trading UIs.");
+		}
+	}
+
+	// Container contents usually change while a player has the container open, so we refresh the
+	// trades once the container is closed again.
+	@EventHandler(priority = EventPriority.MONITOR)
+	void onInventoryClose(InventoryCloseEvent event) {
+		Inventory inventory = event.getInventory();
+		InventoryType inventoryType = inventory.getType();
+		if (inventoryType == InventoryType.PLAYER || inventoryType == InventoryType.CRAFTING) {
+			return;
+		}
+
+		Location location = inventory.getLocation(); // Can be null
+		if (location == null) return;
+
+		List<? extends @NonNull PlayerShopkeeper> shopkeepers = SKShopkeepersPlugin.getInstance()
+				.getProtectedContainers()
+				.getShopkeepersUsingContainer(location.getBlock());
+		shopkeepers.forEach(this::requestRefresh);
+	}
+}
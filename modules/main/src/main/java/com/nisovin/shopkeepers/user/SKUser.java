@@ -16,7 +16,26 @@ import com.nisovin.shopkeepers.util.java.Validate;
 
 public final class SKUser implements User {
 
-	private static final Map<@NonNull UUID, @NonNull User> cache = new LRUCache<>(100);
+	private static final int DEFAULT_CACHE_SIZE = 100;
+
+	private static Map<@NonNull UUID, @NonNull User> cache = new LRUCache<>(DEFAULT_CACHE_SIZE);
+
+	/**
+	 * Sets the maximum number of {@link User} objects that are cached for reuse by
+	 * {@link #of(UUID, String)}.
+	 * <p>
+	 * The most recently used cached users are retained.
+	 * 
+	 * @param cacheSize
+	 *            the cache size, has to be positive
+	 */
+	public static void setCacheSize(int cacheSize) {
+		Validate.isTrue(cacheSize > 0, "cacheSize has to be positive");
+		Map<@NonNull UUID, @NonNull User> newCache = new LRUCache<>(cacheSize);
+		// Iterates from the least to the most recently used users:
+		newCache.putAll(cache);
+		cache = newCache;
+	}
 
 	/**
 	 * Gets a {@link User} with the specified unique id and last known name.
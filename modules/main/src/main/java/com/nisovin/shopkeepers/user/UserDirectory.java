@@ -0,0 +1,417 @@
+package com.nisovin.shopkeepers.user;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.ShopkeepersAPI;
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.user.User;
+import com.nisovin.shopkeepers.config.Settings;
+import com.nisovin.shopkeepers.dependencies.citizens.CitizensUtils;
+import com.nisovin.shopkeepers.util.bukkit.SchedulerUtils;
+import com.nisovin.shopkeepers.util.bukkit.Ticks;
+import com.nisovin.shopkeepers.util.java.FileUtils;
+import com.nisovin.shopkeepers.util.java.StringUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.logging.Log;
+
+/**
+ * Remembers the last known names of shop owners and players that joined the server.
+ * <p>
+ * The directory is kept in memory and persisted in a compact line-based file, with one
+ * <code>uuid name</code> entry per line. The file is only read and written in the background, so
+ * the lookup methods of this directory never block the server's main thread on disk access. Right
+ * after the plugin has been enabled, the persisted entries might therefore not yet be available.
+ * <p>
+ * Unknown names can be resolved in bulk via {@link #resolveNames(Collection, Consumer)}, which
+ * looks them up asynchronously.
+ * <p>
+ * The number of remembered names is limited by {@link Settings#userDirectorySize}: When the
+ * directory is saved, the least recently updated entries of players that neither own a loaded shop
+ * nor are online are removed until the limit is met.
+ * <p>
+ * The directory also configures the size of the in-memory cache of {@link SKUser} objects.
+ */
+public class UserDirectory {
+
+	private static final String DATA_FOLDER = "data";
+	private static final String FILE_NAME = "users.txt";
+	private static final String TEMP_FILE_NAME = FILE_NAME + ".tmp";
+
+	// ~5 minutes (can be noticeably longer if the server lags)
+	private static final long SAVE_INTERVAL_TICKS = Ticks.PER_SECOND * 60 * 5;
+
+	private final Plugin plugin;
+	private final Path file;
+	private final Path tempFile;
+
+	// Only accessed by the main thread:
+	// Ordered from the least to the most recently updated entry:
+	private final Map<@NonNull UUID, @NonNull String> namesById = new LinkedHashMap<>();
+	// Lower case name -> The player that most recently used this name:
+	private final Map<@NonNull String, @NonNull UUID> idsByName = new HashMap<>();
+	private boolean enabled = false;
+	// Incremented whenever the directory is enabled, so that we can ignore outdated load results:
+	private int generation = 0;
+	// Whether the persisted entries have been loaded. We only save once they have been loaded.
+	private boolean loaded = false;
+	private boolean dirty = false;
+	private long version = 0L;
+	private @Nullable BukkitTask saveTask = null;
+
+	// The version of the data that has last been written to disk. Guarded by 'this'.
+	private long writtenVersion = 0L;
+
+	public UserDirectory(Plugin plugin) {
+		Validate.notNull(plugin, "plugin is null");
+		this.plugin = plugin;
+		Path dataFolder = plugin.getDataFolder().toPath().resolve(DATA_FOLDER);
+		this.file = Unsafe.assertNonNull(dataFolder.resolve(FILE_NAME));
+		this.tempFile = Unsafe.assertNonNull(dataFolder.resolve(TEMP_FILE_NAME));
+	}
+
+	public void onEnable() {
+		SKUser.setCacheSize(Settings.userCacheSize);
+
+		enabled = true;
+		generation++;
+		loaded = false;
+		this.loadAsync();
+
+		// Players that are already online (e.g. after a plugin reload):
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			this.onPlayerJoin(player);
+		}
+
+		saveTask = Bukkit.getScheduler().runTaskTimer(
+				plugin,
+				this::saveAsyncIfDirty,
+				SAVE_INTERVAL_TICKS,
+				SAVE_INTERVAL_TICKS
+		);
+	}
+
+	public void onDisable() {
+		if (!enabled) return;
+		enabled = false;
+
+		if (saveTask != null) {
+			saveTask.cancel();
+			saveTask = null;
+		}
+		// If the plugin is disabled before the persisted entries have been loaded (e.g. during a
+		// quick shutdown), we load them now, so that we don't lose them when we save:
+		if (!loaded) {
+			this.onLoaded(this.read());
+		}
+
+		// Write any pending changes synchronously, since we cannot start new tasks while the plugin
+		// is being disabled:
+		// We don't prune the entries here, since the shopkeepers have already been unloaded at this
+		// point.
+		if (dirty) {
+			dirty = false;
+			this.write(this.serialize(), ++version);
+		}
+		namesById.clear();
+		idsByName.clear();
+	}
+
+	private void loadAsync() {
+		int loadGeneration = generation;
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+			Map<@NonNull UUID, @NonNull String> loadedNames = this.read();
+			SchedulerUtils.runTaskOrOmit(plugin, () -> {
+				// Ignore the result if we have been disabled or reloaded in the meantime:
+				if (!enabled || generation != loadGeneration) return;
+				this.onLoaded(loadedNames);
+			});
+		});
+	}
+
+	// This may be called asynchronously.
+	// Returns an empty map if there is no data or if the data could not be read.
+	private synchronized Map<@NonNull UUID, @NonNull String> read() {
+		// Preserves the order of the entries in the file:
+		Map<@NonNull UUID, @NonNull String> loadedNames = new LinkedHashMap<>();
+		if (!Files.exists(file)) return loadedNames;
+
+		int invalidEntries = 0;
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) continue;
+				int separatorIndex = line.indexOf(' ');
+				if (separatorIndex < 0 || separatorIndex == line.length() - 1) {
+					invalidEntries++;
+					continue;
+				}
+				try {
+					UUID playerId = UUID.fromString(line.substring(0, separatorIndex));
+					loadedNames.put(playerId, line.substring(separatorIndex + 1));
+				} catch (IllegalArgumentException e) {
+					invalidEntries++;
+				}
+			}
+		} catch (IOException e) {
+			Log.warning("Failed to load the known user names from " + file, e);
+			return new LinkedHashMap<>();
+		}
+
+		if (invalidEntries > 0) {
+			Log.warning("Ignored " + invalidEntries + " invalid entries in " + file);
+		}
+		return loadedNames;
+	}
+
+	private void onLoaded(Map<? extends @NonNull UUID, ? extends @NonNull String> loadedNames) {
+		assert Bukkit.isPrimaryThread();
+		loaded = true;
+		// The loaded entries are older than the names that have been updated since we were
+		// enabled. These names take precedence and are ordered after the loaded entries:
+		Map<@NonNull UUID, @NonNull String> updatedNames = new LinkedHashMap<>(namesById);
+		namesById.clear();
+		idsByName.clear();
+		loadedNames.forEach(this::put);
+		updatedNames.forEach(this::put);
+		Log.debug(() -> "Loaded the names of " + loadedNames.size() + " users.");
+	}
+
+	private static String normalize(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	// Adds the entry, or moves it to the end if it already exists.
+	private @Nullable String put(UUID playerId, String name) {
+		String oldName = namesById.remove(playerId);
+		namesById.put(playerId, name);
+		if (oldName != null) {
+			idsByName.remove(normalize(oldName), playerId);
+		}
+		idsByName.put(normalize(name), playerId);
+		return oldName;
+	}
+
+	public void onPlayerJoin(Player player) {
+		Validate.notNull(player, "player is null");
+		if (CitizensUtils.isNPC(player)) return;
+		this.update(player.getUniqueId(), Unsafe.assertNonNull(player.getName()));
+	}
+
+	/**
+	 * Updates the last known name of the given {@link User}.
+	 * 
+	 * @param user
+	 *            the user, not <code>null</code>
+	 */
+	public void update(User user) {
+		Validate.notNull(user, "user is null");
+		this.update(user.getUniqueId(), user.getLastKnownName());
+	}
+
+	/**
+	 * Updates the last known name of the specified player.
+	 * 
+	 * @param playerId
+	 *            the player's unique id, not <code>null</code>
+	 * @param name
+	 *            the player's name, not <code>null</code> or empty
+	 */
+	public void update(UUID playerId, String name) {
+		Validate.notNull(playerId, "playerId is null");
+		Validate.notEmpty(name, "name is null or empty");
+		if (!enabled) return;
+
+		// This also marks the entry as recently updated, even if the name did not change:
+		String oldName = this.put(playerId, name);
+		if (name.equals(oldName)) return;
+		dirty = true;
+	}
+
+	/**
+	 * Gets the last known name of the specified player.
+	 * <p>
+	 * This does not access the disk or any other potentially blocking source.
+	 * 
+	 * @param playerId
+	 *            the player's unique id, not <code>null</code>
+	 * @return the last known name, or <code>null</code> if not known
+	 */
+	public @Nullable String getName(UUID playerId) {
+		Validate.notNull(playerId, "playerId is null");
+		return namesById.get(playerId);
+	}
+
+	/**
+	 * Gets the unique id of the player that most recently used the given name.
+	 * <p>
+	 * The name is compared case-insensitively. This does not access the disk or any other
+	 * potentially blocking source.
+	 * 
+	 * @param name
+	 *            the name, not <code>null</code>
+	 * @return the player's unique id, or <code>null</code> if not known
+	 */
+	public @Nullable UUID getUniqueId(String name) {
+		Validate.notNull(name, "name is null");
+		if (StringUtils.isEmpty(name)) return null;
+		return idsByName.get(normalize(name));
+	}
+
+	/**
+	 * Resolves the last known names of the specified players.
+	 * <p>
+	 * The names of players that are not yet known to this directory are looked up in bulk
+	 * asynchronously, and then added to this directory. The callback is invoked on the server's
+	 * main thread once all names have been resolved. If all names are already known, the callback
+	 * is invoked immediately.
+	 * <p>
+	 * The names of players that have never played on the server might not be resolvable, and are
+	 * then missing in the result.
+	 * 
+	 * @param playerIds
+	 *            the unique ids of the players, not <code>null</code>
+	 * @param callback
+	 *            the callback that receives the resolved names, not <code>null</code>
+	 */
+	public void resolveNames(
+			Collection<? extends @NonNull UUID> playerIds,
+			Consumer<? super @NonNull Map<@NonNull UUID, @NonNull String>> callback
+	) {
+		Validate.notNull(playerIds, "playerIds is null");
+		Validate.notNull(callback, "callback is null");
+		Map<@NonNull UUID, @NonNull String> result = new HashMap<>();
+		List<@NonNull UUID> unknownPlayerIds = new ArrayList<>();
+		playerIds.forEach(playerId -> {
+			String name = namesById.get(playerId);
+			if (name != null) {
+				result.put(playerId, name);
+			} else {
+				unknownPlayerIds.add(playerId);
+			}
+		});
+
+		if (unknownPlayerIds.isEmpty()) {
+			callback.accept(result);
+			return;
+		}
+
+		// Retrieving the names of offline players may require disk access:
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+			Map<@NonNull UUID, @NonNull String> resolvedNames = new HashMap<>();
+			unknownPlayerIds.forEach(playerId -> {
+				OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(playerId);
+				String name = offlinePlayer.getName(); // Can be null
+				if (name != null && !name.isEmpty()) {
+					resolvedNames.put(playerId, name);
+				}
+			});
+
+			SchedulerUtils.runTaskOrOmit(plugin, () -> {
+				resolvedNames.forEach((playerId, name) -> {
+					// A more recent name might have become known in the meantime:
+					String currentName = namesById.get(playerId);
+					if (currentName != null) {
+						result.put(playerId, currentName);
+					} else {
+						this.update(playerId, name);
+						result.put(playerId, name);
+					}
+				});
+				callback.accept(result);
+			});
+		});
+	}
+
+	// Removes the least recently updated entries that exceed the size limit. The names of the
+	// owners of the loaded shops and of online players are kept.
+	private void prune() {
+		int excessEntries = namesById.size() - Settings.userDirectorySize;
+		if (excessEntries <= 0) return;
+
+		Set<@NonNull UUID> keptPlayerIds = new HashSet<>();
+		ShopkeepersAPI.getShopkeeperRegistry().getAllPlayerShopkeepers().forEach(shopkeeper -> {
+			keptPlayerIds.add(shopkeeper.getOwnerUUID());
+		});
+		for (Player player : Bukkit.getOnlinePlayers()) {
+			keptPlayerIds.add(player.getUniqueId());
+		}
+
+		int removedEntries = 0;
+		Iterator<Entry<@NonNull UUID, @NonNull String>> iterator = namesById.entrySet().iterator();
+		while (iterator.hasNext() && removedEntries < excessEntries) {
+			Entry<@NonNull UUID, @NonNull String> entry = iterator.next();
+			UUID playerId = entry.getKey();
+			if (keptPlayerIds.contains(playerId)) continue;
+
+			iterator.remove();
+			idsByName.remove(normalize(entry.getValue()), playerId);
+			removedEntries++;
+		}
+		if (removedEntries > 0) {
+			dirty = true;
+			int removed = removedEntries;
+			Log.debug(() -> "Removed the names of " + removed + " users from the user directory.");
+		}
+	}
+
+	private void saveAsyncIfDirty() {
+		if (!loaded) return;
+		this.prune();
+		if (!dirty) return;
+		dirty = false;
+		String data = this.serialize();
+		long dataVersion = ++version;
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> this.write(data, dataVersion));
+	}
+
+	private String serialize() {
+		StringBuilder data = new StringBuilder(namesById.size() * 54);
+		namesById.forEach((playerId, name) -> {
+			data.append(playerId).append(' ').append(name).append('\n');
+		});
+		return data.toString();
+	}
+
+	// This may be called asynchronously.
+	private synchronized void write(String data, long dataVersion) {
+		// Skip outdated data if a newer version has already been written in the meantime:
+		if (dataVersion <= writtenVersion) return;
+		try {
+			FileUtils.createParentDirectories(file);
+			try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+				writer.write(data);
+			}
+			FileUtils.fsync(tempFile);
+			FileUtils.moveFile(tempFile, file, Log.getLogger());
+			writtenVersion = dataVersion;
+		} catch (IOException e) {
+			Log.warning("Failed to save the known user names to " + file, e);
+		}
+	}
+}
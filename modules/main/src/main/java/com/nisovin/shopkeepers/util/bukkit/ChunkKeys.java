@@ -0,0 +1,61 @@
+package com.nisovin.shopkeepers.util.bukkit;
+
+import com.nisovin.shopkeepers.api.util.ChunkCoords;
+
+/**
+ * Packs chunk coordinates into primitive {@code long} keys.
+ * <p>
+ * Unlike {@link ChunkCoords}, these keys do not include the world. They are meant to be used by
+ * per-world maps, such as {@link com.nisovin.shopkeepers.util.java.LongObjectHashMap}.
+ */
+public final class ChunkKeys {
+
+	/**
+	 * Packs the given chunk coordinates into a single {@code long}.
+	 *
+	 * @param chunkX
+	 *            the chunk x coordinate
+	 * @param chunkZ
+	 *            the chunk z coordinate
+	 * @return the chunk key
+	 */
+	public static long of(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Gets the chunk key of the given {@link ChunkCoords}.
+	 *
+	 * @param chunkCoords
+	 *            the chunk coordinates
+	 * @return the chunk key
+	 */
+	public static long of(ChunkCoords chunkCoords) {
+		return of(chunkCoords.getChunkX(), chunkCoords.getChunkZ());
+	}
+
+	/**
+	 * Gets the chunk x coordinate of the given chunk key.
+	 *
+	 * @param chunkKey
+	 *            the chunk key
+	 * @return the chunk x coordinate
+	 */
+	public static int getChunkX(long chunkKey) {
+		return (int) (chunkKey >> 32);
+	}
+
+	/**
+	 * Gets the chunk z coordinate of the given chunk key.
+	 *
+	 * @param chunkKey
+	 *            the chunk key
+	 * @return the chunk z coordinate
+	 */
+	public static int getChunkZ(long chunkKey) {
+		return (int) chunkKey;
+	}
+
+	private ChunkKeys() {
+	}
+}
@@ -1,6 +1,8 @@
 package com.nisovin.shopkeepers.util.bukkit;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -161,6 +163,31 @@ public final class ConfigUtils {
 		});
 	}
 
+	// The inverse of serializeDeeply: Deeply and recursively replaces all Maps in the given data
+	// that include a serialized type key with their deserialized ConfigurationSerializable. Similar
+	// to Bukkit's Yaml config loading, inner data is deserialized first. Returns the given data
+	// itself if it does not contain any Maps or Lists. Otherwise, the Maps and Lists are copied.
+	public static @Nullable Object deserializeDeeply(@Nullable Object data) {
+		if (data instanceof Map) {
+			Map<?, ?> dataMap = (Map<?, ?>) data;
+			Map<@NonNull String, @Nullable Object> deserializedMap = new LinkedHashMap<>();
+			dataMap.forEach((key, value) -> {
+				deserializedMap.put(String.valueOf(key), deserializeDeeply(value));
+			});
+			if (deserializedMap.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+				return deserialize(deserializedMap);
+			}
+			return deserializedMap;
+		} else if (data instanceof List) {
+			List<?> dataList = (List<?>) data;
+			List<@Nullable Object> deserializedList = new ArrayList<>(dataList.size());
+			dataList.forEach(element -> deserializedList.add(deserializeDeeply(element)));
+			return deserializedList;
+		} else {
+			return data;
+		}
+	}
+
 	// This does not store the given data under any key, but inserts it into the top-level map of a
 	// YamlConfiguration.
 	// Does not return null, even if the given Map is null.
@@ -9,6 +9,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.util.java.Validate;
+import com.nisovin.shopkeepers.util.timer.LatencyHistogram;
 
 /**
  * Represents a task that is triggered from the server's main thread and of which only one execution
@@ -89,6 +90,9 @@ public abstract class SingletonTask {
 	private long executionDelayMillis;
 	private long executionDurationMillis;
 	private long totalDurationMillis;
+	// The total durations of all executions. Recorded by the potentially async executions.
+	// Synchronized on the histogram itself.
+	private final LatencyHistogram totalDurations = new LatencyHistogram();
 
 	public SingletonTask(Plugin plugin) {
 		Validate.notNull(plugin, "plugin is null");
@@ -520,6 +524,9 @@ public abstract class SingletonTask {
 		totalDurationMillis = TimeUnit.NANOSECONDS.toMillis(
 				executionEndTimeNanos - startTimeNanos
 		);
+		synchronized (totalDurations) {
+			totalDurations.record(executionEndTimeNanos - startTimeNanos);
+		}
 	}
 
 	// EXECUTION INFORMATION AND STATISTICS
@@ -599,6 +606,18 @@ public abstract class SingletonTask {
 		return totalDurationMillis;
 	}
 
+	/**
+	 * Gets a snapshot of the histogram of the {@link #getTotalDuration() total durations} of all
+	 * previous executions.
+	 * 
+	 * @return the histogram snapshot, not <code>null</code>
+	 */
+	public final LatencyHistogram getTotalDurationHistogram() {
+		synchronized (totalDurations) {
+			return new LatencyHistogram(totalDurations);
+		}
+	}
+
 	/**
 	 * Gets a one-line summary of the timing statistics of the last execution.
 	 * <p>
@@ -1,10 +1,13 @@
 package com.nisovin.shopkeepers.util.data.serialization.bukkit;
 
+import java.util.Map;
+
 import org.bukkit.inventory.ItemStack;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.util.bukkit.ConfigUtils;
 import com.nisovin.shopkeepers.util.bukkit.DataUtils;
 import com.nisovin.shopkeepers.util.data.serialization.DataSerializer;
 import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
@@ -28,11 +31,27 @@ public final class ItemStackSerializers {
 		@Override
 		public ItemStack deserialize(Object data) throws InvalidDataException {
 			Validate.notNull(data, "data is null");
-			if (!(data instanceof ItemStack)) {
+			Object itemData = data;
+			if (itemData instanceof Map) {
+				// The item stack may have been stored in its serialized form, which is only
+				// deserialized when the data is loaded from a Yaml file.
+				Object deserializedData;
+				try {
+					deserializedData = ConfigUtils.deserializeDeeply(itemData);
+				} catch (IllegalArgumentException e) {
+					throw new InvalidDataException("Failed to deserialize ItemStack: "
+							+ e.getMessage(), e);
+				}
+				if (deserializedData == null) {
+					throw new InvalidDataException("Failed to deserialize ItemStack!");
+				}
+				itemData = deserializedData;
+			}
+			if (!(itemData instanceof ItemStack)) {
 				throw new InvalidDataException("Data is not of type ItemStack, but "
-						+ data.getClass().getName() + "!");
+						+ itemData.getClass().getName() + "!");
 			}
-			ItemStack itemStack = (ItemStack) data;
+			ItemStack itemStack = (ItemStack) itemData;
 			return DataUtils.deserializeNonNullItemStack(itemStack);
 		}
 	};
@@ -0,0 +1,196 @@
+package com.nisovin.shopkeepers.util.java;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+
+/**
+ * A simple hash map with primitive {@code long} keys.
+ * <p>
+ * Unlike a {@link java.util.HashMap} with {@link Long} keys, this map does not need to box its keys
+ * or allocate entry objects. It uses open addressing with linear probing.
+ * <p>
+ * This map does not support <code>null</code> values, and it is not thread-safe.
+ *
+ * @param <V>
+ *            the value type
+ */
+public final class LongObjectHashMap<V> {
+
+	private static final int DEFAULT_CAPACITY = 16; // Power of two
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	// An entry is unused if its value is null:
+	private @Nullable Object[] values;
+	private int size = 0;
+	private int resizeThreshold;
+
+	/**
+	 * Creates a new empty {@link LongObjectHashMap}.
+	 */
+	public LongObjectHashMap() {
+		this.keys = new long[DEFAULT_CAPACITY];
+		this.values = new @Nullable Object[DEFAULT_CAPACITY];
+		this.resizeThreshold = (int) (DEFAULT_CAPACITY * LOAD_FACTOR);
+	}
+
+	private static int hash(long key) {
+		// Mixes the bits of both halves of the key (e.g. of packed chunk coordinates):
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private int getIndex(long key) {
+		return hash(key) & (keys.length - 1);
+	}
+
+	// Returns -1 if there is no entry for the given key.
+	private int findIndex(long key) {
+		int mask = keys.length - 1;
+		int index = this.getIndex(key);
+		while (values[index] != null) {
+			if (keys[index] == key) return index;
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return (size == 0);
+	}
+
+	public boolean containsKey(long key) {
+		return (this.findIndex(key) != -1);
+	}
+
+	public @Nullable V get(long key) {
+		int index = this.findIndex(key);
+		if (index == -1) return null;
+		return Unsafe.cast(values[index]);
+	}
+
+	/**
+	 * Adds or replaces the value for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value, not <code>null</code>
+	 * @return the previous value, or <code>null</code> if there was none
+	 */
+	public @Nullable V put(long key, @NonNull V value) {
+		Validate.notNull(value, "value is null");
+		int mask = keys.length - 1;
+		int index = this.getIndex(key);
+		while (values[index] != null) {
+			if (keys[index] == key) {
+				V oldValue = Unsafe.cast(values[index]);
+				values[index] = value;
+				return oldValue;
+			}
+			index = (index + 1) & mask;
+		}
+
+		keys[index] = key;
+		values[index] = value;
+		size++;
+		if (size > resizeThreshold) {
+			this.resize(keys.length * 2);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the value for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 * @return the removed value, or <code>null</code> if there was none
+	 */
+	public @Nullable V remove(long key) {
+		int index = this.findIndex(key);
+		if (index == -1) return null;
+
+		V oldValue = Unsafe.cast(values[index]);
+		values[index] = null;
+		size--;
+
+		// Shift subsequent entries of the same probe sequence back into the freed slot, so that
+		// lookups don't stop early at the freed slot:
+		int mask = keys.length - 1;
+		int freeIndex = index;
+		int nextIndex = (index + 1) & mask;
+		while (values[nextIndex] != null) {
+			int idealIndex = this.getIndex(keys[nextIndex]);
+			// Check if the free slot lies cyclically between the entry's ideal slot and its current
+			// slot:
+			boolean canShift;
+			if (freeIndex <= nextIndex) {
+				canShift = (idealIndex <= freeIndex) || (idealIndex > nextIndex);
+			} else {
+				canShift = (idealIndex <= freeIndex) && (idealIndex > nextIndex);
+			}
+			if (canShift) {
+				keys[freeIndex] = keys[nextIndex];
+				values[freeIndex] = values[nextIndex];
+				values[nextIndex] = null;
+				freeIndex = nextIndex;
+			}
+			nextIndex = (nextIndex + 1) & mask;
+		}
+		return oldValue;
+	}
+
+	public void clear() {
+		if (size == 0) return;
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Invokes the given action for all values of this map.
+	 * <p>
+	 * The map must not be modified during the iteration.
+	 *
+	 * @param action
+	 *            the action
+	 */
+	public void forEachValue(Consumer<? super @NonNull V> action) {
+		for (Object value : values) {
+			if (value != null) {
+				action.accept(Unsafe.castNonNull(value));
+			}
+		}
+	}
+
+	private void resize(int newCapacity) {
+		long[] oldKeys = keys;
+		@Nullable Object[] oldValues = values;
+		keys = new long[newCapacity];
+		values = new @Nullable Object[newCapacity];
+		resizeThreshold = (int) (newCapacity * LOAD_FACTOR);
+
+		int mask = newCapacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object value = oldValues[i];
+			if (value == null) continue;
+
+			long key = oldKeys[i];
+			int index = this.getIndex(key);
+			while (values[index] != null) {
+				index = (index + 1) & mask;
+			}
+			keys[index] = key;
+			values[index] = value;
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package com.nisovin.shopkeepers.util.timer;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.nisovin.shopkeepers.util.java.TimeUtils;
+import com.nisovin.shopkeepers.util.java.Validate;
+
+/**
+ * A histogram of durations in nanoseconds with logarithmically sized buckets.
+ * <p>
+ * Each power of two range of durations is split into eight equally sized buckets. The relative
+ * error of the reported percentiles is therefore at most 12.5%. The histogram has a fixed size, and
+ * recording a duration does not allocate any objects.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	// Durations of 2^41 nanoseconds (about 36 minutes) or longer are recorded in the last bucket.
+	private static final int MAX_EXPONENT = 40;
+	private static final long MAX_TRACKED_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+	private static int getBucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+		return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	private static long getBucketLowerBound(int bucketIndex) {
+		if (bucketIndex < SUB_BUCKET_COUNT) return bucketIndex;
+		int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+		int subBucket = bucketIndex % SUB_BUCKET_COUNT;
+		return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+	}
+
+	private static long getBucketWidth(int bucketIndex) {
+		if (bucketIndex < SUB_BUCKET_COUNT) return 1L;
+		return 1L << (bucketIndex / SUB_BUCKET_COUNT - 1);
+	}
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long totalCount = 0L;
+	private long totalValue = 0L;
+	private long maxValue = 0L;
+
+	/**
+	 * Creates a new empty {@link LatencyHistogram}.
+	 */
+	public LatencyHistogram() {
+	}
+
+	/**
+	 * Creates a copy of the given {@link LatencyHistogram}.
+	 * 
+	 * @param other
+	 *            the histogram to copy, not <code>null</code>
+	 */
+	public LatencyHistogram(LatencyHistogram other) {
+		this.add(other);
+	}
+
+	/**
+	 * Records the given duration.
+	 * 
+	 * @param nanos
+	 *            the duration in nanoseconds, negative durations are recorded as zero
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0L);
+		counts[getBucketIndex(Math.min(value, MAX_TRACKED_VALUE))]++;
+		totalCount++;
+		totalValue += value;
+		if (value > maxValue) {
+			maxValue = value;
+		}
+	}
+
+	/**
+	 * Adds all durations recorded by the given histogram to this histogram.
+	 * 
+	 * @param other
+	 *            the other histogram, not <code>null</code>
+	 */
+	public void add(LatencyHistogram other) {
+		Validate.notNull(other, "other is null");
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		totalValue += other.totalValue;
+		if (other.maxValue > maxValue) {
+			maxValue = other.maxValue;
+		}
+	}
+
+	/**
+	 * Removes all recorded durations.
+	 */
+	public void reset() {
+		if (totalCount == 0L) return;
+		Arrays.fill(counts, 0L);
+		totalCount = 0L;
+		totalValue = 0L;
+		maxValue = 0L;
+	}
+
+	/**
+	 * Gets the number of recorded durations.
+	 * 
+	 * @return the number of recorded durations
+	 */
+	public long getCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Gets the average of the recorded durations.
+	 * 
+	 * @return the average duration in milliseconds, or <code>0</code> if no durations have been
+	 *         recorded
+	 */
+	public double getAverageMillis() {
+		double avgNanos = (double) totalValue / (totalCount == 0L ? 1L : totalCount);
+		return toMillis(avgNanos);
+	}
+
+	/**
+	 * Gets the maximum of the recorded durations.
+	 * 
+	 * @return the maximum duration in milliseconds, or <code>0</code> if no durations have been
+	 *         recorded
+	 */
+	public double getMaxMillis() {
+		return toMillis(maxValue);
+	}
+
+	/**
+	 * Gets the estimated duration below which the given percentage of the recorded durations
+	 * fall.
+	 * 
+	 * @param percentile
+	 *            the percentile, between <code>0</code> and <code>100</code>
+	 * @return the estimated duration in milliseconds, or <code>0</code> if no durations have been
+	 *         recorded
+	 */
+	public double getPercentileMillis(double percentile) {
+		Validate.isTrue(percentile >= 0.0D && percentile <= 100.0D,
+				"percentile has to be between 0 and 100");
+		if (totalCount == 0L) return 0.0D;
+
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0D * totalCount));
+		long cumulativeCount = 0L;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			cumulativeCount += counts[i];
+			if (cumulativeCount >= rank) {
+				// Estimate the duration via the center of the bucket:
+				double value = getBucketLowerBound(i) + (getBucketWidth(i) - 1) / 2.0D;
+				return toMillis(Math.min(value, maxValue));
+			}
+		}
+		return toMillis(maxValue);
+	}
+
+	private static double toMillis(double nanos) {
+		return TimeUtils.convert(nanos, TimeUnit.NANOSECONDS, TimeUnit.MILLISECONDS);
+	}
+}
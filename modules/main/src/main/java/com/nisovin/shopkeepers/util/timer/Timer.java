@@ -2,7 +2,6 @@ package com.nisovin.shopkeepers.util.timer;
 
 import java.util.concurrent.TimeUnit;
 
-import com.nisovin.shopkeepers.util.java.TimeUtils;
 import com.nisovin.shopkeepers.util.logging.Log;
 
 public class Timer implements Timings {
@@ -14,9 +13,15 @@ public class Timer implements Timings {
 	// log with errors when an unexpected timer state is retained and also affects all future timer
 	// operations, we only log the error once and then disable all future timer state checks.
 
-	private long counter = 0L;
-	private long totalTimeNanos = 0L;
-	private long maxTimeNanos = 0L;
+	// The recent timings are tracked in a ring of histograms that each cover a fixed time slot.
+	private static final int RECENT_SLOTS = 6;
+	private static final long RECENT_SLOT_DURATION_NANOS = TimeUnit.SECONDS.toNanos(10);
+	private static final long NO_SLOT = Long.MIN_VALUE;
+
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final LatencyHistogram[] recentHistograms = new LatencyHistogram[RECENT_SLOTS];
+	// The time slot that is currently covered by each recent histogram:
+	private final long[] recentSlots = new long[RECENT_SLOTS];
 
 	// Current timing:
 	private boolean started = false;
@@ -27,6 +32,10 @@ public class Timer implements Timings {
 	private boolean stateErrorEncountered = false;
 
 	public Timer() {
+		for (int i = 0; i < RECENT_SLOTS; i++) {
+			recentHistograms[i] = new LatencyHistogram();
+			recentSlots[i] = NO_SLOT;
+		}
 	}
 
 	private void validateState(boolean expectedStated) {
@@ -80,37 +89,74 @@ public class Timer implements Timings {
 		paused = false;
 
 		// Update the timings:
-		counter++;
-		totalTimeNanos += elapsedTimeNanos;
+		histogram.record(elapsedTimeNanos);
+		this.getRecentHistogram(System.nanoTime()).record(elapsedTimeNanos);
+	}
+
+	private static long getRecentSlot(long nanoTime) {
+		return Math.floorDiv(nanoTime, RECENT_SLOT_DURATION_NANOS);
+	}
 
-		// Update the max timing:
-		if (elapsedTimeNanos > maxTimeNanos) {
-			maxTimeNanos = elapsedTimeNanos;
+	// Gets the recent histogram for the given time, and resets it if it still contains the
+	// timings of an older time slot.
+	private LatencyHistogram getRecentHistogram(long nanoTime) {
+		long slot = getRecentSlot(nanoTime);
+		int index = (int) Math.floorMod(slot, (long) RECENT_SLOTS);
+		LatencyHistogram recentHistogram = recentHistograms[index];
+		if (recentSlots[index] != slot) {
+			recentSlots[index] = slot;
+			recentHistogram.reset();
 		}
+		return recentHistogram;
 	}
 
 	// TIMINGS
 
 	@Override
 	public void reset() {
-		counter = 0L;
-		totalTimeNanos = 0L;
-		maxTimeNanos = 0L;
+		histogram.reset();
+		for (int i = 0; i < RECENT_SLOTS; i++) {
+			recentHistograms[i].reset();
+			recentSlots[i] = NO_SLOT;
+		}
 	}
 
 	@Override
 	public long getCounter() {
-		return counter;
+		return histogram.getCount();
 	}
 
 	@Override
 	public double getAverageTimeMillis() {
-		double avgTimeNanos = (double) totalTimeNanos / (counter == 0L ? 1L : counter);
-		return TimeUtils.convert(avgTimeNanos, TimeUnit.NANOSECONDS, TimeUnit.MILLISECONDS);
+		return histogram.getAverageMillis();
 	}
 
 	@Override
 	public double getMaxTimeMillis() {
-		return TimeUtils.convert(maxTimeNanos, TimeUnit.NANOSECONDS, TimeUnit.MILLISECONDS);
+		return histogram.getMaxMillis();
+	}
+
+	@Override
+	public double getPercentileMillis(double percentile) {
+		return histogram.getPercentileMillis(percentile);
+	}
+
+	@Override
+	public LatencyHistogram getHistogram() {
+		return new LatencyHistogram(histogram);
+	}
+
+	@Override
+	public LatencyHistogram getRecentHistogram() {
+		long currentSlot = getRecentSlot(System.nanoTime());
+		LatencyHistogram recentHistogram = new LatencyHistogram();
+		for (int i = 0; i < RECENT_SLOTS; i++) {
+			// Skip the histograms of slots that are no longer recent:
+			long slot = recentSlots[i];
+			if (slot != NO_SLOT && currentSlot - slot < RECENT_SLOTS) {
+				recentHistogram.add(recentHistograms[i]);
+			}
+		}
+		return recentHistogram;
 	}
 }
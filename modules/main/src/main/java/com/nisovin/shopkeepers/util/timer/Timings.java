@@ -31,4 +31,29 @@ public interface Timings {
 	 * @return the maximum processing time in milliseconds
 	 */
 	public double getMaxTimeMillis();
+
+	/**
+	 * Gets the estimated processing time below which the given percentage of the task's
+	 * executions fall.
+	 * 
+	 * @param percentile
+	 *            the percentile, between <code>0</code> and <code>100</code>
+	 * @return the estimated processing time in milliseconds
+	 */
+	public double getPercentileMillis(double percentile);
+
+	/**
+	 * Gets a snapshot of the histogram of the task's processing times.
+	 * 
+	 * @return the histogram snapshot, not <code>null</code>
+	 */
+	public LatencyHistogram getHistogram();
+
+	/**
+	 * Gets a snapshot of the histogram of the task's processing times during approximately the
+	 * last minute.
+	 * 
+	 * @return the histogram snapshot, not <code>null</code>
+	 */
+	public LatencyHistogram getRecentHistogram();
 }
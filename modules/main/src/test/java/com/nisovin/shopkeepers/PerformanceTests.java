@@ -3,6 +3,8 @@ package com.nisovin.shopkeepers;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
@@ -15,8 +17,14 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.junit.Test;
 
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.TradeOffer;
+import com.nisovin.shopkeepers.shopkeeper.offers.OfferDataCache;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKTradeOffer;
 import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
 import com.nisovin.shopkeepers.util.TestItemStacks;
+import com.nisovin.shopkeepers.util.bukkit.DataUtils;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.data.persistence.bukkit.BukkitConfigDataStore;
 import com.nisovin.shopkeepers.util.inventory.ItemData;
 import com.nisovin.shopkeepers.util.inventory.ItemUtils;
 import com.nisovin.shopkeepers.util.java.MutableLong;
@@ -391,4 +399,94 @@ public class PerformanceTests extends AbstractBukkitTest {
 			throw new IllegalStateException("Unexpected test outcome.");
 		}
 	}
+
+	@Test
+	public void testOfferSaveSerializationPerformance() {
+		LOGGER.info("Testing offer save serialization performance:");
+		int warmupCount = 1;
+		int testCount = 3;
+		int shopsCount = 10000;
+		int offersPerShop = 20;
+
+		// Typical shops offer items from a small set of distinct items:
+		List<? extends @NonNull ItemStack> items = Arrays.asList(
+				TestItemStacks.createItemStackComplete(),
+				TestItemStacks.createItemStackDisplayName(),
+				TestItemStacks.createItemStackBasicTool(),
+				TestItemStacks.createItemStackBasic(),
+				TestItemStacks.createItemStackBasicWithSize()
+		);
+		List<@NonNull List<@NonNull TradeOffer>> shopOffers = new ArrayList<>();
+		for (int shop = 0; shop < shopsCount; shop++) {
+			List<@NonNull TradeOffer> offers = new ArrayList<>(offersPerShop);
+			for (int offer = 0; offer < offersPerShop; offer++) {
+				ItemStack resultItem = items.get((shop + offer) % items.size());
+				ItemStack item1 = items.get(offer % items.size());
+				offers.add(new SKTradeOffer(resultItem, item1, null));
+			}
+			shopOffers.add(offers);
+		}
+
+		MutableLong value = new MutableLong();
+		testPerformance(
+				"  ",
+				"serialization of all offers",
+				warmupCount,
+				testCount,
+				() -> {
+					BukkitConfigDataStore dataStore = BukkitConfigDataStore.ofNewYamlConfig();
+					for (int shop = 0; shop < shopsCount; shop++) {
+						DataContainer offerListData = DataContainer.create();
+						int id = 1;
+						for (TradeOffer offer : shopOffers.get(shop)) {
+							DataContainer offerData = DataContainer.create();
+							offerData.set(
+									"resultItem",
+									DataUtils.serializeItemStack(offer.getResultItem())
+							);
+							offerData.set("item1", DataUtils.serializeItemStack(offer.getItem1()));
+							offerListData.set(String.valueOf(id++), offerData.serialize());
+						}
+						dataStore.set(String.valueOf(shop), offerListData.serialize());
+					}
+					value.increment(dataStore.saveToString().length());
+				}
+		);
+
+		// Each shop reuses the serialized data of its unchanged offers:
+		List<@NonNull OfferDataCache<@NonNull TradeOffer>> offerDataCaches = new ArrayList<>();
+		for (int shop = 0; shop < shopsCount; shop++) {
+			OfferDataCache<@NonNull TradeOffer> offerDataCache = new OfferDataCache<>(
+					SKTradeOffer.SERIALIZER
+			);
+			offerDataCache.serialize(shopOffers.get(shop));
+			offerDataCaches.add(offerDataCache);
+		}
+
+		testPerformance(
+				"  ",
+				"serialization of one changed offer per shop",
+				warmupCount,
+				testCount,
+				() -> {
+					BukkitConfigDataStore dataStore = BukkitConfigDataStore.ofNewYamlConfig();
+					for (int shop = 0; shop < shopsCount; shop++) {
+						List<@NonNull TradeOffer> offers = shopOffers.get(shop);
+						TradeOffer offer = offers.get(0);
+						offers.set(0, new SKTradeOffer(
+								offer.getResultItem(),
+								offer.getItem1(),
+								offer.getItem2()
+						));
+						Object offerListData = offerDataCaches.get(shop).serialize(offers);
+						dataStore.set(String.valueOf(shop), offerListData);
+					}
+					value.increment(dataStore.saveToString().length());
+				}
+		);
+
+		if (value.getValue() == 0) {
+			throw new IllegalStateException("Unexpected test outcome.");
+		}
+	}
 }
@@ -0,0 +1,83 @@
+package com.nisovin.shopkeepers.shopkeeper;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.nisovin.shopkeepers.api.shopkeeper.ShopCreationData;
+import com.nisovin.shopkeepers.api.shopkeeper.ShopkeeperCreateException;
+import com.nisovin.shopkeepers.shopkeeper.admin.regular.RegularAdminShopType;
+import com.nisovin.shopkeepers.shopkeeper.admin.regular.SKRegularAdminShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.offers.SKTradeOffer;
+import com.nisovin.shopkeepers.shopobjects.AbstractShopObject;
+import com.nisovin.shopkeepers.shopobjects.AbstractShopObjectType;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+import com.nisovin.shopkeepers.util.yaml.YamlUtils;
+
+public class ShopkeeperSaveTests extends AbstractBukkitTest {
+
+	// The shopkeeper is not registered. The parts that require a running plugin are stubbed.
+	private static SKRegularAdminShopkeeper createShopkeeper() throws ShopkeeperCreateException {
+		SKRegularAdminShopkeeper shopkeeper = Mockito.mock(
+				SKRegularAdminShopkeeper.class,
+				Mockito.withSettings().useConstructor().defaultAnswer(Mockito.CALLS_REAL_METHODS)
+		);
+		RegularAdminShopType shopType = Mockito.mock(RegularAdminShopType.class);
+		Mockito.doReturn("admin").when(shopType).getIdentifier();
+		Mockito.doReturn(shopType).when(shopkeeper).getType();
+		Mockito.doNothing().when((AbstractShopkeeper) shopkeeper).setup();
+		Mockito.doNothing().when((AbstractShopkeeper) shopkeeper).postSetup();
+
+		World world = Mockito.mock(World.class);
+		Mockito.doReturn("world").when(world).getName();
+		AbstractShopObject shopObject = Mockito.mock(AbstractShopObject.class);
+		AbstractShopObjectType<?> shopObjectType = Mockito.mock(AbstractShopObjectType.class);
+		Mockito.doReturn(shopObject).when(shopObjectType).createObject(
+				Mockito.any(),
+				Mockito.any()
+		);
+		ShopCreationData creationData = Mockito.mock(ShopCreationData.class);
+		Mockito.doReturn(shopType).when(creationData).getShopType();
+		Mockito.doReturn(shopObjectType).when(creationData).getShopObjectType();
+		Mockito.doReturn(new Location(world, 0, 64, 0)).when(creationData).getSpawnLocation();
+
+		shopkeeper.initOnCreation(1, creationData);
+		return shopkeeper;
+	}
+
+	@Test
+	public void testInlineSnapshotDoesNotShareSavedData() throws ShopkeeperCreateException {
+		SKRegularAdminShopkeeper shopkeeper = createShopkeeper();
+		ItemStack namedItem = ItemUtils.setDisplayName(new ItemStack(Material.DIAMOND), "Named");
+		shopkeeper.setOffers(Arrays.asList(
+				new SKTradeOffer(namedItem, new ItemStack(Material.EMERALD), null),
+				new SKTradeOffer(new ItemStack(Material.STONE), namedItem, null)
+		));
+		// Stores the saved data of the offers for subsequent saves:
+		shopkeeper.saveForStorage(ShopkeeperData.ofNonNull(DataContainer.create()));
+
+		SKShopkeeperSnapshot snapshot = (SKShopkeeperSnapshot) shopkeeper.createSnapshot("test");
+		ShopkeeperData shopkeeperData = ShopkeeperData.ofNonNull(DataContainer.create());
+		shopkeeper.saveForStorage(shopkeeperData);
+
+		// The snapshot data is stored inline, inside the same document as the shopkeeper data:
+		Map<@NonNull String, @Nullable Object> document = new LinkedHashMap<>();
+		document.put("shopkeeper", shopkeeperData.serialize());
+		document.put("snapshot", SKShopkeeperSnapshot.serializer(null).serialize(snapshot));
+		String yaml = YamlUtils.toYaml(document);
+		Assert.assertFalse("Yaml contains anchors:\n" + yaml, yaml.contains("&id"));
+		Assert.assertFalse("Yaml contains aliases:\n" + yaml, yaml.contains("*id"));
+	}
+}
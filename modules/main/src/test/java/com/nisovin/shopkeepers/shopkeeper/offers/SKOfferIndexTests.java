@@ -0,0 +1,270 @@
+package com.nisovin.shopkeepers.shopkeeper.offers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.nisovin.shopkeepers.api.shopkeeper.admin.regular.RegularAdminShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.offers.IndexedOffer;
+import com.nisovin.shopkeepers.api.shopkeeper.player.buy.BuyingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.shopkeeper.player.sell.SellingPlayerShopkeeper;
+import com.nisovin.shopkeepers.api.util.UnmodifiableItemStack;
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopkeeper.player.AbstractPlayerShopkeeper;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+
+public class SKOfferIndexTests extends AbstractBukkitTest {
+
+	private static ItemStack diamonds(int amount) {
+		return new ItemStack(Material.DIAMOND, amount);
+	}
+
+	private static ItemStack emeralds(int amount) {
+		// The default currency item:
+		return new ItemStack(Material.EMERALD, amount);
+	}
+
+	private static AbstractShopkeeper adminShop(List<? extends @NonNull SKTradeOffer> offers) {
+		AbstractShopkeeper shopkeeper = Mockito.mock(
+				AbstractShopkeeper.class,
+				Mockito.withSettings().extraInterfaces(RegularAdminShopkeeper.class)
+		);
+		setOffers(shopkeeper, offers);
+		return shopkeeper;
+	}
+
+	private static AbstractPlayerShopkeeper playerShop(
+			Class<?> shopkeeperInterface,
+			List<? extends @NonNull SKPriceOffer> offers,
+			@Nullable ItemStack[] containerContents
+	) {
+		AbstractPlayerShopkeeper shopkeeper = Mockito.mock(
+				AbstractPlayerShopkeeper.class,
+				Mockito.withSettings().extraInterfaces(shopkeeperInterface)
+		);
+		setOffers(shopkeeper, offers);
+		Mockito.doReturn(true).when(shopkeeper).areContainerChunksLoaded();
+		setContainerContents(shopkeeper, containerContents);
+		return shopkeeper;
+	}
+
+	private static void setOffers(AbstractShopkeeper shopkeeper, List<?> offers) {
+		if (shopkeeper instanceof RegularAdminShopkeeper) {
+			Mockito.doReturn(offers).when((RegularAdminShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof SellingPlayerShopkeeper) {
+			Mockito.doReturn(offers).when((SellingPlayerShopkeeper) shopkeeper).getOffers();
+		} else if (shopkeeper instanceof BuyingPlayerShopkeeper) {
+			Mockito.doReturn(offers).when((BuyingPlayerShopkeeper) shopkeeper).getOffers();
+		}
+	}
+
+	private static void setContainerContents(
+			AbstractPlayerShopkeeper shopkeeper,
+			@Nullable ItemStack[] containerContents
+	) {
+		Mockito.doReturn(containerContents).when(shopkeeper).getContainerContents();
+	}
+
+	@Test
+	public void testSearch() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		AbstractShopkeeper shopkeeper = adminShop(Collections.singletonList(
+				new SKTradeOffer(diamonds(1), emeralds(5), null)
+		));
+		offerIndex.addShopkeeper(shopkeeper);
+
+		// The amount of the searched item is ignored:
+		List<? extends @NonNull IndexedOffer> sellingOffers = offerIndex.getSellingOffers(
+				diamonds(64)
+		);
+		Assert.assertEquals(1, sellingOffers.size());
+		IndexedOffer sellingOffer = sellingOffers.get(0);
+		Assert.assertSame(shopkeeper, sellingOffer.getShopkeeper());
+		Assert.assertTrue(sellingOffer.isSelling());
+		Assert.assertTrue(ItemUtils.equals(sellingOffer.getItem(), diamonds(1)));
+		Assert.assertEquals(5, sellingOffer.getPrice());
+		Assert.assertEquals(IndexedOffer.UNLIMITED_STOCK, sellingOffer.getStock());
+
+		// The shop buys the emeralds in exchange for items that are not currency items:
+		List<? extends @NonNull IndexedOffer> buyingOffers = offerIndex.getBuyingOffers(
+				emeralds(1)
+		);
+		Assert.assertEquals(1, buyingOffers.size());
+		Assert.assertFalse(buyingOffers.get(0).isSelling());
+		Assert.assertEquals(-1, buyingOffers.get(0).getPrice());
+
+		Assert.assertTrue(offerIndex.getBuyingOffers(diamonds(1)).isEmpty());
+		Assert.assertTrue(offerIndex.getSellingOffers(emeralds(1)).isEmpty());
+	}
+
+	@Test
+	public void testSearchMatchesItemData() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		ItemStack namedDiamond = ItemUtils.setDisplayName(diamonds(1), "Named");
+		offerIndex.addShopkeeper(adminShop(Collections.singletonList(
+				new SKTradeOffer(namedDiamond, emeralds(5), null)
+		)));
+
+		Assert.assertTrue(offerIndex.getSellingOffers(diamonds(1)).isEmpty());
+		Assert.assertEquals(1, offerIndex.getSellingOffers(namedDiamond).size());
+	}
+
+	@Test
+	public void testManyItemsOfSameTypeWithDifferentItemData() {
+		int itemsCount = 100;
+		List<@NonNull ItemStack> namedDiamonds = new ArrayList<>(itemsCount);
+		List<@NonNull SKTradeOffer> offers = new ArrayList<>(itemsCount);
+		Set<@NonNull Integer> hashCodes = new HashSet<>();
+		for (int i = 0; i < itemsCount; i++) {
+			ItemStack namedDiamond = ItemUtils.setDisplayName(diamonds(1), "Diamond " + i);
+			namedDiamonds.add(namedDiamond);
+			offers.add(new SKTradeOffer(namedDiamond, emeralds(5), null));
+			hashCodes.add(new SKOfferIndex.ItemKey(UnmodifiableItemStack.ofNonNull(namedDiamond))
+					.hashCode());
+		}
+		// The item keys take the item data into account:
+		Assert.assertEquals(itemsCount, hashCodes.size());
+
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		offerIndex.addShopkeeper(adminShop(offers));
+		for (ItemStack namedDiamond : namedDiamonds) {
+			List<? extends @NonNull IndexedOffer> sellingOffers = offerIndex.getSellingOffers(
+					namedDiamond
+			);
+			Assert.assertEquals(1, sellingOffers.size());
+			Assert.assertTrue(sellingOffers.get(0).getItem().isSimilar(namedDiamond));
+		}
+		Assert.assertTrue(offerIndex.getSellingOffers(diamonds(1)).isEmpty());
+	}
+
+	@Test
+	public void testItemKeyIgnoresAmount() {
+		ItemStack namedDiamond = ItemUtils.setDisplayName(diamonds(1), "Named");
+		ItemStack namedDiamonds = ItemUtils.copyWithAmount(namedDiamond, 5);
+		SKOfferIndex.ItemKey itemKey = new SKOfferIndex.ItemKey(
+				UnmodifiableItemStack.ofNonNull(namedDiamond)
+		);
+		SKOfferIndex.ItemKey otherItemKey = new SKOfferIndex.ItemKey(
+				UnmodifiableItemStack.ofNonNull(namedDiamonds)
+		);
+		Assert.assertEquals(itemKey.hashCode(), otherItemKey.hashCode());
+		Assert.assertEquals(itemKey, otherItemKey);
+	}
+
+	@Test
+	public void testRemoveShopkeeper() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		AbstractShopkeeper shopkeeper = adminShop(Collections.singletonList(
+				new SKTradeOffer(diamonds(1), emeralds(5), null)
+		));
+		AbstractShopkeeper otherShopkeeper = adminShop(Collections.singletonList(
+				new SKTradeOffer(diamonds(2), emeralds(8), null)
+		));
+		offerIndex.addShopkeeper(shopkeeper);
+		offerIndex.addShopkeeper(otherShopkeeper);
+		Assert.assertEquals(2, offerIndex.getSellingOffers(diamonds(1)).size());
+
+		offerIndex.removeShopkeeper(shopkeeper);
+		List<? extends @NonNull IndexedOffer> offers = offerIndex.getSellingOffers(diamonds(1));
+		Assert.assertEquals(1, offers.size());
+		Assert.assertSame(otherShopkeeper, offers.get(0).getShopkeeper());
+
+		offerIndex.removeShopkeeper(otherShopkeeper);
+		Assert.assertTrue(offerIndex.getSellingOffers(diamonds(1)).isEmpty());
+		Assert.assertTrue(offerIndex.getBuyingOffers(emeralds(1)).isEmpty());
+	}
+
+	@Test
+	public void testUpdateOffers() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		SKTradeOffer diamondOffer = new SKTradeOffer(diamonds(1), emeralds(5), null);
+		AbstractShopkeeper shopkeeper = adminShop(Collections.singletonList(diamondOffer));
+		offerIndex.addShopkeeper(shopkeeper);
+		Assert.assertEquals(1, offerIndex.getSellingOffers(diamonds(1)).size());
+
+		ItemStack ironIngots = new ItemStack(Material.IRON_INGOT, 4);
+		setOffers(shopkeeper, Arrays.asList(
+				diamondOffer,
+				new SKTradeOffer(ironIngots, emeralds(1), null)
+		));
+		// The offers are only re-indexed once the shopkeeper has been marked as changed:
+		Assert.assertTrue(offerIndex.getSellingOffers(ironIngots).isEmpty());
+
+		offerIndex.onShopkeeperChanged(shopkeeper);
+		Assert.assertEquals(1, offerIndex.getSellingOffers(diamonds(1)).size());
+		Assert.assertEquals(1, offerIndex.getSellingOffers(ironIngots).size());
+
+		setOffers(shopkeeper, Collections.emptyList());
+		offerIndex.onShopkeeperChanged(shopkeeper);
+		Assert.assertTrue(offerIndex.getSellingOffers(diamonds(1)).isEmpty());
+		Assert.assertTrue(offerIndex.getSellingOffers(ironIngots).isEmpty());
+	}
+
+	@Test
+	public void testSellingShopStock() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		AbstractPlayerShopkeeper shopkeeper = playerShop(
+				SellingPlayerShopkeeper.class,
+				Collections.singletonList(new SKPriceOffer(diamonds(2), 10)),
+				new @Nullable ItemStack[] { diamonds(3), null, diamonds(2), emeralds(5) }
+		);
+		offerIndex.addShopkeeper(shopkeeper);
+
+		List<? extends @NonNull IndexedOffer> offers = offerIndex.getSellingOffers(diamonds(1));
+		Assert.assertEquals(1, offers.size());
+		IndexedOffer offer = offers.get(0);
+		Assert.assertEquals(10, offer.getPrice());
+		Assert.assertEquals(2, offer.getStock());
+
+		setContainerContents(shopkeeper, new @Nullable ItemStack[] { diamonds(64) });
+		offerIndex.onContainerContentsChanged(shopkeeper);
+		Assert.assertEquals(32, offerIndex.getSellingOffers(diamonds(1)).get(0).getStock());
+		// Previously returned offers are not affected:
+		Assert.assertEquals(2, offer.getStock());
+	}
+
+	@Test
+	public void testBuyingShopStock() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		AbstractPlayerShopkeeper shopkeeper = playerShop(
+				BuyingPlayerShopkeeper.class,
+				Collections.singletonList(new SKPriceOffer(diamonds(1), 3)),
+				new @Nullable ItemStack[] { emeralds(10), diamonds(5) }
+		);
+		offerIndex.addShopkeeper(shopkeeper);
+
+		List<? extends @NonNull IndexedOffer> offers = offerIndex.getBuyingOffers(diamonds(1));
+		Assert.assertEquals(1, offers.size());
+		Assert.assertFalse(offers.get(0).isSelling());
+		Assert.assertEquals(3, offers.get(0).getPrice());
+		// The shop pays with the currency in its container:
+		Assert.assertEquals(3, offers.get(0).getStock());
+	}
+
+	@Test
+	public void testUnknownStock() {
+		SKOfferIndex offerIndex = new SKOfferIndex();
+		AbstractPlayerShopkeeper shopkeeper = playerShop(
+				SellingPlayerShopkeeper.class,
+				Collections.singletonList(new SKPriceOffer(diamonds(1), 10)),
+				new @Nullable ItemStack[] { diamonds(5) }
+		);
+		Mockito.doReturn(false).when(shopkeeper).areContainerChunksLoaded();
+		offerIndex.addShopkeeper(shopkeeper);
+
+		List<? extends @NonNull IndexedOffer> offers = offerIndex.getSellingOffers(diamonds(1));
+		Assert.assertEquals(IndexedOffer.UNKNOWN_STOCK, offers.get(0).getStock());
+	}
+}
@@ -0,0 +1,133 @@
+package com.nisovin.shopkeepers.shopkeeper.player;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.inventory.ItemUtils;
+
+public class ContainerCurrencyConsolidatorTests extends AbstractBukkitTest {
+
+	// The default currency items: Emeralds, and emerald blocks with a value of 9.
+
+	private static ItemStack emeralds(int amount) {
+		return new ItemStack(Material.EMERALD, amount);
+	}
+
+	private static ItemStack emeraldBlocks(int amount) {
+		return new ItemStack(Material.EMERALD_BLOCK, amount);
+	}
+
+	private static int countItems(@Nullable ItemStack[] contents, Material type) {
+		int amount = 0;
+		for (ItemStack itemStack : contents) {
+			if (itemStack != null && itemStack.getType() == type) {
+				amount += itemStack.getAmount();
+			}
+		}
+		return amount;
+	}
+
+	private static void assertUnchanged(
+			@Nullable ItemStack[] expected,
+			@Nullable ItemStack[] contents
+	) {
+		Assert.assertEquals(expected.length, contents.length);
+		for (int slot = 0; slot < contents.length; slot++) {
+			Assert.assertSame(expected[slot], contents[slot]);
+		}
+	}
+
+	@Test
+	public void testConsolidate() {
+		ItemStack stone = new ItemStack(Material.STONE);
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] {
+				emeralds(64),
+				emeralds(20),
+				null,
+				stone
+		};
+		Assert.assertEquals(81, ContainerCurrencyConsolidator.consolidate(contents));
+		Assert.assertEquals(3, countItems(contents, Material.EMERALD));
+		Assert.assertEquals(9, countItems(contents, Material.EMERALD_BLOCK));
+		Assert.assertSame(stone, contents[3]);
+	}
+
+	@Test
+	public void testOriginalItemsNotModified() {
+		ItemStack emeralds = emeralds(20);
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] { emeralds, null };
+		Assert.assertEquals(18, ContainerCurrencyConsolidator.consolidate(contents));
+		Assert.assertEquals(20, emeralds.getAmount());
+		Assert.assertEquals(2, countItems(contents, Material.EMERALD));
+		Assert.assertEquals(2, countItems(contents, Material.EMERALD_BLOCK));
+	}
+
+	@Test
+	public void testNotEnoughBaseCurrency() {
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] { emeralds(8), null };
+		@Nullable ItemStack[] expected = contents.clone();
+		Assert.assertEquals(0, ContainerCurrencyConsolidator.consolidate(contents));
+		assertUnchanged(expected, contents);
+	}
+
+	@Test
+	public void testPreservesCurrencyItemsWithData() {
+		ItemStack namedEmeralds = ItemUtils.setDisplayName(emeralds(64), "Named");
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] { namedEmeralds, null };
+		@Nullable ItemStack[] expected = contents.clone();
+		Assert.assertEquals(0, ContainerCurrencyConsolidator.consolidate(contents));
+		assertUnchanged(expected, contents);
+	}
+
+	@Test
+	public void testNotEnoughSpace() {
+		// Removing the converted emeralds does not free up a slot for the emerald block:
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] {
+				emeralds(10),
+				new ItemStack(Material.STONE)
+		};
+		@Nullable ItemStack[] expected = contents.clone();
+		Assert.assertEquals(0, ContainerCurrencyConsolidator.consolidate(contents));
+		assertUnchanged(expected, contents);
+	}
+
+	@Test
+	public void testAddsToExistingHighCurrencyStacks() {
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] {
+				emeraldBlocks(10),
+				emeralds(9)
+		};
+		Assert.assertEquals(9, ContainerCurrencyConsolidator.consolidate(contents));
+		Assert.assertEquals(0, countItems(contents, Material.EMERALD));
+		Assert.assertEquals(11, countItems(contents, Material.EMERALD_BLOCK));
+	}
+
+	@Test
+	public void testUsedSlots() {
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] {
+				null,
+				new ItemStack(Material.AIR),
+				new ItemStack(Material.STONE)
+		};
+		Assert.assertEquals(1, AbstractPlayerShopkeeper.getUsedSlots(contents));
+	}
+
+	@Test
+	public void testConsolidationReducesUsedSlots() {
+		@Nullable ItemStack[] contents = new @Nullable ItemStack[] {
+				emeralds(64),
+				emeralds(64),
+				emeralds(64),
+				null
+		};
+		Assert.assertEquals(3, AbstractPlayerShopkeeper.getUsedSlots(contents));
+		Assert.assertEquals(189, ContainerCurrencyConsolidator.consolidate(contents));
+		Assert.assertEquals(3, countItems(contents, Material.EMERALD));
+		Assert.assertEquals(21, countItems(contents, Material.EMERALD_BLOCK));
+		Assert.assertEquals(2, AbstractPlayerShopkeeper.getUsedSlots(contents));
+	}
+}
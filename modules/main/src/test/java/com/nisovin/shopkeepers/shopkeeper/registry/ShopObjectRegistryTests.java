@@ -0,0 +1,78 @@
+package com.nisovin.shopkeepers.shopkeeper.registry;
+
+import java.util.UUID;
+
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.nisovin.shopkeepers.shopkeeper.AbstractShopkeeper;
+import com.nisovin.shopkeepers.shopobjects.entity.AbstractEntityShopObject;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+
+public class ShopObjectRegistryTests extends AbstractBukkitTest {
+
+	private static Entity entity(EntityType entityType) {
+		Entity entity = Mockito.mock(Entity.class);
+		Mockito.doReturn(entityType).when(entity).getType();
+		Mockito.doReturn(UUID.randomUUID()).when(entity).getUniqueId();
+		return entity;
+	}
+
+	private static AbstractShopkeeper shopkeeper(@Nullable Entity entity) {
+		AbstractEntityShopObject shopObject = Mockito.mock(AbstractEntityShopObject.class);
+		Mockito.doCallRealMethod().when(shopObject).getId();
+		Mockito.doCallRealMethod().when(shopObject).getLastId();
+		Mockito.doCallRealMethod().when(shopObject).setLastId(Mockito.any());
+		setEntity(shopObject, entity);
+
+		AbstractShopkeeper shopkeeper = Mockito.mock(AbstractShopkeeper.class);
+		Mockito.doReturn(shopObject).when(shopkeeper).getShopObject();
+		return shopkeeper;
+	}
+
+	private static void setEntity(AbstractEntityShopObject shopObject, @Nullable Entity entity) {
+		Mockito.doReturn(entity).when(shopObject).getEntity();
+	}
+
+	@Test
+	public void testGetShopkeeperByEntity() {
+		ShopObjectRegistry shopObjectRegistry = new ShopObjectRegistry();
+		Entity shopEntity = entity(EntityType.VILLAGER);
+		AbstractShopkeeper shopkeeper = shopkeeper(shopEntity);
+		shopObjectRegistry.updateShopObjectRegistration(shopkeeper);
+
+		Assert.assertSame(shopkeeper, shopObjectRegistry.getShopkeeperByEntity(shopEntity));
+		Assert.assertNull(shopObjectRegistry.getShopkeeperByEntity(entity(EntityType.VILLAGER)));
+		Assert.assertNull(shopObjectRegistry.getShopkeeperByEntity(entity(EntityType.ZOMBIE)));
+	}
+
+	@Test
+	public void testRejectsEntityTypesWithoutShopkeepers() {
+		ShopObjectRegistry shopObjectRegistry = new ShopObjectRegistry();
+		shopObjectRegistry.updateShopObjectRegistration(shopkeeper(entity(EntityType.VILLAGER)));
+
+		// The zombie is rejected without looking up its object id:
+		Entity zombie = entity(EntityType.ZOMBIE);
+		Assert.assertNull(shopObjectRegistry.getShopkeeperByEntity(zombie));
+		Mockito.verify(zombie, Mockito.never()).getUniqueId();
+	}
+
+	@Test
+	public void testUnregisterEntity() {
+		ShopObjectRegistry shopObjectRegistry = new ShopObjectRegistry();
+		Entity shopEntity = entity(EntityType.VILLAGER);
+		AbstractShopkeeper shopkeeper = shopkeeper(shopEntity);
+		shopObjectRegistry.updateShopObjectRegistration(shopkeeper);
+
+		// Despawn:
+		setEntity((AbstractEntityShopObject) shopkeeper.getShopObject(), null);
+		shopObjectRegistry.updateShopObjectRegistration(shopkeeper);
+		Mockito.clearInvocations(shopEntity);
+		Assert.assertNull(shopObjectRegistry.getShopkeeperByEntity(shopEntity));
+		Mockito.verify(shopEntity, Mockito.never()).getUniqueId();
+	}
+}
@@ -0,0 +1,175 @@
+package com.nisovin.shopkeepers.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.nisovin.shopkeepers.shopkeeper.SKShopkeeperSnapshot;
+import com.nisovin.shopkeepers.shopkeeper.ShopkeeperData;
+import com.nisovin.shopkeepers.testutil.AbstractBukkitTest;
+import com.nisovin.shopkeepers.util.data.container.DataContainer;
+import com.nisovin.shopkeepers.util.data.serialization.DataSerializer;
+import com.nisovin.shopkeepers.util.data.serialization.InvalidDataException;
+
+public class ShopkeeperSnapshotDataStoreTests extends AbstractBukkitTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private Path getDirectory() {
+		return tempFolder.getRoot().toPath().resolve("snapshots");
+	}
+
+	private static ShopkeeperData createShopkeeperData(String name) {
+		ShopkeeperData shopkeeperData = ShopkeeperData.ofNonNull(DataContainer.create());
+		shopkeeperData.set("name", name);
+		shopkeeperData.set("count", 5);
+		shopkeeperData.set("enabled", true);
+		return shopkeeperData;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException, InvalidDataException {
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		ShopkeeperData shopkeeperData = createShopkeeperData("a");
+		String dataId = dataStore.store(shopkeeperData);
+		// Pending data can already be loaded before it has been written:
+		Assert.assertEquals(shopkeeperData.getValues(), dataStore.load(dataId).getValues());
+
+		dataStore.writePendingData();
+
+		ShopkeeperSnapshotDataStore newDataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		Assert.assertEquals(shopkeeperData.getValues(), newDataStore.load(dataId).getValues());
+	}
+
+	@Test
+	public void testIdenticalDataSharesId() {
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		String dataId = dataStore.store(createShopkeeperData("a"));
+		Assert.assertEquals(dataId, dataStore.store(createShopkeeperData("a")));
+		Assert.assertNotEquals(dataId, dataStore.store(createShopkeeperData("b")));
+	}
+
+	@Test(expected = InvalidDataException.class)
+	public void testLoadMissingData() throws InvalidDataException {
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		dataStore.load("missing");
+	}
+
+	@Test
+	public void testSnapshotSerialization() throws IOException, InvalidDataException {
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		DataSerializer<@NonNull SKShopkeeperSnapshot> serializer = SKShopkeeperSnapshot.serializer(
+				dataStore
+		);
+		ShopkeeperData shopkeeperData = createShopkeeperData("a");
+		SKShopkeeperSnapshot snapshot = new SKShopkeeperSnapshot(
+				"test",
+				Instant.now(),
+				shopkeeperData
+		);
+
+		Object serialized = serializer.serialize(snapshot);
+		DataContainer serializedContainer = DataContainer.ofNonNull(serialized);
+		Assert.assertFalse(serializedContainer.contains("data"));
+		String dataId = serializedContainer.getString("data-id");
+		Assert.assertNotNull(dataId);
+		dataStore.writePendingData();
+
+		// Snapshots that reference stored data are loaded lazily:
+		SKShopkeeperSnapshot deserialized = serializer.deserialize(serialized);
+		Assert.assertFalse(deserialized.isShopkeeperDataLoaded());
+		Assert.assertEquals(shopkeeperData.getValues(), dataStore.load(dataId).getValues());
+
+		Set<String> dataIds = new HashSet<>();
+		SKShopkeeperSnapshot.collectDataIds(Collections.singletonList(serialized), dataIds);
+		Assert.assertEquals(Collections.singleton(dataId), dataIds);
+	}
+
+	@Test
+	public void testInlineSnapshotMigration() throws InvalidDataException {
+		// Without a data store (e.g. while the plugin is disabled), the snapshot data is stored
+		// inline:
+		ShopkeeperData shopkeeperData = createShopkeeperData("a");
+		SKShopkeeperSnapshot snapshot = new SKShopkeeperSnapshot(
+				"test",
+				Instant.now(),
+				shopkeeperData
+		);
+		Object inlineSerialized = SKShopkeeperSnapshot.SERIALIZER.serialize(snapshot);
+		Assert.assertTrue(DataContainer.ofNonNull(inlineSerialized).contains("data"));
+
+		// Snapshots with inline data are loaded right away:
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		DataSerializer<@NonNull SKShopkeeperSnapshot> serializer = SKShopkeeperSnapshot.serializer(
+				dataStore
+		);
+		SKShopkeeperSnapshot deserialized = serializer.deserialize(inlineSerialized);
+		Assert.assertTrue(deserialized.isShopkeeperDataLoaded());
+
+		// Saving the snapshot again moves its data into the data store:
+		Object serialized = serializer.serialize(deserialized);
+		DataContainer serializedContainer = DataContainer.ofNonNull(serialized);
+		Assert.assertFalse(serializedContainer.contains("data"));
+		String dataId = serializedContainer.getString("data-id");
+		Assert.assertNotNull(dataId);
+		Assert.assertEquals(shopkeeperData.getValues(), dataStore.load(dataId).getValues());
+	}
+
+	@Test
+	public void testDeleteUnreferencedData() throws IOException, InvalidDataException {
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		String dataIdA = dataStore.store(createShopkeeperData("a"));
+		String dataIdB = dataStore.store(createShopkeeperData("b"));
+		String dataIdC = dataStore.store(createShopkeeperData("c"));
+		dataStore.writePendingData();
+
+		// Data that has been stored by this data store is not deleted:
+		Assert.assertEquals(0, dataStore.deleteUnreferencedData(Collections.emptySet()));
+
+		ShopkeeperSnapshotDataStore newDataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		// Data that is pending to be written is not deleted, even if its file already exists:
+		Assert.assertEquals(dataIdC, newDataStore.store(createShopkeeperData("c")));
+		Assert.assertEquals(1, newDataStore.deleteUnreferencedData(Collections.singleton(dataIdA)));
+		newDataStore.writePendingData();
+
+		List<String> remainingDataIds = Arrays.asList(dataIdA, dataIdC);
+		for (String dataId : remainingDataIds) {
+			newDataStore.load(dataId);
+		}
+		try {
+			newDataStore.load(dataIdB);
+			Assert.fail("Expected the unreferenced data to be deleted!");
+		} catch (InvalidDataException e) {
+			// Expected.
+		}
+	}
+
+	@Test
+	public void testDeleteLeftoverTempFiles() throws IOException, InvalidDataException {
+		ShopkeeperSnapshotDataStore dataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		String dataId = dataStore.store(createShopkeeperData("a"));
+		dataStore.writePendingData();
+
+		// A write that did not complete:
+		Path tempFile = getDirectory().resolve("0123abcd.yml.tmp");
+		Files.write(tempFile, Collections.singletonList("name: b"));
+
+		ShopkeeperSnapshotDataStore newDataStore = new ShopkeeperSnapshotDataStore(getDirectory());
+		Assert.assertEquals(1, newDataStore.deleteUnreferencedData(Collections.singleton(dataId)));
+		Assert.assertFalse(Files.exists(tempFile));
+		newDataStore.load(dataId);
+	}
+}
@@ -1,5 +1,7 @@
 package com.nisovin.shopkeepers.testutil;
 
+import org.bukkit.World;
+
 public abstract class AbstractBukkitTest {
 
 	static {
@@ -7,4 +9,27 @@ public abstract class AbstractBukkitTest {
 		ServerMock.setup();
 		ShopkeepersPluginMock.setup();
 	}
+
+	/**
+	 * Adds the given world to the worlds that are loaded on the mocked server.
+	 * <p>
+	 * The world is looked up by its name. Tests that add worlds are expected to
+	 * {@link #removeWorld(World) remove} them again.
+	 * 
+	 * @param world
+	 *            the world, usually a mock
+	 */
+	protected static void addWorld(World world) {
+		ServerMock.addWorld(world);
+	}
+
+	/**
+	 * Removes the given world from the worlds that are loaded on the mocked server.
+	 * 
+	 * @param world
+	 *            the world
+	 */
+	protected static void removeWorld(World world) {
+		ServerMock.removeWorld(world);
+	}
 }
@@ -1,15 +1,23 @@
 package com.nisovin.shopkeepers.testutil;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.SimpleCommandMap;
 import org.bukkit.craftbukkit.v1_16_R3.block.data.CraftBlockData;
 import org.bukkit.craftbukkit.v1_16_R3.inventory.CraftItemFactory;
 import org.bukkit.craftbukkit.v1_16_R3.util.CraftMagicNumbers;
 import org.bukkit.craftbukkit.v1_16_R3.util.Versioning;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.SimplePluginManager;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import com.nisovin.shopkeepers.api.internal.util.Unsafe;
 import com.nisovin.shopkeepers.util.java.Validate;
@@ -32,6 +40,22 @@ class ServerMock extends ProxyHandler<@NonNull Server> {
 	public static void setup() {
 	}
 
+	// No worlds are loaded by default, but tests can add (mocked) worlds:
+	private static final Map<@NonNull String, @NonNull World> worlds = new LinkedHashMap<>();
+
+	static void addWorld(World world) {
+		Validate.notNull(world, "world is null");
+		worlds.put(world.getName(), world);
+	}
+
+	static void removeWorld(World world) {
+		Validate.notNull(world, "world is null");
+		worlds.remove(world.getName());
+	}
+
+	// Lazily set up, since it requires the server proxy:
+	private @Nullable PluginManager pluginManager = null;
+
 	private ServerMock() {
 		super(Server.class);
 	}
@@ -60,6 +84,30 @@ class ServerMock extends ProxyHandler<@NonNull Server> {
 			return logger;
 		});
 
+		this.addHandler(Server.class.getMethod("isPrimaryThread"), (proxy, args) -> {
+			return true;
+		});
+
+		// No plugins are loaded, but events can be called:
+		this.addHandler(Server.class.getMethod("getPluginManager"), (proxy, args) -> {
+			PluginManager pluginManager = this.pluginManager;
+			if (pluginManager == null) {
+				pluginManager = new SimplePluginManager(proxy, new SimpleCommandMap(proxy));
+				this.pluginManager = pluginManager;
+			}
+			return pluginManager;
+		});
+
+		this.addHandler(Server.class.getMethod("getWorld", String.class), (proxy, args) -> {
+			Validate.notNull(args, "args is null");
+			assert args != null;
+			return worlds.get(args[0]);
+		});
+
+		this.addHandler(Server.class.getMethod("getWorlds"), (proxy, args) -> {
+			return new ArrayList<>(worlds.values());
+		});
+
 		this.addHandler(Server.class.getMethod("getUnsafe"), (proxy, args) -> {
 			return CraftMagicNumbers.INSTANCE;
 		});
@@ -0,0 +1,72 @@
+package com.nisovin.shopkeepers.util.java;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.nisovin.shopkeepers.util.bukkit.ChunkKeys;
+
+public class LongObjectHashMapTests {
+
+	@Test
+	public void testChunkKeys() {
+		int[] coords = { 0, 1, -1, 12345, -12345, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for (int chunkX : coords) {
+			for (int chunkZ : coords) {
+				long chunkKey = ChunkKeys.of(chunkX, chunkZ);
+				Assert.assertEquals(chunkX, ChunkKeys.getChunkX(chunkKey));
+				Assert.assertEquals(chunkZ, ChunkKeys.getChunkZ(chunkKey));
+			}
+		}
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.put(1L, "a"));
+		Assert.assertNull(map.put(-1L, "b"));
+		Assert.assertEquals("a", map.put(1L, "c"));
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals("c", map.get(1L));
+		Assert.assertEquals("b", map.get(-1L));
+		Assert.assertNull(map.get(2L));
+
+		Assert.assertEquals("c", map.remove(1L));
+		Assert.assertNull(map.remove(1L));
+		Assert.assertFalse(map.containsKey(1L));
+		Assert.assertEquals(1, map.size());
+
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.get(-1L));
+	}
+
+	@Test
+	public void testConsistencyWithHashMap() {
+		// Uses a small range of keys in order to provoke many collisions, removals, and resizes:
+		Random random = new Random(42L);
+		LongObjectHashMap<Integer> map = new LongObjectHashMap<>();
+		Map<Long, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 100000; i++) {
+			long key = ChunkKeys.of(random.nextInt(64) - 32, random.nextInt(64) - 32);
+			if (random.nextInt(3) == 0) {
+				Assert.assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				Assert.assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			Assert.assertEquals(expected.size(), map.size());
+		}
+
+		for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+			Assert.assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+
+		MutableLong count = new MutableLong();
+		map.forEachValue(value -> count.increment(1));
+		Assert.assertEquals(expected.size(), count.getValue());
+	}
+}
@@ -0,0 +1,73 @@
+package com.nisovin.shopkeepers.util.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTests {
+
+	private static final double MAX_RELATIVE_ERROR = 0.125D;
+
+	private static void assertApproximately(double expected, double actual) {
+		Assert.assertEquals(expected, actual, expected * MAX_RELATIVE_ERROR);
+	}
+
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0L, histogram.getCount());
+		Assert.assertEquals(0.0D, histogram.getAverageMillis(), 0.0D);
+		Assert.assertEquals(0.0D, histogram.getMaxMillis(), 0.0D);
+		Assert.assertEquals(0.0D, histogram.getPercentileMillis(99.0D), 0.0D);
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		// 1 to 1000 microseconds:
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+		}
+		Assert.assertEquals(1000L, histogram.getCount());
+		Assert.assertEquals(0.5005D, histogram.getAverageMillis(), 0.0001D);
+		Assert.assertEquals(1.0D, histogram.getMaxMillis(), 0.0D);
+		assertApproximately(0.5D, histogram.getPercentileMillis(50.0D));
+		assertApproximately(0.9D, histogram.getPercentileMillis(90.0D));
+		assertApproximately(0.99D, histogram.getPercentileMillis(99.0D));
+		assertApproximately(0.999D, histogram.getPercentileMillis(99.9D));
+		Assert.assertEquals(1.0D, histogram.getPercentileMillis(100.0D), 0.0D);
+	}
+
+	@Test
+	public void testOutlierDoesNotAffectPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 999; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+		}
+		// A long pause (e.g. caused by garbage collection):
+		histogram.record(TimeUnit.SECONDS.toNanos(2));
+		assertApproximately(0.1D, histogram.getPercentileMillis(50.0D));
+		assertApproximately(0.1D, histogram.getPercentileMillis(99.0D));
+		Assert.assertEquals(2000.0D, histogram.getMaxMillis(), 0.0D);
+	}
+
+	@Test
+	public void testAddAndReset() {
+		LatencyHistogram histogram1 = new LatencyHistogram();
+		LatencyHistogram histogram2 = new LatencyHistogram();
+		histogram1.record(TimeUnit.MILLISECONDS.toNanos(1));
+		histogram2.record(TimeUnit.MILLISECONDS.toNanos(3));
+		histogram2.record(TimeUnit.HOURS.toNanos(1)); // Recorded in the last bucket
+
+		LatencyHistogram merged = new LatencyHistogram(histogram1);
+		merged.add(histogram2);
+		Assert.assertEquals(3L, merged.getCount());
+		assertApproximately(3.0D, merged.getPercentileMillis(50.0D));
+		Assert.assertEquals(1L, histogram1.getCount());
+
+		merged.reset();
+		Assert.assertEquals(0L, merged.getCount());
+		Assert.assertEquals(0.0D, merged.getMaxMillis(), 0.0D);
+	}
+}